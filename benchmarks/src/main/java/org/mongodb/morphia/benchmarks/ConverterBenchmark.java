@@ -0,0 +1,91 @@
+package org.mongodb.morphia.benchmarks;
+
+
+import org.bson.types.ObjectId;
+import org.mongodb.morphia.converters.Converters;
+import org.mongodb.morphia.mapping.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding single values with the default {@link Converters}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConverterBenchmark {
+    private static final Map<String, Object> VALUES = new HashMap<String, Object>();
+
+    static {
+        VALUES.put("String", "a string value");
+        VALUES.put("Integer", 42);
+        VALUES.put("Long", 1L << 40);
+        VALUES.put("Double", 0.5D);
+        VALUES.put("Boolean", true);
+        VALUES.put("Character", 'c');
+        VALUES.put("Date", new Date(1451606400000L));
+        VALUES.put("ObjectId", new ObjectId());
+        VALUES.put("Enum", TimeUnit.SECONDS);
+        VALUES.put("Locale", Locale.CANADA_FRENCH);
+        VALUES.put("URI", URI.create("http://mongodb.org/"));
+        VALUES.put("BigDecimal", new BigDecimal("3.14159"));
+    }
+
+    @Param({"String", "Integer", "Long", "Double", "Boolean", "Character", "Date", "ObjectId", "Enum", "Locale", "URI", "BigDecimal"})
+    private String type;
+
+    private Converters converters;
+    private Object value;
+    private Class valueClass;
+    private Object encoded;
+
+    /**
+     * Picks the value to convert.
+     */
+    @Setup
+    public void setup() {
+        converters = new Mapper().getConverters();
+        value = VALUES.get(type);
+        if (value == null) {
+            throw new IllegalArgumentException("Unknown type: " + type);
+        }
+        valueClass = value.getClass();
+        encoded = converters.encode(value);
+    }
+
+    /**
+     * @return the encoded value
+     */
+    @Benchmark
+    public Object encode() {
+        return converters.encode(value);
+    }
+
+    /**
+     * @return the decoded value
+     */
+    @Benchmark
+    public Object decode() {
+        return converters.decode(valueClass, encoded, null);
+    }
+}
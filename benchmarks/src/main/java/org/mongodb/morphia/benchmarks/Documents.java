@@ -0,0 +1,25 @@
+package org.mongodb.morphia.benchmarks;
+
+
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.DefaultDBDecoder;
+import com.mongodb.DefaultDBEncoder;
+
+/**
+ * Helpers for building the documents the benchmarks read.
+ */
+final class Documents {
+    private Documents() {
+    }
+
+    /**
+     * Encodes the document to BSON and back so that it holds the same types as one returned by the driver, e.g. lists rather than arrays.
+     *
+     * @param document the document to copy
+     * @return the copy
+     */
+    static DBObject roundTrip(final DBObject document) {
+        return new DefaultDBDecoder().decode(new DefaultDBEncoder().encode(document), (DBCollection) null);
+    }
+}
@@ -0,0 +1,193 @@
+package org.mongodb.morphia.benchmarks;
+
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.mongodb.morphia.annotations.AlsoLoad;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.mapping.MappedClass;
+import org.mongodb.morphia.mapping.MappedField;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.MapperOptions;
+import org.mongodb.morphia.mapping.cache.DefaultEntityCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Measures reading entities from documents and, in particular, how long it takes to find the value of each field in the document.  The
+ * {@code *LoadNameList} benchmarks look the values up the way it used to be done, building the list of names to check for every field of
+ * every document, for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityDecodingBenchmark {
+    private Mapper mapper;
+    private Mapper codecMapper;
+    private DBObject plainDocument;
+    private DBObject aliasedDocument;
+    private List<MappedField> plainFields;
+    private List<MappedField> aliasedFields;
+
+    /**
+     * Maps the entities and creates the documents to read.
+     */
+    @Setup
+    public void setup() {
+        mapper = new Mapper();
+        final MapperOptions options = new MapperOptions();
+        options.setUseEntityCodecs(true);
+        codecMapper = new Mapper(options);
+
+        final MappedClass plain = mapper.getMappedClass(Plain.class);
+        final MappedClass aliased = mapper.getMappedClass(Aliased.class);
+        codecMapper.getMappedClass(Plain.class);
+        codecMapper.getMappedClass(Aliased.class);
+        plainFields = plain.getPersistenceFields();
+        aliasedFields = aliased.getPersistenceFields();
+
+        plainDocument = new BasicDBObject("_id", new ObjectId())
+                            .append("name", "a name")
+                            .append("description", "a somewhat longer description of the entity")
+                            .append("count", 42)
+                            .append("total", 1L << 40)
+                            .append("ratio", 0.5D)
+                            .append("active", true)
+                            .append("tags", asList("one", "two", "three"));
+        aliasedDocument = new BasicDBObject(plainDocument.toMap());
+        aliasedDocument.put("oldName", aliasedDocument.removeField("name"));
+    }
+
+    /**
+     * @param blackhole consumes the values
+     */
+    @Benchmark
+    public void dbObjectValue(final Blackhole blackhole) {
+        for (final MappedField field : plainFields) {
+            blackhole.consume(field.getDbObjectValue(plainDocument));
+        }
+    }
+
+    /**
+     * @param blackhole consumes the values
+     */
+    @Benchmark
+    public void dbObjectValueViaLoadNameList(final Blackhole blackhole) {
+        for (final MappedField field : plainFields) {
+            blackhole.consume(plainDocument.get(firstFieldName(field, plainDocument)));
+        }
+    }
+
+    /**
+     * @param blackhole consumes the values
+     */
+    @Benchmark
+    public void aliasedDbObjectValue(final Blackhole blackhole) {
+        for (final MappedField field : aliasedFields) {
+            blackhole.consume(field.getDbObjectValue(aliasedDocument));
+        }
+    }
+
+    /**
+     * @param blackhole consumes the values
+     */
+    @Benchmark
+    public void aliasedDbObjectValueViaLoadNameList(final Blackhole blackhole) {
+        for (final MappedField field : aliasedFields) {
+            blackhole.consume(aliasedDocument.get(firstFieldName(field, aliasedDocument)));
+        }
+    }
+
+    /**
+     * @return the entity read
+     */
+    @Benchmark
+    public Plain fromDBObject() {
+        return mapper.fromDBObject(null, Plain.class, plainDocument, new DefaultEntityCache());
+    }
+
+    /**
+     * @return the entity read
+     */
+    @Benchmark
+    public Aliased aliasedFromDBObject() {
+        return mapper.fromDBObject(null, Aliased.class, aliasedDocument, new DefaultEntityCache());
+    }
+
+    /**
+     * @return the entity read
+     */
+    @Benchmark
+    public Plain fromDBObjectWithCodecs() {
+        return codecMapper.fromDBObject(null, Plain.class, plainDocument, new DefaultEntityCache());
+    }
+
+    private static String firstFieldName(final MappedField field, final DBObject dbObject) {
+        final List<String> names = new ArrayList<String>();
+        names.add(field.getNameToStore());
+        final AlsoLoad alsoLoad = (AlsoLoad) field.getAnnotation(AlsoLoad.class);
+        if (alsoLoad != null) {
+            names.addAll(asList(alsoLoad.value()));
+        }
+        String fieldName = field.getNameToStore();
+        for (final String name : names) {
+            if (dbObject.containsField(name)) {
+                fieldName = name;
+            }
+        }
+        return fieldName;
+    }
+
+    /**
+     * An entity with no renamed fields
+     */
+    @Entity
+    public static class Plain {
+        @Id
+        private ObjectId id;
+        private String name;
+        private String description;
+        private int count;
+        private long total;
+        private double ratio;
+        private boolean active;
+        private List<String> tags;
+    }
+
+    /**
+     * An entity with one renamed field
+     */
+    @Entity
+    public static class Aliased {
+        @Id
+        private ObjectId id;
+        @AlsoLoad("oldName")
+        private String name;
+        private String description;
+        private int count;
+        private long total;
+        private double ratio;
+        private boolean active;
+        private List<String> tags;
+    }
+}
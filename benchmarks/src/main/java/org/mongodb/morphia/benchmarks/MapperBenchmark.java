@@ -0,0 +1,112 @@
+package org.mongodb.morphia.benchmarks;
+
+
+import com.mongodb.DBObject;
+import org.mongodb.morphia.Key;
+import org.mongodb.morphia.benchmarks.entities.EmbeddedEntity;
+import org.mongodb.morphia.benchmarks.entities.FlatEntity;
+import org.mongodb.morphia.benchmarks.entities.MapEntity;
+import org.mongodb.morphia.benchmarks.entities.ReferenceEntity;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.MapperOptions;
+import org.mongodb.morphia.mapping.cache.EntityCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Mapper#toDBObject(Object)} and {@link Mapper#fromDBObject(org.mongodb.morphia.Datastore, Class, DBObject,
+ * EntityCache)} for differently shaped entities.  The documents read are passed through BSON first so they hold the same types a query
+ * would return.  References are resolved from the {@link EntityCache} so only the mapping is measured,
+ * never a trip to the database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+    private static final int SIZE = 10;
+
+    @Param({"flat", "embedded", "map", "reference"})
+    private String shape;
+
+    @Param({"false", "true"})
+    private boolean codecs;
+
+    private Mapper mapper;
+    private Object entity;
+    private Class entityClass;
+    private DBObject document;
+    private List<FlatEntity> referenced;
+
+    /**
+     * Maps the entities and creates the documents to read.
+     */
+    @Setup
+    public void setup() {
+        final MapperOptions options = new MapperOptions();
+        options.setUseEntityCodecs(codecs);
+        mapper = new Mapper(options);
+
+        referenced = new ArrayList<FlatEntity>();
+        for (int i = 0; i < SIZE; i++) {
+            referenced.add(new FlatEntity(i));
+        }
+
+        if ("flat".equals(shape)) {
+            entity = new FlatEntity(1);
+        } else if ("embedded".equals(shape)) {
+            entity = new EmbeddedEntity(SIZE);
+        } else if ("map".equals(shape)) {
+            entity = new MapEntity(SIZE);
+        } else if ("reference".equals(shape)) {
+            entity = new ReferenceEntity(referenced);
+        } else {
+            throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+        entityClass = entity.getClass();
+        mapper.addMappedClass(entityClass);
+        document = Documents.roundTrip(mapper.toDBObject(entity));
+    }
+
+    /**
+     * @return the document written
+     */
+    @Benchmark
+    public DBObject toDBObject() {
+        return mapper.toDBObject(entity);
+    }
+
+    /**
+     * @return the entity read
+     */
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object fromDBObject() {
+        return mapper.fromDBObject(null, entityClass, document, newCache());
+    }
+
+    private EntityCache newCache() {
+        final EntityCache cache = mapper.createEntityCache();
+        if (entity instanceof ReferenceEntity) {
+            for (final FlatEntity flat : referenced) {
+                cache.putEntity(new Key<FlatEntity>(FlatEntity.class, "flat", flat.getId()), flat);
+            }
+        }
+        return cache;
+    }
+}
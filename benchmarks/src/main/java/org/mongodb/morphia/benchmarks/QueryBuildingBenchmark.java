@@ -0,0 +1,96 @@
+package org.mongodb.morphia.benchmarks;
+
+
+import com.mongodb.DB;
+import com.mongodb.DBObject;
+import org.mongodb.morphia.DatastoreImpl;
+import org.mongodb.morphia.Morphia;
+import org.mongodb.morphia.benchmarks.entities.EmbeddedEntity;
+import org.mongodb.morphia.benchmarks.entities.FlatEntity;
+import org.mongodb.morphia.query.Query;
+import org.mongodb.morphia.query.QueryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the filter document of a query with and without validation.  The queries are never run so the datastore has no
+ * connection to a server.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBuildingBenchmark {
+    private static final List<String> TAGS = Arrays.asList("one", "two");
+
+    @Param({"true", "false"})
+    private boolean validate;
+
+    private DatastoreImpl datastore;
+
+    /**
+     * Maps the entities queried.
+     */
+    @Setup
+    public void setup() {
+        final Morphia morphia = new Morphia();
+        morphia.map(FlatEntity.class, EmbeddedEntity.class);
+        datastore = new DatastoreImpl(morphia, morphia.getMapper(), null, (DB) null);
+    }
+
+    /**
+     * @return the filter document
+     */
+    @Benchmark
+    public DBObject filter() {
+        return createQuery(FlatEntity.class)
+                   .filter("name", "a name")
+                   .filter("count >", 5)
+                   .filter("active", true)
+                   .getQueryObject();
+    }
+
+    /**
+     * @return the filter document
+     */
+    @Benchmark
+    public DBObject fieldCriteria() {
+        final Query<FlatEntity> query = createQuery(FlatEntity.class);
+        query.field("name").equal("a name");
+        query.field("count").greaterThan(5);
+        query.field("tags").in(TAGS);
+        query.or(query.criteria("active").equal(true), query.criteria("ratio").lessThan(0.5D));
+        return query.getQueryObject();
+    }
+
+    /**
+     * @return the filter document
+     */
+    @Benchmark
+    public DBObject nestedFilter() {
+        return createQuery(EmbeddedEntity.class)
+                   .filter("home.city", "Springfield")
+                   .filter("previous.postCode", "SP1")
+                   .getQueryObject();
+    }
+
+    private <T> Query<T> createQuery(final Class<T> type) {
+        final QueryImpl<T> query = new QueryImpl<T>(type, null, datastore);
+        return validate ? query : query.disableValidation();
+    }
+}
@@ -0,0 +1,82 @@
+package org.mongodb.morphia.benchmarks;
+
+
+import com.mongodb.DBObject;
+import org.mongodb.morphia.benchmarks.entities.EmbeddedEntity;
+import org.mongodb.morphia.benchmarks.entities.FlatEntity;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.query.UpdateOperations;
+import org.mongodb.morphia.query.UpdateOpsImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the update document for {@link UpdateOperations}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UpdateOperationsBenchmark {
+    private static final List<String> TAGS = Arrays.asList("four", "five");
+
+    @Param({"true", "false"})
+    private boolean validate;
+
+    private Mapper mapper;
+
+    /**
+     * Maps the entities updated.
+     */
+    @Setup
+    public void setup() {
+        mapper = new Mapper();
+        mapper.addMappedClass(FlatEntity.class);
+        mapper.addMappedClass(EmbeddedEntity.class);
+    }
+
+    /**
+     * @return the update document
+     */
+    @Benchmark
+    public DBObject update() {
+        return ((UpdateOpsImpl<FlatEntity>) createUpdate(FlatEntity.class)
+                                                .set("name", "a new name")
+                                                .inc("count")
+                                                .inc("total", 10L)
+                                                .addAll("tags", TAGS, false)
+                                                .unset("description"))
+                   .getOps();
+    }
+
+    /**
+     * @return the update document
+     */
+    @Benchmark
+    public DBObject nestedUpdate() {
+        return ((UpdateOpsImpl<EmbeddedEntity>) createUpdate(EmbeddedEntity.class)
+                                                    .set("home.city", "Shelbyville")
+                                                    .set("work.postCode", "SH1"))
+                   .getOps();
+    }
+
+    private <T> UpdateOperations<T> createUpdate(final Class<T> type) {
+        final UpdateOperations<T> ops = new UpdateOpsImpl<T>(type, mapper);
+        return validate ? ops : ops.disableValidation();
+    }
+}
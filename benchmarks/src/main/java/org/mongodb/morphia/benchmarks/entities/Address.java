@@ -0,0 +1,33 @@
+package org.mongodb.morphia.benchmarks.entities;
+
+
+import org.mongodb.morphia.annotations.Embedded;
+
+/**
+ * A value embedded in other entities.
+ */
+@Embedded
+public class Address {
+    private String street;
+    private String city;
+    private String postCode;
+    private double[] location;
+
+    /**
+     * Creates an empty address.
+     */
+    public Address() {
+    }
+
+    /**
+     * Creates a populated address.
+     *
+     * @param index used to vary the values
+     */
+    public Address(final int index) {
+        street = index + " Main Street";
+        city = "Springfield";
+        postCode = "SP" + index;
+        location = new double[]{-73.97 + index, 40.77 - index};
+    }
+}
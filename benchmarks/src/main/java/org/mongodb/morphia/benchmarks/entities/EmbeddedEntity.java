@@ -0,0 +1,48 @@
+package org.mongodb.morphia.benchmarks.entities;
+
+
+import org.bson.types.ObjectId;
+import org.mongodb.morphia.annotations.Embedded;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An entity made up mostly of embedded values.
+ */
+@Entity("embedded")
+public class EmbeddedEntity {
+    @Id
+    private ObjectId id;
+    private String name;
+    @Embedded
+    private Address home;
+    @Embedded
+    private Address work;
+    @Embedded
+    private List<Address> previous;
+
+    /**
+     * Creates an empty entity.
+     */
+    public EmbeddedEntity() {
+    }
+
+    /**
+     * Creates a populated entity.
+     *
+     * @param size the number of previous addresses
+     */
+    public EmbeddedEntity(final int size) {
+        id = new ObjectId();
+        name = "embedded";
+        home = new Address(0);
+        work = new Address(1);
+        previous = new ArrayList<Address>();
+        for (int i = 0; i < size; i++) {
+            previous.add(new Address(i + 2));
+        }
+    }
+}
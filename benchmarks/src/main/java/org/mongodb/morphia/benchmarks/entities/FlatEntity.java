@@ -0,0 +1,59 @@
+package org.mongodb.morphia.benchmarks.entities;
+
+
+import org.bson.types.ObjectId;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.Property;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * An entity holding only simple values.
+ */
+@Entity("flat")
+public class FlatEntity {
+    @Id
+    private ObjectId id;
+    @Property("n")
+    private String name;
+    private String description;
+    private int count;
+    private long total;
+    private double ratio;
+    private boolean active;
+    private Date created;
+    private List<String> tags;
+
+    /**
+     * Creates an empty entity.
+     */
+    public FlatEntity() {
+    }
+
+    /**
+     * Creates a populated entity.
+     *
+     * @param index used to vary the values
+     */
+    public FlatEntity(final int index) {
+        id = new ObjectId();
+        name = "name " + index;
+        description = "a somewhat longer description of entity " + index;
+        count = index;
+        total = (1L << 40) + index;
+        ratio = index / 100D;
+        active = index % 2 == 0;
+        created = new Date(1451606400000L + index);
+        tags = Arrays.asList("one", "two", "three");
+    }
+
+    /**
+     * @return the ID
+     */
+    public ObjectId getId() {
+        return id;
+    }
+}
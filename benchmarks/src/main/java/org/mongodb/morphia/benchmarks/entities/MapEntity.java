@@ -0,0 +1,44 @@
+package org.mongodb.morphia.benchmarks.entities;
+
+
+import org.bson.types.ObjectId;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An entity made up mostly of maps.
+ */
+@Entity("maps")
+public class MapEntity {
+    @Id
+    private ObjectId id;
+    private Map<String, Integer> counts;
+    private Map<String, String> labels;
+    private Map<String, Address> addresses;
+
+    /**
+     * Creates an empty entity.
+     */
+    public MapEntity() {
+    }
+
+    /**
+     * Creates a populated entity.
+     *
+     * @param size the number of entries in each map
+     */
+    public MapEntity(final int size) {
+        id = new ObjectId();
+        counts = new HashMap<String, Integer>();
+        labels = new HashMap<String, String>();
+        addresses = new HashMap<String, Address>();
+        for (int i = 0; i < size; i++) {
+            counts.put("key" + i, i);
+            labels.put("key" + i, "label " + i);
+            addresses.put("key" + i, new Address(i));
+        }
+    }
+}
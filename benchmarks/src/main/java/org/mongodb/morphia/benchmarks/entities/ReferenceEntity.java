@@ -0,0 +1,43 @@
+package org.mongodb.morphia.benchmarks.entities;
+
+
+import org.bson.types.ObjectId;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.Reference;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An entity made up mostly of references to other entities.
+ */
+@Entity("references")
+public class ReferenceEntity {
+    @Id
+    private ObjectId id;
+    @Reference
+    private FlatEntity owner;
+    @Reference
+    private List<FlatEntity> members;
+    @Reference(idOnly = true)
+    private List<FlatEntity> watchers;
+
+    /**
+     * Creates an empty entity.
+     */
+    public ReferenceEntity() {
+    }
+
+    /**
+     * Creates a populated entity.
+     *
+     * @param referenced the entities to refer to
+     */
+    public ReferenceEntity(final List<FlatEntity> referenced) {
+        id = new ObjectId();
+        owner = referenced.get(0);
+        members = new ArrayList<FlatEntity>(referenced);
+        watchers = new ArrayList<FlatEntity>(referenced);
+    }
+}
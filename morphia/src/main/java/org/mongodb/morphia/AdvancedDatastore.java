@@ -235,6 +235,40 @@ public interface AdvancedDatastore extends Datastore {
      */
     void setDecoderFact(DBDecoderFactory fact);
 
+    /**
+     * Inserts a stream of entities in to the mapped collection of the first one with bulk writes, a chunk at a time.  The next chunks
+     * are converted to documents on background threads while the current one is being written so memory use stays bounded however many
+     * entities there are.  The entities' @Id fields are set as each chunk is written.
+     *
+     * @param entities the entities to insert
+     * @param options  the chunk size, threads and ordering to use
+     * @param <T>      the type of the entities
+     * @return the number of entities inserted
+     */
+    <T> long bulkInsert(Iterable<T> entities, BulkInsertOptions options);
+
+    /**
+     * Inserts a stream of entities in to the named collection with bulk writes, a chunk at a time.
+     *
+     * @param collection the collection to insert in to
+     * @param entities   the entities to insert
+     * @param options    the chunk size, threads and ordering to use
+     * @param <T>        the type of the entities
+     * @return the number of entities inserted
+     * @see #bulkInsert(Iterable, BulkInsertOptions)
+     */
+    <T> long bulkInsert(String collection, Iterable<T> entities, BulkInsertOptions options);
+
+    /**
+     * Creates a buffer which collects saves and updates of single documents, coalesces the ones made to the same document and writes them
+     * in bulk on a background thread.  The buffer should be closed once it is no longer needed to write what is still pending and stop
+     * its thread.
+     *
+     * @param options the flush thresholds and size of the buffer
+     * @return the buffer
+     */
+    WriteBehindBuffer writeBehind(WriteBehindOptions options);
+
     /**
      * Inserts an entity in to the named collection.
      *
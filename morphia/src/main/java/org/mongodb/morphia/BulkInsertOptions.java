@@ -0,0 +1,96 @@
+package org.mongodb.morphia;
+
+
+import com.mongodb.WriteConcern;
+
+
+/**
+ * Options for {@link AdvancedDatastore#bulkInsert(Iterable, BulkInsertOptions)}.
+ */
+public class BulkInsertOptions {
+    private int chunkSize = 1000;
+    private int converterThreads = 1;
+    private boolean ordered = true;
+    private WriteConcern writeConcern;
+
+    /**
+     * Sets how many entities are converted and written at a time.  At most one chunk per converter thread, plus the one being written,
+     * is held in memory at once.
+     *
+     * @param chunkSize the number of entities per chunk
+     * @return this
+     */
+    public BulkInsertOptions chunkSize(final int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Sets how many threads convert entities to documents while the previous chunk is being written.  With 0 the entities are converted
+     * on the calling thread between writes.  Note that {@code @PrePersist} methods and entity interceptors are called on these threads.
+     *
+     * @param converterThreads the number of threads
+     * @return this
+     */
+    public BulkInsertOptions converterThreads(final int converterThreads) {
+        if (converterThreads < 0) {
+            throw new IllegalArgumentException("The number of converter threads can not be negative: " + converterThreads);
+        }
+        this.converterThreads = converterThreads;
+        return this;
+    }
+
+    /**
+     * Sets whether the documents of a chunk are inserted in order, stopping at the first failure, or in any order, letting the server
+     * carry on past failures.
+     *
+     * @param ordered true if the inserts should be ordered
+     * @return this
+     */
+    public BulkInsertOptions ordered(final boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * Sets the WriteConcern to insert with.  By default the one configured for the first entity is used.
+     *
+     * @param writeConcern the WriteConcern to use
+     * @return this
+     */
+    public BulkInsertOptions writeConcern(final WriteConcern writeConcern) {
+        this.writeConcern = writeConcern;
+        return this;
+    }
+
+    /**
+     * @return the number of entities per chunk
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return the number of threads converting entities
+     */
+    public int getConverterThreads() {
+        return converterThreads;
+    }
+
+    /**
+     * @return the WriteConcern to use or null to use the one configured for the entities
+     */
+    public WriteConcern getWriteConcern() {
+        return writeConcern;
+    }
+
+    /**
+     * @return true if the inserts are ordered
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+}
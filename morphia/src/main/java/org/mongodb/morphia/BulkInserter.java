@@ -0,0 +1,193 @@
+package org.mongodb.morphia;
+
+
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.WriteConcern;
+import org.mongodb.morphia.mapping.MappingException;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxyHelper;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Inserts a stream of entities a chunk at a time for {@link DatastoreImpl#bulkInsert(Iterable, BulkInsertOptions)}.
+ */
+class BulkInserter {
+    private final DatastoreImpl datastore;
+
+    BulkInserter(final DatastoreImpl datastore) {
+        this.datastore = datastore;
+    }
+
+    /**
+     * Reads the entities a chunk at a time on this thread, converts up to one chunk per converter thread ahead and writes the chunks in
+     * order on this thread as their conversions complete.
+     */
+    <T> long insert(final DBCollection dbColl, final T first, final Iterator<T> rest, final BulkInsertOptions options) {
+        final WriteConcern wc = options.getWriteConcern() != null ? options.getWriteConcern() : datastore.getWriteConcern(first);
+        final ExecutorService executor = options.getConverterThreads() == 0
+                                         ? null
+                                         : Executors.newFixedThreadPool(options.getConverterThreads(), new ConverterThreadFactory());
+        final LinkedList<Future<InsertChunk<T>>> pending = new LinkedList<Future<InsertChunk<T>>>();
+        final List<T> firstChunk = new ArrayList<T>(options.getChunkSize());
+        firstChunk.add(first);
+        List<T> next = readChunk(firstChunk, rest, options.getChunkSize());
+        long inserted = 0;
+        final Class<?> type = ProxyHelper.unwrap(first).getClass();
+        try {
+            next = submit(executor, pending, next, rest, options);
+            while (!pending.isEmpty()) {
+                final InsertChunk<T> chunk = getChunk(pending.removeFirst());
+                if (executor != null) {
+                    // queue the following chunk before writing this one so that it is converted while this one is written
+                    next = submit(executor, pending, next, rest, options);
+                }
+                final BulkWriteOperation bulk = options.isOrdered() ? dbColl.initializeOrderedBulkOperation()
+                                                                    : dbColl.initializeUnorderedBulkOperation();
+                for (final DBObject dbObject : chunk.dbObjects) {
+                    bulk.insert(dbObject);
+                }
+                final OperationEvent operation = datastore.startOperation(OperationType.INSERT, dbColl, type, null,
+                                                                          chunk.dbObjects.size());
+                long written = -1;
+                try {
+                    if (wc == null) {
+                        bulk.execute();
+                    } else {
+                        bulk.execute(wc);
+                    }
+                    written = chunk.dbObjects.size();
+                } finally {
+                    datastore.endOperation(operation, written);
+                }
+                datastore.postSaveOperations(chunk.entities, chunk.involvedObjects, dbColl);
+                inserted += chunk.entities.size();
+                next = submit(executor, pending, next, rest, options);
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Reads and queues chunks for conversion until one per converter thread is pending or, without converter threads, converts the next
+     * chunk on this thread if none is pending.
+     *
+     * @return the chunk read but not yet queued, or null if the entities have all been read
+     */
+    private <T> List<T> submit(final ExecutorService executor, final List<Future<InsertChunk<T>>> pending, final List<T> first,
+                               final Iterator<T> rest, final BulkInsertOptions options) {
+        List<T> next = first;
+        while (next != null && (executor == null ? pending.isEmpty() : pending.size() < options.getConverterThreads())) {
+            final InsertChunk<T> chunk = new InsertChunk<T>(next);
+            pending.add(executor == null ? new CompletedFuture<InsertChunk<T>>(chunk.call()) : executor.submit(chunk));
+            next = rest.hasNext() ? readChunk(new ArrayList<T>(options.getChunkSize()), rest, options.getChunkSize()) : null;
+        }
+        return next;
+    }
+
+    private <T> List<T> readChunk(final List<T> chunk, final Iterator<T> iterator, final int size) {
+        while (chunk.size() < size && iterator.hasNext()) {
+            chunk.add(iterator.next());
+        }
+        return chunk;
+    }
+
+    private <T> InsertChunk<T> getChunk(final Future<InsertChunk<T>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MappingException("Interrupted while converting entities to insert", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new MappingException("Could not convert entities to insert", e.getCause());
+        }
+    }
+
+    /**
+     * A chunk of entities to insert and, once converted, their documents.
+     */
+    private final class InsertChunk<T> implements Callable<InsertChunk<T>> {
+        private final List<T> entities;
+        private final List<DBObject> dbObjects;
+        private final Map<Object, DBObject> involvedObjects = new LinkedHashMap<Object, DBObject>();
+
+        private InsertChunk(final List<T> entities) {
+            this.entities = entities;
+            dbObjects = new ArrayList<DBObject>(entities.size());
+        }
+
+        @Override
+        public InsertChunk<T> call() {
+            for (final T entity : entities) {
+                dbObjects.add(datastore.toDbObject(ProxyHelper.unwrap(entity), involvedObjects));
+            }
+            return this;
+        }
+    }
+
+    private static final class CompletedFuture<V> implements Future<V> {
+        private final V value;
+
+        private CompletedFuture(final V value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public V get() {
+            return value;
+        }
+
+        @Override
+        public V get(final long timeout, final TimeUnit unit) {
+            return value;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return true;
+        }
+    }
+
+    private static final class ConverterThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "morphia-bulk-insert-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
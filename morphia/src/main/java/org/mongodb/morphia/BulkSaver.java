@@ -0,0 +1,182 @@
+package org.mongodb.morphia;
+
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.WriteConcern;
+import org.mongodb.morphia.annotations.NotSaved;
+import org.mongodb.morphia.annotations.Version;
+import org.mongodb.morphia.mapping.MappedClass;
+import org.mongodb.morphia.mapping.MappedField;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.MappingException;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxyHelper;
+import org.mongodb.morphia.query.UpdateException;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+
+/**
+ * Saves entities with bulk writes for {@link DatastoreImpl#save(Iterable, WriteConcern)} when
+ * {@link Morphia#getUseBulkWriteOperations()} is on.
+ */
+class BulkSaver {
+    private final DatastoreImpl datastore;
+    private final Mapper mapper;
+
+    BulkSaver(final DatastoreImpl datastore) {
+        this.datastore = datastore;
+        mapper = datastore.getMapper();
+    }
+
+    /**
+     * Saves the entities with one ordered bulk write per collection: a replace by _id, upserting, for each entity or, for entities with a
+     * {@code @Version}, a replace by _id and the previous version.  A versioned replace which finds a newer version upserts a document
+     * with an _id which already exists so the write fails at that entity and a {@link ConcurrentModificationException} is thrown for it,
+     * just as when saving the entities one at a time.  Unlike saving them one at a time, a versioned document deleted in the meantime is
+     * recreated.
+     * <p>
+     * When a write fails, the entities written before it are given their ids and versions, and their {@code @PostPersist} methods are
+     * called, before the failure is thrown.
+     */
+    <T> List<Key<T>> save(final Iterable<T> entities, final WriteConcern wc) {
+        final Map<String, List<T>> byCollection = new LinkedHashMap<String, List<T>>();
+        final List<T> unwrappedEntities = new ArrayList<T>();
+        for (final T entity : entities) {
+            if (entity == null) {
+                throw new UpdateException("Can not persist a null entity");
+            }
+            final T unwrapped = ProxyHelper.unwrap(entity);
+            unwrappedEntities.add(unwrapped);
+            final String collection = datastore.getCollection(unwrapped).getName();
+            List<T> list = byCollection.get(collection);
+            if (list == null) {
+                list = new ArrayList<T>();
+                byCollection.put(collection, list);
+            }
+            list.add(unwrapped);
+        }
+
+        final Map<Object, Key<T>> keys = new IdentityHashMap<Object, Key<T>>();
+        for (final Map.Entry<String, List<T>> entry : byCollection.entrySet()) {
+            final DBCollection dbColl = datastore.getCollection(entry.getKey());
+            final List<T> saved = entry.getValue();
+            final List<Key<T>> savedKeys = save(dbColl, saved, wc);
+            for (int i = 0; i < saved.size(); i++) {
+                keys.put(saved.get(i), savedKeys.get(i));
+            }
+        }
+
+        final List<Key<T>> savedKeys = new ArrayList<Key<T>>(unwrappedEntities.size());
+        for (final T entity : unwrappedEntities) {
+            savedKeys.add(keys.get(entity));
+        }
+        return savedKeys;
+    }
+
+    private <T> List<Key<T>> save(final DBCollection dbColl, final List<T> entities, final WriteConcern wc) {
+        final LinkedHashMap<Object, DBObject> involvedObjects = new LinkedHashMap<Object, DBObject>();
+        // the number of involved objects once each entity has been converted, to tell apart those of the entities written before a failure
+        final int[] involvedCounts = new int[entities.size()];
+        final BulkWriteOperation bulk = dbColl.initializeOrderedBulkOperation();
+        final Map<Integer, Long> oldVersions = new HashMap<Integer, Long>();
+        for (int i = 0; i < entities.size(); i++) {
+            final T entity = entities.get(i);
+            final MappedClass mc = mapper.getMappedClass(entity);
+            if (mc.getAnnotation(NotSaved.class) != null) {
+                throw new MappingException(format("Entity type: %s is marked as NotSaved which means you should not try to save it!",
+                                                  mc.getClazz().getName()));
+            }
+            datastore.checkFullyLoaded(entity);
+            // the version is applied the way tryVersionedUpdate does, so it is read before the entity is converted
+            final MappedField mfVersion = mc.getFieldsAnnotatedWith(Version.class).isEmpty() ? null : mc.getMappedVersionField();
+            final Long oldVersion = mfVersion == null ? null : (Long) mfVersion.getFieldValue(entity);
+            final DBObject dbObj = datastore.entityToDBObj(entity, involvedObjects);
+            involvedCounts[i] = involvedObjects.size();
+            final Object idValue = dbObj.get(Mapper.ID_KEY);
+            final BasicDBObject filter = new BasicDBObject(Mapper.ID_KEY, idValue);
+
+            if (mfVersion != null) {
+                dbObj.put(mfVersion.getNameToStore(), datastore.nextValue(oldVersion));
+                if (idValue != null && oldVersion != null) {
+                    filter.put(mfVersion.getNameToStore(), oldVersion);
+                    oldVersions.put(i, oldVersion);
+                }
+            }
+
+            if (idValue == null) {
+                bulk.insert(dbObj);
+            } else {
+                bulk.find(filter).upsert().replaceOne(dbObj);
+            }
+        }
+
+        final OperationEvent operation = datastore.startOperation(OperationType.SAVE, dbColl, entities.get(0).getClass(), null,
+                                                                  entities.size());
+        long saved = -1;
+        try {
+            if (wc == null) {
+                bulk.execute();
+            } else {
+                bulk.execute(wc);
+            }
+            saved = entities.size();
+        } catch (BulkWriteException e) {
+            int failed = entities.size();
+            for (final BulkWriteError error : e.getWriteErrors()) {
+                failed = Math.min(failed, error.getIndex());
+            }
+            if (failed > 0) {
+                datastore.postSaveOperations(entities.subList(0, failed), firstInvolved(involvedObjects, involvedCounts[failed - 1]),
+                                             dbColl);
+            }
+            for (final BulkWriteError error : e.getWriteErrors()) {
+                if (oldVersions.containsKey(error.getIndex()) && isIdConflict(error)) {
+                    final T entity = entities.get(error.getIndex());
+                    throw new ConcurrentModificationException(format("Entity of class %s (id='%s',version='%d') was concurrently updated.",
+                                                                     entity.getClass().getName(), mapper.getId(entity),
+                                                                     oldVersions.get(error.getIndex())));
+                }
+            }
+            throw e;
+        } finally {
+            datastore.endOperation(operation, saved);
+        }
+        return datastore.postSaveOperations(entities, involvedObjects, dbColl);
+    }
+
+    /**
+     * A versioned replace which finds a newer version upserts a document with an _id which already exists, so only a duplicate key on the
+     * _id index is a version conflict; duplicates on other unique indexes are constraint violations.
+     */
+    private static boolean isIdConflict(final BulkWriteError error) {
+        if (error.getCode() != 11000 && error.getCode() != 11001 || error.getMessage() == null) {
+            return false;
+        }
+        // "index: db.coll.$_id_ dup key" before MongoDB 3.0, "collection: db.coll index: _id_ dup key" since
+        return error.getMessage().contains(".$_id_ ") || error.getMessage().contains("index: _id_ ");
+    }
+
+    private static Map<Object, DBObject> firstInvolved(final Map<Object, DBObject> involvedObjects, final int count) {
+        final Map<Object, DBObject> first = new LinkedHashMap<Object, DBObject>();
+        final Iterator<Map.Entry<Object, DBObject>> iterator = involvedObjects.entrySet().iterator();
+        while (first.size() < count) {
+            final Map.Entry<Object, DBObject> entry = iterator.next();
+            first.put(entry.getKey(), entry.getValue());
+        }
+        return first;
+    }
+}
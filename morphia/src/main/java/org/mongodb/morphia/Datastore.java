@@ -298,7 +298,9 @@ public interface Datastore {
     <T> T getByKey(Class<T> clazz, Key<T> key);
 
     /**
-     * Find the given entities (by id), verifying they are of the correct type; shorthand for {@code find("_id in", ids)}
+     * Find the given entities (by id), verifying they are of the correct type; shorthand for {@code find("_id in", ids)}.  The entities
+     * are returned in the order of the keys, once per key, so a key given twice yields the same entity twice.  Keys whose document does not
+     * exist are skipped.
      *
      * @param clazz the class to use for mapping
      * @param keys  the keys to search with
@@ -308,7 +310,8 @@ public interface Datastore {
     <T> List<T> getByKeys(Class<T> clazz, Iterable<Key<T>> keys);
 
     /**
-     * Find the given entities (by id); shorthand for {@code find("_id in", ids)}
+     * Find the given entities (by id); shorthand for {@code find("_id in", ids)}.  The entities are returned in the order of the keys, as
+     * with {@link #getByKeys(Class, Iterable)}.
      *
      * @param keys the keys to search with
      * @param <T>  the type to fetch
@@ -499,6 +502,30 @@ public interface Datastore {
      */
     <T> Key<T> save(T entity, WriteConcern wc);
 
+    /**
+     * Saves only what has changed in an entity since it was loaded or last saved: changed fields are {@code $set} and removed ones
+     * {@code $unset}.  A {@code @Version} is checked and incremented as with {@link #save(Object)}, so a {@link
+     * java.util.ConcurrentModificationException} is thrown if the document has been updated since.  Nothing is written if nothing has
+     * changed.  Entities whose changes are not being tracked are saved in full.
+     *
+     * @param entity the entity to save
+     * @param <T>    the type of the entity
+     * @return the key of the entity
+     * @see org.mongodb.morphia.mapping.MapperOptions#setTrackChanges(boolean)
+     */
+    <T> Key<T> saveChanges(T entity);
+
+    /**
+     * Saves only what has changed in an entity since it was loaded or last saved, with the WriteConcern
+     *
+     * @param entity the entity to save
+     * @param wc     the WriteConcern to use
+     * @param <T>    the type of the entity
+     * @return the key of the entity
+     * @see #saveChanges(Object)
+     */
+    <T> Key<T> saveChanges(T entity, WriteConcern wc);
+
     /**
      * Updates an entity with the operations; this is an atomic operation
      *
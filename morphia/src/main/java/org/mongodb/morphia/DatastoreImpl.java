@@ -11,6 +11,7 @@ import com.mongodb.DBRef;
 import com.mongodb.DefaultDBDecoder;
 import com.mongodb.MapReduceCommand;
 import com.mongodb.MapReduceCommand.OutputType;
+import com.mongodb.MapReduceOutput;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoException;
 import com.mongodb.ReadPreference;
@@ -21,47 +22,51 @@ import org.mongodb.morphia.aggregation.AggregationPipelineImpl;
 import org.mongodb.morphia.annotations.CappedAt;
 import org.mongodb.morphia.annotations.Entity;
 import org.mongodb.morphia.annotations.Field;
-import org.mongodb.morphia.annotations.Index;
 import org.mongodb.morphia.annotations.IndexOptions;
-import org.mongodb.morphia.annotations.Indexed;
-import org.mongodb.morphia.annotations.Indexes;
 import org.mongodb.morphia.annotations.NotSaved;
 import org.mongodb.morphia.annotations.PostPersist;
-import org.mongodb.morphia.annotations.Reference;
-import org.mongodb.morphia.annotations.Serialized;
-import org.mongodb.morphia.annotations.Text;
-import org.mongodb.morphia.annotations.Transient;
 import org.mongodb.morphia.annotations.Version;
 import org.mongodb.morphia.logging.Logger;
 import org.mongodb.morphia.logging.MorphiaLoggerFactory;
+import org.mongodb.morphia.mapping.IndexSpec;
+import org.mongodb.morphia.mapping.IndexSpecBuilder;
 import org.mongodb.morphia.mapping.MappedClass;
 import org.mongodb.morphia.mapping.MappedField;
 import org.mongodb.morphia.mapping.Mapper;
 import org.mongodb.morphia.mapping.MappingException;
 import org.mongodb.morphia.mapping.cache.EntityCache;
+import org.mongodb.morphia.mapping.cache.EntityCacheFactory;
+import org.mongodb.morphia.mapping.cache.InvalidatingEntityCacheFactory;
 import org.mongodb.morphia.mapping.lazy.proxy.ProxyHelper;
 import org.mongodb.morphia.query.DefaultQueryFactory;
 import org.mongodb.morphia.query.Query;
 import org.mongodb.morphia.query.QueryException;
 import org.mongodb.morphia.query.QueryFactory;
+import org.mongodb.morphia.query.QueryResultCache;
 import org.mongodb.morphia.query.UpdateException;
 import org.mongodb.morphia.query.UpdateOperations;
 import org.mongodb.morphia.query.UpdateOpsImpl;
 import org.mongodb.morphia.query.UpdateResults;
 import org.mongodb.morphia.utils.Assert;
-import org.mongodb.morphia.utils.IndexType;
 import org.mongodb.morphia.utils.ReflectionUtils;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
@@ -82,6 +87,9 @@ public class DatastoreImpl implements AdvancedDatastore {
     private Mapper mapper;
     private WriteConcern defConcern = WriteConcern.ACKNOWLEDGED;
     private DBDecoderFactory decoderFactory;
+    private final List<OperationListener> operationListeners = new CopyOnWriteArrayList<OperationListener>();
+    private volatile QueryResultCache queryCache;
+    private volatile ExecutorService mappingExecutor;
 
     private volatile QueryFactory queryFactory = new DefaultQueryFactory();
 
@@ -130,7 +138,70 @@ public class DatastoreImpl implements AdvancedDatastore {
      * @return the new Datastore instance
      */
     public DatastoreImpl copy(final String database) {
-        return new DatastoreImpl(morphia, mapper, mongoClient, database);
+        final DatastoreImpl copy = new DatastoreImpl(morphia, mapper, mongoClient, database);
+        copy.operationListeners.addAll(operationListeners);
+        return copy;
+    }
+
+    /**
+     * Adds a listener for the operations this Datastore issues
+     *
+     * @param listener the listener to add
+     * @see OperationLatencies
+     */
+    public void addOperationListener(final OperationListener listener) {
+        operationListeners.add(listener);
+    }
+
+    /**
+     * Gets the listeners for the operations this Datastore issues
+     *
+     * @return the listeners
+     */
+    public Collection<OperationListener> getOperationListeners() {
+        return operationListeners;
+    }
+
+    /**
+     * Gets the cache of the results of the queries this Datastore runs for entities with a query cache policy.  The cache is created the
+     * first time it is needed, with the size set in the Mapper's options at that time.
+     *
+     * @return the cache, or null if the options turn it off
+     * @see org.mongodb.morphia.mapping.MapperOptions#setQueryCacheSize(int)
+     * @see Mapper#getQueryCachePolicy(Class)
+     */
+    public QueryResultCache getQueryCache() {
+        QueryResultCache cache = queryCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = queryCache;
+                if (cache == null && mapper.getOptions().getQueryCacheSize() > 0) {
+                    cache = new QueryResultCache(mapper.getOptions().getQueryCacheSize());
+                    queryCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Gets the threads the queries of this Datastore map their results on when {@link Query#parallelMapping(int)} is set.  The threads
+     * are created as they are needed, are daemons, and stop after being idle for a minute.
+     *
+     * @return the executor, created the first time it is needed
+     */
+    public ExecutorService getMappingExecutor() {
+        ExecutorService executor = mappingExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = mappingExecutor;
+                if (executor == null) {
+                    executor = Executors.newCachedThreadPool(new MappingThreadFactory());
+                    mappingExecutor = executor;
+                }
+            }
+        }
+        return executor;
     }
 
     /**
@@ -184,16 +255,24 @@ public class DatastoreImpl implements AdvancedDatastore {
         }
 
         final DBObject queryObject = query.getQueryObject();
-        if (queryObject != null) {
-            if (wc == null) {
-                wr = dbColl.remove(queryObject);
+        final OperationEvent operation = startOperation(OperationType.DELETE, dbColl, query.getEntityClass(), queryObject, 0);
+        long removed = -1;
+        try {
+            if (queryObject != null) {
+                if (wc == null) {
+                    wr = dbColl.remove(queryObject);
+                } else {
+                    wr = dbColl.remove(queryObject, wc);
+                }
+            } else if (wc == null) {
+                wr = dbColl.remove(new BasicDBObject());
             } else {
-                wr = dbColl.remove(queryObject, wc);
+                wr = dbColl.remove(new BasicDBObject(), wc);
             }
-        } else if (wc == null) {
-            wr = dbColl.remove(new BasicDBObject());
-        } else {
-            wr = dbColl.remove(new BasicDBObject(), wc);
+            removed = getAffected(wr);
+        } finally {
+            invalidateCachedEntities(dbColl, queryObject);
+            endOperation(operation, removed);
         }
 
         return wr;
@@ -269,11 +348,18 @@ public class DatastoreImpl implements AdvancedDatastore {
 
     @Override
     public void ensureIndexes(final boolean background) {
-        // loops over mappedClasses and call ensureIndex for each @Entity object
-        // (for now)
+        final Map<String, List<IndexSpec>> indexes = new LinkedHashMap<String, List<IndexSpec>>();
         for (final MappedClass mc : mapper.getMappedClasses()) {
-            ensureIndexes(mc, background);
+            final List<IndexSpec> specs = mc.getIndexSpecs(mapper);
+            if (!specs.isEmpty()) {
+                final String collection = mapper.getCollectionName(mc.getClazz());
+                if (!indexes.containsKey(collection)) {
+                    indexes.put(collection, new ArrayList<IndexSpec>());
+                }
+                indexes.get(collection).addAll(specs);
+            }
         }
+        new IndexCreator(this).create(indexes, background, morphia.getIndexThreads());
     }
 
     @Override
@@ -324,11 +410,20 @@ public class DatastoreImpl implements AdvancedDatastore {
             LOG.trace("Executing findAndModify(" + dbColl.getName() + ") with delete ...");
         }
 
-        final DBObject result = dbColl.findAndModify(query.getQueryObject(), query.getFieldsObject(), query.getSortObject(), true,
-                                                     null, false, false);
+        final DBObject result;
+        final OperationEvent operation = startOperation(OperationType.FIND_AND_MODIFY, dbColl, query.getEntityClass(),
+                                                        query.getQueryObject(), 0);
+        long found = -1;
+        try {
+            result = dbColl.findAndModify(query.getQueryObject(), getProjection(query), query.getSortObject(), true, null, false, false);
+            found = result == null ? 0 : 1;
+        } finally {
+            invalidateCachedEntities(dbColl, query.getQueryObject());
+            endOperation(operation, found);
+        }
 
         if (result != null) {
-            return mapper.fromDBObject(this, query.getEntityClass(), result, createCache());
+            return fromDBObject(query, result);
         }
 
         return null;
@@ -358,19 +453,27 @@ public class DatastoreImpl implements AdvancedDatastore {
             LOG.info("Executing findAndModify(" + dbColl.getName() + ") with update ");
         }
         DBObject res = null;
+        final OperationEvent operation = startOperation(OperationType.FIND_AND_MODIFY, dbColl, query.getEntityClass(),
+                                                        query.getQueryObject(), 0);
+        long found = -1;
         try {
-            res = dbColl.findAndModify(query.getQueryObject(), query.getFieldsObject(), query.getSortObject(), false,
+            res = dbColl.findAndModify(query.getQueryObject(), getProjection(query), query.getSortObject(), false,
                                        ((UpdateOpsImpl<T>) operations).getOps(), !oldVersion, createIfMissing);
+            found = res == null ? 0 : 1;
         } catch (MongoException e) {
             if (e.getMessage() == null || !e.getMessage().contains("matching")) {
                 throw e;
             }
+            found = 0;
+        } finally {
+            invalidateCachedEntities(dbColl, query.getQueryObject());
+            endOperation(operation, found);
         }
 
         if (res == null) {
             return null;
         } else {
-            return mapper.fromDBObject(this, query.getEntityClass(), res, createCache());
+            return fromDBObject(query, res);
         }
     }
 
@@ -410,12 +513,13 @@ public class DatastoreImpl implements AdvancedDatastore {
     @SuppressWarnings({"rawtypes", "unchecked"})
     public <T> List<T> getByKeys(final Class<T> clazz, final Iterable<Key<T>> keys) {
 
-        final Map<String, List<Key>> kindMap = new HashMap<String, List<Key>>();
-        final List<T> entities = new ArrayList<T>();
+        final Map<String, List<Key>> kindMap = new LinkedHashMap<String, List<Key>>();
+        final List<Key<T>> orderedKeys = new ArrayList<Key<T>>();
         // String clazzKind = (clazz==null) ? null :
         // getMapper().getCollectionName(clazz);
-        for (final Key<?> key : keys) {
+        for (final Key<T> key : keys) {
             mapper.updateCollection(key);
+            orderedKeys.add(key);
 
             // if (clazzKind != null && !key.getKind().equals(clazzKind))
             // throw new IllegalArgumentException("Types are not equal (" +
@@ -428,18 +532,32 @@ public class DatastoreImpl implements AdvancedDatastore {
                 kindMap.put(key.getCollection(), new ArrayList<Key>(Collections.singletonList((Key) key)));
             }
         }
+
+        final Map<String, Map<Object, T>> found = new HashMap<String, Map<Object, T>>();
         for (final Map.Entry<String, List<Key>> entry : kindMap.entrySet()) {
             final List<Key> kindKeys = entry.getValue();
 
-            final List<Object> objIds = new ArrayList<Object>();
+            final Set<Object> objIds = new LinkedHashSet<Object>();
             for (final Key key : kindKeys) {
                 objIds.add(key.getId());
             }
-            final List kindResults = find(entry.getKey(), null).disableValidation().filter("_id in", objIds).asList();
-            entities.addAll(kindResults);
+            final List<T> kindResults = find(entry.getKey(), clazz).disableValidation()
+                                                                   .filter("_id in", new ArrayList<Object>(objIds))
+                                                                   .asList();
+            final Map<Object, T> byId = new HashMap<Object, T>();
+            for (final T entity : kindResults) {
+                byId.put(mapper.getStoredIdForm(mapper.getId(entity)), entity);
+            }
+            found.put(entry.getKey(), byId);
         }
 
-        // TODO: order them based on the incoming Keys.
+        final List<T> entities = new ArrayList<T>(orderedKeys.size());
+        for (final Key<T> key : orderedKeys) {
+            final T entity = found.get(key.getCollection()).get(mapper.getStoredIdForm(key.getId()));
+            if (entity != null) {
+                entities.add(entity);
+            }
+        }
         return entities;
     }
 
@@ -456,12 +574,13 @@ public class DatastoreImpl implements AdvancedDatastore {
 
     @Override
     public <T> long getCount(final T entity) {
-        return getCollection(ProxyHelper.unwrap(entity)).count();
+        final T unwrapped = ProxyHelper.unwrap(entity);
+        return count(getCollection(unwrapped), unwrapped.getClass());
     }
 
     @Override
     public <T> long getCount(final Class<T> clazz) {
-        return getCollection(clazz).count();
+        return count(getCollection(clazz), clazz);
     }
 
     @Override
@@ -598,7 +717,20 @@ public class DatastoreImpl implements AdvancedDatastore {
         }
 
         final EntityCache cache = createCache();
-        MapreduceResults<T> results = new MapreduceResults<T>(dbColl.mapReduce(baseCommand));
+        final OperationEvent operation = startOperation(OperationType.MAP_REDUCE, dbColl, query.getEntityClass(), query.getQueryObject(),
+                                                        0);
+        final MapReduceOutput output;
+        long outputCount = -1;
+        try {
+            output = dbColl.mapReduce(baseCommand);
+            outputCount = operation == null ? 0 : output.getOutputCount();
+        } finally {
+            endOperation(operation, outputCount);
+        }
+        MapreduceResults<T> results = new MapreduceResults<T>(output);
+        if (!MapreduceType.INLINE.equals(type)) {
+            invalidateCachedEntities(db.getCollection(results.getOutputCollectionName()), null);
+        }
 
         results.setType(type);
         if (MapreduceType.INLINE.equals(type)) {
@@ -638,8 +770,12 @@ public class DatastoreImpl implements AdvancedDatastore {
         final MappedClass mc = mapper.getMappedClass(unwrapped);
         final DBCollection dbColl = getCollection(unwrapped);
 
-        // try to do an update if there is a @Version field
-        wr = tryVersionedUpdate(dbColl, unwrapped, dbObj, idValue, wc, mc);
+        if (mapper.isPartial(unwrapped)) {
+            wr = mergeLoadedFields(dbColl, unwrapped, dbObj, idValue, wc, mc);
+        } else {
+            // try to do an update if there is a @Version field
+            wr = tryVersionedUpdate(dbColl, unwrapped, dbObj, idValue, wc, mc);
+        }
 
         if (wr == null) {
             final Query<T> query = (Query<T>) createQuery(unwrapped.getClass()).filter(Mapper.ID_KEY, id);
@@ -676,6 +812,9 @@ public class DatastoreImpl implements AdvancedDatastore {
 
     @Override
     public <T> Iterable<Key<T>> save(final Iterable<T> entities, final WriteConcern wc) {
+        if (morphia.getUseBulkWriteOperations()) {
+            return new BulkSaver(this).save(entities, wc);
+        }
         final List<Key<T>> savedKeys = new ArrayList<Key<T>>();
         for (final T ent : entities) {
             savedKeys.add(save(ent, wc));
@@ -704,6 +843,88 @@ public class DatastoreImpl implements AdvancedDatastore {
         return save(getCollection(unwrapped), unwrapped, wc);
     }
 
+    @Override
+    public <T> Key<T> saveChanges(final T entity) {
+        return saveChanges(entity, getWriteConcern(entity));
+    }
+
+    @Override
+    public <T> Key<T> saveChanges(final T entity, final WriteConcern wc) {
+        final T unwrapped = ProxyHelper.unwrap(entity);
+        final DBObject snapshot = mapper.getSnapshot(unwrapped);
+        if (snapshot == null) {
+            return save(unwrapped, wc);
+        }
+
+        final MappedClass mc = mapper.getMappedClass(unwrapped);
+        if (mc.getAnnotation(NotSaved.class) != null) {
+            throw new MappingException(format("Entity type: %s is marked as NotSaved which means you should not try to save it!",
+                                              mc.getClazz().getName()));
+        }
+        final LinkedHashMap<Object, DBObject> involvedObjects = new LinkedHashMap<Object, DBObject>();
+        final DBObject dbObj = entityToDBObj(unwrapped, involvedObjects);
+        final Object idValue = dbObj.get(Mapper.ID_KEY);
+        final DBCollection dbColl = getCollection(unwrapped);
+
+        final BasicDBObject set = new BasicDBObject();
+        for (final String name : dbObj.keySet()) {
+            final Object value = dbObj.get(name);
+            if (!name.equals(Mapper.ID_KEY) && mapper.isLoaded(unwrapped, name)
+                && (!snapshot.containsField(name) || !equal(snapshot.get(name), value))) {
+                set.put(name, value);
+            }
+        }
+        final BasicDBObject unset = new BasicDBObject();
+        for (final String name : snapshot.keySet()) {
+            if (!dbObj.containsField(name)) {
+                unset.put(name, 1);
+            }
+        }
+
+        final Query<?> query = find(dbColl.getName(), unwrapped.getClass()).disableValidation().filter(Mapper.ID_KEY, idValue);
+        MappedField mfVersion = null;
+        Long oldVersion = null;
+        if (!mc.getFieldsAnnotatedWith(Version.class).isEmpty()) {
+            mfVersion = mc.getMappedVersionField();
+            set.removeField(mfVersion.getNameToStore());
+            unset.removeField(mfVersion.getNameToStore());
+            if (!set.isEmpty() || !unset.isEmpty()) {
+                oldVersion = (Long) mfVersion.getFieldValue(unwrapped);
+                final long newVersion = nextValue(oldVersion);
+                dbObj.put(mfVersion.getNameToStore(), newVersion);
+                set.put(mfVersion.getNameToStore(), newVersion);
+                if (newVersion != 1) {
+                    query.filter(mfVersion.getNameToStore(), oldVersion);
+                }
+            }
+        }
+        if (set.isEmpty() && unset.isEmpty()) {
+            return mapper.getKey(unwrapped);
+        }
+
+        final BasicDBObject ops = new BasicDBObject();
+        if (!set.isEmpty()) {
+            ops.put("$set", set);
+        }
+        if (!unset.isEmpty()) {
+            ops.put("$unset", unset);
+        }
+        final UpdateResults res = update(query, ops, false, false, wc);
+        if (res.getUpdatedCount() != 1) {
+            if (mfVersion != null) {
+                throw new ConcurrentModificationException(format("Entity of class %s (id='%s',version='%d') was concurrently updated.",
+                                                                 unwrapped.getClass().getName(), idValue, oldVersion));
+            }
+            if (mapper.isPartial(unwrapped)) {
+                throw new UpdateException(format("Entity of class %s (id='%s') was not found and, as only some of its fields were loaded,"
+                                                 + " cannot be written again", unwrapped.getClass().getName(), idValue));
+            }
+            // the document has gone so write all of it again, as save() would
+            saveDocument(dbColl, unwrapped.getClass(), dbObj, wc);
+        }
+        return postSaveOperations(Collections.singletonList(unwrapped), involvedObjects, dbColl).get(0);
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <T> UpdateResults update(final T entity, final UpdateOperations<T> operations) {
@@ -880,7 +1101,17 @@ public class DatastoreImpl implements AdvancedDatastore {
 
     @Override
     public <T> T get(final Class<T> clazz, final DBRef ref) {
-        DBObject object = getDB().getCollection(ref.getCollectionName()).findOne(new BasicDBObject("_id", ref.getId()));
+        final DBCollection dbColl = getDB().getCollection(ref.getCollectionName());
+        final BasicDBObject query = new BasicDBObject("_id", ref.getId());
+        final OperationEvent operation = startOperation(OperationType.FIND, dbColl, clazz, query, 0);
+        DBObject object;
+        long found = -1;
+        try {
+            object = dbColl.findOne(query);
+            found = object == null ? 0 : 1;
+        } finally {
+            endOperation(operation, found);
+        }
         return mapper.fromDBObject(this, clazz, object, createCache());
     }
 
@@ -895,7 +1126,7 @@ public class DatastoreImpl implements AdvancedDatastore {
 
     @Override
     public long getCount(final String collection) {
-        return getCollection(collection).count();
+        return count(getCollection(collection), null);
     }
 
     @Override
@@ -908,6 +1139,30 @@ public class DatastoreImpl implements AdvancedDatastore {
         decoderFactory = fact;
     }
 
+    @Override
+    public <T> long bulkInsert(final Iterable<T> entities, final BulkInsertOptions options) {
+        final Iterator<T> iterator = entities.iterator();
+        if (!iterator.hasNext()) {
+            return 0;
+        }
+        final T first = iterator.next();
+        return new BulkInserter(this).insert(getCollection(first), first, iterator, options);
+    }
+
+    @Override
+    public <T> long bulkInsert(final String collection, final Iterable<T> entities, final BulkInsertOptions options) {
+        final Iterator<T> iterator = entities.iterator();
+        if (!iterator.hasNext()) {
+            return 0;
+        }
+        return new BulkInserter(this).insert(getCollection(collection), iterator.next(), iterator, options);
+    }
+
+    @Override
+    public WriteBehindBuffer writeBehind(final WriteBehindOptions options) {
+        return new WriteBehindBuffer(this, options);
+    }
+
     @Override
     public <T> Key<T> insert(final String collection, final T entity) {
         final T unwrapped = ProxyHelper.unwrap(entity);
@@ -1074,82 +1329,26 @@ public class DatastoreImpl implements AdvancedDatastore {
     protected void ensureIndex(final DBCollection dbColl, final String name, final BasicDBObject fields, final boolean unique,
                                final boolean dropDupsOnCreate, final boolean background, final boolean sparse,
                                final int expireAfterSeconds) {
-        final BasicDBObject opts = new BasicDBObject();
-        if (name != null && name.length() != 0) {
-            opts.append("name", name);
-        }
-        if (unique) {
-            opts.append("unique", true);
-            if (dropDupsOnCreate) {
-                opts.append("dropDups", true);
-            }
-        }
-
-        if (background) {
-            opts.append("background", true);
-        }
-        if (sparse) {
-            opts.append("sparse", true);
-        }
-
-        if (expireAfterSeconds > -1) {
-            opts.append("expireAfterSeconds", expireAfterSeconds);
-        }
-
-        LOG.debug(format("Creating index for %s with keys:%s and opts:%s", dbColl.getName(), fields, opts));
-        dbColl.createIndex(fields, opts);
+        ensureIndex(dbColl, fields, IndexSpecBuilder.legacyOptions(name, unique, dropDupsOnCreate, background, sparse,
+                                                                   expireAfterSeconds));
     }
 
     protected void ensureIndex(final MappedClass mc, final DBCollection dbColl, final Field[] fields, final IndexOptions options,
                                final boolean background, final List<MappedClass> parentMCs, final List<MappedField> parentMFs) {
-        DBObject keys = new BasicDBObject();
-        final StringBuilder name = new StringBuilder();
-        if (!parentMCs.isEmpty()) {
-            for (final MappedField pmf : parentMFs) {
-                name.append(pmf.getNameToStore()).append(".");
-            }
-        }
-        DBObject opts = extractOptions(options, background);
-        for (Field field : fields) {
-            String value = field.value();
-            String key = name + value;
-            if (!"$**".equals(value)) {
-                List<String> namePath = new ArrayList<String>();
-                final MappedField mappedField = findField(namePath, mc, value);
-                if (!options.disableValidation() && mappedField == null) {
-                    throw new MappingException(format("Unknown field '%s' for index: %s", value, mc.getClazz().getName()));
-                } else {
-                    StringBuilder sb = new StringBuilder();
-                    for (String s : namePath) {
-                        if (sb.length() != 0) {
-                            sb.append(".");
-                        }
-                        sb.append(s);
-                    }
-                    key = name + sb.toString();
-                }
-            }
-            keys.put(key, field.type().toIndexValue());
-            if (field.weight() != -1) {
-                if (field.type() != IndexType.TEXT) {
-                    throw new MappingException("Weight values only apply to text indexes: " + Arrays.toString(fields));
-                }
-                DBObject weights = (DBObject) opts.get("weights");
-                if (weights == null) {
-                    weights = new BasicDBObject();
-                    opts.put("weights", weights);
-                }
-                weights.put(key, field.weight());
-            }
-        }
-
-        LOG.debug(format("Creating index for %s with keys:%s and opts:%s", dbColl.getName(), keys, opts));
-        dbColl.createIndex(keys, opts);
+        final DBObject index = new IndexSpecBuilder(mapper).build(mc, fields, options, background, parentMCs, parentMFs).toDBObject(false);
+        ensureIndex(dbColl, (DBObject) index.removeField("key"), index);
     }
 
     protected void ensureIndex(final DBCollection dbColl, final DBObject keys, final DBObject options) {
         LOG.debug(format("Creating index for %s with keys:%s and opts:%s", dbColl.getName(), keys, options));
-        dbColl.createIndex(keys, options);
+        final OperationEvent operation = startOperation(OperationType.ENSURE_INDEX, dbColl, null, keys, 1);
+        long created = -1;
+        try {
+            dbColl.createIndex(keys, options);
+            created = 0;
+        } finally {
+            endOperation(operation, created);
+        }
     }
 
     protected void ensureIndexes(final MappedClass mc, final boolean background, final List<MappedClass> parentMCs,
@@ -1163,16 +1362,14 @@ public class DatastoreImpl implements AdvancedDatastore {
 
     protected void ensureIndexes(final DBCollection dbColl, final MappedClass mc, final boolean background,
                                  final List<MappedClass> parentMCs, final List<MappedField> parentMFs) {
-        if (parentMCs.contains(mc)) {
-            return;
-        }
-
-        if (mc.getEmbeddedAnnotation() != null && parentMCs.isEmpty()) {
-            return;
+        final List<IndexSpec> indexes;
+        if (parentMCs.isEmpty()) {
+            indexes = mc.getIndexSpecs(mapper);
+        } else {
+            indexes = new ArrayList<IndexSpec>();
+            new IndexSpecBuilder(mapper).build(mc, parentMCs, parentMFs, indexes);
         }
-        processClassAnnotations(dbColl, mc, background, parentMCs, parentMFs);
-
-        processEmbeddedAnnotations(dbColl, mc, background, parentMCs, parentMFs);
+        new IndexCreator(this).create(dbColl, indexes, background);
     }
 
     protected void ensureIndexes(final MappedClass mc, final boolean background) {
@@ -1192,12 +1389,20 @@ public class DatastoreImpl implements AdvancedDatastore {
     }
 
     protected <T> Key<T> insert(final DBCollection dbColl, final T entity, final WriteConcern wc) {
+        checkFullyLoaded(entity);
         final LinkedHashMap<Object, DBObject> involvedObjects = new LinkedHashMap<Object, DBObject>();
         final DBObject dbObj = entityToDBObj(entity, involvedObjects);
-        if (wc == null) {
-            dbColl.insert(dbObj);
-        } else {
-            dbColl.insert(dbObj, wc);
+        final OperationEvent operation = startOperation(OperationType.INSERT, dbColl, entity.getClass(), null, 1);
+        long inserted = -1;
+        try {
+            if (wc == null) {
+                dbColl.insert(dbObj);
+            } else {
+                dbColl.insert(dbObj, wc);
+            }
+            inserted = 1;
+        } finally {
+            endOperation(operation, inserted);
         }
 
         return postSaveOperations(Collections.singletonList(entity), involvedObjects, dbColl).get(0);
@@ -1213,6 +1418,7 @@ public class DatastoreImpl implements AdvancedDatastore {
             throw new MappingException(format("Entity type: %s is marked as NotSaved which means you should not try to save it!",
                                               mc.getClazz().getName()));
         }
+        checkFullyLoaded(entity);
 
         // involvedObjects is used not only as a cache but also as a list of what needs to be called for life-cycle methods at the end.
         final LinkedHashMap<Object, DBObject> involvedObjects = new LinkedHashMap<Object, DBObject>();
@@ -1223,11 +1429,7 @@ public class DatastoreImpl implements AdvancedDatastore {
         WriteResult wr = tryVersionedUpdate(dbColl, entity, dbObj, idValue, wc, mc);
 
         if (wr == null) {
-            if (wc == null) {
-                dbColl.save(dbObj);
-            } else {
-                dbColl.save(dbObj, wc);
-            }
+            saveDocument(dbColl, entity.getClass(), dbObj, wc);
         }
 
         return postSaveOperations(Collections.singletonList(entity), involvedObjects, dbColl).get(0);
@@ -1270,11 +1472,7 @@ public class DatastoreImpl implements AdvancedDatastore {
                                                                  entity.getClass().getName(), idValue, oldVersion));
             }
         } else {
-            if (wc == null) {
-                wr = dbColl.save(dbObj);
-            } else {
-                wr = dbColl.save(dbObj, wc);
-            }
+            wr = saveDocument(dbColl, entity.getClass(), dbObj, wc);
         }
 
         return wr;
@@ -1292,88 +1490,208 @@ public class DatastoreImpl implements AdvancedDatastore {
     }
 
     private EntityCache createCache() {
-        return mapper.createEntityCache();
+        return mapper.createEntityCache(db.getName());
     }
 
-    private void createTextIndex(final DBCollection dbColl, final List<MappedClass> parentMCs, final List<MappedField> parentMFs,
-                                 final MappedField mf) {
-        final Text index = mf.getAnnotation(Text.class);
-        final StringBuilder prefix = new StringBuilder();
-        if (!parentMCs.isEmpty()) {
-            for (final MappedField pmf : parentMFs) {
-                prefix.append(pmf.getNameToStore()).append(".");
-            }
+    private static boolean equal(final Object a, final Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private <T> T fromDBObject(final Query<T> query, final DBObject dbObject) {
+        final DBObject fields = query.getFieldsObject();
+        final EntityCache cache = fields == null ? createCache() : mapper.createPartialEntityCache();
+        final T entity = mapper.fromDBObject(this, query.getEntityClass(), dbObject, cache);
+        if (fields != null && entity != null) {
+            mapper.setLoadedFields(entity, fields);
         }
+        return entity;
+    }
+
+    private DBObject getProjection(final Query<?> query) {
+        final DBObject fields = query.getFieldsObject();
+        return fields != null ? fields : mapper.getMappedProjection(query.getEntityClass());
+    }
 
-        String field = prefix + mf.getNameToStore();
+    private InvalidatingEntityCacheFactory getInvalidatingCacheFactory() {
+        final EntityCacheFactory factory = mapper.getOptions().getCacheFactory();
+        return factory instanceof InvalidatingEntityCacheFactory ? (InvalidatingEntityCacheFactory) factory : null;
+    }
 
-        DBObject keys = new BasicDBObject(field, IndexType.TEXT.toIndexValue());
-        DBObject opts = extractOptions(index.options(), false);
-        if (index.value() != -1) {
-            DBObject weights = new BasicDBObject();
-            opts.put("weights", weights);
-            weights.put(field, index.value());
+    /**
+     * Notifies the operation listeners that an operation is about to be sent to the server.
+     *
+     * @param type        the kind of operation
+     * @param dbColl      the collection the operation runs against
+     * @param entityClass the mapped type the operation is issued for, or null if it is not known
+     * @param query       the query, pipeline or index keys of the operation, or null if it has none
+     * @param documentsIn the number of documents sent to the server
+     * @return the event to pass to {@link #endOperation(OperationEvent, long)}, or null if there are no listeners
+     */
+    public OperationEvent startOperation(final OperationType type, final DBCollection dbColl, final Class<?> entityClass,
+                                         final DBObject query, final long documentsIn) {
+        if (operationListeners.isEmpty()) {
+            return null;
+        }
+        final OperationEvent event = new OperationEvent(type, dbColl == null ? null : dbColl.getName(), entityClass,
+                                                        QueryShapes.mask(query), documentsIn);
+        for (final OperationListener listener : operationListeners) {
+            try {
+                listener.operationStarted(event);
+            } catch (RuntimeException e) {
+                LOG.warning("Operation listener " + listener + " failed", e);
+            }
         }
-        LOG.debug(format("Creating index for %s with keys:%s and opts:%s", dbColl.getName(), keys, opts));
-        dbColl.createIndex(keys, opts);
+        return event;
     }
 
-    private DBObject entityToDBObj(final Object entity, final Map<Object, DBObject> involvedObjects) {
-        return mapper.toDBObject(ProxyHelper.unwrap(entity), involvedObjects);
+    /**
+     * Notifies the operation listeners that an operation has completed, timing it from its start.
+     *
+     * @param started      the event returned when the operation started, or null if there were no listeners
+     * @param documentsOut the number of documents returned or affected, or a negative number if the operation failed
+     */
+    public void endOperation(final OperationEvent started, final long documentsOut) {
+        if (started != null) {
+            endOperation(started, documentsOut, System.nanoTime() - started.getStartNanos());
+        }
     }
 
-    private DBObject extractOptions(final IndexOptions options, final boolean background) {
-        final DBObject opts = new BasicDBObject();
+    /**
+     * Notifies the operation listeners that an operation has completed.
+     *
+     * @param started      the event returned when the operation started, or null if there were no listeners
+     * @param documentsOut the number of documents returned or affected, or a negative number if the operation failed
+     * @param nanos        the time the operation took in ns
+     */
+    public void endOperation(final OperationEvent started, final long documentsOut, final long nanos) {
+        if (started == null) {
+            return;
+        }
+        final OperationEvent event = started.complete(documentsOut, nanos);
+        for (final OperationListener listener : operationListeners) {
+            try {
+                listener.operationCompleted(event);
+            } catch (RuntimeException e) {
+                LOG.warning("Operation listener " + listener + " failed", e);
+            }
+        }
+    }
 
-        putIfNotEmpty(opts, "name", options.name());
-        putIfNotEmpty(opts, "default_language", options.language());
-        putIfNotEmpty(opts, "language_override", options.languageOverride());
-        putIfTrue(opts, "background", options.background() || background);
-        putIfTrue(opts, "dropDups", options.dropDups());
-        putIfTrue(opts, "sparse", options.sparse());
-        putIfTrue(opts, "unique", options.unique());
-        if (options.expireAfterSeconds() != -1) {
-            opts.put("expireAfterSeconds", options.expireAfterSeconds());
+    private long count(final DBCollection dbColl, final Class<?> entityClass) {
+        final OperationEvent operation = startOperation(OperationType.COUNT, dbColl, entityClass, null, 0);
+        long count = -1;
+        try {
+            count = dbColl.count();
+            return count;
+        } finally {
+            endOperation(operation, count);
         }
-        return opts;
     }
 
-    private DBObject extractOptions(final Indexed indexed) {
-        final DBObject opts = new BasicDBObject();
+    private WriteResult saveDocument(final DBCollection dbColl, final Class<?> entityClass, final DBObject dbObj, final WriteConcern wc) {
+        final OperationEvent operation = startOperation(OperationType.SAVE, dbColl, entityClass, null, 1);
+        long saved = -1;
+        try {
+            final WriteResult wr = wc == null ? dbColl.save(dbObj) : dbColl.save(dbObj, wc);
+            saved = 1;
+            return wr;
+        } finally {
+            endOperation(operation, saved);
+        }
+    }
 
-        putIfNotEmpty(opts, "name", indexed.name());
-        putIfTrue(opts, "background", indexed.background());
-        putIfTrue(opts, "dropDups", indexed.dropDups());
-        putIfTrue(opts, "sparse", indexed.sparse());
-        putIfTrue(opts, "unique", indexed.unique());
-        if (indexed.expireAfterSeconds() != -1) {
-            opts.put("expireAfterSeconds", indexed.expireAfterSeconds());
+    /**
+     * The number of documents a write matched, or 0 if it was not acknowledged and so the number is not known.
+     */
+    private static long getAffected(final WriteResult wr) {
+        try {
+            return wr.getN();
+        } catch (UnsupportedOperationException e) {
+            return 0;
         }
-        return opts;
     }
 
-    private MappedField findField(final List<String> namePath, final MappedClass mc, final String value) {
-        if (value.contains(".")) {
-            String segment = value.substring(0, value.indexOf("."));
-            MappedField field = findField(namePath, mc, segment);
-            if (field != null) {
-                MappedClass mappedClass =
-                    getMapper().getMappedClass(field.getSubType() != null ? field.getSubType() : field.getConcreteType());
-                return findField(namePath, mappedClass, value.substring(value.indexOf(".") + 1));
+    /**
+     * Drops the entities a write may have changed from a cache shared across queries: just the one document if the query names a single
+     * _id, otherwise the whole collection.  The cached results of the collection's queries are dropped as well.
+     *
+     * @param dbColl the collection written to
+     * @param query  the filter of the write, or null if it may have changed any document
+     */
+    public void invalidateCachedEntities(final DBCollection dbColl, final DBObject query) {
+        invalidateCachedQueries(dbColl.getName());
+        final InvalidatingEntityCacheFactory factory = getInvalidatingCacheFactory();
+        if (factory != null) {
+            final Object id = query == null ? null : query.get(Mapper.ID_KEY);
+            if (id == null || id instanceof DBObject) {
+                factory.invalidate(db.getName(), dbColl.getName());
             } else {
-                namePath.addAll(Arrays.asList(value.split("\\.")));
-                return null;
+                factory.invalidate(db.getName(), dbColl.getName(), id);
             }
-        } else {
-            MappedField mf = mc.getMappedField(value);
-            if (mf == null) {
-                mf = mc.getMappedFieldByJavaField(value);
-            }
-            if (mf != null) {
-                namePath.add(mf.getNameToStore());
+        }
+    }
+
+    /**
+     * Drops the cached results of the queries of a collection which has been written to.
+     */
+    private void invalidateCachedQueries(final String collection) {
+        final QueryResultCache cache = queryCache;
+        if (cache != null) {
+            cache.invalidate(collection);
+        }
+    }
+
+    /**
+     * Refuses to write a whole document for an entity loaded with only some of its fields, since the others would be overwritten.
+     */
+    void checkFullyLoaded(final Object entity) {
+        if (mapper.isPartial(entity)) {
+            throw new MappingException(format("Entity of class %s (id='%s') was loaded with only some of its fields and cannot be saved"
+                                              + " whole; use merge(), or saveChanges() with change tracking on, to write the fields it has",
+                                              ProxyHelper.unwrap(entity).getClass().getName(), mapper.getId(entity)));
+        }
+    }
+
+    /**
+     * Merges the fields a partial entity was loaded with and nothing else.  Its {@code @Version}, if it has one, is checked and set when
+     * it was loaded, and otherwise incremented in place.
+     */
+    private <T> WriteResult mergeLoadedFields(final DBCollection dbColl, final T entity, final DBObject dbObj, final Object idValue,
+                                              final WriteConcern wc, final MappedClass mc) {
+        for (final String name : new ArrayList<String>(dbObj.keySet())) {
+            if (!mapper.isLoaded(entity, name)) {
+                dbObj.removeField(name);
             }
-            return mf;
         }
+        if (mc.getFieldsAnnotatedWith(Version.class).isEmpty()) {
+            return null;
+        }
+
+        final MappedField mfVersion = mc.getMappedVersionField();
+        final String versionKeyName = mfVersion.getNameToStore();
+        final Query<?> query = find(dbColl.getName(), entity.getClass()).disableValidation().filter(Mapper.ID_KEY, idValue);
+        final BasicDBObject ops = new BasicDBObject();
+        final Long oldVersion = (Long) mfVersion.getFieldValue(entity);
+        if (mapper.isLoaded(entity, versionKeyName) && oldVersion != null) {
+            query.filter(versionKeyName, oldVersion);
+            dbObj.put(versionKeyName, nextValue(oldVersion));
+        } else {
+            dbObj.removeField(versionKeyName);
+            ops.put("$inc", new BasicDBObject(versionKeyName, 1L));
+        }
+        if (!dbObj.keySet().isEmpty()) {
+            ops.put("$set", dbObj);
+        }
+        final UpdateResults res = update(query, ops, false, false, wc);
+        if (res.getUpdatedCount() != 1) {
+            throw new ConcurrentModificationException(format("Entity of class %s (id='%s',version='%d') was concurrently updated.",
+                                                             entity.getClass().getName(), idValue, oldVersion));
+        }
+        return res.getWriteResult();
+    }
+
+    DBObject entityToDBObj(final Object entity, final Map<Object, DBObject> involvedObjects) {
+        return mapper.toDBObject(ProxyHelper.unwrap(entity), involvedObjects);
     }
 
     @SuppressWarnings("unchecked")
@@ -1387,19 +1705,36 @@ public class DatastoreImpl implements AdvancedDatastore {
             writeConcern = getWriteConcern(entities.iterator().next());
         }
         final Map<Object, DBObject> involvedObjects = new LinkedHashMap<Object, DBObject>();
+        final Class<?> type = ProxyHelper.unwrap(entities.iterator().next()).getClass();
         if (morphia.getUseBulkWriteOperations()) {
             BulkWriteOperation bulkWriteOperation = dbColl.initializeOrderedBulkOperation();
+            int count = 0;
             for (final T entity : entities) {
                 bulkWriteOperation.insert(toDbObject(entity, involvedObjects));
+                count++;
+            }
+            final OperationEvent operation = startOperation(OperationType.INSERT, dbColl, type, null, count);
+            long inserted = -1;
+            try {
+                bulkWriteOperation.execute(writeConcern);
+                inserted = count;
+            } finally {
+                endOperation(operation, inserted);
             }
-            bulkWriteOperation.execute(writeConcern);
         } else {
             writeConcern = getWriteConcern(entities.iterator().next());
             final List<DBObject> list = new ArrayList<DBObject>();
             for (final T entity : entities) {
                 list.add(toDbObject(entity, involvedObjects));
             }
-            dbColl.insert(writeConcern, list.toArray(new DBObject[list.size()]));
+            final OperationEvent operation = startOperation(OperationType.INSERT, dbColl, type, null, list.size());
+            long inserted = -1;
+            try {
+                dbColl.insert(writeConcern, list.toArray(new DBObject[list.size()]));
+                inserted = list.size();
+            } finally {
+                endOperation(operation, inserted);
+            }
         }
 
         return postSaveOperations(entities, involvedObjects, dbColl);
@@ -1423,12 +1758,12 @@ public class DatastoreImpl implements AdvancedDatastore {
         return getQueryFactory().createQuery(this, collection, type);
     }
 
-    private long nextValue(final Long oldVersion) {
+    long nextValue(final Long oldVersion) {
         return oldVersion == null ? 1 : oldVersion + 1;
     }
 
-    private <T> List<Key<T>> postSaveOperations(final Iterable<T> entities, final Map<Object, DBObject> involvedObjects,
-                                                final DBCollection collection) {
+    <T> List<Key<T>> postSaveOperations(final Iterable<T> entities, final Map<Object, DBObject> involvedObjects,
+                                        final DBCollection collection) {
         return postSaveOperations(entities, involvedObjects, collection, true);
     }
 
@@ -1436,8 +1771,16 @@ public class DatastoreImpl implements AdvancedDatastore {
     private <T> List<Key<T>> postSaveOperations(final Iterable<T> entities, final Map<Object, DBObject> involvedObjects,
                                                 final DBCollection collection, final boolean fetchKeys) {
         List<Key<T>> keys = new ArrayList<Key<T>>();
+        invalidateCachedQueries(collection.getName());
+        final InvalidatingEntityCacheFactory invalidatingFactory = getInvalidatingCacheFactory();
         for (final T entity : entities) {
             final DBObject dbObj = involvedObjects.remove(entity);
+            if (dbObj != null) {
+                mapper.updateSnapshot(entity, dbObj);
+                if (invalidatingFactory != null) {
+                    invalidatingFactory.invalidate(db.getName(), collection.getName(), dbObj.get(Mapper.ID_KEY));
+                }
+            }
 
             if (fetchKeys) {
                 if (dbObj.get(Mapper.ID_KEY) == null) {
@@ -1457,99 +1800,6 @@ public class DatastoreImpl implements AdvancedDatastore {
         return keys;
     }
 
-    @SuppressWarnings("deprecation")
-    private void processClassAnnotations(final DBCollection dbColl, final MappedClass mc, final boolean background,
-                                         final List<MappedClass> parentMCs, final List<MappedField> parentMFs) {
-        // Ensure indexes from class annotation
-        final List<Indexes> indexes = mc.getAnnotations(Indexes.class);
-        if (indexes != null) {
-            for (final Indexes idx : indexes) {
-                if (idx.value().length > 0) {
-                    for (final Index index : idx.value()) {
-                        if (index.fields().length != 0) {
-                            ensureIndex(mc, dbColl, index.fields(), index.options(), background, parentMCs, parentMFs);
-                        } else {
-                            LOG.warning(format("This index on '%s' is using deprecated configuration options.  Please update to use the "
-                                                   + "fields value on @Index: %s", mc.getClazz().getName(), index.toString()));
-                            final BasicDBObject fields = parseFieldsString(index.value(), mc.getClazz(), mapper,
-                                                                           !index.disableValidation(), parentMCs, parentMFs);
-                            ensureIndex(dbColl, index.name(), fields, index.unique(), index.dropDups(),
-                                        index.background() ? index.background() : background, index.sparse(), index.expireAfterSeconds());
-                        }
-                    }
-                }
-            }
-        }
-    }
-
-    /**
-     * Ensure indexes from field annotations, and embedded entities
-     */
-    private void processEmbeddedAnnotations(final DBCollection dbColl, final MappedClass mc, final boolean background,
-                                            final List<MappedClass> parentMCs, final List<MappedField> parentMFs) {
-        List<MappedField> annotatedWith = mc.getFieldsAnnotatedWith(Text.class);
-        if (annotatedWith.size() > 1) {
-            throw new MappingException("Only one text index can be defined per collection: " + mc.getClazz().getName());
-        }
-        for (final MappedField mf : mc.getPersistenceFields()) {
-            if (mf.hasAnnotation(Indexed.class)) {
-                final Indexed index = mf.getAnnotation(Indexed.class);
-                final StringBuilder prefix = new StringBuilder();
-                if (!parentMCs.isEmpty()) {
-                    for (final MappedField pmf : parentMFs) {
-                        prefix.append(pmf.getNameToStore()).append(".");
-                    }
-                }
-
-                final BasicDBObject oldOptions = (BasicDBObject) extractOptions(index);
-                final IndexOptions options = index.options();
-                final BasicDBObject newOptions = (BasicDBObject) extractOptions(options, false);
-                if (!oldOptions.isEmpty() && !newOptions.isEmpty()) {
-                    throw new MappingException("Mixed usage of deprecated @Indexed value with the new @IndexOption values is not "
-                                                   + "allowed.  Please migrate all settings to @IndexOptions");
-                }
-                if (!newOptions.isEmpty()) {
-                    ensureIndex(dbColl, new BasicDBObject(prefix + mf.getNameToStore(), index.value().toIndexValue()), newOptions);
-                } else {
-                    ensureIndex(dbColl,
-                                index.name(),
-                                new BasicDBObject(prefix + mf.getNameToStore(), index.value().toIndexValue()),
-                                index.unique(),
-                                index.dropDups(),
-                                index.background() || background,
-                                index.sparse(),
-                                index.expireAfterSeconds());
-                }
-            }
-
-            if (mf.hasAnnotation(Text.class)) {
-                createTextIndex(dbColl, parentMCs, parentMFs, mf);
-            }
-
-            if (!mf.isTypeMongoCompatible() && !mf.hasAnnotation(Reference.class) && !mf.hasAnnotation(Serialized.class)
-                    && !mf.hasAnnotation(NotSaved.class) && !mf.hasAnnotation(Transient.class)) {
-                final List<MappedClass> newParentClasses = new ArrayList<MappedClass>(parentMCs);
-                final List<MappedField> newParents = new ArrayList<MappedField>(parentMFs);
-                newParentClasses.add(mc);
-                newParents.add(mf);
-                ensureIndexes(dbColl, mapper.getMappedClass(mf.isSingleValue() ? mf.getType() : mf.getSubClass()), background,
-                              newParentClasses, newParents);
-            }
-        }
-    }
-
-    private void putIfNotEmpty(final DBObject opts, final String key, final String value) {
-        if (!value.equals("")) {
-            opts.put(key, value);
-        }
-    }
-
-    private void putIfTrue(final DBObject opts, final String key, final boolean value) {
-        if (value) {
-            opts.put(key, true);
-        }
-    }
-
     @SuppressWarnings("unchecked")
     private <T> Query<T> queryByExample(final DBCollection coll, final T example) {
         // TODO: think about remove className from baseQuery param below.
@@ -1558,12 +1808,13 @@ public class DatastoreImpl implements AdvancedDatastore {
         return newQuery(type, coll, query);
     }
 
-    private <T> DBObject toDbObject(final T ent, final Map<Object, DBObject> involvedObjects) {
+    <T> DBObject toDbObject(final T ent, final Map<Object, DBObject> involvedObjects) {
         final MappedClass mc = mapper.getMappedClass(ent);
         if (mc.getAnnotation(NotSaved.class) != null) {
             throw new MappingException(format("Entity type: %s is marked as NotSaved which means you should not try to save it!",
                                               mc.getClazz().getName()));
         }
+        checkFullyLoaded(ent);
         DBObject dbObject = entityToDBObj(ent, involvedObjects);
         List<MappedField> versionFields = mc.getFieldsAnnotatedWith(Version.class);
         for (MappedField mappedField : versionFields) {
@@ -1636,10 +1887,18 @@ public class DatastoreImpl implements AdvancedDatastore {
         }
 
         final WriteResult wr;
-        if (wc == null) {
-            wr = dbColl.update(q, u, createIfMissing, multi);
-        } else {
-            wr = dbColl.update(q, u, createIfMissing, multi, wc);
+        final OperationEvent operation = startOperation(OperationType.UPDATE, dbColl, query.getEntityClass(), q, 0);
+        long updated = -1;
+        try {
+            if (wc == null) {
+                wr = dbColl.update(q, u, createIfMissing, multi);
+            } else {
+                wr = dbColl.update(q, u, createIfMissing, multi, wc);
+            }
+            updated = getAffected(wr);
+        } finally {
+            invalidateCachedEntities(dbColl, q);
+            endOperation(operation, updated);
         }
 
         return new UpdateResults(wr);
@@ -1662,4 +1921,14 @@ public class DatastoreImpl implements AdvancedDatastore {
         return wc;
     }
 
+    private static final class MappingThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "morphia-mapping-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
@@ -0,0 +1,211 @@
+package org.mongodb.morphia;
+
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.CommandResult;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.ReadPreference;
+import org.mongodb.morphia.logging.Logger;
+import org.mongodb.morphia.logging.MorphiaLoggerFactory;
+import org.mongodb.morphia.mapping.IndexSpec;
+import org.mongodb.morphia.mapping.MappingException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+
+
+/**
+ * Creates the indexes declared by mapped classes.  The indexes a collection already has are left out and the rest are sent in one
+ * {@code createIndexes} command per collection, falling back to one index at a time on servers without the command.  Several collections
+ * can be worked on at once.
+ */
+class IndexCreator {
+    private static final Logger LOG = MorphiaLoggerFactory.get(IndexCreator.class);
+    private static final int COMMAND_NOT_FOUND = 59;
+
+    private final DatastoreImpl datastore;
+
+    IndexCreator(final DatastoreImpl datastore) {
+        this.datastore = datastore;
+    }
+
+    /**
+     * Creates the indexes of each collection, working on up to the given number of collections at once.
+     *
+     * @param indexes    the indexes by collection name
+     * @param background true if the indexes should be built in the background
+     * @param threads    the number of collections to work on at once
+     */
+    void create(final Map<String, List<IndexSpec>> indexes, final boolean background, final int threads) {
+        final long start = System.nanoTime();
+        final int poolSize = Math.min(threads, indexes.size());
+        if (poolSize <= 1) {
+            for (final Entry<String, List<IndexSpec>> entry : indexes.entrySet()) {
+                create(datastore.getCollection(entry.getKey()), entry.getValue(), background);
+            }
+        } else {
+            final ExecutorService executor = Executors.newFixedThreadPool(poolSize, new IndexThreadFactory());
+            try {
+                final List<Future<Void>> futures = new ArrayList<Future<Void>>(indexes.size());
+                for (final Entry<String, List<IndexSpec>> entry : indexes.entrySet()) {
+                    futures.add(executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            create(datastore.getCollection(entry.getKey()), entry.getValue(), background);
+                            return null;
+                        }
+                    }));
+                }
+                for (final Future<Void> future : futures) {
+                    await(future);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        LOG.debug(format("Ensured the indexes of %d collections in %d ms", indexes.size(),
+                         TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    /**
+     * Creates the indexes a collection does not have yet.
+     *
+     * @param dbColl     the collection to index
+     * @param specs      the indexes
+     * @param background true if the indexes should be built in the background
+     */
+    void create(final DBCollection dbColl, final List<IndexSpec> specs, final boolean background) {
+        if (specs.isEmpty()) {
+            return;
+        }
+        final long start = System.nanoTime();
+        final List<DBObject> indexes = new ArrayList<DBObject>(specs.size());
+        for (final IndexSpec spec : specs) {
+            indexes.add(spec.toDBObject(background));
+        }
+        final OperationEvent operation = datastore.startOperation(OperationType.ENSURE_INDEX, dbColl, null, null, indexes.size());
+        long created = -1;
+        try {
+            created = createMissing(dbColl, indexes).size();
+        } finally {
+            datastore.endOperation(operation, created);
+        }
+        LOG.debug(format("Ensured %d indexes on %s, %d of them already there, in %d ms", indexes.size(), dbColl.getName(),
+                         indexes.size() - created, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    private List<DBObject> createMissing(final DBCollection dbColl, final List<DBObject> indexes) {
+        final List<DBObject> missing = findMissing(dbColl.getIndexInfo(), indexes);
+        if (!missing.isEmpty()) {
+            LOG.debug(format("Creating indexes for %s: %s", dbColl.getName(), missing));
+            final CommandResult result = dbColl.getDB().command(new BasicDBObject("createIndexes", dbColl.getName())
+                                                                    .append("indexes", missing), ReadPreference.primary());
+            if (!result.ok()) {
+                if (result.getInt("code", 0) != COMMAND_NOT_FOUND && !String.valueOf(result.getErrorMessage()).contains("no such")) {
+                    result.throwOnError();
+                }
+                for (final DBObject index : missing) {
+                    final DBObject options = new BasicDBObject(index.toMap());
+                    options.removeField("key");
+                    dbColl.createIndex((DBObject) index.get("key"), options);
+                }
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Lists the indexes which do not exist yet.  An index exists if one with the same keys, name and options is found.
+     */
+    static List<DBObject> findMissing(final List<DBObject> existing, final List<DBObject> indexes) {
+        final List<DBObject> missing = new ArrayList<DBObject>();
+        for (final DBObject index : indexes) {
+            if (!contains(existing, index) && !contains(missing, index)) {
+                missing.add(index);
+            }
+        }
+        return missing;
+    }
+
+    private static boolean contains(final List<DBObject> indexes, final DBObject index) {
+        for (final DBObject candidate : indexes) {
+            if (sameIndex(candidate, index)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean sameIndex(final DBObject existing, final DBObject index) {
+        if (!index.get("name").equals(existing.get("name")) || !sameValue(existing.get("key"), index.get("key"))) {
+            return false;
+        }
+        for (final String option : index.keySet()) {
+            if (!"key".equals(option) && !"name".equals(option) && !"background".equals(option) && !"dropDups".equals(option)
+                && !sameValue(existing.get(option), index.get(option))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameValue(final Object a, final Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return ((Number) a).doubleValue() == ((Number) b).doubleValue();
+        } else if (a instanceof DBObject && b instanceof DBObject) {
+            final DBObject first = (DBObject) a;
+            final DBObject second = (DBObject) b;
+            if (first.keySet().size() != second.keySet().size()) {
+                return false;
+            }
+            final Iterator<String> keys = second.keySet().iterator();
+            for (final String key : first.keySet()) {
+                final String other = keys.next();
+                if (!key.equals(other) || !sameValue(first.get(key), second.get(other))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private void await(final Future<Void> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MappingException("Interrupted while creating indexes", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new MappingException("Could not create indexes", e.getCause());
+        }
+    }
+
+    private static final class IndexThreadFactory implements ThreadFactory {
+        private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(r, "morphia-indexes-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -2,7 +2,13 @@ package org.mongodb.morphia;
 
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 /**
  * <p> The key object; this class is take from the app-engine datastore (mostly) implementation. It is also Serializable and GWT-safe,
@@ -23,6 +29,11 @@ public class Key<T> implements Serializable, Comparable<Key<T>> {
      */
     private Object id;
     private byte[] idBytes;
+    /**
+     * The canonical form of a compound or binary id, built once so the key can be hashed and compared without walking or encoding the id
+     * again.  A compound id should not be changed once it is in a key.
+     */
+    private transient volatile CanonicalId canonicalId;
 
     /**
      * For GWT serialization
@@ -89,6 +100,12 @@ public class Key<T> implements Serializable, Comparable<Key<T>> {
             return cmp;
         }
 
+        final CanonicalId canonical = getCanonicalId();
+        final CanonicalId otherCanonical = other.getCanonicalId();
+        if (canonical != null && otherCanonical != null) {
+            return canonical.compareTo(otherCanonical);
+        }
+
         try {
             cmp = compareNullable((Comparable<?>) id, (Comparable<?>) other.id);
             if (cmp != 0) {
@@ -146,7 +163,8 @@ public class Key<T> implements Serializable, Comparable<Key<T>> {
 
     @Override
     public int hashCode() {
-        return id.hashCode();
+        final CanonicalId canonical = getCanonicalId();
+        return canonical != null ? canonical.hash : id.hashCode();
     }
 
     @Override
@@ -174,6 +192,46 @@ public class Key<T> implements Serializable, Comparable<Key<T>> {
         return bld.toString();
     }
 
+    private CanonicalId getCanonicalId() {
+        CanonicalId canonical = canonicalId;
+        if (canonical == null) {
+            if (id instanceof Map || id instanceof List) {
+                canonical = new CanonicalId(canonicalize(id));
+            } else if (id == null && idBytes != null) {
+                canonical = new CanonicalId(ByteBuffer.wrap(idBytes));
+            } else {
+                return null;
+            }
+            canonicalId = canonical;
+        }
+        return canonical;
+    }
+
+    /**
+     * Copies a compound id into lists, of entries for documents, which compare and hash by value and keep the order of the fields as the
+     * server does.
+     */
+    private static Object canonicalize(final Object value) {
+        if (value instanceof Map) {
+            final Map<?, ?> document = (Map<?, ?>) value;
+            final List<Object> form = new ArrayList<Object>(document.size());
+            for (final Entry<?, ?> entry : document.entrySet()) {
+                form.add(new SimpleImmutableEntry<Object, Object>(entry.getKey(), canonicalize(entry.getValue())));
+            }
+            return form;
+        } else if (value instanceof List) {
+            final List<?> list = (List<?>) value;
+            final List<Object> form = new ArrayList<Object>(list.size());
+            for (final Object element : list) {
+                form.add(canonicalize(element));
+            }
+            return form;
+        } else if (value instanceof byte[]) {
+            return ByteBuffer.wrap(((byte[]) value).clone());
+        }
+        return value;
+    }
+
     private void checkState(final Key k) {
         if (k.type == null && k.collection == null) {
             throw new IllegalStateException("Collection must be specified (or a class).");
@@ -182,4 +240,55 @@ public class Key<T> implements Serializable, Comparable<Key<T>> {
             throw new IllegalStateException("id must be specified");
         }
     }
+
+    private static final class CanonicalId implements Comparable<CanonicalId> {
+        private final Object form;
+        private final int hash;
+
+        private CanonicalId(final Object form) {
+            this.form = form;
+            hash = form.hashCode();
+        }
+
+        @Override
+        public int compareTo(final CanonicalId other) {
+            if (hash != other.hash) {
+                return hash < other.hash ? -1 : 1;
+            }
+            return form.equals(other.form) ? 0 : compareForms(form, other.form);
+        }
+
+        /**
+         * Orders the canonical forms of two ids by structure: nulls first, then by class name, then by value for values which are
+         * comparable, element by element for lists and entries, and by their strings otherwise.
+         */
+        @SuppressWarnings("unchecked")
+        private static int compareForms(final Object form, final Object other) {
+            if (form == null || other == null) {
+                return form == null ? (other == null ? 0 : -1) : 1;
+            }
+            if (form.getClass() != other.getClass()) {
+                return form.getClass().getName().compareTo(other.getClass().getName());
+            }
+            if (form instanceof List) {
+                final List<?> list = (List<?>) form;
+                final List<?> otherList = (List<?>) other;
+                for (int i = 0; i < Math.min(list.size(), otherList.size()); i++) {
+                    final int cmp = compareForms(list.get(i), otherList.get(i));
+                    if (cmp != 0) {
+                        return cmp;
+                    }
+                }
+                return list.size() - otherList.size();
+            }
+            if (form instanceof Entry) {
+                final int cmp = compareForms(((Entry<?, ?>) form).getKey(), ((Entry<?, ?>) other).getKey());
+                return cmp != 0 ? cmp : compareForms(((Entry<?, ?>) form).getValue(), ((Entry<?, ?>) other).getValue());
+            }
+            if (form instanceof Comparable) {
+                return ((Comparable<Object>) form).compareTo(other);
+            }
+            return form.toString().compareTo(other.toString());
+        }
+    }
 }
@@ -0,0 +1,123 @@
+package org.mongodb.morphia;
+
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.String.format;
+
+
+/**
+ * A lock-free histogram of latencies in the style of HdrHistogram.  Values are counted in buckets whose width doubles with each power of
+ * two, each split into 64 sub-buckets, so any recorded value is reported to within about 1.6% over the whole range of a long while the
+ * histogram stays a fixed 30KB.  Recording is a few atomic increments and never blocks, so the histogram can be shared by many threads.
+ * <p>
+ * Reads are not atomic: a percentile computed while values are recorded reflects some of them and not others.
+ *
+ * @see OperationLatencies
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+    private static final int LENGTH = (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF + SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(LENGTH);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @return the number of values recorded
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @param unit the unit to return the value in
+     * @return the largest value recorded
+     */
+    public long getMax(final TimeUnit unit) {
+        return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param unit the unit to return the value in
+     * @return the mean of the values recorded, or 0 if none were
+     */
+    public long getMean(final TimeUnit unit) {
+        final long n = count.get();
+        return n == 0 ? 0 : unit.convert(total.get() / n, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Finds the value at or below which a percentage of the values recorded fall.
+     *
+     * @param percentile the percentage, between 0 and 100
+     * @param unit       the unit to return the value in
+     * @return the value at the percentile, or 0 if no values were recorded
+     */
+    public long getValueAtPercentile(final double percentile, final TimeUnit unit) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 100: " + percentile);
+        }
+        final long[] snapshot = new long[LENGTH];
+        long n = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        final long target = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < LENGTH && n > 0; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return unit.convert(Math.min(highestEquivalentValue(i), max.get()), TimeUnit.NANOSECONDS);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Records a value
+     *
+     * @param nanos the latency in ns; negative values are recorded as 0
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(nanos, 0);
+        counts.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return format("LatencyHistogram{count=%d, mean=%d us, p50=%d us, p99=%d us, max=%d us}", getCount(),
+                      getMean(TimeUnit.MICROSECONDS), getValueAtPercentile(50, TimeUnit.MICROSECONDS),
+                      getValueAtPercentile(99, TimeUnit.MICROSECONDS), getMax(TimeUnit.MICROSECONDS));
+    }
+
+    static int indexOf(final long value) {
+        final int highestBit = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        if (highestBit < SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        final int shift = highestBit - SUB_BUCKET_BITS + 1;
+        return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+    }
+
+    static long highestEquivalentValue(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKET_HALF - 1;
+        final long lowest = (long) (index % SUB_BUCKET_HALF + SUB_BUCKET_HALF) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -37,6 +37,7 @@ import java.util.Set;
 public class Morphia {
     private final Mapper mapper;
     private boolean useBulkWriteOperations = false;
+    private int indexThreads = 4;
 
     /**
      * Creates a Morphia instance with a default Mapper and an empty class set.
@@ -110,7 +111,8 @@ public class Morphia {
      * @return the newly created and populated entity
      */
     public <T> T fromDBObject(final Datastore datastore, final Class<T> entityClass, final DBObject dbObject) {
-        return fromDBObject(datastore, entityClass, dbObject, mapper.createEntityCache());
+        return fromDBObject(datastore, entityClass, dbObject,
+                            datastore == null ? mapper.createEntityCache() : mapper.createEntityCache(datastore.getDB().getName()));
     }
 
     /**
@@ -142,6 +144,13 @@ public class Morphia {
         return mapper;
     }
 
+    /**
+     * @return the number of collections {@link Datastore#ensureIndexes()} works on at once
+     */
+    public int getIndexThreads() {
+        return indexThreads;
+    }
+
     /**
      * @return true if Morphia should use bulk write operations.  Only useful with MongoDB 2.6+.
      */
@@ -175,6 +184,19 @@ public class Morphia {
         this.useBulkWriteOperations = useBulkWriteOperations;
     }
 
+    /**
+     * Sets the number of collections {@link Datastore#ensureIndexes()} works on at once.  With 1 the collections are indexed one after the
+     * other on the calling thread.
+     *
+     * @param indexThreads the number of threads
+     */
+    public void setIndexThreads(final int indexThreads) {
+        if (indexThreads <= 0) {
+            throw new IllegalArgumentException("The number of index threads must be positive: " + indexThreads);
+        }
+        this.indexThreads = indexThreads;
+    }
+
     /**
      * Maps a set of classes
      *
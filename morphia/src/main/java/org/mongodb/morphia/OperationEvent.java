@@ -0,0 +1,136 @@
+package org.mongodb.morphia;
+
+
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+
+/**
+ * Describes an operation issued by a Datastore.  The event passed when the operation starts has no duration and no documents out yet.
+ * <p>
+ * The documents in are the documents sent to the server, e.g. the entities saved or the indexes ensured.  The documents out are the
+ * documents read by a find, returned by a findAndModify or a map reduce, counted by a count, or affected by an acknowledged update or
+ * delete.
+ *
+ * @see OperationListener
+ */
+public final class OperationEvent {
+    private final OperationType type;
+    private final String collection;
+    private final Class<?> entityClass;
+    private final String queryShape;
+    private final long documentsIn;
+    private final long documentsOut;
+    private final long startNanos;
+    private final long durationNanos;
+    private final boolean completed;
+    private final boolean failed;
+
+    OperationEvent(final OperationType type, final String collection, final Class<?> entityClass, final String queryShape,
+                   final long documentsIn) {
+        this(type, collection, entityClass, queryShape, documentsIn, 0, System.nanoTime(), 0, false, false);
+    }
+
+    private OperationEvent(final OperationType type, final String collection, final Class<?> entityClass, final String queryShape,
+                           final long documentsIn, final long documentsOut, final long startNanos, final long durationNanos,
+                           final boolean completed, final boolean failed) {
+        this.type = type;
+        this.collection = collection;
+        this.entityClass = entityClass;
+        this.queryShape = queryShape;
+        this.documentsIn = documentsIn;
+        this.documentsOut = documentsOut;
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+        this.completed = completed;
+        this.failed = failed;
+    }
+
+    /**
+     * @return the collection the operation ran against
+     */
+    public String getCollection() {
+        return collection;
+    }
+
+    /**
+     * @return the number of documents sent to the server
+     */
+    public long getDocumentsIn() {
+        return documentsIn;
+    }
+
+    /**
+     * @return the number of documents returned or affected, 0 until the operation has completed
+     */
+    public long getDocumentsOut() {
+        return documentsOut;
+    }
+
+    /**
+     * @param unit the unit to return the duration in
+     * @return how long the operation took, 0 until it has completed
+     */
+    public long getDuration(final TimeUnit unit) {
+        return unit.convert(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the mapped type the operation was issued for, or null if it is not known
+     */
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return the query, pipeline or index keys of the operation with their values replaced by {@code ?}, or null if it has none
+     */
+    public String getQueryShape() {
+        return queryShape;
+    }
+
+    /**
+     * @return the kind of operation
+     */
+    public OperationType getType() {
+        return type;
+    }
+
+    /**
+     * @return true once the operation has completed, whether it succeeded or not
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return true if the operation threw an exception
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    @Override
+    public String toString() {
+        return format("OperationEvent{type=%s, collection=%s, entityClass=%s, queryShape=%s, documentsIn=%d, documentsOut=%d,"
+                      + " duration=%d us%s}", type, collection, entityClass == null ? null : entityClass.getName(), queryShape, documentsIn,
+                      documentsOut, getDuration(TimeUnit.MICROSECONDS), failed ? ", failed" : "");
+    }
+
+    /**
+     * Creates the event of the completion of this operation
+     *
+     * @param out      the number of documents returned or affected, or a negative number if the operation failed
+     * @param duration the duration of the operation in ns
+     * @return the completed event
+     */
+    OperationEvent complete(final long out, final long duration) {
+        return new OperationEvent(type, collection, entityClass, queryShape, documentsIn, Math.max(out, 0), startNanos, duration, true,
+                                  out < 0);
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+}
@@ -0,0 +1,127 @@
+package org.mongodb.morphia;
+
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * An OperationListener keeping a {@link LatencyHistogram} of the completed operations per collection and kind of operation, and, within
+ * those, per query shape so that the shapes which are slow can be found without profiling on the server.  Failed operations are recorded
+ * too.
+ * <pre>
+ * OperationLatencies latencies = new OperationLatencies();
+ * datastore.addOperationListener(latencies);
+ * ...
+ * latencies.getHistogram("users", OperationType.FIND).getValueAtPercentile(99, TimeUnit.MILLISECONDS);
+ * </pre>
+ *
+ * @see DatastoreImpl#addOperationListener(OperationListener)
+ */
+public class OperationLatencies implements OperationListener {
+    private final ConcurrentMap<HistogramKey, LatencyHistogram> histograms = new ConcurrentHashMap<HistogramKey, LatencyHistogram>();
+    private final ConcurrentMap<HistogramKey, ConcurrentMap<String, LatencyHistogram>> shapes
+        = new ConcurrentHashMap<HistogramKey, ConcurrentMap<String, LatencyHistogram>>();
+
+    /**
+     * @param collection the collection
+     * @param type       the kind of operation
+     * @return the latencies of the operations of that kind on the collection, or null if there were none
+     */
+    public LatencyHistogram getHistogram(final String collection, final OperationType type) {
+        return histograms.get(new HistogramKey(collection, type));
+    }
+
+    /**
+     * @return the latencies of all the operations recorded, keyed by collection and then by kind of operation
+     */
+    public Map<String, Map<OperationType, LatencyHistogram>> getHistograms() {
+        final Map<String, Map<OperationType, LatencyHistogram>> all = new HashMap<String, Map<OperationType, LatencyHistogram>>();
+        for (final Map.Entry<HistogramKey, LatencyHistogram> entry : histograms.entrySet()) {
+            Map<OperationType, LatencyHistogram> byType = all.get(entry.getKey().collection);
+            if (byType == null) {
+                byType = new EnumMap<OperationType, LatencyHistogram>(OperationType.class);
+                all.put(entry.getKey().collection, byType);
+            }
+            byType.put(entry.getKey().type, entry.getValue());
+        }
+        return all;
+    }
+
+    /**
+     * @param collection the collection
+     * @param type       the kind of operation
+     * @return the latencies of the operations of that kind on the collection keyed by their query shape
+     * @see OperationEvent#getQueryShape()
+     */
+    public Map<String, LatencyHistogram> getShapeHistograms(final String collection, final OperationType type) {
+        final Map<String, LatencyHistogram> byShape = shapes.get(new HistogramKey(collection, type));
+        return byShape == null ? Collections.<String, LatencyHistogram>emptyMap() : Collections.unmodifiableMap(byShape);
+    }
+
+    @Override
+    public void operationCompleted(final OperationEvent event) {
+        final HistogramKey key = new HistogramKey(event.getCollection(), event.getType());
+        final long nanos = event.getDuration(TimeUnit.NANOSECONDS);
+        getOrCreate(histograms, key).record(nanos);
+        if (event.getQueryShape() != null) {
+            ConcurrentMap<String, LatencyHistogram> byShape = shapes.get(key);
+            if (byShape == null) {
+                final ConcurrentMap<String, LatencyHistogram> created = new ConcurrentHashMap<String, LatencyHistogram>();
+                byShape = shapes.putIfAbsent(key, created);
+                if (byShape == null) {
+                    byShape = created;
+                }
+            }
+            getOrCreate(byShape, event.getQueryShape()).record(nanos);
+        }
+    }
+
+    @Override
+    public void operationStarted(final OperationEvent event) {
+    }
+
+    private static <K> LatencyHistogram getOrCreate(final ConcurrentMap<K, LatencyHistogram> map, final K key) {
+        LatencyHistogram histogram = map.get(key);
+        if (histogram == null) {
+            final LatencyHistogram created = new LatencyHistogram();
+            histogram = map.putIfAbsent(key, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
+    private static final class HistogramKey {
+        private final String collection;
+        private final OperationType type;
+
+        private HistogramKey(final String collection, final OperationType type) {
+            this.collection = collection;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HistogramKey)) {
+                return false;
+            }
+            final HistogramKey that = (HistogramKey) o;
+            return type == that.type && (collection == null ? that.collection == null : collection.equals(that.collection));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (collection == null ? 0 : collection.hashCode()) + type.hashCode();
+        }
+    }
+}
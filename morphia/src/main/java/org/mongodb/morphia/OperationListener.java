@@ -0,0 +1,26 @@
+package org.mongodb.morphia;
+
+
+/**
+ * Interface for observing the operations a Datastore issues against MongoDB, e.g. to record their latencies.  Listeners are called on the
+ * thread running the operation, possibly from several threads at once, and should return quickly; exceptions they throw are logged and
+ * otherwise ignored.
+ *
+ * @see DatastoreImpl#addOperationListener(OperationListener)
+ * @see OperationLatencies
+ */
+public interface OperationListener {
+    /**
+     * Called once an operation has completed, or failed.
+     *
+     * @param event the operation, with its duration and the documents it returned or affected
+     */
+    void operationCompleted(OperationEvent event);
+
+    /**
+     * Called before an operation is sent to the server.
+     *
+     * @param event the operation
+     */
+    void operationStarted(OperationEvent event);
+}
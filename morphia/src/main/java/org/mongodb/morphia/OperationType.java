@@ -0,0 +1,20 @@
+package org.mongodb.morphia;
+
+
+/**
+ * The kinds of operations a Datastore issues against MongoDB
+ *
+ * @see OperationListener
+ */
+public enum OperationType {
+    FIND,
+    COUNT,
+    SAVE,
+    INSERT,
+    UPDATE,
+    FIND_AND_MODIFY,
+    DELETE,
+    AGGREGATE,
+    MAP_REDUCE,
+    ENSURE_INDEX
+}
@@ -0,0 +1,51 @@
+package org.mongodb.morphia;
+
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+import java.util.List;
+
+
+/**
+ * Reduces queries to their shape: the same fields and operators with every value replaced by {@code ?}, so that queries differing only in
+ * their values can be grouped.  Lists of documents, such as the clauses of {@code $or} or the stages of a pipeline, keep their documents;
+ * any other list, such as the values of {@code $in}, becomes a single {@code ?}.
+ */
+final class QueryShapes {
+    private static final String MASK = "?";
+
+    private QueryShapes() {
+    }
+
+    /**
+     * @param query the query, pipeline or index keys
+     * @return the shape, or null if there is no query
+     */
+    static String mask(final DBObject query) {
+        return query == null ? null : String.valueOf(maskValue(query));
+    }
+
+    private static Object maskValue(final Object value) {
+        if (value instanceof List) {
+            final List<?> list = (List<?>) value;
+            if (list.isEmpty() || !(list.get(0) instanceof DBObject)) {
+                return MASK;
+            }
+            final BasicDBList masked = new BasicDBList();
+            for (final Object element : list) {
+                masked.add(maskValue(element));
+            }
+            return masked;
+        } else if (value instanceof DBObject) {
+            final DBObject dbObject = (DBObject) value;
+            final BasicDBObject masked = new BasicDBObject();
+            for (final String key : dbObject.keySet()) {
+                masked.put(key, maskValue(dbObject.get(key)));
+            }
+            return masked;
+        }
+        return MASK;
+    }
+}
@@ -0,0 +1,518 @@
+package org.mongodb.morphia;
+
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.WriteConcern;
+import org.mongodb.morphia.annotations.Version;
+import org.mongodb.morphia.logging.Logger;
+import org.mongodb.morphia.logging.MorphiaLoggerFactory;
+import org.mongodb.morphia.mapping.MappedClass;
+import org.mongodb.morphia.mapping.MappedField;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.MappingException;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxyHelper;
+import org.mongodb.morphia.query.UpdateOperations;
+import org.mongodb.morphia.query.UpdateOpsImpl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.String.format;
+
+
+/**
+ * Collects saves and updates of single documents and writes them later, in bulk, on a background thread.  Writes to a document which are
+ * pending at the same time are coalesced: a save replaces everything pending before it and consecutive updates are merged operator by
+ * operator the way the server would apply them, summing {@code $inc}s, keeping the last {@code $set} of a field and so on.  Updates which
+ * can not be merged, two {@code $push}es to the same array for instance, are kept and written one after the other.
+ * <p>
+ * A flush is started in the background once the configured number of documents have writes pending and at the configured interval.  When
+ * the buffer holds its maximum number of documents, a write to another document blocks until a flush has made room.  Flushes are not
+ * retried: a failure is logged and thrown by the next call to {@link #flush()} or {@link #close()}.
+ * <p>
+ * Since the writes happen later, versioned entities can not be saved through the buffer and {@code @PostPersist} methods are called on the
+ * flushing thread, once per document written.  Updates of versioned entities increment the version once per write rather than once per
+ * call.
+ *
+ * @see AdvancedDatastore#writeBehind(WriteBehindOptions)
+ */
+public class WriteBehindBuffer {
+    private static final Logger LOG = MorphiaLoggerFactory.get(WriteBehindBuffer.class);
+    private static final String SET = "$set";
+    private static final String UNSET = "$unset";
+    private static final String INC = "$inc";
+    private static final String MAX = "$max";
+    private static final String MIN = "$min";
+
+    private final DatastoreImpl datastore;
+    private final WriteBehindOptions options;
+    private final ScheduledExecutorService scheduler;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+    private final Runnable backgroundFlush = new Runnable() {
+        @Override
+        public void run() {
+            flushRequested.set(false);
+            flushPending();
+        }
+    };
+    private Map<PendingKey, PendingWrite> pending = new LinkedHashMap<PendingKey, PendingWrite>();
+    private boolean closed;
+
+    WriteBehindBuffer(final DatastoreImpl datastore, final WriteBehindOptions options) {
+        this.datastore = datastore;
+        this.options = options;
+        scheduler = Executors.newSingleThreadScheduledExecutor(new FlushThreadFactory());
+        scheduler.scheduleWithFixedDelay(backgroundFlush, options.getFlushInterval(), options.getFlushInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the background flushes and writes everything still pending.  Writes made after the buffer is closed are refused.
+     *
+     * @throws RuntimeException the failure of this or an earlier flush, if any
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        scheduler.shutdown();
+        flush();
+    }
+
+    /**
+     * Writes everything pending and waits for the writes to complete.
+     *
+     * @throws RuntimeException the failure of this or an earlier flush, if any
+     */
+    public void flush() {
+        flushPending();
+        final RuntimeException e = failure.getAndSet(null);
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of documents with writes pending
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a save of the entity.  The entity is converted to a document right away so later changes to it are not written until it is
+     * saved again.  The entity needs an @Id value and can not be versioned.
+     *
+     * @param entity the entity to save
+     * @param <T>    the type of the entity
+     */
+    public <T> void save(final T entity) {
+        final T unwrapped = ProxyHelper.unwrap(entity);
+        final MappedClass mc = datastore.getMapper().getMappedClass(unwrapped);
+        if (!mc.getFieldsAnnotatedWith(Version.class).isEmpty()) {
+            throw new IllegalArgumentException(format("Versioned entities can not be saved write-behind: %s", mc.getClazz().getName()));
+        }
+        final Map<Object, DBObject> involvedObjects = new LinkedHashMap<Object, DBObject>();
+        final DBObject dbObject = datastore.toDbObject(unwrapped, involvedObjects);
+        final Object id = dbObject.get(Mapper.ID_KEY);
+        if (id == null) {
+            throw new IllegalArgumentException(format("Entities need an @Id value to be saved write-behind: %s", mc.getClazz().getName()));
+        }
+
+        lock.lock();
+        try {
+            reserve(new PendingKey(datastore.getCollection(unwrapped).getName(), id), mc.getClazz())
+                .replace(unwrapped, dbObject, involvedObjects);
+            flushIfFull();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues an update of the document the Key refers to.  Like {@link Datastore#update(Key, UpdateOperations)}, nothing is written if
+     * the document does not exist when the buffer is flushed.
+     *
+     * @param key        the Key of the document to update
+     * @param operations the operations to apply, as created by {@link Datastore#createUpdateOperations(Class)}
+     * @param <T>        the type of the entity
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void update(final Key<T> key, final UpdateOperations<T> operations) {
+        if (!(operations instanceof UpdateOpsImpl)) {
+            throw new IllegalArgumentException("Only the UpdateOperations created by a Datastore can be written behind");
+        }
+        final Mapper mapper = datastore.getMapper();
+        final String collection = mapper.updateCollection(key);
+        final Class<?> type = key.getType() != null ? key.getType() : mapper.getClassFromCollection(collection);
+        final DBObject dbObject = ((UpdateOpsImpl<T>) operations).getOps();
+        final Map<String, Map<String, Object>> ops = new LinkedHashMap<String, Map<String, Object>>();
+        for (final String op : dbObject.keySet()) {
+            ops.put(op, new LinkedHashMap<String, Object>((Map<String, Object>) dbObject.get(op)));
+        }
+        if (ops.isEmpty()) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            reserve(new PendingKey(collection, mapper.toMongoObject(null, null, key.getId())), type).update(ops);
+            flushIfFull();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Merges the operators of an update in to those of the update pending before it, if the result is the same as applying one after
+     * the other.  Either every operator is merged or, if that is not possible, the pending update is left untouched.
+     *
+     * @param target the operators pending, by operator and then field
+     * @param ops    the operators to merge in
+     * @return true if the update was merged
+     */
+    static boolean coalesce(final Map<String, Map<String, Object>> target, final Map<String, Map<String, Object>> ops) {
+        for (final Entry<String, Map<String, Object>> op : ops.entrySet()) {
+            for (final String field : op.getValue().keySet()) {
+                if (!canCoalesce(target, op.getKey(), field)) {
+                    return false;
+                }
+            }
+        }
+        for (final Entry<String, Map<String, Object>> op : ops.entrySet()) {
+            for (final Entry<String, Object> field : op.getValue().entrySet()) {
+                coalesce(target, op.getKey(), field.getKey(), field.getValue());
+            }
+        }
+        return true;
+    }
+
+    private static boolean canCoalesce(final Map<String, Map<String, Object>> target, final String op, final String field) {
+        for (final Entry<String, Map<String, Object>> pendingOp : target.entrySet()) {
+            for (final Entry<String, Object> pendingField : pendingOp.getValue().entrySet()) {
+                final String name = pendingField.getKey();
+                if (name.equals(field)) {
+                    if (!canCombine(pendingOp.getKey(), pendingField.getValue(), op)) {
+                        return false;
+                    }
+                } else if (name.startsWith(field + ".") || field.startsWith(name + ".")) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean canCombine(final String pendingOp, final Object pendingValue, final String op) {
+        if (SET.equals(op) || UNSET.equals(op)) {
+            return true;
+        } else if (INC.equals(op)) {
+            return INC.equals(pendingOp) || UNSET.equals(pendingOp) || SET.equals(pendingOp) && pendingValue instanceof Number;
+        } else if (MAX.equals(op) || MIN.equals(op)) {
+            return op.equals(pendingOp) || SET.equals(pendingOp) && pendingValue instanceof Number;
+        }
+        return false;
+    }
+
+    private static void coalesce(final Map<String, Map<String, Object>> target, final String op, final String field, final Object value) {
+        String pendingOp = null;
+        Object pendingValue = null;
+        for (final Entry<String, Map<String, Object>> entry : target.entrySet()) {
+            if (entry.getValue().containsKey(field)) {
+                pendingOp = entry.getKey();
+                pendingValue = entry.getValue().remove(field);
+                if (entry.getValue().isEmpty()) {
+                    target.remove(pendingOp);
+                }
+                break;
+            }
+        }
+
+        if (pendingOp == null || SET.equals(op) || UNSET.equals(op)) {
+            put(target, op, field, value);
+        } else if (INC.equals(op)) {
+            if (UNSET.equals(pendingOp)) {
+                put(target, SET, field, value);
+            } else {
+                put(target, pendingOp, field, add((Number) pendingValue, (Number) value));
+            }
+        } else {
+            final double difference = ((Number) value).doubleValue() - ((Number) pendingValue).doubleValue();
+            final boolean replace = MAX.equals(op) ? difference > 0 : difference < 0;
+            put(target, pendingOp, field, replace ? value : pendingValue);
+        }
+    }
+
+    private static void put(final Map<String, Map<String, Object>> target, final String op, final String field, final Object value) {
+        Map<String, Object> fields = target.get(op);
+        if (fields == null) {
+            fields = new LinkedHashMap<String, Object>();
+            target.put(op, fields);
+        }
+        fields.put(field, value);
+    }
+
+    private static Number add(final Number a, final Number b) {
+        if (a instanceof Double || a instanceof Float || b instanceof Double || b instanceof Float) {
+            return a.doubleValue() + b.doubleValue();
+        }
+        final long sum = a.longValue() + b.longValue();
+        if (a instanceof Long || b instanceof Long || sum != (int) sum) {
+            return sum;
+        }
+        return (int) sum;
+    }
+
+    private void flushIfFull() {
+        if (pending.size() >= options.getFlushSize()) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Asks the background thread to flush.  Must be called holding the lock.  Once closed there is no background thread to ask, and
+     * {@link #close()} flushes whatever is pending itself.
+     */
+    private void requestFlush() {
+        if (!closed && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(backgroundFlush);
+        }
+    }
+
+    /**
+     * Finds the writes pending for a document, making room for them if needed.  Must be called holding the lock.
+     */
+    private PendingWrite reserve(final PendingKey key, final Class<?> type) {
+        while (true) {
+            // checked before merging in to a pending write too, since close() only flushes those after it has set the flag
+            if (closed) {
+                throw new IllegalStateException("The write-behind buffer is closed");
+            }
+            PendingWrite write = pending.get(key);
+            if (write != null) {
+                return write;
+            }
+            if (pending.size() < options.getMaxPending()) {
+                write = new PendingWrite(type);
+                pending.put(key, write);
+                return write;
+            }
+            requestFlush();
+            try {
+                notFull.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MappingException("Interrupted while waiting for room in the write-behind buffer", e);
+            }
+        }
+    }
+
+    /**
+     * Takes everything pending and writes it with one ordered bulk write per collection.  Flushes run one at a time so the writes to a
+     * document are always applied in order.
+     */
+    private void flushPending() {
+        flushLock.lock();
+        try {
+            final Map<PendingKey, PendingWrite> batch;
+            lock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<PendingKey, PendingWrite>();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            final Map<String, List<Entry<PendingKey, PendingWrite>>> byCollection =
+                new LinkedHashMap<String, List<Entry<PendingKey, PendingWrite>>>();
+            for (final Entry<PendingKey, PendingWrite> entry : batch.entrySet()) {
+                List<Entry<PendingKey, PendingWrite>> writes = byCollection.get(entry.getKey().collection);
+                if (writes == null) {
+                    writes = new ArrayList<Entry<PendingKey, PendingWrite>>();
+                    byCollection.put(entry.getKey().collection, writes);
+                }
+                writes.add(entry);
+            }
+            for (final Entry<String, List<Entry<PendingKey, PendingWrite>>> entry : byCollection.entrySet()) {
+                try {
+                    write(datastore.getCollection(entry.getKey()), entry.getValue());
+                } catch (RuntimeException e) {
+                    LOG.error(format("Could not write %d pending documents to %s", entry.getValue().size(), entry.getKey()), e);
+                    failure.compareAndSet(null, e);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(final DBCollection dbColl, final List<Entry<PendingKey, PendingWrite>> writes) {
+        final BulkWriteOperation bulk = dbColl.initializeOrderedBulkOperation();
+        final List<Object> saved = new ArrayList<Object>();
+        final Map<Object, DBObject> involvedObjects = new LinkedHashMap<Object, DBObject>();
+        for (final Entry<PendingKey, PendingWrite> entry : writes) {
+            final PendingWrite write = entry.getValue();
+            final DBObject query = new BasicDBObject(Mapper.ID_KEY, entry.getKey().id);
+            if (write.replacement != null) {
+                bulk.find(query).upsert().replaceOne(write.replacement);
+                saved.add(write.entity);
+                involvedObjects.putAll(write.involvedObjects);
+            }
+            final String versionField = getVersionField(write.type);
+            for (final Map<String, Map<String, Object>> update : write.updates) {
+                final DBObject ops = new BasicDBObject();
+                for (final Entry<String, Map<String, Object>> op : update.entrySet()) {
+                    ops.put(op.getKey(), new BasicDBObject(op.getValue()));
+                }
+                incrementVersion(ops, versionField);
+                bulk.find(query).updateOne(ops);
+            }
+        }
+
+        final WriteConcern wc = options.getWriteConcern() != null ? options.getWriteConcern()
+                                                                   : datastore.getWriteConcern(writes.get(0).getValue().type);
+        final OperationEvent operation = datastore.startOperation(OperationType.SAVE, dbColl, writes.get(0).getValue().type, null,
+                                                                  writes.size());
+        long written = -1;
+        try {
+            if (wc == null) {
+                bulk.execute();
+            } else {
+                bulk.execute(wc);
+            }
+            written = writes.size();
+        } finally {
+            datastore.endOperation(operation, written);
+            for (final Entry<PendingKey, PendingWrite> entry : writes) {
+                datastore.invalidateCachedEntities(dbColl, new BasicDBObject(Mapper.ID_KEY, entry.getKey().id));
+            }
+        }
+        datastore.postSaveOperations(saved, involvedObjects, dbColl);
+    }
+
+    private void incrementVersion(final DBObject ops, final String versionField) {
+        final DBObject set = (DBObject) ops.get(SET);
+        if (versionField == null || set != null && set.containsField(versionField)) {
+            return;
+        }
+        DBObject inc = (DBObject) ops.get(INC);
+        if (inc == null) {
+            inc = new BasicDBObject();
+            ops.put(INC, inc);
+        }
+        if (!inc.containsField(versionField)) {
+            inc.put(versionField, 1);
+        }
+    }
+
+    private String getVersionField(final Class<?> type) {
+        if (type == null) {
+            return null;
+        }
+        final List<MappedField> fields = datastore.getMapper().getMappedClass(type).getFieldsAnnotatedWith(Version.class);
+        return fields.isEmpty() ? null : fields.get(0).getNameToStore();
+    }
+
+    /**
+     * Identifies a document by its collection and stored _id, whatever the Key or entity class used to write it.
+     */
+    private static final class PendingKey {
+        private final String collection;
+        private final Object id;
+        private final int hash;
+
+        private PendingKey(final String collection, final Object id) {
+            this.collection = collection;
+            this.id = id;
+            hash = 31 * collection.hashCode() + id.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PendingKey)) {
+                return false;
+            }
+            final PendingKey that = (PendingKey) o;
+            return hash == that.hash && collection.equals(that.collection) && id.equals(that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The writes pending for one document: the document to replace it with, if it was saved, and the updates to apply after that.
+     */
+    private static final class PendingWrite {
+        private final List<Map<String, Map<String, Object>>> updates = new ArrayList<Map<String, Map<String, Object>>>();
+        private Class<?> type;
+        private Object entity;
+        private DBObject replacement;
+        private Map<Object, DBObject> involvedObjects;
+
+        private PendingWrite(final Class<?> type) {
+            this.type = type;
+        }
+
+        private void replace(final Object newEntity, final DBObject dbObject, final Map<Object, DBObject> newInvolvedObjects) {
+            type = newEntity.getClass();
+            entity = newEntity;
+            replacement = dbObject;
+            involvedObjects = newInvolvedObjects;
+            updates.clear();
+        }
+
+        private void update(final Map<String, Map<String, Object>> ops) {
+            if (updates.isEmpty() || !coalesce(updates.get(updates.size() - 1), ops)) {
+                updates.add(ops);
+            }
+        }
+    }
+
+    private static final class FlushThreadFactory implements ThreadFactory {
+        private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(r, "morphia-write-behind-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.mongodb.morphia;
+
+
+import com.mongodb.WriteConcern;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Options for {@link AdvancedDatastore#writeBehind(WriteBehindOptions)}.
+ */
+public class WriteBehindOptions {
+    private int flushSize = 1000;
+    private long flushInterval = 1000;
+    private int maxPending = 10000;
+    private WriteConcern writeConcern;
+
+    /**
+     * Sets how many documents may have writes pending before a flush is started in the background, regardless of the flush interval.
+     *
+     * @param flushSize the number of documents
+     * @return this
+     */
+    public WriteBehindOptions flushSize(final int flushSize) {
+        if (flushSize <= 0) {
+            throw new IllegalArgumentException("The flush size must be positive: " + flushSize);
+        }
+        this.flushSize = flushSize;
+        return this;
+    }
+
+    /**
+     * Sets how long writes may wait in the buffer before they are flushed in the background.
+     *
+     * @param interval the time between flushes
+     * @param unit     the unit of the interval
+     * @return this
+     */
+    public WriteBehindOptions flushInterval(final long interval, final TimeUnit unit) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("The flush interval must be positive: " + interval);
+        }
+        flushInterval = unit.toMillis(interval);
+        return this;
+    }
+
+    /**
+     * Sets how many documents may have writes pending at once.  Once the buffer is full, a write to a document which has nothing pending
+     * blocks until a flush has made room.
+     *
+     * @param maxPending the number of documents
+     * @return this
+     */
+    public WriteBehindOptions maxPending(final int maxPending) {
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("The maximum number of pending documents must be positive: " + maxPending);
+        }
+        this.maxPending = maxPending;
+        return this;
+    }
+
+    /**
+     * Sets the WriteConcern to flush with.  By default the one configured for the entities of each collection is used.
+     *
+     * @param writeConcern the WriteConcern to use
+     * @return this
+     */
+    public WriteBehindOptions writeConcern(final WriteConcern writeConcern) {
+        this.writeConcern = writeConcern;
+        return this;
+    }
+
+    /**
+     * @return the time between flushes in milliseconds
+     */
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * @return the number of pending documents which starts a flush
+     */
+    public int getFlushSize() {
+        return flushSize;
+    }
+
+    /**
+     * @return the number of pending documents at which writes block
+     */
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    /**
+     * @return the WriteConcern to use or null to use the one configured for the entities
+     */
+    public WriteConcern getWriteConcern() {
+        return writeConcern;
+    }
+}
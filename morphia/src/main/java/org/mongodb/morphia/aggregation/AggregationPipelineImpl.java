@@ -8,6 +8,8 @@ import com.mongodb.DBCollection;
 import com.mongodb.DBObject;
 import com.mongodb.ReadPreference;
 import org.mongodb.morphia.DatastoreImpl;
+import org.mongodb.morphia.OperationEvent;
+import org.mongodb.morphia.OperationType;
 import org.mongodb.morphia.geo.GeometryShapeConverter;
 import org.mongodb.morphia.logging.Logger;
 import org.mongodb.morphia.logging.MorphiaLoggerFactory;
@@ -76,8 +78,18 @@ public class AggregationPipelineImpl implements AggregationPipeline {
                                      final ReadPreference readPreference) {
         LOG.debug("stages = " + stages);
 
-        Cursor cursor = collection.aggregate(stages, options, readPreference);
-        return new MorphiaIterator<U, U>(datastore, cursor, mapper, target, collectionName, mapper.createEntityCache());
+        final BasicDBList pipeline = new BasicDBList();
+        pipeline.addAll(stages);
+        final OperationEvent operation = datastore.startOperation(OperationType.AGGREGATE, collection, source, pipeline, 0);
+        Cursor cursor = null;
+        try {
+            cursor = collection.aggregate(stages, options, readPreference);
+        } finally {
+            // the results are read later, so only the running of the pipeline up to its first batch is timed
+            datastore.endOperation(operation, cursor == null ? -1 : 0);
+        }
+        return new MorphiaIterator<U, U>(datastore, cursor, mapper, target, collectionName,
+                                         mapper.createEntityCache(datastore.getDB().getName()));
     }
 
     @Override
@@ -171,7 +183,9 @@ public class AggregationPipelineImpl implements AggregationPipeline {
     @Override
     public <U> Iterator<U> out(final String collectionName, final Class<U> target, final AggregationOptions options) {
         stages.add(new BasicDBObject("$out", collectionName));
-        return aggregate(target, options);
+        final Iterator<U> results = aggregate(target, options);
+        datastore.invalidateCachedEntities(datastore.getDB().getCollection(collectionName), null);
+        return results;
     }
 
     @Override
@@ -0,0 +1,41 @@
+package org.mongodb.morphia.annotations;
+
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Lets the results of queries for an entity be served from the query result cache of the Datastore which ran them, e.g. for lookup data
+ * read far more often than it changes.  Writes issued through that Datastore to the entity's collection drop its cached results; changes
+ * made any other way are only seen once the results expire.
+ *
+ * @see org.mongodb.morphia.query.QueryCachePolicy
+ * @see org.mongodb.morphia.query.QueryResultCache
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface CachedQueries {
+    /**
+     * How long results may be served from the cache
+     */
+    long ttl() default 60;
+
+    /**
+     * The unit of the ttl
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * When true, only the {@code _id}s of the results are cached and the documents are read again by {@code _id} on every hit.  This
+     * keeps the cache small for large documents while still skipping the costly part of a query, such as a sort or an unindexed filter.
+     */
+    boolean keysOnly() default false;
+}
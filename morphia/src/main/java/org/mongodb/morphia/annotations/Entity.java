@@ -54,6 +54,14 @@ public @interface Entity {
     //@Deprecated //to be replaced. This is a temp hack until polymorphism and discriminators are implemented
     boolean noClassnameStored() default false;
 
+    /**
+     * When true, queries for this entity only fetch the fields it maps, and their {@code @AlsoLoad} names, unless other fields are
+     * picked explicitly.
+     *
+     * @see org.mongodb.morphia.mapping.MapperOptions#setProjectMappedFields(boolean)
+     */
+    boolean projectMappedFields() default false;
+
     /**
      * set slaveOk for queries for this Entity.
      */
@@ -0,0 +1,30 @@
+package org.mongodb.morphia.annotations;
+
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Names a set of fields of an entity which queries can load on their own, e.g. a {@code summary} group for list pages.
+ *
+ * @see FieldGroups
+ * @see org.mongodb.morphia.query.Query#retrieveFieldGroup(String)
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.ANNOTATION_TYPE})
+public @interface FieldGroup {
+    /**
+     * The name of the group
+     */
+    String name();
+
+    /**
+     * The fields in the group, by their java or stored names.  The {@code _id} is always loaded.
+     */
+    String[] fields();
+}
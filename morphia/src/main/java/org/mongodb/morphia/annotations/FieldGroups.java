@@ -0,0 +1,27 @@
+package org.mongodb.morphia.annotations;
+
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Declares the field groups of an entity.  Entities loaded with a group are partial: they cannot be saved or inserted whole, since that
+ * would overwrite the fields which were not loaded, but they can be merged and changes to them can be saved.
+ *
+ * @see org.mongodb.morphia.query.Query#retrieveFieldGroup(String)
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface FieldGroups {
+    /**
+     * The field groups of this entity
+     */
+    FieldGroup[] value();
+}
@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.String.format;
 
@@ -27,6 +28,7 @@ public abstract class Converters {
     private final List<TypeConverter> untypedTypeEncoders = new LinkedList<TypeConverter>();
     private final Map<Class, List<TypeConverter>> tcMap = new ConcurrentHashMap<Class, List<TypeConverter>>();
     private final List<Class<? extends TypeConverter>> registeredConverterClasses = new ArrayList<Class<? extends TypeConverter>>();
+    private final AtomicInteger generation = new AtomicInteger();
 
     /**
      * Creates a bundle with a particular Mapper.
@@ -64,6 +66,7 @@ public abstract class Converters {
 
         registeredConverterClasses.add(tc.getClass());
         tc.setMapper(mapper);
+        generation.incrementAndGet();
 
         return tc;
     }
@@ -185,6 +188,48 @@ public abstract class Converters {
         return (getEncoder(c) instanceof SimpleValueConverter);
     }
 
+    /**
+     * Finds the converter this bundle would use to encode a value of the given type into the field given.  Since the result only depends
+     * on the type of the value, it can be resolved once and reused as long as {@link #getGeneration()} does not change.
+     *
+     * @param valueType the type of the value to encode or null if the value is null
+     * @param mf        the MappedField to encode the value for
+     * @return the converter
+     */
+    public TypeConverter findEncoder(final Class valueType, final MappedField mf) {
+        List<TypeConverter> tcs = null;
+
+        if (valueType != null) {
+            tcs = tcMap.get(valueType);
+        }
+
+        if (tcs == null || (!tcs.isEmpty() && tcs.get(0) instanceof IdentityConverter)) {
+            tcs = tcMap.get(mf.getType());
+        }
+
+        if (tcs != null) {
+            if (tcs.size() > 1) {
+                LOG.warning("Duplicate converter for " + mf.getType() + ", returning first one from " + tcs);
+            }
+            return tcs.get(0);
+        }
+
+        for (final TypeConverter tc : untypedTypeEncoders) {
+            if (tc.canHandle(mf) || (valueType != null && tc.isSupported(valueType, mf))) {
+                return tc;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return a counter which changes every time a converter is added to or removed from this bundle
+     */
+    public int getGeneration() {
+        return generation.get();
+    }
+
     /**
      * @param tcClass the type to check
      * @return true if a converter of this type has been registered
@@ -214,7 +259,7 @@ public abstract class Converters {
             }
             registeredConverterClasses.remove(tc.getClass());
         }
-
+        generation.incrementAndGet();
     }
 
     /**
@@ -254,31 +299,7 @@ public abstract class Converters {
     }
 
     protected TypeConverter getEncoder(final Object val, final MappedField mf) {
-
-        List<TypeConverter> tcs = null;
-
-        if (val != null) {
-            tcs = tcMap.get(val.getClass());
-        }
-
-        if (tcs == null || (!tcs.isEmpty() && tcs.get(0) instanceof IdentityConverter)) {
-            tcs = tcMap.get(mf.getType());
-        }
-
-        if (tcs != null) {
-            if (tcs.size() > 1) {
-                LOG.warning("Duplicate converter for " + mf.getType() + ", returning first one from " + tcs);
-            }
-            return tcs.get(0);
-        }
-
-        for (final TypeConverter tc : untypedTypeEncoders) {
-            if (tc.canHandle(mf) || (val != null && tc.isSupported(val.getClass(), mf))) {
-                return tc;
-            }
-        }
-
-        return null;
+        return findEncoder(val == null ? null : val.getClass(), mf);
     }
 
     private void addTypedConverter(final Class type, final TypeConverter tc) {
@@ -49,10 +49,10 @@ public class CustomConverters extends Converters {
     }
 
     @Override
-    protected TypeConverter getEncoder(final Object val, final MappedField mf) {
-        TypeConverter encoder = super.getEncoder(val, mf);
+    public TypeConverter findEncoder(final Class valueType, final MappedField mf) {
+        TypeConverter encoder = super.findEncoder(valueType, mf);
         if (encoder == null) {
-            encoder = defaultConverters.getEncoder(val, mf);
+            encoder = defaultConverters.findEncoder(valueType, mf);
         }
 
         if (encoder != null) {
@@ -72,14 +72,14 @@ public class DefaultConverters extends Converters {
     }
 
     @Override
-    protected TypeConverter getEncoder(final Object val, final MappedField mf) {
+    public TypeConverter findEncoder(final Class valueType, final MappedField mf) {
         if (serializedConverter.canHandle(mf)) {
             return serializedConverter;
         }
 
-        TypeConverter encoder = super.getEncoder(val, mf);
+        TypeConverter encoder = super.findEncoder(valueType, mf);
         if (encoder == null && (identityConverter.canHandle(mf)
-                                || (val != null && identityConverter.isSupported(val.getClass(), mf)))) {
+                                || (valueType != null && identityConverter.isSupported(valueType, mf)))) {
             encoder = identityConverter;
         }
         return encoder;
@@ -0,0 +1,60 @@
+package org.mongodb.morphia.mapping;
+
+
+import com.mongodb.DBObject;
+import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.converters.Converters;
+import org.mongodb.morphia.mapping.cache.EntityCache;
+
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A reader/writer for the persistent fields of a single {@link MappedClass}, built once when the class is mapped.  It holds the {@link
+ * FieldPlan} of every field so reading and writing a document is a plain loop over them.  Fields holding simple values are read and written
+ * directly with the converters resolved up front.  Anything else (embedded, references, custom mappers, ...) is handed to the configured
+ * {@link CustomMapper}s so the resulting documents and entities are exactly the same.
+ *
+ * @see MapperOptions#setUseEntityCodecs(boolean)
+ */
+class EntityCodec {
+    private final FieldPlan[] plans;
+    private final Converters converters;
+    private final int generation;
+
+    EntityCodec(final MappedClass mc, final Mapper mapper) {
+        converters = mapper.getConverters();
+        generation = converters.getGeneration();
+
+        final List<MappedField> persistenceFields = mc.getPersistenceFields();
+        plans = new FieldPlan[persistenceFields.size()];
+        for (int i = 0; i < plans.length; i++) {
+            plans[i] = persistenceFields.get(i).getPlan(mapper);
+        }
+    }
+
+    /**
+     * @param mapper the Mapper to check against
+     * @return true if the converters this codec was built with are still the ones registered with the Mapper
+     */
+    boolean isCurrent(final Mapper mapper) {
+        return converters == mapper.getConverters() && generation == converters.getGeneration();
+    }
+
+    void decode(final Datastore datastore, final DBObject dbObject, final Object entity, final EntityCache cache, final Mapper mapper) {
+        for (final FieldPlan plan : plans) {
+            plan.read(datastore, dbObject, entity, cache, mapper);
+        }
+    }
+
+    void encode(final Object entity, final DBObject dbObject, final Map<Object, DBObject> involvedObjects, final Mapper mapper) {
+        for (final FieldPlan plan : plans) {
+            try {
+                plan.write(entity, dbObject, involvedObjects, mapper);
+            } catch (Exception e) {
+                throw new MappingException("Error mapping field:" + plan.getMappedField().getFullName(), e);
+            }
+        }
+    }
+}
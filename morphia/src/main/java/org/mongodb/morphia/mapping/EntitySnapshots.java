@@ -0,0 +1,75 @@
+package org.mongodb.morphia.mapping;
+
+
+import com.mongodb.DBObject;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * Holds a document per entity, by identity, for as long as the entity itself is reachable: the document each tracked entity was last
+ * loaded from or saved as, or the fields a partial entity was loaded with.
+ *
+ * @see MapperOptions#setTrackChanges(boolean)
+ * @see Mapper#setLoadedFields(Object, DBObject)
+ */
+class EntitySnapshots {
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+    private final ConcurrentMap<IdentityReference, DBObject> snapshots = new ConcurrentHashMap<IdentityReference, DBObject>();
+
+    DBObject get(final Object entity) {
+        expunge();
+        return snapshots.get(new IdentityReference(entity, null));
+    }
+
+    void put(final Object entity, final DBObject dbObject) {
+        expunge();
+        snapshots.put(new IdentityReference(entity, queue), dbObject);
+    }
+
+    void remove(final Object entity) {
+        snapshots.remove(new IdentityReference(entity, null));
+    }
+
+    int size() {
+        expunge();
+        return snapshots.size();
+    }
+
+    private void expunge() {
+        Reference<?> reference;
+        while ((reference = queue.poll()) != null) {
+            snapshots.remove(reference);
+        }
+    }
+
+    private static final class IdentityReference extends WeakReference<Object> {
+        private final int hash;
+
+        private IdentityReference(final Object referent, final ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof IdentityReference)) {
+                return false;
+            }
+            final Object referent = get();
+            return referent != null && referent == ((IdentityReference) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
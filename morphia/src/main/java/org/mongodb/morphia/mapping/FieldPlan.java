@@ -0,0 +1,224 @@
+package org.mongodb.morphia.mapping;
+
+
+import com.mongodb.DBObject;
+import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.annotations.AlsoLoad;
+import org.mongodb.morphia.annotations.Embedded;
+import org.mongodb.morphia.annotations.NotSaved;
+import org.mongodb.morphia.annotations.Property;
+import org.mongodb.morphia.annotations.Reference;
+import org.mongodb.morphia.annotations.Serialized;
+import org.mongodb.morphia.converters.Converters;
+import org.mongodb.morphia.converters.TypeConverter;
+import org.mongodb.morphia.logging.Logger;
+import org.mongodb.morphia.logging.MorphiaLoggerFactory;
+import org.mongodb.morphia.mapping.cache.EntityCache;
+
+import java.lang.reflect.Modifier;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+
+/**
+ * The mapping decisions for a single {@link MappedField}: which {@link CustomMapper} reads and writes it and which {@link TypeConverter}
+ * converts its values.  These are resolved once, when first needed, rather than for every document and are rebuilt if converters are
+ * added to or removed from the {@link Mapper}.
+ *
+ * @see MapperOptions#setUseEntityCodecs(boolean)
+ */
+final class FieldPlan {
+    private static final Logger LOG = MorphiaLoggerFactory.get(FieldPlan.class);
+
+    private final MappedField mf;
+    private final Converters converters;
+    private final int generation;
+    private final String name;
+    private final Class<?> type;
+    private final boolean direct;
+    private final boolean saved;
+    private final Dispatch read;
+    private final Dispatch write;
+    private final boolean writeAsValue;
+    private final boolean fixedType;
+    private final boolean simpleFixedType;
+    private final TypeConverter decoder;
+    private final TypeConverter encoder;
+    private final TypeConverter nullEncoder;
+
+    FieldPlan(final MappedField mf, final Mapper mapper) {
+        this.mf = mf;
+        converters = mapper.getConverters();
+        generation = converters.getGeneration();
+        name = mf.getNameToStore();
+        type = mf.getType();
+        // subclasses such as EphemeralMappedField have their own way of finding their value
+        direct = !mf.hasAnnotation(AlsoLoad.class) && mf.getClass() == MappedField.class;
+        saved = !mf.hasAnnotation(NotSaved.class);
+        // the runtime type of the value is only known up front for primitives and final classes
+        fixedType = type.isPrimitive() || Modifier.isFinal(type.getModifiers());
+
+        final boolean simpleValue = converters.hasSimpleValueConverter(mf);
+        read = mf.hasAnnotation(Property.class) || mf.hasAnnotation(Serialized.class) || mf.isTypeMongoCompatible() || simpleValue
+               ? Dispatch.VALUE
+               : mf.hasAnnotation(Embedded.class) ? Dispatch.EMBEDDED
+               : mf.hasAnnotation(Reference.class) ? Dispatch.REFERENCE
+               : Dispatch.DEFAULT;
+
+        // @Property, @Embedded, @Serialized, @Reference is the order Mapper.getFieldAnnotation() checks
+        final Class<?> annType = mf.hasAnnotation(Property.class) ? Property.class
+                              : mf.hasAnnotation(Embedded.class) ? Embedded.class
+                              : mf.hasAnnotation(Serialized.class) ? Serialized.class
+                              : mf.hasAnnotation(Reference.class) ? Reference.class
+                              : null;
+        writeAsValue = Property.class.equals(annType) || Serialized.class.equals(annType) || mf.isTypeMongoCompatible() || simpleValue;
+        write = Reference.class.equals(annType) ? Dispatch.REFERENCE
+                : Embedded.class.equals(annType) ? Dispatch.EMBEDDED
+                : Dispatch.DEFAULT;
+        simpleFixedType = fixedType && converters.hasSimpleValueConverter(box(type));
+
+        decoder = read == Dispatch.VALUE ? findEncoder(null) : null;
+        if ((writeAsValue || simpleFixedType) && fixedType) {
+            final TypeConverter valueEncoder = findEncoder(box(type));
+            final TypeConverter nullValueEncoder = findEncoder(null);
+            encoder = valueEncoder != null && nullValueEncoder != null ? valueEncoder : null;
+            nullEncoder = encoder != null ? nullValueEncoder : null;
+        } else {
+            encoder = null;
+            nullEncoder = null;
+        }
+    }
+
+    private static Class<?> box(final Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else {
+            return Character.class;
+        }
+    }
+
+    /**
+     * @param mapper the Mapper to check against
+     * @return true if this plan was built with the converters currently registered with the Mapper
+     */
+    boolean isCurrent(final Mapper mapper) {
+        return converters == mapper.getConverters() && generation == converters.getGeneration();
+    }
+
+    MappedField getMappedField() {
+        return mf;
+    }
+
+    void read(final Datastore datastore, final DBObject dbObject, final Object entity, final EntityCache cache, final Mapper mapper) {
+        final MapperOptions opts = mapper.getOptions();
+        switch (read) {
+            case VALUE:
+                if (decoder != null && opts.getValueMapper() instanceof ValueMapper) {
+                    decode(dbObject, entity);
+                } else {
+                    opts.getValueMapper().fromDBObject(datastore, dbObject, mf, entity, cache, mapper);
+                }
+                break;
+            case EMBEDDED:
+                opts.getEmbeddedMapper().fromDBObject(datastore, dbObject, mf, entity, cache, mapper);
+                break;
+            case REFERENCE:
+                opts.getReferenceMapper().fromDBObject(datastore, dbObject, mf, entity, cache, mapper);
+                break;
+            default:
+                opts.getDefaultMapper().fromDBObject(datastore, dbObject, mf, entity, cache, mapper);
+        }
+    }
+
+    void write(final Object entity, final DBObject dbObject, final Map<Object, DBObject> involvedObjects, final Mapper mapper) {
+        if (!saved) {
+            return;
+        }
+
+        final MapperOptions opts = mapper.getOptions();
+        if (encoder != null && opts.getValueMapper() instanceof ValueMapper) {
+            final Object fieldValue = mf.getFieldValue(entity);
+            if (writeAsValue || fieldValue != null) {
+                encode(fieldValue, dbObject, opts);
+                return;
+            }
+        } else if (writeAsValue || isSimpleValue(entity)) {
+            opts.getValueMapper().toDBObject(entity, mf, dbObject, involvedObjects, mapper);
+            return;
+        }
+
+        switch (write) {
+            case REFERENCE:
+                opts.getReferenceMapper().toDBObject(entity, mf, dbObject, involvedObjects, mapper);
+                break;
+            case EMBEDDED:
+                opts.getEmbeddedMapper().toDBObject(entity, mf, dbObject, involvedObjects, mapper);
+                break;
+            default:
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("No annotation was found, using default mapper " + opts.getDefaultMapper() + " for " + mf);
+                }
+                opts.getDefaultMapper().toDBObject(entity, mf, dbObject, involvedObjects, mapper);
+        }
+    }
+
+    private boolean isSimpleValue(final Object entity) {
+        return fixedType ? simpleFixedType && mf.getFieldValue(entity) != null
+                         : converters.hasSimpleValueConverter(mf.getFieldValue(entity));
+    }
+
+    private TypeConverter findEncoder(final Class<?> valueType) {
+        try {
+            return converters.findEncoder(valueType, mf);
+        } catch (RuntimeException e) {
+            // leave it to the regular path to report
+            return null;
+        }
+    }
+
+    private void decode(final DBObject dbObject, final Object entity) {
+        final Object object = direct ? dbObject.get(name) : mf.getDbObjectValue(dbObject);
+        if (object != null) {
+            final Object decodedValue = decoder.decode(type, object, mf);
+            try {
+                mf.setFieldValue(entity, decodedValue);
+            } catch (IllegalArgumentException e) {
+                throw new MappingException(format("Error setting value from converter (%s) for %s to %s",
+                                                  decoder.getClass().getSimpleName(), mf.getFullName(), decodedValue), e);
+            }
+        }
+    }
+
+    private void encode(final Object fieldValue, final DBObject dbObject, final MapperOptions opts) {
+        try {
+            final Object encoded = fieldValue == null ? nullEncoder.encode(null, mf) : encoder.encode(fieldValue, mf);
+            if (encoded != null || opts.isStoreNulls()) {
+                dbObject.put(name, encoded);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private enum Dispatch {
+        VALUE,
+        EMBEDDED,
+        REFERENCE,
+        DEFAULT
+    }
+}
@@ -0,0 +1,149 @@
+package org.mongodb.morphia.mapping;
+
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+
+/**
+ * An index declared by a mapped class: its keys, using the stored field names, and its options.  Index specs are immutable and are built
+ * once per {@link MappedClass} so they can be shared by index creation, validation tools and checks of which queries an index covers.
+ *
+ * @see MappedClass#getIndexSpecs(Mapper)
+ */
+public final class IndexSpec {
+    private final Map<String, Object> keys;
+    private final Map<String, Object> options;
+    private final String name;
+
+    /**
+     * Creates an index spec from the documents given to the {@code createIndex} command.
+     *
+     * @param keys    the keys of the index in order, mapped to their index type
+     * @param options the options of the index
+     */
+    public IndexSpec(final DBObject keys, final DBObject options) {
+        this.keys = freeze(keys);
+        this.options = freeze(options);
+        final Object explicitName = options.get("name");
+        name = explicitName != null ? explicitName.toString() : generateName(this.keys);
+    }
+
+    /**
+     * @return the keys of the index in order, mapped to their index type
+     */
+    public Map<String, Object> getKeys() {
+        return keys;
+    }
+
+    /**
+     * @return the name of the index: the one declared or else the one the server would generate
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the options declared for the index
+     */
+    public Map<String, Object> getOptions() {
+        return options;
+    }
+
+    /**
+     * @return true if the index is unique
+     */
+    public boolean isUnique() {
+        return Boolean.TRUE.equals(options.get("unique"));
+    }
+
+    /**
+     * Checks whether the index can be used for a query on the given fields: they must all be keys of the index and the first must be the
+     * first key of the index.
+     *
+     * @param fields the stored names of the fields queried
+     * @return true if the index covers them
+     */
+    public boolean covers(final List<String> fields) {
+        return !fields.isEmpty() && keys.keySet().iterator().next().equals(fields.get(0)) && keys.keySet().containsAll(fields);
+    }
+
+    /**
+     * Creates the document describing the index for the {@code createIndexes} command.  The document is a fresh copy which can be changed
+     * freely.
+     *
+     * @param background true if the index should be built in the background, whatever was declared
+     * @return the index document, with the keys under {@code key}
+     */
+    public DBObject toDBObject(final boolean background) {
+        final BasicDBObject index = new BasicDBObject("key", thaw(keys));
+        index.put("name", name);
+        index.putAll(thaw(options));
+        if (background) {
+            index.put("background", true);
+        }
+        return index;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IndexSpec)) {
+            return false;
+        }
+        final IndexSpec that = (IndexSpec) o;
+        return keys.equals(that.keys) && options.equals(that.options);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * keys.hashCode() + options.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "IndexSpec{keys=" + keys + ", options=" + options + '}';
+    }
+
+    /**
+     * Generates the name the server and drivers give an index by default, e.g. {@code name_1_age_-1}.
+     */
+    private static String generateName(final Map<String, Object> keys) {
+        final StringBuilder name = new StringBuilder();
+        for (final Entry<String, Object> key : keys.entrySet()) {
+            if (name.length() != 0) {
+                name.append('_');
+            }
+            final Object value = key.getValue();
+            name.append(key.getKey()).append('_').append(value instanceof Number ? String.valueOf(((Number) value).intValue())
+                                                                                 : String.valueOf(value).replace(' ', '_'));
+        }
+        return name.toString();
+    }
+
+    private static Map<String, Object> freeze(final DBObject dbObject) {
+        final Map<String, Object> map = new LinkedHashMap<String, Object>();
+        for (final String key : dbObject.keySet()) {
+            final Object value = dbObject.get(key);
+            map.put(key, value instanceof DBObject ? freeze((DBObject) value) : value);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DBObject thaw(final Map<String, Object> map) {
+        final BasicDBObject dbObject = new BasicDBObject();
+        for (final Entry<String, Object> entry : map.entrySet()) {
+            dbObject.put(entry.getKey(), entry.getValue() instanceof Map ? thaw((Map<String, Object>) entry.getValue()) : entry.getValue());
+        }
+        return dbObject;
+    }
+}
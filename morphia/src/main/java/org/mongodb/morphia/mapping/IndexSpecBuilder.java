@@ -0,0 +1,338 @@
+package org.mongodb.morphia.mapping;
+
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.mongodb.morphia.annotations.Field;
+import org.mongodb.morphia.annotations.Index;
+import org.mongodb.morphia.annotations.IndexOptions;
+import org.mongodb.morphia.annotations.Indexed;
+import org.mongodb.morphia.annotations.Indexes;
+import org.mongodb.morphia.annotations.NotSaved;
+import org.mongodb.morphia.annotations.Reference;
+import org.mongodb.morphia.annotations.Serialized;
+import org.mongodb.morphia.annotations.Text;
+import org.mongodb.morphia.annotations.Transient;
+import org.mongodb.morphia.logging.Logger;
+import org.mongodb.morphia.logging.MorphiaLoggerFactory;
+import org.mongodb.morphia.utils.IndexType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.String.format;
+import static org.mongodb.morphia.query.QueryImpl.parseFieldsString;
+
+
+/**
+ * Reads the index annotations of a {@link MappedClass}, and of the classes embedded in it, in to {@link IndexSpec}s.
+ *
+ * @see MappedClass#getIndexSpecs(Mapper)
+ */
+@SuppressWarnings("deprecation")
+public class IndexSpecBuilder {
+    private static final Logger LOG = MorphiaLoggerFactory.get(IndexSpecBuilder.class);
+
+    private final Mapper mapper;
+
+    /**
+     * Creates a builder resolving field names and embedded classes with the given Mapper.
+     *
+     * @param mapper the Mapper to use
+     */
+    public IndexSpecBuilder(final Mapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Builds the options the deprecated index settings translate to.
+     *
+     * @param name               the name of the index, if any
+     * @param unique             true if the index is unique
+     * @param dropDupsOnCreate   true if duplicates should be dropped when a unique index is built
+     * @param background         true if the index should be built in the background
+     * @param sparse             true if the index is sparse
+     * @param expireAfterSeconds the time to live of the documents or -1
+     * @return the options
+     */
+    public static DBObject legacyOptions(final String name, final boolean unique, final boolean dropDupsOnCreate, final boolean background,
+                                  final boolean sparse, final int expireAfterSeconds) {
+        final BasicDBObject opts = new BasicDBObject();
+        if (name != null && name.length() != 0) {
+            opts.append("name", name);
+        }
+        if (unique) {
+            opts.append("unique", true);
+            if (dropDupsOnCreate) {
+                opts.append("dropDups", true);
+            }
+        }
+
+        if (background) {
+            opts.append("background", true);
+        }
+        if (sparse) {
+            opts.append("sparse", true);
+        }
+
+        if (expireAfterSeconds > -1) {
+            opts.append("expireAfterSeconds", expireAfterSeconds);
+        }
+        return opts;
+    }
+
+    /**
+     * Lists the indexes declared by an entity and the classes embedded in it.  Embedded classes declare no indexes of their own.
+     *
+     * @param mc the class to read
+     * @return the indexes
+     */
+    public List<IndexSpec> build(final MappedClass mc) {
+        final List<IndexSpec> indexes = new ArrayList<IndexSpec>();
+        build(mc, new ArrayList<MappedClass>(), new ArrayList<MappedField>(), indexes);
+        return indexes;
+    }
+
+    /**
+     * Adds the indexes declared by a class, embedded at the given path, to a list.
+     *
+     * @param mc        the class to read
+     * @param parentMCs the classes embedding it, outermost first
+     * @param parentMFs the fields it is embedded in, outermost first
+     * @param indexes   the list to add the indexes to
+     */
+    public void build(final MappedClass mc, final List<MappedClass> parentMCs, final List<MappedField> parentMFs,
+                      final List<IndexSpec> indexes) {
+        if (parentMCs.contains(mc)) {
+            return;
+        }
+
+        if (mc.getEmbeddedAnnotation() != null && parentMCs.isEmpty()) {
+            return;
+        }
+        processClassAnnotations(mc, parentMCs, parentMFs, indexes);
+
+        processEmbeddedAnnotations(mc, parentMCs, parentMFs, indexes);
+    }
+
+    /**
+     * Builds the index an {@code @Index} declares with {@code fields}.
+     *
+     * @param mc         the class declaring the index
+     * @param fields     the fields of the index
+     * @param options    the options of the index
+     * @param background true if the index should be built in the background, whatever the options say
+     * @param parentMCs  the classes embedding the declaring class, outermost first
+     * @param parentMFs  the fields the declaring class is embedded in, outermost first
+     * @return the index
+     */
+    public IndexSpec build(final MappedClass mc, final Field[] fields, final IndexOptions options, final boolean background,
+                           final List<MappedClass> parentMCs, final List<MappedField> parentMFs) {
+        DBObject keys = new BasicDBObject();
+        final StringBuilder name = new StringBuilder();
+        if (!parentMCs.isEmpty()) {
+            for (final MappedField pmf : parentMFs) {
+                name.append(pmf.getNameToStore()).append(".");
+            }
+        }
+        DBObject opts = extractOptions(options, background);
+        for (Field field : fields) {
+            String value = field.value();
+            String key = name + value;
+            if (!"$**".equals(value)) {
+                List<String> namePath = new ArrayList<String>();
+                final MappedField mappedField = findField(namePath, mc, value);
+                if (!options.disableValidation() && mappedField == null) {
+                    throw new MappingException(format("Unknown field '%s' for index: %s", value, mc.getClazz().getName()));
+                } else {
+                    StringBuilder sb = new StringBuilder();
+                    for (String s : namePath) {
+                        if (sb.length() != 0) {
+                            sb.append(".");
+                        }
+                        sb.append(s);
+                    }
+                    key = name + sb.toString();
+                }
+            }
+            keys.put(key, field.type().toIndexValue());
+            if (field.weight() != -1) {
+                if (field.type() != IndexType.TEXT) {
+                    throw new MappingException("Weight values only apply to text indexes: " + Arrays.toString(fields));
+                }
+                DBObject weights = (DBObject) opts.get("weights");
+                if (weights == null) {
+                    weights = new BasicDBObject();
+                    opts.put("weights", weights);
+                }
+                weights.put(key, field.weight());
+            }
+        }
+
+        return new IndexSpec(keys, opts);
+    }
+
+    private IndexSpec textIndex(final List<MappedClass> parentMCs, final List<MappedField> parentMFs, final MappedField mf) {
+        final Text index = mf.getAnnotation(Text.class);
+        final StringBuilder prefix = new StringBuilder();
+        if (!parentMCs.isEmpty()) {
+            for (final MappedField pmf : parentMFs) {
+                prefix.append(pmf.getNameToStore()).append(".");
+            }
+        }
+
+        String field = prefix + mf.getNameToStore();
+
+        DBObject keys = new BasicDBObject(field, IndexType.TEXT.toIndexValue());
+        DBObject opts = extractOptions(index.options(), false);
+        if (index.value() != -1) {
+            DBObject weights = new BasicDBObject();
+            opts.put("weights", weights);
+            weights.put(field, index.value());
+        }
+        return new IndexSpec(keys, opts);
+    }
+
+    private DBObject extractOptions(final IndexOptions options, final boolean background) {
+        final DBObject opts = new BasicDBObject();
+
+        putIfNotEmpty(opts, "name", options.name());
+        putIfNotEmpty(opts, "default_language", options.language());
+        putIfNotEmpty(opts, "language_override", options.languageOverride());
+        putIfTrue(opts, "background", options.background() || background);
+        putIfTrue(opts, "dropDups", options.dropDups());
+        putIfTrue(opts, "sparse", options.sparse());
+        putIfTrue(opts, "unique", options.unique());
+        if (options.expireAfterSeconds() != -1) {
+            opts.put("expireAfterSeconds", options.expireAfterSeconds());
+        }
+        return opts;
+    }
+
+    private DBObject extractOptions(final Indexed indexed) {
+        final DBObject opts = new BasicDBObject();
+
+        putIfNotEmpty(opts, "name", indexed.name());
+        putIfTrue(opts, "background", indexed.background());
+        putIfTrue(opts, "dropDups", indexed.dropDups());
+        putIfTrue(opts, "sparse", indexed.sparse());
+        putIfTrue(opts, "unique", indexed.unique());
+        if (indexed.expireAfterSeconds() != -1) {
+            opts.put("expireAfterSeconds", indexed.expireAfterSeconds());
+        }
+        return opts;
+    }
+
+    private MappedField findField(final List<String> namePath, final MappedClass mc, final String value) {
+        if (value.contains(".")) {
+            String segment = value.substring(0, value.indexOf("."));
+            MappedField field = findField(namePath, mc, segment);
+            if (field != null) {
+                MappedClass mappedClass =
+                    mapper.getMappedClass(field.getSubType() != null ? field.getSubType() : field.getConcreteType());
+                return findField(namePath, mappedClass, value.substring(value.indexOf(".") + 1));
+            } else {
+                namePath.addAll(Arrays.asList(value.split("\\.")));
+                return null;
+            }
+        } else {
+            MappedField mf = mc.getMappedField(value);
+            if (mf == null) {
+                mf = mc.getMappedFieldByJavaField(value);
+            }
+            if (mf != null) {
+                namePath.add(mf.getNameToStore());
+            }
+            return mf;
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private void processClassAnnotations(final MappedClass mc, final List<MappedClass> parentMCs, final List<MappedField> parentMFs,
+                                         final List<IndexSpec> indexes) {
+        // Ensure indexes from class annotation
+        final List<Indexes> annotations = mc.getAnnotations(Indexes.class);
+        if (annotations != null) {
+            for (final Indexes idx : annotations) {
+                if (idx.value().length > 0) {
+                    for (final Index index : idx.value()) {
+                        if (index.fields().length != 0) {
+                            indexes.add(build(mc, index.fields(), index.options(), false, parentMCs, parentMFs));
+                        } else {
+                            LOG.warning(format("This index on '%s' is using deprecated configuration options.  Please update to use the "
+                                                   + "fields value on @Index: %s", mc.getClazz().getName(), index.toString()));
+                            final BasicDBObject fields = parseFieldsString(index.value(), mc.getClazz(), mapper,
+                                                                           !index.disableValidation(), parentMCs, parentMFs);
+                            indexes.add(new IndexSpec(fields, legacyOptions(index.name(), index.unique(), index.dropDups(),
+                                                                            index.background(), index.sparse(),
+                                                                            index.expireAfterSeconds())));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Ensure indexes from field annotations, and embedded entities
+     */
+    private void processEmbeddedAnnotations(final MappedClass mc, final List<MappedClass> parentMCs, final List<MappedField> parentMFs,
+                                            final List<IndexSpec> indexes) {
+        List<MappedField> annotatedWith = mc.getFieldsAnnotatedWith(Text.class);
+        if (annotatedWith.size() > 1) {
+            throw new MappingException("Only one text index can be defined per collection: " + mc.getClazz().getName());
+        }
+        for (final MappedField mf : mc.getPersistenceFields()) {
+            if (mf.hasAnnotation(Indexed.class)) {
+                final Indexed index = mf.getAnnotation(Indexed.class);
+                final StringBuilder prefix = new StringBuilder();
+                if (!parentMCs.isEmpty()) {
+                    for (final MappedField pmf : parentMFs) {
+                        prefix.append(pmf.getNameToStore()).append(".");
+                    }
+                }
+
+                final BasicDBObject oldOptions = (BasicDBObject) extractOptions(index);
+                final IndexOptions options = index.options();
+                final BasicDBObject newOptions = (BasicDBObject) extractOptions(options, false);
+                if (!oldOptions.isEmpty() && !newOptions.isEmpty()) {
+                    throw new MappingException("Mixed usage of deprecated @Indexed value with the new @IndexOption values is not "
+                                                   + "allowed.  Please migrate all settings to @IndexOptions");
+                }
+                final BasicDBObject keys = new BasicDBObject(prefix + mf.getNameToStore(), index.value().toIndexValue());
+                if (!newOptions.isEmpty()) {
+                    indexes.add(new IndexSpec(keys, newOptions));
+                } else {
+                    indexes.add(new IndexSpec(keys, legacyOptions(index.name(), index.unique(), index.dropDups(), index.background(),
+                                                                  index.sparse(), index.expireAfterSeconds())));
+                }
+            }
+
+            if (mf.hasAnnotation(Text.class)) {
+                indexes.add(textIndex(parentMCs, parentMFs, mf));
+            }
+
+            if (!mf.isTypeMongoCompatible() && !mf.hasAnnotation(Reference.class) && !mf.hasAnnotation(Serialized.class)
+                    && !mf.hasAnnotation(NotSaved.class) && !mf.hasAnnotation(Transient.class)) {
+                final List<MappedClass> newParentClasses = new ArrayList<MappedClass>(parentMCs);
+                final List<MappedField> newParents = new ArrayList<MappedField>(parentMFs);
+                newParentClasses.add(mc);
+                newParents.add(mf);
+                build(mapper.getMappedClass(mf.isSingleValue() ? mf.getType() : mf.getSubClass()), newParentClasses, newParents, indexes);
+            }
+        }
+    }
+
+    private void putIfNotEmpty(final DBObject opts, final String key, final String value) {
+        if (!value.equals("")) {
+            opts.put(key, value);
+        }
+    }
+
+    private void putIfTrue(final DBObject opts, final String key, final boolean value) {
+        if (value) {
+            opts.put(key, true);
+        }
+    }
+}
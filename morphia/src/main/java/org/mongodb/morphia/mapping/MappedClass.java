@@ -3,11 +3,14 @@ package org.mongodb.morphia.mapping;
 
 import com.mongodb.DBObject;
 import org.mongodb.morphia.EntityInterceptor;
+import org.mongodb.morphia.annotations.CachedQueries;
 import org.mongodb.morphia.annotations.Converters;
 import org.mongodb.morphia.annotations.Embedded;
 import org.mongodb.morphia.annotations.Entity;
 import org.mongodb.morphia.annotations.EntityListeners;
 import org.mongodb.morphia.annotations.Field;
+import org.mongodb.morphia.annotations.FieldGroup;
+import org.mongodb.morphia.annotations.FieldGroups;
 import org.mongodb.morphia.annotations.Id;
 import org.mongodb.morphia.annotations.IndexOptions;
 import org.mongodb.morphia.annotations.Indexes;
@@ -75,6 +78,8 @@ public class MappedClass {
         INTERESTING_ANNOTATIONS.add(Indexes.class);
         INTERESTING_ANNOTATIONS.add(Field.class);
         INTERESTING_ANNOTATIONS.add(IndexOptions.class);
+        INTERESTING_ANNOTATIONS.add(FieldGroups.class);
+        INTERESTING_ANNOTATIONS.add(CachedQueries.class);
     }
 
     /**
@@ -105,6 +110,14 @@ public class MappedClass {
     private Entity entityAn;
     private Embedded embeddedAn;
     private MapperOptions mapperOptions;
+    /**
+     * lookups of the persistence fields by name, built on first use
+     */
+    private volatile FieldIndex fieldIndex;
+    /**
+     * the indexes declared by this class and the classes embedded in it, built on first use
+     */
+    private volatile List<IndexSpec> indexSpecs;
 
     /**
      * Creates a MappedClass instance
@@ -322,6 +335,24 @@ public class MappedClass {
         return entityAn;
     }
 
+    /**
+     * Looks up a field group declared with {@link FieldGroups}.
+     *
+     * @param name the name of the group
+     * @return the fields of the group, or null if the class declares no such group
+     */
+    public String[] getFieldGroup(final String name) {
+        final FieldGroups groups = (FieldGroups) getAnnotation(FieldGroups.class);
+        if (groups != null) {
+            for (final FieldGroup group : groups.value()) {
+                if (group.name().equals(name)) {
+                    return group.fields().clone();
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * Returns fields annotated with the clazz
      *
@@ -373,15 +404,7 @@ public class MappedClass {
      * @return true if that mapped field name is found
      */
     public MappedField getMappedField(final String storedName) {
-        for (final MappedField mf : persistenceFields) {
-            for (final String n : mf.getLoadNames()) {
-                if (storedName.equals(n)) {
-                    return mf;
-                }
-            }
-        }
-
-        return null;
+        return getFieldIndex().byStoredName.get(storedName);
     }
 
     /**
@@ -391,13 +414,7 @@ public class MappedClass {
      * @return the MappedField for the named Java field
      */
     public MappedField getMappedFieldByJavaField(final String name) {
-        for (final MappedField mf : persistenceFields) {
-            if (name.equals(mf.getJavaFieldName())) {
-                return mf;
-            }
-        }
-
-        return null;
+        return getFieldIndex().byJavaName.get(name);
     }
 
     /**
@@ -427,6 +444,22 @@ public class MappedClass {
     }
 */
 
+    /**
+     * Returns the indexes declared by this class and the classes embedded in it.  They are read from the annotations the first time they
+     * are needed and kept for as long as the mapping does not change.
+     *
+     * @param mapper the Mapper to resolve embedded classes with
+     * @return the immutable list of indexes
+     */
+    public List<IndexSpec> getIndexSpecs(final Mapper mapper) {
+        List<IndexSpec> specs = indexSpecs;
+        if (specs == null) {
+            specs = Collections.unmodifiableList(new IndexSpecBuilder(mapper).build(this));
+            indexSpecs = specs;
+        }
+        return specs;
+    }
+
     /**
      * @return the persistenceFields
      */
@@ -471,6 +504,8 @@ public class MappedClass {
      */
     // TODO: Remove this and make these fields dynamic or auto-set some other way
     public void update() {
+        fieldIndex = null;
+        indexSpecs = null;
         embeddedAn = (Embedded) getAnnotation(Embedded.class);
         entityAn = (Entity) getFirstAnnotation(Entity.class);
         // polymorphicAn = (Polymorphic) getAnnotation(Polymorphic.class);
@@ -560,6 +595,15 @@ public class MappedClass {
         }
     }
 
+    private FieldIndex getFieldIndex() {
+        FieldIndex index = fieldIndex;
+        if (index == null) {
+            index = new FieldIndex(persistenceFields);
+            fieldIndex = index;
+        }
+        return index;
+    }
+
     private void addLifecycleEventMethod(final Class<? extends Annotation> lceClazz, final Method m, final Class<?> clazz) {
         final ClassMethodPair cm = new ClassMethodPair(clazz, m);
         if (lifecycleMethods.containsKey(lceClazz)) {
@@ -616,6 +660,32 @@ public class MappedClass {
                || mapper.getOptions().isIgnoreFinals() && ((fieldMods & Modifier.FINAL) == Modifier.FINAL);
     }
 
+    /**
+     * Immutable lookups of the persistence fields by the names stored in mongodb (including those from @AlsoLoad) and by java field name.
+     * Where names collide the first field in declaration order wins just as when searching the fields in order.
+     */
+    private static final class FieldIndex {
+        private final Map<String, MappedField> byStoredName;
+        private final Map<String, MappedField> byJavaName;
+
+        private FieldIndex(final List<MappedField> fields) {
+            final Map<String, MappedField> stored = new HashMap<String, MappedField>();
+            final Map<String, MappedField> java = new HashMap<String, MappedField>();
+            for (final MappedField mf : fields) {
+                for (final String name : mf.getLoadNames()) {
+                    if (!stored.containsKey(name)) {
+                        stored.put(name, mf);
+                    }
+                }
+                if (!java.containsKey(mf.getJavaFieldName())) {
+                    java.put(mf.getJavaFieldName(), mf);
+                }
+            }
+            byStoredName = Collections.unmodifiableMap(stored);
+            byJavaName = Collections.unmodifiableMap(java);
+        }
+    }
+
     private static class ClassMethodPair {
         private final Class<?> clazz;
         private final Method method;
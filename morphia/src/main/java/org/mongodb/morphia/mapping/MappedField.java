@@ -31,6 +31,7 @@ import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -83,6 +84,9 @@ public class MappedField {
     private boolean isArray; // indicated if it is an Array
     private boolean isCollection; // indicated if the collection is a list)
     private Type genericType;
+    private volatile FieldPlan plan; // the precomputed mapping decisions for this field
+    private volatile String[] loadNames; // the stored name followed by any @AlsoLoad names
+    private volatile List<String> loadNameList; // cached, read-only view of loadNames
 
     MappedField(final Field f, final Class<?> clazz, final Mapper mapper) {
         f.setAccessible(true);
@@ -123,6 +127,9 @@ public class MappedField {
     public void addAnnotation(final Class<? extends Annotation> clazz) {
         if (field.isAnnotationPresent(clazz)) {
             foundAnnotations.put(clazz, field.getAnnotation(clazz));
+            plan = null;
+            loadNames = null;
+            loadNameList = null;
         }
     }
 
@@ -134,6 +141,9 @@ public class MappedField {
      */
     public void addAnnotation(final Class<? extends Annotation> clazz, final Annotation ann) {
         foundAnnotations.put(clazz, ann);
+        plan = null;
+        loadNames = null;
+        loadNameList = null;
     }
 
     /**
@@ -187,7 +197,8 @@ public class MappedField {
      * @return the value from best mapping of this field
      */
     public Object getDbObjectValue(final DBObject dbObj) {
-        return dbObj.get(getFirstFieldName(dbObj));
+        final String[] names = getLoadNameArray();
+        return dbObj.get(names.length == 1 ? getNameToStore() : getFirstFieldName(dbObj, names));
     }
 
     /**
@@ -226,19 +237,8 @@ public class MappedField {
      * @see AlsoLoad
      */
     public String getFirstFieldName(final DBObject dbObj) {
-        String fieldName = getNameToStore();
-        boolean foundField = false;
-        for (final String n : getLoadNames()) {
-            if (dbObj.containsField(n)) {
-                if (!foundField) {
-                    foundField = true;
-                    fieldName = n;
-                } else {
-                    throw new MappingException(format("Found more than one field from @AlsoLoad %s", getLoadNames()));
-                }
-            }
-        }
-        return fieldName;
+        final String[] names = getLoadNameArray();
+        return names.length == 1 ? getNameToStore() : getFirstFieldName(dbObj, names);
     }
 
     /**
@@ -256,15 +256,13 @@ public class MappedField {
     }
 
     /**
-     * @return the name of the field's (key)name for mongodb, in order of loading.
+     * @return the name of the field's (key)name for mongodb, in order of loading.  The list is read-only.
      */
     public List<String> getLoadNames() {
-        final List<String> names = new ArrayList<String>();
-        names.add(getMappedFieldName());
-
-        final AlsoLoad al = (AlsoLoad) foundAnnotations.get(AlsoLoad.class);
-        if (al != null && al.value() != null && al.value().length > 0) {
-            names.addAll(asList(al.value()));
+        List<String> names = loadNameList;
+        if (names == null) {
+            names = Collections.unmodifiableList(asList(getLoadNameArray()));
+            loadNameList = names;
         }
 
         return names;
@@ -304,6 +302,19 @@ public class MappedField {
         return subType;
     }
 
+    /**
+     * @param mapper the Mapper to build the plan for
+     * @return the precomputed mapping decisions for this field
+     */
+    FieldPlan getPlan(final Mapper mapper) {
+        FieldPlan current = plan;
+        if (current == null || !current.isCurrent(mapper)) {
+            current = new FieldPlan(this, mapper);
+            plan = current;
+        }
+        return current;
+    }
+
     void setSubType(final Type subType) {
         this.subType = subType;
     }
@@ -394,6 +405,9 @@ public class MappedField {
      * @return ann the annotation
      */
     public Annotation putAnnotation(final Annotation ann) {
+        plan = null;
+        loadNames = null;
+        loadNameList = null;
         return foundAnnotations.put(ann.getClass(), ann);
     }
 
@@ -550,6 +564,35 @@ public class MappedField {
         return typeArgument != null ? typeArgument : Object.class;
     }
 
+    private String getFirstFieldName(final DBObject dbObj, final String[] names) {
+        String fieldName = getNameToStore();
+        boolean foundField = false;
+        for (final String n : names) {
+            if (dbObj.containsField(n)) {
+                if (!foundField) {
+                    foundField = true;
+                    fieldName = n;
+                } else {
+                    throw new MappingException(format("Found more than one field from @AlsoLoad %s", getLoadNames()));
+                }
+            }
+        }
+        return fieldName;
+    }
+
+    private String[] getLoadNameArray() {
+        String[] names = loadNames;
+        if (names == null) {
+            final AlsoLoad al = (AlsoLoad) foundAnnotations.get(AlsoLoad.class);
+            final String[] aliases = al != null && al.value() != null ? al.value() : new String[0];
+            names = new String[aliases.length + 1];
+            names[0] = getMappedFieldName();
+            System.arraycopy(aliases, 0, names, 1, aliases.length);
+            loadNames = names;
+        }
+        return names;
+    }
+
     /**
      * @return the name of the field's key-name for mongodb
      */
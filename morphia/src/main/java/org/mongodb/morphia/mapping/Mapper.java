@@ -15,13 +15,15 @@ import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
 import com.mongodb.DBObject;
 import com.mongodb.DBRef;
-import org.bson.BSONEncoder;
-import org.bson.BasicBSONEncoder;
+import com.mongodb.ReadPreference;
 import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.DatastoreImpl;
 import org.mongodb.morphia.EntityInterceptor;
 import org.mongodb.morphia.Key;
+import org.mongodb.morphia.annotations.CachedQueries;
 import org.mongodb.morphia.annotations.Converters;
 import org.mongodb.morphia.annotations.Embedded;
+import org.mongodb.morphia.annotations.Entity;
 import org.mongodb.morphia.annotations.NotSaved;
 import org.mongodb.morphia.annotations.PostLoad;
 import org.mongodb.morphia.annotations.PreLoad;
@@ -34,11 +36,19 @@ import org.mongodb.morphia.converters.CustomConverters;
 import org.mongodb.morphia.converters.TypeConverter;
 import org.mongodb.morphia.logging.Logger;
 import org.mongodb.morphia.logging.MorphiaLoggerFactory;
+import org.mongodb.morphia.mapping.cache.AggregatingEntityCacheFactory;
+import org.mongodb.morphia.mapping.cache.DefaultEntityCache;
 import org.mongodb.morphia.mapping.cache.EntityCache;
+import org.mongodb.morphia.mapping.cache.EntityCacheFactory;
+import org.mongodb.morphia.mapping.cache.EntityCacheStatistics;
+import org.mongodb.morphia.mapping.cache.InvalidatingEntityCacheFactory;
 import org.mongodb.morphia.mapping.lazy.LazyFeatureDependencies;
 import org.mongodb.morphia.mapping.lazy.LazyProxyFactory;
 import org.mongodb.morphia.mapping.lazy.proxy.ProxiedEntityReference;
 import org.mongodb.morphia.mapping.lazy.proxy.ProxyHelper;
+import org.mongodb.morphia.query.QueryCachePolicy;
+import org.mongodb.morphia.query.QueryMetricsListener;
+import org.mongodb.morphia.query.QueryPathCache;
 import org.mongodb.morphia.query.ValidationException;
 
 import java.io.IOException;
@@ -49,11 +59,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import static java.lang.String.format;
@@ -85,6 +97,7 @@ public class Mapper {
      */
     public static final String CLASS_NAME_FIELDNAME = "className";
     private static final Logger LOG = MorphiaLoggerFactory.get(Mapper.class);
+    private static final Class[] FIELD_ANNOTATIONS = new Class[]{Property.class, Embedded.class, Serialized.class, Reference.class};
     /**
      * Set of classes that registered by this mapper
      */
@@ -93,9 +106,22 @@ public class Mapper {
 
     //EntityInterceptors; these are called after EntityListeners and lifecycle methods on an Entity, for all Entities
     private final List<EntityInterceptor> interceptors = new LinkedList<EntityInterceptor>();
+    private final List<QueryMetricsListener> queryMetricsListeners = new CopyOnWriteArrayList<QueryMetricsListener>();
 
     //A general cache of instances of classes; used by MappedClass for EntityListener(s)
     private final Map<Class, Object> instanceCache = new ConcurrentHashMap();
+    //codecs for the mapped classes; only used if MapperOptions.isUseEntityCodecs()
+    private final Map<String, EntityCodec> codecs = new ConcurrentHashMap<String, EntityCodec>();
+    //the statistics of every EntityCache created by this mapper, if the cache factory supports it
+    private final EntityCacheStatistics cacheStatistics = EntityCacheStatistics.newConcurrentStatistics();
+    //validated query paths; sized by MapperOptions.getQueryPathCacheSize()
+    private final QueryPathCache queryPathCache = new QueryPathCache();
+
+    private final EntitySnapshots snapshots = new EntitySnapshots();
+    // the fields partial entities were loaded with
+    private final EntitySnapshots loadedFields = new EntitySnapshots();
+    //the fields fetched by queries for a class, if MapperOptions.isProjectMappedFields() or @Entity.projectMappedFields() are set
+    private final Map<Class, Map<String, Object>> projections = new ConcurrentHashMap<Class, Map<String, Object>>();
     // TODO: make these configurable
     private final LazyProxyFactory proxyFactory = LazyFeatureDependencies.createDefaultProxyFactory();
     private final org.mongodb.morphia.converters.Converters converters;
@@ -143,6 +169,16 @@ public class Mapper {
         interceptors.add(ei);
     }
 
+    /**
+     * Adds a listener for the metrics of the queries run through this Mapper.  Bytes are only counted and metrics only published while
+     * at least one listener is registered.
+     *
+     * @param listener the listener to add
+     */
+    public void addQueryMetricsListener(final QueryMetricsListener listener) {
+        queryMetricsListeners.add(listener);
+    }
+
     /**
      * Creates a MappedClass and validates it.
      *
@@ -165,7 +201,45 @@ public class Mapper {
      * @return the cache
      */
     public EntityCache createEntityCache() {
-        return getOptions().getCacheFactory().createCache();
+        final EntityCacheFactory factory = getOptions().getCacheFactory();
+        return factory instanceof AggregatingEntityCacheFactory
+               ? ((AggregatingEntityCacheFactory) factory).createCache(getAggregateStatistics())
+               : factory.createCache();
+    }
+
+    /**
+     * Creates a cache for tracking the entities a Datastore loads from a database.  Caches which keep entities beyond a single query only
+     * share them with the caches of the same database.
+     *
+     * @param database the name of the database the entities are read from
+     * @return the cache
+     */
+    public EntityCache createEntityCache(final String database) {
+        final EntityCacheFactory factory = getOptions().getCacheFactory();
+        return factory instanceof InvalidatingEntityCacheFactory
+               ? ((InvalidatingEntityCacheFactory) factory).createCache(database, getAggregateStatistics())
+               : createEntityCache();
+    }
+
+    private EntityCacheStatistics getAggregateStatistics() {
+        // the caches created with the statistics take whether to time their lookups from them
+        if (cacheStatistics.isTimingLookups() != opts.isTimeCacheLookups()) {
+            cacheStatistics.setTimingLookups(opts.isTimeCacheLookups());
+        }
+        return cacheStatistics;
+    }
+
+    /**
+     * Creates a cache for a query which loads only some of the fields of its entities.  Such entities must not be handed to other queries,
+     * nor may the query mark entities other queries share as partial, so caches which keep entities beyond a single query are left out.
+     *
+     * @return the cache
+     * @see #setLoadedFields(Object, DBObject)
+     */
+    public EntityCache createPartialEntityCache() {
+        return getOptions().getCacheFactory() instanceof InvalidatingEntityCacheFactory
+               ? new DefaultEntityCache(getAggregateStatistics())
+               : createEntityCache();
     }
 
     /**
@@ -192,6 +266,24 @@ public class Mapper {
         return entity;
     }
 
+    /**
+     * Loads the eager references of a batch of documents into the cache, with one query per referenced collection, so that mapping the
+     * documents afterwards does not have to fetch the references one at a time.
+     *
+     * @param datastore   the Datastore to load the references with
+     * @param entityClass the type the documents will be mapped to
+     * @param dbObjects   the documents about to be mapped
+     * @param cache       the EntityCache the documents will be mapped with
+     * @param readPref    the read preference of the query the documents were read with, or null for the default
+     * @see MapperOptions#setReferenceBatchSize(int)
+     */
+    public void prefetchReferences(final Datastore datastore, final Class<?> entityClass, final List<DBObject> dbObjects,
+                                   final EntityCache cache, final ReadPreference readPref) {
+        if (datastore instanceof DatastoreImpl && !dbObjects.isEmpty() && opts.getReferenceMapper() instanceof ReferenceMapper) {
+            new ReferencePrefetcher((DatastoreImpl) datastore, this, cache, readPref).prefetch(entityClass, dbObjects);
+        }
+    }
+
     /**
      * Converts a DBObject back to a type-safe java object (POJO)
      *
@@ -211,9 +303,10 @@ public class Mapper {
 
         // check the history key (a key is the namespace + id)
 
-        if (dbObject.containsField(ID_KEY) && getMappedClass(entity).getIdField() != null
-            && getMappedClass(entity).getEntityAnnotation() != null) {
-            final Key<T> key = new Key(entity.getClass(), getCollectionName(entity.getClass()), dbObject.get(ID_KEY));
+        final MappedClass mc = getMappedClass(entity);
+        Key<T> key = null;
+        if (dbObject.containsField(ID_KEY) && mc.getIdField() != null && mc.getEntityAnnotation() != null) {
+            key = new Key(entity.getClass(), getCollectionName(entity.getClass()), dbObject.get(ID_KEY));
             final T cachedInstance = cache.getEntity(key);
             if (cachedInstance != null) {
                 return cachedInstance;
@@ -222,12 +315,14 @@ public class Mapper {
             }
         }
 
-        final MappedClass mc = getMappedClass(entity);
-
         final DBObject updated = mc.callLifecycleMethods(PreLoad.class, entity, dbObject, this);
         try {
-            for (final MappedField mf : mc.getPersistenceFields()) {
-                readMappedField(datastore, mf, entity, cache, updated);
+            if (opts.isUseEntityCodecs()) {
+                getEntityCodec(mc).decode(datastore, updated, entity, cache, this);
+            } else {
+                for (final MappedField mf : mc.getPersistenceFields()) {
+                    readMappedField(datastore, mf, entity, cache, updated);
+                }
             }
         } catch (final MappingException e) {
             Object id = dbObject.get(ID_KEY);
@@ -236,11 +331,14 @@ public class Mapper {
                                               datastore.getDB().getName()), e);
         }
 
-        if (updated.containsField(ID_KEY) && getMappedClass(entity).getIdField() != null) {
-            final Key key = new Key(entity.getClass(), getCollectionName(entity.getClass()), updated.get(ID_KEY));
+        mc.callLifecycleMethods(PostLoad.class, entity, updated, this);
+        if (opts.isTrackChanges() && mc.getEntityAnnotation() != null && dbObject.containsField(ID_KEY)) {
+            snapshots.put(entity, dbObject);
+        }
+        // put again once fully loaded so caches shared across queries never hand out a partially read entity
+        if (key != null) {
             cache.putEntity(key, entity);
         }
-        mc.callLifecycleMethods(PostLoad.class, entity, updated, this);
         return entity;
     }
 
@@ -304,6 +402,40 @@ public class Mapper {
         }
     }
 
+    /**
+     * Converts an id to the form it is stored in, as it is for queries, so that ids given in different java forms can be compared: a
+     * compound id and the document it is stored as, or an Integer and a Long of the same value.  Documents are compared without their
+     * class name and numbers by value.
+     *
+     * @param id the id of an entity or a key
+     * @return a value which equals that of any other form of the same stored id
+     */
+    public Object getStoredIdForm(final Object id) {
+        return normalizeStoredId(toMongoObject(null, null, id));
+    }
+
+    private static Object normalizeStoredId(final Object value) {
+        if (value instanceof Number) {
+            final Number number = (Number) value;
+            return number.doubleValue() == number.longValue() ? (Object) number.longValue() : (Object) number.doubleValue();
+        } else if (value instanceof List) {
+            final List<Object> form = new ArrayList<Object>();
+            for (final Object element : (List<?>) value) {
+                form.add(normalizeStoredId(element));
+            }
+            return form;
+        } else if (value instanceof DBObject) {
+            final Map<String, Object> form = new LinkedHashMap<String, Object>();
+            for (final String field : ((DBObject) value).keySet()) {
+                if (!CLASS_NAME_FIELDNAME.equals(field)) {
+                    form.put(field, normalizeStoredId(((DBObject) value).get(field)));
+                }
+            }
+            return form;
+        }
+        return value;
+    }
+
     /**
      * @return the cache of instances
      */
@@ -320,6 +452,15 @@ public class Mapper {
         return interceptors;
     }
 
+    /**
+     * Gets the listeners for the metrics of queries
+     *
+     * @return the listeners
+     */
+    public Collection<QueryMetricsListener> getQueryMetricsListeners() {
+        return queryMetricsListeners;
+    }
+
     /**
      * Gets the Key for an entity
      *
@@ -449,6 +590,188 @@ public class Mapper {
         return opts;
     }
 
+    /**
+     * Returns the combined statistics of every {@link EntityCache} this Mapper has created.  Only caches from an {@link
+     * AggregatingEntityCacheFactory}, such as the default one, are included.
+     *
+     * @return a snapshot of the statistics
+     * @see EntityCache#stats()
+     */
+    public EntityCacheStatistics getCacheStatistics() {
+        return cacheStatistics.copy();
+    }
+
+    /**
+     * Returns the document an entity was last loaded from, or saved as, when changes are being tracked.
+     *
+     * @param entity the entity
+     * @return the document or null if the entity is not being tracked
+     * @see MapperOptions#setTrackChanges(boolean)
+     */
+    public DBObject getSnapshot(final Object entity) {
+        return snapshots.get(ProxyHelper.unwrap(entity));
+    }
+
+    /**
+     * Records the document an entity has just been saved as so later changes can be found by comparing against it.  Does nothing unless
+     * changes are being tracked.
+     *
+     * @param entity   the entity
+     * @param dbObject the document as written
+     * @see MapperOptions#setTrackChanges(boolean)
+     */
+    public void updateSnapshot(final Object entity, final DBObject dbObject) {
+        if (opts.isTrackChanges()) {
+            snapshots.put(ProxyHelper.unwrap(entity), dbObject);
+        }
+    }
+
+    /**
+     * Returns the projection of the fields a class, and its mapped subclasses, map for queries which do not pick their fields.
+     *
+     * @param clazz the class queried
+     * @return the projection or null if the whole documents should be fetched
+     * @see MapperOptions#setProjectMappedFields(boolean)
+     */
+    public DBObject getMappedProjection(final Class<?> clazz) {
+        if (clazz == null) {
+            return null;
+        }
+        final Entity entityAnnotation = getMappedClass(clazz).getEntityAnnotation();
+        if (!opts.isProjectMappedFields() && (entityAnnotation == null || !entityAnnotation.projectMappedFields())) {
+            return null;
+        }
+        Map<String, Object> projection = projections.get(clazz);
+        if (projection == null) {
+            projection = new LinkedHashMap<String, Object>();
+            projection.put(ID_KEY, 1);
+            projection.put(CLASS_NAME_FIELDNAME, 1);
+            for (final MappedClass mc : getMappedClasses()) {
+                if (clazz.isAssignableFrom(mc.getClazz())) {
+                    for (final MappedField mf : mc.getPersistenceFields()) {
+                        for (final String name : mf.getLoadNames()) {
+                            projection.put(name, 1);
+                        }
+                    }
+                }
+            }
+            projections.put(clazz, projection);
+        }
+        return new BasicDBObject(projection);
+    }
+
+    /**
+     * Records that an entity was loaded with only some of its fields, so that it is not saved over those it lacks.  Fields which include
+     * every persisted field of the entity's class, such as those of {@link org.mongodb.morphia.query.Query#retrieveKnownFields()}, are not
+     * recorded since the entity holds all the fields a save would write.
+     *
+     * @param entity the entity
+     * @param fields the fields the entity was loaded with, as given to the server, or null if it holds all of them
+     * @see org.mongodb.morphia.query.Query#retrieveFieldGroup(String)
+     */
+    public void setLoadedFields(final Object entity, final DBObject fields) {
+        if (fields == null || loadsEveryField(entity, fields)) {
+            loadedFields.remove(ProxyHelper.unwrap(entity));
+        } else {
+            loadedFields.put(ProxyHelper.unwrap(entity), fields);
+        }
+    }
+
+    /**
+     * @param entity the entity
+     * @return true if the entity was loaded with only some of its fields
+     * @see #setLoadedFields(Object, DBObject)
+     */
+    public boolean isPartial(final Object entity) {
+        return loadedFields.get(ProxyHelper.unwrap(entity)) != null;
+    }
+
+    /**
+     * Checks whether a field of an entity was loaded in full.  A field only some of whose nested fields were loaded is not.
+     *
+     * @param entity the entity
+     * @param name   the stored name of the field
+     * @return true if the field was loaded
+     * @see #setLoadedFields(Object, DBObject)
+     */
+    public boolean isLoaded(final Object entity, final String name) {
+        final DBObject fields = loadedFields.get(ProxyHelper.unwrap(entity));
+        return fields == null || isLoaded(fields, isIncluding(fields), name);
+    }
+
+    private boolean loadsEveryField(final Object entity, final DBObject fields) {
+        final boolean including = isIncluding(fields);
+        for (final MappedField mf : getMappedClass(ProxyHelper.unwrap(entity)).getPersistenceFields()) {
+            if (!isLoaded(fields, including, mf.getNameToStore())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLoaded(final DBObject fields, final boolean including, final String name) {
+        if (including) {
+            return name.equals(ID_KEY) && !fields.containsField(ID_KEY) || isIncluded(fields.get(name));
+        }
+        for (final String field : fields.keySet()) {
+            if (field.equals(name) || field.startsWith(name + ".")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A projection lists the fields to include when it includes any field other than {@code _id}; otherwise every field it names, with 0
+     * or with an operator such as {@code $slice}, is missing or cut short.
+     */
+    private static boolean isIncluding(final DBObject fields) {
+        for (final String field : fields.keySet()) {
+            if (!field.equals(ID_KEY) && isIncluded(fields.get(field))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIncluded(final Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() != 0 : Boolean.TRUE.equals(value);
+    }
+
+    /**
+     * @return the cache of validated query and update paths used by this Mapper
+     * @see MapperOptions#setQueryPathCacheSize(int)
+     */
+    public QueryPathCache getQueryPathCache() {
+        return queryPathCache;
+    }
+
+    /**
+     * Looks up how the results of queries for a class are cached: the policy set in the options for the class or its nearest superclass,
+     * otherwise the class's {@link CachedQueries} annotation.
+     *
+     * @param clazz the class queried
+     * @return the policy or null if the results are not cached
+     * @see MapperOptions#setQueryCachePolicy(Class, QueryCachePolicy)
+     */
+    public QueryCachePolicy getQueryCachePolicy(final Class<?> clazz) {
+        if (clazz == null) {
+            return null;
+        }
+        final Map<Class<?>, QueryCachePolicy> policies = opts.getQueryCachePolicies();
+        if (!policies.isEmpty()) {
+            for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+                final QueryCachePolicy policy = policies.get(c);
+                if (policy != null) {
+                    return policy;
+                }
+            }
+        }
+        final MappedClass mc = getMappedClass(clazz);
+        final CachedQueries annotation = mc == null ? null : (CachedQueries) mc.getAnnotation(CachedQueries.class);
+        return annotation == null ? null : new QueryCachePolicy(annotation);
+    }
+
     /**
      * Sets the options this Mapper should use
      *
@@ -700,7 +1023,15 @@ public class Mapper {
             mc.validate(this);
         }
 
-        mappedClasses.put(mc.getClazz().getName(), mc);
+        if (mappedClasses.put(mc.getClazz().getName(), mc) != null) {
+            // paths through the old mapping may no longer be valid
+            queryPathCache.clear();
+        }
+        projections.clear();
+        codecs.remove(mc.getClazz().getName());
+        if (opts.isUseEntityCodecs()) {
+            getEntityCodec(mc);
+        }
 
         Set<MappedClass> mcs = mappedClassesByCollection.get(mc.getCollectionName());
         if (mcs == null) {
@@ -716,6 +1047,15 @@ public class Mapper {
         return mc;
     }
 
+    private EntityCodec getEntityCodec(final MappedClass mc) {
+        EntityCodec codec = codecs.get(mc.getClazz().getName());
+        if (codec == null || !codec.isCurrent(this)) {
+            codec = new EntityCodec(mc, this);
+            codecs.put(mc.getClazz().getName(), codec);
+        }
+        return codec;
+    }
+
     private Object extractFirstElement(final Object value) {
         return value.getClass().isArray() ? Array.get(value, 0) : ((Iterable) value).iterator().next();
     }
@@ -732,7 +1072,7 @@ public class Mapper {
 
     private Class<? extends Annotation> getFieldAnnotation(final MappedField mf) {
         Class<? extends Annotation> annType = null;
-        for (final Class<? extends Annotation> testType : new Class[]{Property.class, Embedded.class, Serialized.class, Reference.class}) {
+        for (final Class<? extends Annotation> testType : FIELD_ANNOTATIONS) {
             if (mf.hasAnnotation(testType)) {
                 annType = testType;
                 break;
@@ -741,6 +1081,13 @@ public class Mapper {
         return annType;
     }
 
+    /**
+     * Plans are kept on the fields of the mapped classes and reused; the fields made up for each element of a collection or map are not.
+     */
+    private boolean isPlanned(final MappedField mf) {
+        return opts.isUseEntityCodecs() && !(mf instanceof EphemeralMappedField);
+    }
+
     private boolean isAssignable(final MappedField mf, final Object value) {
         return mf != null
             && (mf.hasAnnotation(Reference.class) || Key.class.isAssignableFrom(mf.getType())
@@ -759,9 +1106,11 @@ public class Mapper {
             && (Key.class.isAssignableFrom(subClass) || DBRef.class.isAssignableFrom(subClass));
     }
 
-    private void readMappedField(final Datastore datastore, final MappedField mf, final Object entity, final EntityCache cache,
-                                 final DBObject dbObject) {
-        if (mf.hasAnnotation(Property.class) || mf.hasAnnotation(Serialized.class)
+    void readMappedField(final Datastore datastore, final MappedField mf, final Object entity, final EntityCache cache,
+                         final DBObject dbObject) {
+        if (isPlanned(mf)) {
+            mf.getPlan(this).read(datastore, dbObject, entity, cache, this);
+        } else if (mf.hasAnnotation(Property.class) || mf.hasAnnotation(Serialized.class)
             || mf.isTypeMongoCompatible() || getConverters().hasSimpleValueConverter(mf)) {
             opts.getValueMapper().fromDBObject(datastore, dbObject, mf, entity, cache, this);
         } else if (mf.hasAnnotation(Embedded.class)) {
@@ -773,8 +1122,12 @@ public class Mapper {
         }
     }
 
-    private void writeMappedField(final DBObject dbObject, final MappedField mf, final Object entity,
-                                  final Map<Object, DBObject> involvedObjects) {
+    void writeMappedField(final DBObject dbObject, final MappedField mf, final Object entity,
+                          final Map<Object, DBObject> involvedObjects) {
+        if (isPlanned(mf)) {
+            mf.getPlan(this).write(entity, dbObject, involvedObjects, this);
+            return;
+        }
 
         //skip not saved fields.
         if (mf.hasAnnotation(NotSaved.class)) {
@@ -899,11 +1252,15 @@ public class Mapper {
             dbObject = mc.callLifecycleMethods(PrePersist.class, entity, dbObject, this);
         }
 
-        for (final MappedField mf : mc.getPersistenceFields()) {
-            try {
-                writeMappedField(dbObject, mf, entity, involvedObjects);
-            } catch (Exception e) {
-                throw new MappingException("Error mapping field:" + mf.getFullName(), e);
+        if (opts.isUseEntityCodecs()) {
+            getEntityCodec(mc).encode(entity, dbObject, involvedObjects, this);
+        } else {
+            for (final MappedField mf : mc.getPersistenceFields()) {
+                try {
+                    writeMappedField(dbObject, mf, entity, involvedObjects);
+                } catch (Exception e) {
+                    throw new MappingException("Error mapping field:" + mf.getFullName(), e);
+                }
             }
         }
         if (involvedObjects != null) {
@@ -926,9 +1283,8 @@ public class Mapper {
             return createKey(clazz, (Serializable) id);
         }
 
-        //TODO: cache the encoders, maybe use the pool version of the buffer that the driver does.
-        final BSONEncoder enc = new BasicBSONEncoder();
-        return new Key<T>(clazz, getCollectionName(clazz), enc.encode(toDBObject(id)));
+        // the compound id is kept as a document, as it is stored, rather than encoded: the key hashes and compares it by value
+        return new Key<T>(clazz, getCollectionName(clazz), toDBObject(id));
     }
 
 }
@@ -8,6 +8,11 @@ import org.mongodb.morphia.logging.MorphiaLoggerFactory;
 import org.mongodb.morphia.mapping.cache.DefaultEntityCacheFactory;
 import org.mongodb.morphia.mapping.cache.EntityCacheFactory;
 import org.mongodb.morphia.mapping.lazy.DatastoreProvider;
+import org.mongodb.morphia.query.QueryCachePolicy;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -25,6 +30,14 @@ public class MapperOptions {
     private boolean useLowerCaseCollectionNames;
     private boolean cacheClassLookups = false;
     private boolean mapSubPackages = false;
+    private boolean useEntityCodecs = false;
+    private int queryPathCacheSize = 1000;
+    private int referenceBatchSize = 0;
+    private boolean trackChanges = false;
+    private boolean projectMappedFields = false;
+    private boolean timeCacheLookups = false;
+    private int queryCacheSize = 1000;
+    private final Map<Class<?>, QueryCachePolicy> queryCachePolicies = new ConcurrentHashMap<Class<?>, QueryCachePolicy>();
     private ObjectFactory objectFactory = new DefaultCreator(this);
     private EntityCacheFactory cacheFactory = new DefaultEntityCacheFactory();
     private CustomMapper embeddedMapper = new EmbeddedMapper();
@@ -51,6 +64,13 @@ public class MapperOptions {
         setStoreEmpties(options.isStoreEmpties());
         setUseLowerCaseCollectionNames(options.isUseLowerCaseCollectionNames());
         setCacheClassLookups(options.isCacheClassLookups());
+        setUseEntityCodecs(options.isUseEntityCodecs());
+        setQueryPathCacheSize(options.getQueryPathCacheSize());
+        setReferenceBatchSize(options.getReferenceBatchSize());
+        setTrackChanges(options.isTrackChanges());
+        setProjectMappedFields(options.isProjectMappedFields());
+        setQueryCacheSize(options.getQueryCacheSize());
+        queryCachePolicies.putAll(options.getQueryCachePolicies());
         setObjectFactory(options.getObjectFactory());
         setCacheFactory(options.getCacheFactory());
         setEmbeddedMapper(options.getEmbeddedMapper());
@@ -287,4 +307,165 @@ public class MapperOptions {
     public void setMapSubPackages(final boolean mapSubPackages) {
         this.mapSubPackages = mapSubPackages;
     }
+
+    /**
+     * @return true if Morphia should read and write entities using codecs built once per mapped class
+     */
+    public boolean isUseEntityCodecs() {
+        return useEntityCodecs;
+    }
+
+    /**
+     * Controls if entities are read and written using a codec built once per mapped class rather than inspecting each field's mapping
+     * for every document.  The codec resolves the {@link CustomMapper} and converter of each field of the mapped classes once, and again
+     * only when converters are added or removed; the elements of collections and maps are still mapped as they always are.  Fields the
+     * codec can not handle directly fall back to the configured {@link CustomMapper}s so the results are the same either way.  This is
+     * off by default.
+     *
+     * @param useEntityCodecs true if Morphia should use per class codecs
+     */
+    public void setUseEntityCodecs(final boolean useEntityCodecs) {
+        this.useEntityCodecs = useEntityCodecs;
+    }
+
+    /**
+     * @return the maximum number of validated query paths remembered per Mapper
+     */
+    public int getQueryPathCacheSize() {
+        return queryPathCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of validated query and update paths remembered by each {@link Mapper} so that the same field names do not
+     * need to be looked up and translated every time a query is built.  A size of 0 turns the cache off.
+     *
+     * @param queryPathCacheSize the maximum number of paths to remember
+     * @see Mapper#getQueryPathCache()
+     */
+    public void setQueryPathCacheSize(final int queryPathCacheSize) {
+        if (queryPathCacheSize < 0) {
+            throw new IllegalArgumentException("The query path cache size can not be negative: " + queryPathCacheSize);
+        }
+        this.queryPathCacheSize = queryPathCacheSize;
+    }
+
+    /**
+     * @return the number of query results whose references are loaded together, 0 if they are loaded one at a time
+     */
+    public int getReferenceBatchSize() {
+        return referenceBatchSize;
+    }
+
+    /**
+     * Sets how many query results are read ahead so their eager {@code @Reference}s can be loaded together, with one query per referenced
+     * collection, rather than with one query per reference.  A size of 0, the default, loads each reference as it is mapped.
+     *
+     * @param referenceBatchSize the number of results to load references for at once
+     */
+    public void setReferenceBatchSize(final int referenceBatchSize) {
+        if (referenceBatchSize < 0) {
+            throw new IllegalArgumentException("The reference batch size can not be negative: " + referenceBatchSize);
+        }
+        this.referenceBatchSize = referenceBatchSize;
+    }
+
+    /**
+     * @return true if entities remember the document they were loaded from so only their changes need to be saved
+     */
+    public boolean isTrackChanges() {
+        return trackChanges;
+    }
+
+    /**
+     * Sets whether entities loaded from, or saved to, the database remember that document so {@link
+     * org.mongodb.morphia.Datastore#saveChanges(Object)} can send just the fields which have changed since.  The documents are held for as
+     * long as their entities are reachable so this roughly doubles the memory used by loaded entities.
+     *
+     * @param trackChanges true if changes should be tracked
+     */
+    public void setTrackChanges(final boolean trackChanges) {
+        this.trackChanges = trackChanges;
+    }
+
+    /**
+     * @return true if queries only fetch the fields their entities map
+     */
+    public boolean isProjectMappedFields() {
+        return projectMappedFields;
+    }
+
+    /**
+     * Sets whether queries which do not pick their fields explicitly only fetch the fields their entities map: the stored names, the
+     * {@code @AlsoLoad} names, {@code _id} and {@code className}.  Any other fields in the documents are left on the server.  The fields
+     * of the mapped subclasses of the queried type are fetched too, so subclasses should be mapped before they are queried through a
+     * superclass.  This can also be turned on for single entities with
+     * {@link org.mongodb.morphia.annotations.Entity#projectMappedFields()}.
+     *
+     * @param projectMappedFields true if only the mapped fields should be fetched
+     */
+    public void setProjectMappedFields(final boolean projectMappedFields) {
+        this.projectMappedFields = projectMappedFields;
+    }
+
+    /**
+     * @return true if the lookups of entity caches are timed
+     */
+    public boolean isTimeCacheLookups() {
+        return timeCacheLookups;
+    }
+
+    /**
+     * Sets whether the entity caches the Mapper creates from now on time their lookups, for
+     * {@link org.mongodb.morphia.mapping.cache.EntityCacheStatistics#getLookupTime(java.util.concurrent.TimeUnit)}.  Timing reads the
+     * clock twice per lookup so it is off by default; the hits and misses are counted either way.
+     *
+     * @param timeCacheLookups true if lookups should be timed
+     */
+    public void setTimeCacheLookups(final boolean timeCacheLookups) {
+        this.timeCacheLookups = timeCacheLookups;
+    }
+
+    /**
+     * @return the maximum number of query results each Datastore caches
+     */
+    public int getQueryCacheSize() {
+        return queryCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of query results the {@link org.mongodb.morphia.query.QueryResultCache} of each Datastore holds.  Only the
+     * queries of entities with a {@link QueryCachePolicy} are cached.  A size of 0 turns the cache off.
+     *
+     * @param queryCacheSize the maximum number of results to keep
+     */
+    public void setQueryCacheSize(final int queryCacheSize) {
+        if (queryCacheSize < 0) {
+            throw new IllegalArgumentException("The query cache size can not be negative: " + queryCacheSize);
+        }
+        this.queryCacheSize = queryCacheSize;
+    }
+
+    /**
+     * @return the query cache policies set for entity classes, which take precedence over their
+     * {@link org.mongodb.morphia.annotations.CachedQueries} annotations
+     */
+    public Map<Class<?>, QueryCachePolicy> getQueryCachePolicies() {
+        return Collections.unmodifiableMap(queryCachePolicies);
+    }
+
+    /**
+     * Sets how the results of queries for an entity class, and its subclasses, are cached.  This takes precedence over any
+     * {@link org.mongodb.morphia.annotations.CachedQueries} annotation on the class.
+     *
+     * @param type   the entity class
+     * @param policy the policy, or null to fall back to the class's annotation
+     * @see Mapper#getQueryCachePolicy(Class)
+     */
+    public void setQueryCachePolicy(final Class<?> type, final QueryCachePolicy policy) {
+        if (policy == null) {
+            queryCachePolicies.remove(type);
+        } else {
+            queryCachePolicies.put(type, policy);
+        }
+    }
 }
@@ -0,0 +1,183 @@
+package org.mongodb.morphia.mapping;
+
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+import com.mongodb.ReadPreference;
+import org.mongodb.morphia.DatastoreImpl;
+import org.mongodb.morphia.Key;
+import org.mongodb.morphia.OperationEvent;
+import org.mongodb.morphia.OperationType;
+import org.mongodb.morphia.annotations.Reference;
+import org.mongodb.morphia.mapping.cache.EntityCache;
+import org.mongodb.morphia.mapping.lazy.LazyFeatureDependencies;
+import org.mongodb.morphia.query.QueryImpl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Loads the eager {@code @Reference}s of a batch of documents up front so that mapping the documents finds the referenced entities in the
+ * {@link EntityCache} instead of fetching them one at a time.  The referenced ids are grouped by collection, the same way {@link
+ * DatastoreImpl#getByKeys(Iterable)} groups keys, and fetched with one {@code $in} query per collection.  These queries are set up like
+ * any other, with the read preference of the query whose documents are being mapped, and are reported to the operation listeners.  The
+ * references of the fetched documents are followed in turn, a level at a time, until there is nothing left to load.  The deepest documents
+ * are mapped first so every level finds the next one already cached.
+ * <p>
+ * Anything this can not find up front, such as references declared only on a subclass of the mapped type or documents that do not exist,
+ * is left to {@link ReferenceMapper} to resolve as usual.
+ *
+ * @see MapperOptions#setReferenceBatchSize(int)
+ */
+class ReferencePrefetcher {
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final DatastoreImpl datastore;
+    private final Mapper mapper;
+    private final EntityCache cache;
+    private final ReadPreference readPreference;
+    private final Set<Key<?>> seen = new LinkedHashSet<Key<?>>();
+
+    ReferencePrefetcher(final DatastoreImpl datastore, final Mapper mapper, final EntityCache cache, final ReadPreference readPreference) {
+        this.datastore = datastore;
+        this.mapper = mapper;
+        this.cache = cache;
+        this.readPreference = readPreference;
+    }
+
+    void prefetch(final Class<?> type, final List<DBObject> dbObjects) {
+        final MappedClass mc = mapper.getMappedClass(type);
+        List<Loaded> level = new ArrayList<Loaded>();
+        for (final DBObject dbObject : dbObjects) {
+            level.add(new Loaded(mc, dbObject));
+        }
+
+        final List<Loaded> fetched = new ArrayList<Loaded>();
+        while (!level.isEmpty()) {
+            final Map<Class<?>, Map<String, Set<Object>>> pending = new LinkedHashMap<Class<?>, Map<String, Set<Object>>>();
+            for (final Loaded loaded : level) {
+                collectReferences(loaded, pending);
+            }
+            level = fetch(pending);
+            fetched.addAll(level);
+        }
+
+        for (int i = fetched.size() - 1; i >= 0; i--) {
+            map(fetched.get(i));
+        }
+    }
+
+    private void collectReferences(final Loaded loaded, final Map<Class<?>, Map<String, Set<Object>>> pending) {
+        for (final MappedField mf : loaded.mappedClass.getPersistenceFields()) {
+            final Reference refAnn = mf.getAnnotation(Reference.class);
+            if (refAnn == null || refAnn.lazy() && LazyFeatureDependencies.testDependencyFullFilled()) {
+                continue;
+            }
+            final Object value = mf.getDbObjectValue(loaded.dbObject);
+            if (value == null) {
+                continue;
+            }
+            final Class<?> refClass = mf.isSingleValue() ? mf.getType() : mf.getSubClass();
+            if (mf.isMap()) {
+                if (value instanceof DBObject) {
+                    for (final String key : ((DBObject) value).keySet()) {
+                        addReference(refClass, refAnn.idOnly(), ((DBObject) value).get(key), pending);
+                    }
+                }
+            } else if (value instanceof Iterable) {
+                for (final Object ref : (Iterable<?>) value) {
+                    addReference(refClass, refAnn.idOnly(), ref, pending);
+                }
+            } else {
+                addReference(refClass, refAnn.idOnly(), value, pending);
+            }
+        }
+    }
+
+    private void addReference(final Class<?> refClass, final boolean idOnly, final Object ref,
+                              final Map<Class<?>, Map<String, Set<Object>>> pending) {
+        if (ref == null || !idOnly && !(ref instanceof DBRef)) {
+            return;
+        }
+        final Object id = idOnly ? ref : ((DBRef) ref).getId();
+        final Key<?> key = mapper.createKey(refClass, id);
+        if (!seen.add(key) || cache.getEntity(key) != null) {
+            return;
+        }
+        final String collection = idOnly ? key.getCollection() : ((DBRef) ref).getCollectionName();
+        Map<String, Set<Object>> byCollection = pending.get(refClass);
+        if (byCollection == null) {
+            byCollection = new LinkedHashMap<String, Set<Object>>();
+            pending.put(refClass, byCollection);
+        }
+        Set<Object> ids = byCollection.get(collection);
+        if (ids == null) {
+            ids = new LinkedHashSet<Object>();
+            byCollection.put(collection, ids);
+        }
+        ids.add(id);
+    }
+
+    private List<Loaded> fetch(final Map<Class<?>, Map<String, Set<Object>>> pending) {
+        final List<Loaded> fetched = new ArrayList<Loaded>();
+        for (final Map.Entry<Class<?>, Map<String, Set<Object>>> byType : pending.entrySet()) {
+            final MappedClass mc = mapper.getMappedClass(byType.getKey());
+            for (final Map.Entry<String, Set<Object>> byCollection : byType.getValue().entrySet()) {
+                final List<Object> ids = new ArrayList<Object>(byCollection.getValue());
+                for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+                    final List<Object> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_QUERY));
+                    read(mc, byCollection.getKey(), new BasicDBObject(Mapper.ID_KEY, new BasicDBObject("$in", chunk)), fetched);
+                }
+            }
+        }
+        return fetched;
+    }
+
+    private void read(final MappedClass mc, final String collection, final DBObject filter, final List<Loaded> fetched) {
+        final QueryImpl<?> query = (QueryImpl<?>) datastore.createQuery(collection, mc.getClazz(), filter);
+        if (readPreference != null) {
+            query.useReadPreference(readPreference);
+        }
+        final DBCursor cursor = query.prepareCursor();
+        final OperationEvent operation = datastore.startOperation(OperationType.FIND, cursor.getCollection(), mc.getClazz(), filter, 0);
+        long read = -1;
+        try {
+            final int before = fetched.size();
+            while (cursor.hasNext()) {
+                fetched.add(new Loaded(mc, cursor.next()));
+            }
+            read = fetched.size() - before;
+        } finally {
+            cursor.close();
+            datastore.endOperation(operation, read);
+        }
+    }
+
+    private void map(final Loaded loaded) {
+        map(loaded.mappedClass.getClazz(), loaded.dbObject);
+    }
+
+    private <T> void map(final Class<T> type, final DBObject dbObject) {
+        final Key<T> key = mapper.createKey(type, dbObject.get(Mapper.ID_KEY));
+        if (cache.getEntity(key) == null) {
+            mapper.fromDBObject(datastore, type, dbObject, cache);
+        }
+    }
+
+    private static final class Loaded {
+        private final MappedClass mappedClass;
+        private final DBObject dbObject;
+
+        private Loaded(final MappedClass mappedClass, final DBObject dbObject) {
+            this.mappedClass = mappedClass;
+            this.dbObject = dbObject;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.mongodb.morphia.mapping.cache;
+
+/**
+ * A factory for entity caches which can report their statistics to a shared set of statistics as well as their own.
+ *
+ * @see org.mongodb.morphia.mapping.Mapper#getCacheStatistics()
+ */
+public interface AggregatingEntityCacheFactory extends EntityCacheFactory {
+
+    /**
+     * Called for every query. The cache is used during queries for by-id lookups.
+     *
+     * @param aggregate the statistics the new cache should also add its statistics to
+     * @return the cache
+     */
+    EntityCache createCache(EntityCacheStatistics aggregate);
+}
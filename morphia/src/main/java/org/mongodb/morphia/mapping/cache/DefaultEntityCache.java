@@ -20,22 +20,47 @@ public class DefaultEntityCache implements EntityCache {
     private final Map entityMap = new ReferenceMap(ReferenceMap.HARD, ReferenceMap.WEAK);
     private final Map proxyMap = new ReferenceMap(ReferenceMap.WEAK, ReferenceMap.WEAK);
     private final Map<Key, Boolean> existenceMap = new HashMap<Key, Boolean>();
-    private final EntityCacheStatistics stats = new EntityCacheStatistics();
+    private final EntityCacheStatistics stats;
+
+    /**
+     * Creates an empty cache
+     */
+    public DefaultEntityCache() {
+        stats = new EntityCacheStatistics();
+    }
+
+    /**
+     * Creates an empty cache which also adds its statistics to the given statistics
+     *
+     * @param aggregate the statistics to add to
+     */
+    public DefaultEntityCache(final EntityCacheStatistics aggregate) {
+        stats = new EntityCacheStatistics(aggregate);
+    }
 
     @Override
     public Boolean exists(final Key<?> k) {
-        if (entityMap.containsKey(k)) {
-            stats.incHits();
-            return true;
-        }
+        final boolean timed = stats.isTimingLookups();
+        final long start = timed ? System.nanoTime() : 0;
+        try {
+            if (entityMap.containsKey(k)) {
+                stats.incHits();
+                return true;
+            }
 
-        final Boolean b = existenceMap.get(k);
-        if (b == null) {
-            stats.incMisses();
-        } else {
-            stats.incHits();
+            final Boolean b = existenceMap.get(k);
+            if (b == null) {
+                stats.incMisses();
+            } else {
+                stats.incHits();
+                stats.incExistenceHits();
+            }
+            return b;
+        } finally {
+            if (timed) {
+                stats.addLookupTime(System.nanoTime() - start);
+            }
         }
-        return b;
     }
 
     @Override
@@ -48,33 +73,51 @@ public class DefaultEntityCache implements EntityCache {
 
     @Override
     public <T> T getEntity(final Key<T> k) {
-        final Object o = entityMap.get(k);
-        if (o == null) {
-            if (LazyFeatureDependencies.testDependencyFullFilled()) {
-                final Object proxy = proxyMap.get(k);
-                if (proxy != null) {
-                    ProxyHelper.isFetched(proxy);
-                    stats.incHits();
-                    return (T) ProxyHelper.unwrap(proxy);
+        final boolean timed = stats.isTimingLookups();
+        final long start = timed ? System.nanoTime() : 0;
+        try {
+            final Object o = entityMap.get(k);
+            if (o == null) {
+                if (LazyFeatureDependencies.testDependencyFullFilled()) {
+                    final Object proxy = proxyMap.get(k);
+                    if (proxy != null) {
+                        ProxyHelper.isFetched(proxy);
+                        stats.incHits();
+                        stats.incProxyHits();
+                        return (T) ProxyHelper.unwrap(proxy);
+                    }
                 }
+                stats.incMisses();
+            } else {
+                stats.incHits();
+            }
+            return (T) o;
+        } finally {
+            if (timed) {
+                stats.addLookupTime(System.nanoTime() - start);
             }
-            // System.out.println("miss entity " + k + ":" + this);
-            stats.incMisses();
-        } else {
-            stats.incHits();
         }
-        return (T) o;
     }
 
     @Override
     public <T> T getProxy(final Key<T> k) {
-        final Object o = proxyMap.get(k);
-        if (o == null) {
-            stats.incMisses();
-        } else {
-            stats.incHits();
+        final boolean timed = stats.isTimingLookups();
+        final long start = timed ? System.nanoTime() : 0;
+        try {
+            final Object o = proxyMap.get(k);
+            if (o == null) {
+                stats.incMisses();
+                stats.incProxyMisses();
+            } else {
+                stats.incHits();
+                stats.incProxyHits();
+            }
+            return (T) o;
+        } finally {
+            if (timed) {
+                stats.addLookupTime(System.nanoTime() - start);
+            }
         }
-        return (T) o;
     }
 
     @Override
@@ -3,7 +3,7 @@ package org.mongodb.morphia.mapping.cache;
 /**
  * Default implementation of cache factory, returning the default entity cache.
  */
-public class DefaultEntityCacheFactory implements EntityCacheFactory {
+public class DefaultEntityCacheFactory implements AggregatingEntityCacheFactory {
 
     /**
      * Creates a new DefaultEntityCache
@@ -13,4 +13,14 @@ public class DefaultEntityCacheFactory implements EntityCacheFactory {
     public EntityCache createCache() {
         return new DefaultEntityCache();
     }
+
+    /**
+     * Creates a new DefaultEntityCache
+     *
+     * @param aggregate the statistics the new cache should also add its statistics to
+     * @return the cache
+     */
+    public EntityCache createCache(final EntityCacheStatistics aggregate) {
+        return new DefaultEntityCache(aggregate);
+    }
 }
@@ -1,13 +1,69 @@
 package org.mongodb.morphia.mapping.cache;
 
 
+import java.util.concurrent.TimeUnit;
+
+
 /**
- * This class stores various statistics on an EntityCache
+ * This class stores various statistics on an EntityCache.  The counters are safe to update from several threads at once.  Statistics
+ * created with a parent also add everything they count to the parent.
+ * <p>
+ * Lookups are only timed when {@link #isTimingLookups()} is set, which statistics created with a parent take from the parent.
+ *
+ * @see org.mongodb.morphia.mapping.Mapper#getCacheStatistics()
  */
 public class EntityCacheStatistics {
-    private int entities;
-    private int hits;
-    private int misses;
+    private final EntityCacheStatistics parent;
+    private final StripedCounter entities;
+    private final StripedCounter hits;
+    private final StripedCounter misses;
+    private final StripedCounter evictions;
+    private final StripedCounter proxyHits;
+    private final StripedCounter proxyMisses;
+    private final StripedCounter existenceHits;
+    private final StripedCounter lookups;
+    private final StripedCounter lookupNanos;
+    private volatile boolean timingLookups;
+
+    /**
+     * Creates an empty set of statistics
+     */
+    public EntityCacheStatistics() {
+        this(null, 1);
+    }
+
+    /**
+     * Creates an empty set of statistics which also adds everything it counts to another
+     *
+     * @param parent the statistics to add to
+     */
+    public EntityCacheStatistics(final EntityCacheStatistics parent) {
+        this(parent, 1);
+    }
+
+    private EntityCacheStatistics(final EntityCacheStatistics parent, final int stripes) {
+        this.parent = parent;
+        timingLookups = parent != null && parent.timingLookups;
+        entities = new StripedCounter(stripes);
+        hits = new StripedCounter(stripes);
+        misses = new StripedCounter(stripes);
+        evictions = new StripedCounter(stripes);
+        proxyHits = new StripedCounter(stripes);
+        proxyMisses = new StripedCounter(stripes);
+        existenceHits = new StripedCounter(stripes);
+        lookups = new StripedCounter(stripes);
+        lookupNanos = new StripedCounter(stripes);
+    }
+
+    /**
+     * Creates statistics meant to be updated by many threads at once, e.g. as the parent of the statistics of many caches.  The counters
+     * are spread over several cells so the threads do not contend.
+     *
+     * @return the new statistics
+     */
+    public static EntityCacheStatistics newConcurrentStatistics() {
+        return new EntityCacheStatistics(null, Runtime.getRuntime().availableProcessors() * 2);
+    }
 
     /**
      * Copies the statistics
@@ -16,44 +72,202 @@ public class EntityCacheStatistics {
      */
     public EntityCacheStatistics copy() {
         final EntityCacheStatistics copy = new EntityCacheStatistics();
-        copy.entities = entities;
-        copy.hits = hits;
-        copy.misses = misses;
+        copy.entities.add(entities.sum());
+        copy.hits.add(hits.sum());
+        copy.misses.add(misses.sum());
+        copy.evictions.add(evictions.sum());
+        copy.proxyHits.add(proxyHits.sum());
+        copy.proxyMisses.add(proxyMisses.sum());
+        copy.existenceHits.add(existenceHits.sum());
+        copy.lookups.add(lookups.sum());
+        copy.lookupNanos.add(lookupNanos.sum());
         return copy;
     }
 
+    /**
+     * @return the number of entities and proxies added to the cache
+     */
+    public long getEntities() {
+        return entities.sum();
+    }
+
+    /**
+     * @return the number of entries dropped by the cache to stay within its bounds
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the number of times an existence check was answered from what the cache had been told rather than from a cached entity
+     */
+    public long getExistenceHits() {
+        return existenceHits.sum();
+    }
+
+    /**
+     * @return the number of lookups which were found in the cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of timed lookups
+     */
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    /**
+     * @param unit the unit to return the time in
+     * @return the total time spent in timed lookups
+     */
+    public long getLookupTime(final TimeUnit unit) {
+        return unit.convert(lookupNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the number of lookups which were not found in the cache
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of proxy lookups which were found in the cache
+     */
+    public long getProxyHits() {
+        return proxyHits.sum();
+    }
+
+    /**
+     * @return the number of proxy lookups which were not found in the cache
+     */
+    public long getProxyMisses() {
+        return proxyMisses.sum();
+    }
+
+    /**
+     * @return true if the caches updating these statistics should time their lookups
+     * @see org.mongodb.morphia.mapping.MapperOptions#setTimeCacheLookups(boolean)
+     */
+    public boolean isTimingLookups() {
+        return timingLookups;
+    }
+
+    /**
+     * Sets whether the caches updating these statistics should time their lookups.  Statistics already created with these as their
+     * parent keep their own setting.
+     *
+     * @param timingLookups true if lookups should be timed
+     */
+    public void setTimingLookups(final boolean timingLookups) {
+        this.timingLookups = timingLookups;
+    }
+
     /**
      * Increments the entity count
      */
     public void incEntities() {
-        entities++;
+        entities.increment();
+        if (parent != null) {
+            parent.incEntities();
+        }
+    }
+
+    /**
+     * Increments the eviction count
+     */
+    public void incEvictions() {
+        evictions.increment();
+        if (parent != null) {
+            parent.incEvictions();
+        }
+    }
+
+    /**
+     * Increments the count of existence checks answered by the cache
+     */
+    public void incExistenceHits() {
+        existenceHits.increment();
+        if (parent != null) {
+            parent.incExistenceHits();
+        }
     }
 
     /**
      * Increments the hit count
      */
     public void incHits() {
-        hits++;
+        hits.increment();
+        if (parent != null) {
+            parent.incHits();
+        }
     }
 
     /**
      * Increments the miss count
      */
     public void incMisses() {
-        misses++;
+        misses.increment();
+        if (parent != null) {
+            parent.incMisses();
+        }
+    }
+
+    /**
+     * Increments the proxy hit count
+     */
+    public void incProxyHits() {
+        proxyHits.increment();
+        if (parent != null) {
+            parent.incProxyHits();
+        }
+    }
+
+    /**
+     * Increments the proxy miss count
+     */
+    public void incProxyMisses() {
+        proxyMisses.increment();
+        if (parent != null) {
+            parent.incProxyMisses();
+        }
+    }
+
+    /**
+     * Records the time taken by a lookup
+     *
+     * @param nanos the time taken in nanoseconds
+     */
+    public void addLookupTime(final long nanos) {
+        lookups.increment();
+        lookupNanos.add(nanos);
+        if (parent != null) {
+            parent.addLookupTime(nanos);
+        }
     }
 
     /**
-     * Clears the statistics
+     * Clears the statistics.  Any parent statistics keep their counts.
      */
     public void reset() {
-        entities = 0;
-        hits = 0;
-        misses = 0;
+        entities.reset();
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        proxyHits.reset();
+        proxyMisses.reset();
+        existenceHits.reset();
+        lookups.reset();
+        lookupNanos.reset();
     }
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + ": " + entities + " entities, " + hits + " hits, " + misses + " misses.";
+        return getClass().getSimpleName() + ": " + getEntities() + " entities, " + getHits() + " hits, " + getMisses() + " misses, "
+               + getEvictions() + " evictions, " + getProxyHits() + " proxy hits, " + getProxyMisses() + " proxy misses, "
+               + getExistenceHits() + " existence hits, " + getLookupTime(TimeUnit.MICROSECONDS) + "us in " + getLookups() + " lookups.";
     }
 }
@@ -0,0 +1,34 @@
+package org.mongodb.morphia.mapping.cache;
+
+/**
+ * A factory for entity caches which keep entities beyond a single query and so need to be told when the documents behind them change.
+ * The {@link org.mongodb.morphia.DatastoreImpl} calls these methods after every save, update and delete it issues.
+ */
+public interface InvalidatingEntityCacheFactory extends EntityCacheFactory {
+
+    /**
+     * Creates a cache for the queries of a Datastore, which may only share entities with the caches of the same database
+     *
+     * @param database  the name of the database the entities are read from
+     * @param aggregate the statistics the new cache should also add its statistics to
+     * @return the cache
+     */
+    EntityCache createCache(String database, EntityCacheStatistics aggregate);
+
+    /**
+     * Drops any cached entity for a document
+     *
+     * @param database   the name of the database of the document
+     * @param collection the collection of the document
+     * @param id         the ID of the document
+     */
+    void invalidate(String database, String collection, Object id);
+
+    /**
+     * Drops every cached entity for a collection, e.g. after a multi-document update
+     *
+     * @param database   the name of the database of the collection
+     * @param collection the collection
+     */
+    void invalidate(String database, String collection);
+}
@@ -0,0 +1,83 @@
+package org.mongodb.morphia.mapping.cache;
+
+
+import org.mongodb.morphia.Key;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+
+/**
+ * The per query cache handed out by a {@link SecondLevelEntityCacheFactory}.  Lookups check the query's own cache first and then the
+ * shared one.  The mapper puts an entity once before reading its fields, to cope with cyclic references, and again once it is fully
+ * loaded so an entity is only shared on that second put.  Entities are only shared with the caches of the same database.
+ */
+class SecondLevelEntityCache implements EntityCache {
+    private final SecondLevelEntityCacheFactory factory;
+    private final String database;
+    private final EntityCache local;
+    private final Map<Object, Boolean> loading = new IdentityHashMap<Object, Boolean>();
+
+    SecondLevelEntityCache(final SecondLevelEntityCacheFactory factory, final String database, final EntityCache local) {
+        this.factory = factory;
+        this.database = database;
+        this.local = local;
+    }
+
+    @Override
+    public Boolean exists(final Key<?> k) {
+        final Boolean exists = local.exists(k);
+        if (exists == null && factory.get(database, k) != null) {
+            return true;
+        }
+        return exists;
+    }
+
+    @Override
+    public void flush() {
+        loading.clear();
+        local.flush();
+    }
+
+    @Override
+    public <T> T getEntity(final Key<T> k) {
+        T entity = local.getEntity(k);
+        if (entity == null) {
+            entity = factory.get(database, k);
+            if (entity != null) {
+                local.putEntity(k, entity);
+            }
+        }
+        return entity;
+    }
+
+    @Override
+    public <T> T getProxy(final Key<T> k) {
+        return local.getProxy(k);
+    }
+
+    @Override
+    public void notifyExists(final Key<?> k, final boolean exists) {
+        local.notifyExists(k, exists);
+    }
+
+    @Override
+    public <T> void putEntity(final Key<T> k, final T t) {
+        local.putEntity(k, t);
+        if (loading.remove(t) != null) {
+            factory.put(database, k, t);
+        } else {
+            loading.put(t, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public <T> void putProxy(final Key<T> k, final T t) {
+        local.putProxy(k, t);
+    }
+
+    @Override
+    public EntityCacheStatistics stats() {
+        return local.stats();
+    }
+}
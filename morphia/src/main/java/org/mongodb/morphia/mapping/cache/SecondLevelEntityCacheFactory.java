@@ -0,0 +1,299 @@
+package org.mongodb.morphia.mapping.cache;
+
+
+import org.mongodb.morphia.Key;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Creates entity caches which, besides the usual per query cache, share the entities they load with every other cache from this factory.
+ * Entities stay in the shared cache until they have not been used for a while (least recently used entities are dropped once the cache
+ * is full) or their time to live runs out.  Only the entity classes passed to {@link #cache(Class[])}, and their subclasses, are shared.
+ * <p>
+ * The shared instances are handed to every query that loads the same document so this is meant for read-mostly entities, such as lookup
+ * data that is often the target of a {@code @Reference}; they should not be modified.  Saves, updates and deletes issued through a
+ * {@link org.mongodb.morphia.DatastoreImpl} using this factory drop the affected entities.  Changes made any other way are only seen once
+ * the cached entity expires.
+ * <p>
+ * Entities are shared by database, collection and _id, so Datastores on different databases made from the same Morphia instance never see
+ * each other's entities.  Caches created without a database only share entities with each other.
+ * <pre>
+ * MapperOptions options = morphia.getMapper().getOptions();
+ * options.setCacheFactory(new SecondLevelEntityCacheFactory(10000, 10, TimeUnit.MINUTES).cache(Country.class, Currency.class));
+ * </pre>
+ */
+public class SecondLevelEntityCacheFactory implements AggregatingEntityCacheFactory, InvalidatingEntityCacheFactory {
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final long ttlNanos;
+    private final Set<Class<?>> cachedTypes = new CopyOnWriteArraySet<Class<?>>();
+    private final ConcurrentMap<Class<?>, Boolean> cachedTypeLookups = new ConcurrentHashMap<Class<?>, Boolean>();
+    private final EntityCacheStatistics stats = EntityCacheStatistics.newConcurrentStatistics();
+
+    /**
+     * Creates a factory whose shared cache holds at most {@code maxSize} entities
+     *
+     * @param maxSize the maximum number of entities to keep
+     * @param ttl     how long an entity may be kept for, or 0 to keep it until it is evicted or invalidated
+     * @param unit    the unit of the ttl
+     */
+    public SecondLevelEntityCacheFactory(final int maxSize, final long ttl, final TimeUnit unit) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The maximum size must be positive: " + maxSize);
+        }
+        if (ttl < 0) {
+            throw new IllegalArgumentException("The time to live can not be negative: " + ttl);
+        }
+        ttlNanos = ttl == 0 ? Long.MAX_VALUE : unit.toNanos(ttl);
+        final int segmentCount = Math.min(SEGMENTS, maxSize);
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0), stats);
+        }
+    }
+
+    /**
+     * Adds entity classes whose instances should be shared between queries
+     *
+     * @param types the entity classes
+     * @return this
+     */
+    public SecondLevelEntityCacheFactory cache(final Class<?>... types) {
+        for (final Class<?> type : types) {
+            cachedTypes.add(type);
+        }
+        cachedTypeLookups.clear();
+        return this;
+    }
+
+    /**
+     * Drops every shared entity
+     */
+    public void clear() {
+        for (final Segment segment : segments) {
+            segment.clearEntries();
+        }
+    }
+
+    @Override
+    public EntityCache createCache() {
+        return new SecondLevelEntityCache(this, null, new DefaultEntityCache());
+    }
+
+    @Override
+    public EntityCache createCache(final EntityCacheStatistics aggregate) {
+        return createCache(null, aggregate);
+    }
+
+    @Override
+    public EntityCache createCache(final String database, final EntityCacheStatistics aggregate) {
+        // the shared statistics time lookups when the caches of the queries do
+        stats.setTimingLookups(aggregate.isTimingLookups());
+        return new SecondLevelEntityCache(this, database, new DefaultEntityCache(aggregate));
+    }
+
+    /**
+     * Returns the statistics of the shared cache.  The hits and misses count lookups which were not found in a query's own cache.
+     *
+     * @return a snapshot of the statistics
+     */
+    public EntityCacheStatistics getStatistics() {
+        return stats.copy();
+    }
+
+    @Override
+    public void invalidate(final String database, final String collection, final Object id) {
+        if (collection != null && id != null) {
+            final StoreKey key = new StoreKey(database, collection, id);
+            segmentFor(key).removeEntry(key);
+        }
+    }
+
+    @Override
+    public void invalidate(final String database, final String collection) {
+        for (final Segment segment : segments) {
+            segment.removeCollection(database, collection);
+        }
+    }
+
+    /**
+     * @param type the entity class
+     * @return true if instances of the class are shared between queries
+     */
+    public boolean isCached(final Class<?> type) {
+        if (type == null) {
+            return false;
+        }
+        Boolean cached = cachedTypeLookups.get(type);
+        if (cached == null) {
+            cached = false;
+            for (Class<?> c = type; c != null && !cached; c = c.getSuperclass()) {
+                cached = cachedTypes.contains(c);
+            }
+            cachedTypeLookups.put(type, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * @return the number of entities currently shared, including any which have expired but not yet been dropped
+     */
+    public int size() {
+        int size = 0;
+        for (final Segment segment : segments) {
+            size += segment.entryCount();
+        }
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(final String database, final Key<T> key) {
+        if (!isCacheable(key)) {
+            return null;
+        }
+        final long start = System.nanoTime();
+        final StoreKey storeKey = new StoreKey(database, key.getCollection(), key.getId());
+        final Object entity = segmentFor(storeKey).getEntry(storeKey, start);
+        final boolean found = entity != null && (key.getType() == null || key.getType().isInstance(entity));
+        if (found) {
+            stats.incHits();
+        } else {
+            stats.incMisses();
+        }
+        if (stats.isTimingLookups()) {
+            stats.addLookupTime(System.nanoTime() - start);
+        }
+        return found ? (T) entity : null;
+    }
+
+    <T> void put(final String database, final Key<T> key, final T entity) {
+        if (isCacheable(key) && isCached(entity.getClass())) {
+            final StoreKey storeKey = new StoreKey(database, key.getCollection(), key.getId());
+            segmentFor(storeKey).putEntry(storeKey, entity, System.nanoTime() + ttlNanos);
+            stats.incEntities();
+        }
+    }
+
+    private boolean isCacheable(final Key<?> key) {
+        return key.getCollection() != null && key.getId() != null && (key.getType() == null || isCached(key.getType()));
+    }
+
+    private Segment segmentFor(final StoreKey key) {
+        final int hash = key.hashCode();
+        return segments[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % segments.length];
+    }
+
+    private static final class StoreKey {
+        private final String database;
+        private final String collection;
+        private final Object id;
+
+        private StoreKey(final String database, final String collection, final Object id) {
+            this.database = database;
+            this.collection = collection;
+            this.id = id;
+        }
+
+        private boolean isIn(final String otherDatabase, final String otherCollection) {
+            return (database == null ? otherDatabase == null : database.equals(otherDatabase)) && collection.equals(otherCollection);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StoreKey)) {
+                return false;
+            }
+            final StoreKey that = (StoreKey) o;
+            return that.isIn(database, collection) && id.equals(that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (database == null ? 0 : database.hashCode()) + collection.hashCode()) + id.hashCode();
+        }
+    }
+
+    private static final class CachedEntity {
+        private final Object entity;
+        private final long expiresAt;
+
+        private CachedEntity(final Object entity, final long expiresAt) {
+            this.entity = entity;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A part of the shared cache with its own lock, kept in least recently used order.
+     */
+    @SuppressWarnings("serial")
+    private static final class Segment extends LinkedHashMap<StoreKey, CachedEntity> {
+        private final int maxSize;
+        private final transient EntityCacheStatistics stats;
+
+        private Segment(final int maxSize, final EntityCacheStatistics stats) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+            this.stats = stats;
+        }
+
+        synchronized void clearEntries() {
+            clear();
+        }
+
+        synchronized int entryCount() {
+            return size();
+        }
+
+        synchronized Object getEntry(final StoreKey key, final long now) {
+            final CachedEntity entry = get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.expiresAt >= 0) {
+                remove(key);
+                stats.incEvictions();
+                return null;
+            }
+            return entry.entity;
+        }
+
+        synchronized void putEntry(final StoreKey key, final Object entity, final long expiresAt) {
+            put(key, new CachedEntity(entity, expiresAt));
+        }
+
+        synchronized void removeCollection(final String database, final String collection) {
+            final Iterator<StoreKey> iterator = keySet().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isIn(database, collection)) {
+                    iterator.remove();
+                }
+            }
+        }
+
+        synchronized void removeEntry(final StoreKey key) {
+            remove(key);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<StoreKey, CachedEntity> eldest) {
+            if (size() > maxSize) {
+                stats.incEvictions();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.mongodb.morphia.mapping.cache;
+
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * A counter which spreads its updates over several cells, picked by thread, so that threads updating it at the same time do not all
+ * contend on the same value.  Reading it sums the cells.  Each cell is padded to its own cache line.  With a single stripe it is just an
+ * atomic long.
+ */
+final class StripedCounter {
+    private static final int PADDING = 8;
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    /**
+     * @param stripes the number of cells to spread the updates over; rounded up to a power of 2
+     */
+    StripedCounter(final int stripes) {
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        cells = new AtomicLongArray(size == 1 ? 1 : size * PADDING);
+    }
+
+    void add(final long value) {
+        cells.getAndAdd(mask == 0 ? 0 : (int) (Thread.currentThread().getId() & mask) * PADDING, value);
+    }
+
+    void increment() {
+        add(1);
+    }
+
+    void reset() {
+        for (int i = 0; i < cells.length(); i++) {
+            cells.set(i, 0);
+        }
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < cells.length(); i++) {
+            sum += cells.get(i);
+        }
+        return sum;
+    }
+}
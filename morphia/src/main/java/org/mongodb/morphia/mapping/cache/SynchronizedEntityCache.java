@@ -0,0 +1,62 @@
+package org.mongodb.morphia.mapping.cache;
+
+
+import org.mongodb.morphia.Key;
+
+
+/**
+ * Makes an EntityCache safe to share between the threads mapping the results of one query.  Every call is made while holding the lock of
+ * this wrapper, so the wrapped cache is never used by two threads at once and the entities put by one thread are seen by the others.
+ */
+public final class SynchronizedEntityCache implements EntityCache {
+    private final EntityCache cache;
+
+    /**
+     * Wraps a cache
+     *
+     * @param cache the cache to share
+     */
+    public SynchronizedEntityCache(final EntityCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public synchronized Boolean exists(final Key<?> k) {
+        return cache.exists(k);
+    }
+
+    @Override
+    public synchronized void flush() {
+        cache.flush();
+    }
+
+    @Override
+    public synchronized <T> T getEntity(final Key<T> k) {
+        return cache.getEntity(k);
+    }
+
+    @Override
+    public synchronized <T> T getProxy(final Key<T> k) {
+        return cache.getProxy(k);
+    }
+
+    @Override
+    public synchronized void notifyExists(final Key<?> k, final boolean exists) {
+        cache.notifyExists(k, exists);
+    }
+
+    @Override
+    public synchronized <T> void putEntity(final Key<T> k, final T t) {
+        cache.putEntity(k, t);
+    }
+
+    @Override
+    public synchronized <T> void putProxy(final Key<T> k, final T t) {
+        cache.putProxy(k, t);
+    }
+
+    @Override
+    public synchronized EntityCacheStatistics stats() {
+        return cache.stats();
+    }
+}
@@ -74,18 +74,7 @@ public class CollectionObjectReference<T> extends AbstractReference implements P
         c.clear();
 
         final int numberOfEntitiesExpected = listOfKeys.size();
-        // does not retain order:
-        // List<T> retrievedEntities = p.get().getByKeys(referenceObjClass,
-        // (List) __getKeysAsList());
-
-        // so we do it the lousy way: FIXME
-        final List<T> retrievedEntities = new ArrayList<T>(listOfKeys.size());
-        for (final Key<?> k : listOfKeys) {
-            T entity = (T) getDatastore().getByKey(referenceObjClass, k);
-            if (entity != null) {
-                retrievedEntities.add(entity);
-            }
-        }
+        final List<T> retrievedEntities = getDatastore().getByKeys(referenceObjClass, (List) __getKeysAsList());
 
         if (!ignoreMissing && (numberOfEntitiesExpected != retrievedEntities.size())) {
             throw new LazyReferenceFetchingException(format("During the lifetime of a proxy of type '%s', some referenced Entities"
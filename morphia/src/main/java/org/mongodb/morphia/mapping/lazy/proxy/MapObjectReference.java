@@ -2,12 +2,19 @@ package org.mongodb.morphia.mapping.lazy.proxy;
 
 
 import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.DatastoreImpl;
 import org.mongodb.morphia.Key;
+import org.mongodb.morphia.mapping.Mapper;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+import static java.lang.String.format;
+
 
 /**
  * @author Uwe Schaefer, (us@thomas-daily.de)
@@ -58,13 +65,22 @@ public class MapObjectReference extends AbstractReference implements ProxiedEnti
     protected Object fetch() {
         final Map m = (Map) object;
         m.clear();
-        // TODO us: change to getting them all at once and yell according to
-        // ignoreMissing in order to a) increase performance and b) resolve
-        // equals keys to the same instance
-        // that should really be done in datastore.
+        // the entities come back in the order of the keys, minus any which are missing
+        final List<Object> entities = getDatastore().getByKeys(referenceObjClass, (List) new ArrayList<Key<?>>(keyMap.values()));
+        final Mapper mapper = ((DatastoreImpl) getDatastore()).getMapper();
+        final Iterator<Object> retrieved = entities.iterator();
+        Object next = retrieved.hasNext() ? retrieved.next() : null;
         for (final Map.Entry<?, Key<?>> e : keyMap.entrySet()) {
-            final Key<?> entityKey = e.getValue();
-            m.put(e.getKey(), fetch(entityKey));
+            if (next != null && mapper.getStoredIdForm(e.getValue().getId()).equals(mapper.getStoredIdForm(mapper.getId(next)))) {
+                m.put(e.getKey(), next);
+                next = retrieved.hasNext() ? retrieved.next() : null;
+            } else if (ignoreMissing) {
+                m.put(e.getKey(), null);
+            } else {
+                throw new LazyReferenceFetchingException(format("During the lifetime of a proxy of type '%s', some referenced Entities"
+                                                                    + " of type '%s' have disappeared from the Datastore.",
+                                                                m.getClass().getSimpleName(), referenceObjClass.getSimpleName()));
+            }
         }
         return m;
     }
@@ -0,0 +1,132 @@
+package org.mongodb.morphia.query;
+
+
+import com.mongodb.DBCallback;
+import com.mongodb.DBCollection;
+import com.mongodb.DBDecoder;
+import com.mongodb.DBDecoderFactory;
+import com.mongodb.DBObject;
+import org.bson.BSONCallback;
+import org.bson.BSONObject;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Counts the bytes decoded by the decoders of another factory.  It is set on the cursor of a query when query metrics are being
+ * collected.
+ */
+class CountingDecoderFactory implements DBDecoderFactory {
+    private final DBDecoderFactory factory;
+    private final AtomicLong bytes = new AtomicLong();
+
+    CountingDecoderFactory(final DBDecoderFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public DBDecoder create() {
+        return new CountingDecoder(factory.create());
+    }
+
+    long getBytes() {
+        return bytes.get();
+    }
+
+    private final class CountingDecoder implements DBDecoder {
+        private final DBDecoder decoder;
+
+        private CountingDecoder(final DBDecoder decoder) {
+            this.decoder = decoder;
+        }
+
+        @Override
+        public DBCallback getDBCallback(final DBCollection collection) {
+            return decoder.getDBCallback(collection);
+        }
+
+        @Override
+        public DBObject decode(final InputStream in, final DBCollection collection) throws IOException {
+            final CountingInputStream counting = new CountingInputStream(in);
+            try {
+                return decoder.decode(counting, collection);
+            } finally {
+                bytes.addAndGet(counting.count);
+            }
+        }
+
+        @Override
+        public DBObject decode(final byte[] b, final DBCollection collection) {
+            bytes.addAndGet(b.length);
+            return decoder.decode(b, collection);
+        }
+
+        @Override
+        public BSONObject readObject(final byte[] b) {
+            bytes.addAndGet(b.length);
+            return decoder.readObject(b);
+        }
+
+        @Override
+        public BSONObject readObject(final InputStream in) throws IOException {
+            final CountingInputStream counting = new CountingInputStream(in);
+            try {
+                return decoder.readObject(counting);
+            } finally {
+                bytes.addAndGet(counting.count);
+            }
+        }
+
+        @Override
+        public int decode(final byte[] b, final BSONCallback callback) {
+            bytes.addAndGet(b.length);
+            return decoder.decode(b, callback);
+        }
+
+        @Override
+        public int decode(final InputStream in, final BSONCallback callback) throws IOException {
+            final CountingInputStream counting = new CountingInputStream(in);
+            try {
+                return decoder.decode(counting, callback);
+            } finally {
+                bytes.addAndGet(counting.count);
+            }
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
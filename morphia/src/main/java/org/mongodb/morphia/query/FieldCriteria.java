@@ -8,13 +8,15 @@ import org.mongodb.morphia.logging.MorphiaLoggerFactory;
 import org.mongodb.morphia.mapping.MappedClass;
 import org.mongodb.morphia.mapping.MappedField;
 import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.query.QueryPathCache.ValidatedPath;
 import org.mongodb.morphia.utils.ReflectionUtils;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
-import static org.mongodb.morphia.query.QueryValidator.validateQuery;
+import static org.mongodb.morphia.query.QueryValidator.getValidatedPath;
+import static org.mongodb.morphia.query.QueryValidator.validateType;
 
 /**
  * Defines a Criteria against a field
@@ -34,16 +36,36 @@ class FieldCriteria extends AbstractCriteria {
     FieldCriteria(final QueryImpl<?> query, final String fieldName, final FilterOperator op, final Object value, final boolean not) {
         //validate might modify prop string to translate java field name to db field name
         final StringBuilder sb = new StringBuilder(fieldName);
-        final MappedField mf = validateQuery(query.getEntityClass(),
-                                             query.getDatastore().getMapper(),
-                                             sb,
-                                             op,
-                                             value,
-                                             query.isValidatingNames(),
-                                             query.isValidatingTypes());
-
         final Mapper mapper = query.getDatastore().getMapper();
+        final ValidatedPath path = getValidatedPath(query.getEntityClass(), mapper, sb, query.isValidatingNames());
+        final MappedClass mc = path == null ? null : path.getMappedClass();
+        final MappedField mf = path == null ? null : path.getMappedField();
 
+        this.field = sb.toString();
+        this.operator = op;
+        if (value instanceof Parameter) {
+            // the value of a parameter is validated and converted each time it is bound
+            this.value = new ParameterSlot((Parameter) value, mapper, query.isValidatingTypes() ? mc : null, mf, op);
+            query.setParameterized(true);
+        } else {
+            if (query.isValidatingTypes()) {
+                validateType(mc, mf, op, value);
+            }
+            this.value = toMongoValue(mapper, mf, op, value);
+        }
+        this.not = not;
+    }
+
+    /**
+     * Converts the value of a criteria for the query object.
+     *
+     * @param mapper the Mapper to use
+     * @param mf     the field the criteria applies to, or null if it is not a mapped field
+     * @param op     the operator of the criteria
+     * @param value  the value to convert
+     * @return the converted value
+     */
+    static Object toMongoValue(final Mapper mapper, final MappedField mf, final FilterOperator op, final Object value) {
         MappedClass mc = null;
         try {
             if (value != null && !ReflectionUtils.isPropertyType(value.getClass())
@@ -74,11 +96,7 @@ class FieldCriteria extends AbstractCriteria {
             && Iterable.class.isAssignableFrom(value.getClass())) {
             mappedValue = Collections.emptyList();
         }
-
-        this.field = sb.toString();
-        this.operator = op;
-        this.value = mappedValue;
-        this.not = not;
+        return mappedValue;
     }
 
     @Override
@@ -0,0 +1,162 @@
+package org.mongodb.morphia.query;
+
+
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.cache.EntityCache;
+import org.mongodb.morphia.mapping.cache.SynchronizedEntityCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+
+/**
+ * Iterates over the results of a query a batch of entities at a time.  Only one batch is read from the cursor and mapped at a time, so
+ * collections of any size can be processed in constant memory, and the cursor is closed as soon as the last batch has been read.
+ * <p>
+ * Several threads can share one iterator to process the batches in parallel by each calling {@link #nextBatch()} until it returns an
+ * empty list.  Reading from the cursor is serialized, while the mapping of each batch happens on the thread which asked for it.
+ *
+ * @param <T> the type of the entities
+ * @see QueryResults#fetchInBatches(int)
+ */
+public class MorphiaBatchIterator<T> implements Iterable<List<T>>, Iterator<List<T>> {
+    private final Datastore datastore;
+    private final Iterator<DBObject> wrapped;
+    private final Mapper mapper;
+    private final Class<T> clazz;
+    private final EntityCache cache;
+    private final DBObject fields;
+    private final int size;
+    private final QueryMetricsRecorder metrics;
+    private boolean closed;
+    private List<T> next;
+
+    /**
+     * Creates a MorphiaBatchIterator
+     *
+     * @param datastore the Datastore to use when fetching references
+     * @param it        the Iterator to read
+     * @param mapper    the Mapper to use
+     * @param clazz     the type of the entities
+     * @param cache     the EntityCache of the query, shared by the batches
+     * @param fields    the fields the query picked, or null if whole documents are read
+     * @param size      the number of entities in each batch
+     */
+    public MorphiaBatchIterator(final Datastore datastore, final Iterator<DBObject> it, final Mapper mapper, final Class<T> clazz,
+                                final EntityCache cache, final DBObject fields, final int size) {
+        this.datastore = datastore;
+        wrapped = it;
+        this.mapper = mapper;
+        this.clazz = clazz;
+        this.cache = new SynchronizedEntityCache(cache);
+        this.fields = fields;
+        this.size = size;
+        final String collection = it instanceof DBCursor ? ((DBCursor) it).getCollection().getName() : null;
+        metrics = new QueryMetricsRecorder(datastore, mapper, collection, clazz, it, this.cache);
+    }
+
+    /**
+     * Closes the underlying cursor and publishes the metrics of the query.  The batches not read yet are dropped.
+     *
+     * @see Mapper#addQueryMetricsListener(QueryMetricsListener)
+     */
+    public void close() {
+        closeCursor();
+        metrics.publish();
+    }
+
+    /**
+     * @return the underlying DBCursor
+     */
+    public DBCursor getCursor() {
+        return (DBCursor) wrapped;
+    }
+
+    /**
+     * Reads and maps the next batch.  This can be called from several threads at once.  The metrics of the query are published once the
+     * last batch has been mapped.
+     *
+     * @return the next batch of entities in the order of the results, or an empty list once all of them have been read
+     */
+    public List<T> nextBatch() {
+        final List<DBObject> dbObjects = readBatch();
+        if (dbObjects.isEmpty()) {
+            metrics.publish();
+            return Collections.emptyList();
+        }
+        final long start = System.nanoTime();
+        mapper.prefetchReferences(datastore, clazz, dbObjects, cache, MorphiaIterator.readPreferenceOf(wrapped));
+        final List<T> entities = new ArrayList<T>(dbObjects.size());
+        for (final DBObject dbObject : dbObjects) {
+            final T entity = mapper.fromDBObject(datastore, clazz, dbObject, cache);
+            if (fields != null && entity != null) {
+                mapper.setLoadedFields(entity, fields);
+            }
+            entities.add(entity);
+        }
+        metrics.addMapperTime(start);
+        if (entities.size() < size) {
+            metrics.publish();
+        }
+        return entities;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = nextBatch();
+        }
+        return !next.isEmpty();
+    }
+
+    @Override
+    public List<T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final List<T> batch = next;
+        next = null;
+        return batch;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Batches cannot be removed");
+    }
+
+    @Override
+    public Iterator<List<T>> iterator() {
+        return this;
+    }
+
+    private synchronized List<DBObject> readBatch() {
+        final List<DBObject> dbObjects = new ArrayList<DBObject>(size);
+        if (!closed) {
+            final long start = System.nanoTime();
+            while (dbObjects.size() < size && wrapped.hasNext()) {
+                dbObjects.add(wrapped.next());
+            }
+            metrics.addDriverTime(start);
+            metrics.addDocuments(dbObjects.size());
+            if (dbObjects.size() < size) {
+                closeCursor();
+            }
+        }
+        return dbObjects;
+    }
+
+    private synchronized void closeCursor() {
+        if (!closed) {
+            closed = true;
+            if (wrapped instanceof DBCursor) {
+                ((DBCursor) wrapped).close();
+            }
+        }
+    }
+}
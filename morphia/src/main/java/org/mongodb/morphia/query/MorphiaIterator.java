@@ -3,11 +3,16 @@ package org.mongodb.morphia.query;
 
 import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
+import com.mongodb.ReadPreference;
 import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.annotations.Reference;
 import org.mongodb.morphia.mapping.Mapper;
 import org.mongodb.morphia.mapping.cache.EntityCache;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 
@@ -23,8 +28,10 @@ public class MorphiaIterator<T, V> implements Iterable<V>, Iterator<V> {
     private final Class<T> clazz;
     private final String collection;
     private final EntityCache cache;
-    private long driverTime;
-    private long mapperTime;
+    private final DBObject fields;
+    private final int referenceBatchSize;
+    private final LinkedList<DBObject> batch = new LinkedList<DBObject>();
+    private final QueryMetricsRecorder metrics;
     private Datastore datastore;
 
     /**
@@ -38,21 +45,48 @@ public class MorphiaIterator<T, V> implements Iterable<V>, Iterator<V> {
      */
     public MorphiaIterator(final Datastore datastore, final Iterator<DBObject> it, final Mapper mapper, final Class<T> clazz,
                            final String collection, final EntityCache cache) {
+        this(datastore, it, mapper, clazz, collection, cache, null);
+    }
+
+    /**
+     * Creates a MorphiaIterator over documents which may only hold some of their fields.  The entities read are recorded as partial so
+     * they cannot be saved over the fields they lack.
+     *
+     * @param datastore  the Datastore to use when fetching this reference
+     * @param it         the Iterator to use
+     * @param mapper     the Mapper to use
+     * @param clazz      the original type being iterated
+     * @param collection the mongodb collection
+     * @param cache      the EntityCache
+     * @param fields     the fields the query picked, or null if whole documents are read
+     * @see Mapper#setLoadedFields(Object, DBObject)
+     */
+    public MorphiaIterator(final Datastore datastore, final Iterator<DBObject> it, final Mapper mapper, final Class<T> clazz,
+                           final String collection, final EntityCache cache, final DBObject fields) {
         wrapped = it;
+        this.fields = fields;
         this.mapper = mapper;
         this.clazz = clazz;
         this.collection = collection;
         this.cache = cache;
         this.datastore = datastore;
+        metrics = new QueryMetricsRecorder(datastore, mapper, collection, clazz, it, cache);
+        referenceBatchSize = cache != null && clazz != null
+                             && !mapper.getMappedClass(clazz).getFieldsAnnotatedWith(Reference.class).isEmpty()
+                             ? mapper.getOptions().getReferenceBatchSize()
+                             : 0;
     }
 
     /**
-     * Closes the underlying cursor.
+     * Closes the underlying cursor and publishes the metrics of the query if they were not published yet.
+     *
+     * @see Mapper#addQueryMetricsListener(QueryMetricsListener)
      */
     public void close() {
         if (wrapped != null && wrapped instanceof DBCursor) {
             ((DBCursor) wrapped).close();
         }
+        metrics.publish();
     }
 
     /**
@@ -80,7 +114,7 @@ public class MorphiaIterator<T, V> implements Iterable<V>, Iterator<V> {
      * @return the time spent calling the driver in ms
      */
     public long getDriverTime() {
-        return driverTime;
+        return metrics.getDriverTime();
     }
 
     /**
@@ -94,7 +128,7 @@ public class MorphiaIterator<T, V> implements Iterable<V>, Iterator<V> {
      * @return the time spent calling the mapper in ms
      */
     public long getMapperTime() {
-        return mapperTime;
+        return metrics.getMapperTime();
     }
 
     @Override
@@ -102,9 +136,15 @@ public class MorphiaIterator<T, V> implements Iterable<V>, Iterator<V> {
         if (wrapped == null) {
             return false;
         }
-        final long start = System.currentTimeMillis();
+        if (!batch.isEmpty()) {
+            return true;
+        }
+        final long start = System.nanoTime();
         final boolean ret = wrapped.hasNext();
-        driverTime += System.currentTimeMillis() - start;
+        metrics.addDriverTime(start);
+        if (!ret) {
+            metrics.publish();
+        }
         return ret;
     }
 
@@ -119,9 +159,9 @@ public class MorphiaIterator<T, V> implements Iterable<V>, Iterator<V> {
 
     @Override
     public void remove() {
-        final long start = System.currentTimeMillis();
+        final long start = System.nanoTime();
         wrapped.remove();
-        driverTime += System.currentTimeMillis() - start;
+        metrics.addDriverTime(start);
     }
 
     @Override
@@ -135,17 +175,54 @@ public class MorphiaIterator<T, V> implements Iterable<V>, Iterator<V> {
     }
 
     protected DBObject getNext() {
-        final long start = System.currentTimeMillis();
+        if (referenceBatchSize > 0) {
+            if (batch.isEmpty()) {
+                readBatch();
+            }
+            return batch.removeFirst();
+        }
+        final long start = System.nanoTime();
         final DBObject dbObj = wrapped.next();
-        driverTime += System.currentTimeMillis() - start;
+        metrics.addDriverTime(start);
+        metrics.addDocuments(1);
         return dbObj;
     }
 
+    /**
+     * Reads ahead up to the reference batch size documents and loads all of their references at once.
+     *
+     * @see org.mongodb.morphia.mapping.MapperOptions#setReferenceBatchSize(int)
+     */
+    private void readBatch() {
+        long start = System.nanoTime();
+        final List<DBObject> dbObjects = new ArrayList<DBObject>(referenceBatchSize);
+        while (dbObjects.size() < referenceBatchSize && wrapped.hasNext()) {
+            dbObjects.add(wrapped.next());
+        }
+        metrics.addDriverTime(start);
+        metrics.addDocuments(dbObjects.size());
+
+        start = System.nanoTime();
+        mapper.prefetchReferences(datastore, clazz, dbObjects, cache, readPreferenceOf(wrapped));
+        metrics.addMapperTime(start);
+        batch.addAll(dbObjects);
+    }
+
     protected V processItem(final DBObject dbObj) {
-        final long start = System.currentTimeMillis();
+        final long start = System.nanoTime();
         final V item = convertItem(dbObj);
-        mapperTime += System.currentTimeMillis() - start;
+        if (fields != null && item != null) {
+            mapper.setLoadedFields(item, fields);
+        }
+        metrics.addMapperTime(start);
         return item;
     }
 
+    /**
+     * @return the read preference of a cursor, for the references of its documents to be read with, or null if it is not a cursor
+     */
+    static ReadPreference readPreferenceOf(final Iterator<DBObject> cursor) {
+        return cursor instanceof DBCursor ? ((DBCursor) cursor).getReadPreference() : null;
+    }
+
 }
@@ -0,0 +1,165 @@
+package org.mongodb.morphia.query;
+
+
+import com.mongodb.DBObject;
+import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.MappingException;
+import org.mongodb.morphia.mapping.cache.EntityCache;
+import org.mongodb.morphia.mapping.cache.SynchronizedEntityCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Maps the results of a query on several threads.  The documents are read first, then the eager references of all of them are loaded
+ * into the query's cache, and then the documents are mapped in chunks, keeping their order.  Since the references are mapped before the
+ * chunks are, an entity referenced by several documents is shared.  A reference which could not be loaded up front, such as one declared
+ * only on a subclass, may be mapped by more than one thread, leaving documents referring to different copies of it.
+ * <p>
+ * The chunks are mapped on the threads of an executor shared with other queries, with at most the given number of them mapping the
+ * chunks of one query at a time.
+ *
+ * @param <T> the type of the entities
+ * @see Query#parallelMapping(int)
+ */
+class ParallelEntityMapper<T> {
+    private static final int MIN_CHUNK_SIZE = 100;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final Datastore datastore;
+    private final Mapper mapper;
+    private final Class<T> clazz;
+    private final String collection;
+    private final EntityCache cache;
+    private final DBObject fields;
+    private final ExecutorService executor;
+    private final int threads;
+    private QueryMetricsRecorder metrics;
+
+    ParallelEntityMapper(final Datastore datastore, final Mapper mapper, final Class<T> clazz, final String collection,
+                         final EntityCache cache, final DBObject fields, final ExecutorService executor, final int threads) {
+        this.datastore = datastore;
+        this.mapper = mapper;
+        this.clazz = clazz;
+        this.collection = collection;
+        this.cache = cache;
+        this.fields = fields;
+        this.executor = executor;
+        this.threads = threads;
+    }
+
+    /**
+     * @return the time spent reading the documents in ms
+     */
+    long getDriverTime() {
+        return metrics == null ? 0 : metrics.getDriverTime();
+    }
+
+    /**
+     * @return the time spent mapping the documents in ms
+     */
+    long getMapperTime() {
+        return metrics == null ? 0 : metrics.getMapperTime();
+    }
+
+    /**
+     * Reads all the documents and maps them, then publishes the metrics of the query.
+     *
+     * @param it the documents
+     * @return the entities in the order of the documents
+     */
+    List<T> map(final Iterator<DBObject> it) {
+        metrics = new QueryMetricsRecorder(datastore, mapper, collection, clazz, it, cache);
+        long start = System.nanoTime();
+        final List<DBObject> dbObjects = new ArrayList<DBObject>();
+        while (it.hasNext()) {
+            dbObjects.add(it.next());
+        }
+        metrics.addDriverTime(start);
+        metrics.addDocuments(dbObjects.size());
+
+        start = System.nanoTime();
+        mapper.prefetchReferences(datastore, clazz, dbObjects, cache, MorphiaIterator.readPreferenceOf(it));
+        final Object[] entities = new Object[dbObjects.size()];
+        final int chunks = threads * CHUNKS_PER_THREAD;
+        final int chunkSize = Math.max(MIN_CHUNK_SIZE, (dbObjects.size() + chunks - 1) / chunks);
+        if (dbObjects.size() <= chunkSize) {
+            map(dbObjects, entities, 0, dbObjects.size(), cache);
+        } else {
+            mapInParallel(dbObjects, entities, chunkSize);
+        }
+        metrics.addMapperTime(start);
+        metrics.publish();
+
+        @SuppressWarnings("unchecked")
+        final List<T> results = (List<T>) Arrays.asList(entities);
+        return new ArrayList<T>(results);
+    }
+
+    private void mapInParallel(final List<DBObject> dbObjects, final Object[] entities, final int chunkSize) {
+        final EntityCache shared = new SynchronizedEntityCache(cache);
+        final int chunks = (dbObjects.size() + chunkSize - 1) / chunkSize;
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        try {
+            for (int i = 0; i < Math.min(threads, chunks); i++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        try {
+                            for (int chunk = nextChunk.getAndIncrement(); chunk < chunks; chunk = nextChunk.getAndIncrement()) {
+                                final int from = chunk * chunkSize;
+                                map(dbObjects, entities, from, Math.min(from + chunkSize, dbObjects.size()), shared);
+                            }
+                        } catch (RuntimeException e) {
+                            // leaves the other threads no chunks to map
+                            nextChunk.set(chunks);
+                            throw e;
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (final Future<Void> future : futures) {
+                await(future);
+            }
+        } finally {
+            for (final Future<Void> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private void map(final List<DBObject> dbObjects, final Object[] entities, final int from, final int to, final EntityCache entityCache) {
+        for (int i = from; i < to; i++) {
+            final T entity = mapper.fromDBObject(datastore, clazz, dbObjects.get(i), entityCache);
+            if (fields != null && entity != null) {
+                mapper.setLoadedFields(entity, fields);
+            }
+            entities[i] = entity;
+        }
+    }
+
+    private void await(final Future<Void> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MappingException("Interrupted while mapping entities", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new MappingException("Could not map entities", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.mongodb.morphia.query;
+
+
+/**
+ * A named placeholder for a value in the criteria of a query which will be {@link Query#prepare() prepared}.  The placeholder is used
+ * wherever the value would be, for instance {@code filter("age >", Parameter.param("minAge"))} or {@code filter("tags in",
+ * Parameter.param("tags"))}, and the value is bound each time the prepared query runs.
+ *
+ * @see PreparedQuery
+ */
+public final class Parameter {
+    private final String name;
+
+    private Parameter(final String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("A parameter needs a name");
+        }
+        this.name = name;
+    }
+
+    /**
+     * Creates a placeholder
+     *
+     * @param name the name to bind the value with
+     * @return the placeholder
+     */
+    public static Parameter param(final String name) {
+        return new Parameter(name);
+    }
+
+    /**
+     * @return the name to bind the value with
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return this == o || o instanceof Parameter && name.equals(((Parameter) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return ":" + name;
+    }
+}
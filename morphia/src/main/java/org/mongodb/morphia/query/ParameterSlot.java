@@ -0,0 +1,79 @@
+package org.mongodb.morphia.query;
+
+
+import com.mongodb.DBObject;
+import org.mongodb.morphia.mapping.MappedClass;
+import org.mongodb.morphia.mapping.MappedField;
+import org.mongodb.morphia.mapping.Mapper;
+
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Where a {@link Parameter} sits in the query object of a query being prepared, along with what is needed to validate and convert the
+ * value bound to it as the criteria would have: the field it was validated against and the operator it is used with.
+ */
+final class ParameterSlot {
+    private final Parameter parameter;
+    private final Mapper mapper;
+    private final MappedClass mappedClass;
+    private final MappedField mappedField;
+    private final FilterOperator operator;
+
+    /**
+     * @param mappedClass the class holding the field if the types of bound values should be validated, or null
+     */
+    ParameterSlot(final Parameter parameter, final Mapper mapper, final MappedClass mappedClass, final MappedField mappedField,
+                  final FilterOperator operator) {
+        this.parameter = parameter;
+        this.mapper = mapper;
+        this.mappedClass = mappedClass;
+        this.mappedField = mappedField;
+        this.operator = operator;
+    }
+
+    /**
+     * Validates the type of a bound value, if the query validated types when it was prepared, and converts it for the query object.
+     *
+     * @param value the value bound to the parameter
+     * @return the value to put in the query object
+     */
+    Object bind(final Object value) {
+        if (mappedClass != null) {
+            QueryValidator.validateType(mappedClass, mappedField, operator, value);
+        }
+        return FieldCriteria.toMongoValue(mapper, mappedField, operator, value);
+    }
+
+    /**
+     * @return the first slot found in a query object, or null if it has none
+     */
+    static ParameterSlot find(final Object node) {
+        if (node instanceof ParameterSlot) {
+            return (ParameterSlot) node;
+        }
+        final Iterable<?> values = node instanceof Map ? ((Map<?, ?>) node).values()
+                                   : node instanceof DBObject ? ((DBObject) node).toMap().values()
+                                   : node instanceof List ? (List<?>) node
+                                   : null;
+        if (values != null) {
+            for (final Object value : values) {
+                final ParameterSlot slot = find(value);
+                if (slot != null) {
+                    return slot;
+                }
+            }
+        }
+        return null;
+    }
+
+    String getName() {
+        return parameter.getName();
+    }
+
+    @Override
+    public String toString() {
+        return parameter.toString();
+    }
+}
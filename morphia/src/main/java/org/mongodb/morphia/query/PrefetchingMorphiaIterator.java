@@ -0,0 +1,187 @@
+package org.mongodb.morphia.query;
+
+
+import com.mongodb.DBObject;
+import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.MappingException;
+import org.mongodb.morphia.mapping.cache.EntityCache;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+
+
+/**
+ * A MorphiaIterator which reads and maps the entities on a worker thread, up to a number of entities ahead of the caller, so that
+ * waiting on the server and mapping overlap with the caller's own work.  The driver and mapper times are those spent by the worker.
+ * Failures on the worker are thrown to the caller when it reaches them.
+ * <p>
+ * Only the worker uses the cursor: it closes it, and publishes the metrics of the query, once the results are read, the iterator is
+ * closed or the caller has not taken an entity for the idle timeout, ten minutes by default as for cursors on the server.  An iterator
+ * which is dropped without being closed so stops its worker once the idle timeout has passed.
+ *
+ * @param <T> the type of the entities
+ * @see Query#prefetch(int)
+ */
+class PrefetchingMorphiaIterator<T> extends MorphiaIterator<T, T> {
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final Object END = new Object();
+    private static final Object NULL = new Object();
+    private static final long POLL_INTERVAL = 100;
+    private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+    private final BlockingQueue<Object> queue;
+    private final long idleTimeout;
+    private final Thread worker;
+    private volatile boolean closed;
+    private Object next;
+    private boolean done;
+
+    PrefetchingMorphiaIterator(final Datastore datastore, final Iterator<DBObject> it, final Mapper mapper, final Class<T> clazz,
+                               final String collection, final EntityCache cache, final DBObject fields, final int count) {
+        this(datastore, it, mapper, clazz, collection, cache, fields, count, IDLE_TIMEOUT);
+    }
+
+    PrefetchingMorphiaIterator(final Datastore datastore, final Iterator<DBObject> it, final Mapper mapper, final Class<T> clazz,
+                               final String collection, final EntityCache cache, final DBObject fields, final int count,
+                               final long idleTimeout) {
+        super(datastore, it, mapper, clazz, collection, cache, fields);
+        queue = new ArrayBlockingQueue<Object>(count);
+        this.idleTimeout = idleTimeout;
+        worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                prefetch();
+            }
+        }, "morphia-prefetch-" + THREAD_COUNT.incrementAndGet());
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops the worker, which then closes the underlying cursor once any read it is waiting on completes.  Entities read ahead and not
+     * yet returned are dropped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (done || closed) {
+            return false;
+        }
+        final Object item = take();
+        if (item == END) {
+            done = true;
+            return false;
+        }
+        if (item instanceof Failure) {
+            done = true;
+            final Throwable cause = ((Failure) item).cause;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new MappingException("Could not read the next entity", cause);
+        }
+        next = item;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final Object item = next;
+        next = null;
+        return item == NULL ? null : (T) item;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Entities read ahead cannot be removed");
+    }
+
+    /**
+     * Waits for the next item from the worker.  The worker only stops without a last item when the caller was idle for too long.
+     */
+    private Object take() {
+        try {
+            Object item = null;
+            while (item == null) {
+                item = queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (item == null && !worker.isAlive()) {
+                    item = queue.poll();
+                    if (item == null) {
+                        done = true;
+                        throw new MappingException(format("Stopped reading ahead as no entity was taken for %dms", idleTimeout));
+                    }
+                }
+            }
+            return item;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MappingException("Interrupted while waiting for the next entity", e);
+        }
+    }
+
+    private void prefetch() {
+        try {
+            while (!closed && super.hasNext()) {
+                final T entity = processItem(getNext());
+                if (!put(entity == null ? NULL : entity)) {
+                    return;
+                }
+            }
+            put(END);
+        } catch (Throwable t) {
+            if (!closed) {
+                put(new Failure(t));
+            }
+        } finally {
+            super.close();
+        }
+    }
+
+    /**
+     * Waits for room in the queue unless the iterator is closed, or the caller takes nothing for the idle timeout, in the meantime.
+     *
+     * @return false if the iterator was closed or the caller was idle for too long
+     */
+    private boolean put(final Object item) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+        try {
+            while (!closed && System.nanoTime() - deadline < 0) {
+                if (queue.offer(item, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private static final class Failure {
+        private final Throwable cause;
+
+        private Failure(final Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.mongodb.morphia.query;
+
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+
+/**
+ * A query whose criteria have been validated and converted once, with {@link Parameter named placeholders} for the values which change
+ * between runs.  Binding values only converts them for the fields they were validated against and copies the query object around them,
+ * so the field names are not validated or translated again.  A prepared query does not change once created and can be shared by several
+ * threads.
+ * <pre>
+ * PreparedQuery&lt;User&gt; adults = ds.createQuery(User.class).filter("age >=", Parameter.param("age")).order("name").prepare();
+ * List&lt;User&gt; users = adults.bind("age", 18).asList();
+ * </pre>
+ * Each prepared query has a fingerprint which stays the same for the same query shape, including across restarts, and which can be used
+ * to key metrics or caches.
+ *
+ * @param <T> the type of the entities
+ * @see Query#prepare()
+ */
+public class PreparedQuery<T> {
+    private final QueryImpl<T> shape;
+    private final DBObject skeleton;
+    private final Set<String> parameterNames;
+    private final String canonical;
+    private final String fingerprint;
+
+    PreparedQuery(final QueryImpl<T> query) {
+        shape = query.cloneQuery();
+        skeleton = shape.getQueryObjectWithParameters();
+        shape.setChildren(new ArrayList<Criteria>());
+        shape.setQueryObject(null);
+        shape.setParameterized(false);
+
+        final Set<String> names = new LinkedHashSet<String>();
+        final DBObject rendered = (DBObject) substitute(skeleton, new Binder() {
+            @Override
+            public Object bind(final ParameterSlot slot) {
+                names.add(slot.getName());
+                return new BasicDBObject("$param", slot.getName());
+            }
+        });
+        parameterNames = Collections.unmodifiableSet(names);
+        canonical = new BasicDBObject("collection", shape.getCollection().getName())
+                        .append("type", shape.getEntityClass().getName())
+                        .append("query", rendered)
+                        .append("fields", shape.getFieldsObject())
+                        .append("sort", shape.getSortObject())
+                        .append("skip", shape.getOffset())
+                        .append("limit", shape.getLimit())
+                        .toString();
+        fingerprint = digest(canonical);
+    }
+
+    /**
+     * Creates a query from this shape with a value for each of its parameters.  A QueryException is thrown if a parameter has no value
+     * or a value is given for an unknown parameter.
+     *
+     * @param values the values keyed by the names of the parameters
+     * @return a new query which can be run, or refined further, like any other
+     */
+    public Query<T> bind(final Map<String, ?> values) {
+        for (final String name : values.keySet()) {
+            if (!parameterNames.contains(name)) {
+                throw new QueryException(format("The query has no parameter named '%s'; its parameters are %s", name, parameterNames));
+            }
+        }
+        final QueryImpl<T> query = shape.cloneQuery();
+        query.setQueryObject((DBObject) substitute(skeleton, new Binder() {
+            @Override
+            public Object bind(final ParameterSlot slot) {
+                if (!values.containsKey(slot.getName())) {
+                    throw new QueryException(format("No value is bound to the parameter '%s'", slot.getName()));
+                }
+                return slot.bind(values.get(slot.getName()));
+            }
+        }));
+        return query;
+    }
+
+    /**
+     * Creates a query from a shape with a single parameter.
+     *
+     * @param name  the name of the parameter
+     * @param value the value to bind to it
+     * @return a new query which can be run, or refined further, like any other
+     * @see #bind(Map)
+     */
+    public Query<T> bind(final String name, final Object value) {
+        return bind(Collections.singletonMap(name, value));
+    }
+
+    /**
+     * @return a digest of the collection, type, criteria, fields, sort, skip and limit of this query which is the same for the same shape
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return the names of the parameters, in the order they appear in the query
+     */
+    public Set<String> getParameterNames() {
+        return parameterNames;
+    }
+
+    @Override
+    public String toString() {
+        return canonical;
+    }
+
+    /**
+     * Copies a query object with each of its parameters written as {@code {$param: name}}.
+     */
+    static DBObject render(final DBObject queryObject) {
+        return (DBObject) substitute(queryObject, new Binder() {
+            @Override
+            public Object bind(final ParameterSlot slot) {
+                return new BasicDBObject("$param", slot.getName());
+            }
+        });
+    }
+
+    private static String digest(final String value) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes("UTF-8"));
+            final StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (final byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Copies the containers of the query object, replacing the parameters found in them.  The other values are shared with the skeleton.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object substitute(final Object node, final Binder binder) {
+        if (node instanceof ParameterSlot) {
+            return binder.bind((ParameterSlot) node);
+        } else if (node instanceof List) {
+            final List<Object> copy = node instanceof BasicDBList ? new BasicDBList() : new ArrayList<Object>();
+            for (final Object element : (List<Object>) node) {
+                copy.add(substitute(element, binder));
+            }
+            return copy;
+        } else if (node instanceof DBObject) {
+            final DBObject dbObject = (DBObject) node;
+            final BasicDBObject copy = new BasicDBObject();
+            for (final String key : dbObject.keySet()) {
+                copy.put(key, substitute(dbObject.get(key), binder));
+            }
+            return copy;
+        } else if (node instanceof Map) {
+            final BasicDBObject copy = new BasicDBObject();
+            for (final Map.Entry<String, Object> entry : ((Map<String, Object>) node).entrySet()) {
+                copy.put(entry.getKey(), substitute(entry.getValue(), binder));
+            }
+            return copy;
+        }
+        return node;
+    }
+
+    private interface Binder {
+        Object bind(ParameterSlot slot);
+    }
+}
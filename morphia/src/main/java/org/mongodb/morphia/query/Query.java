@@ -180,6 +180,9 @@ public interface Query<T> extends QueryResults<T>, Cloneable {
     int getOffset();
 
     /**
+     * Returns the Mongo query.  A QueryException is thrown if the criteria hold {@link Parameter}s, which only the queries bound from a
+     * {@link PreparedQuery} have values for.
+     *
      * @return the Mongo query {@link DBObject}.
      */
     DBObject getQueryObject();
@@ -266,6 +269,35 @@ public interface Query<T> extends QueryResults<T>, Cloneable {
      */
     Query<T> order(String sort);
 
+    /**
+     * Maps the results of {@link #asList()} on several threads, keeping their order.  All the results are read from the server first, and
+     * the eager references of all of them are loaded before mapping starts, so that entities referenced from several results are still
+     * shared.  Meant for large result sets, where mapping on one thread is the bottleneck.  The threads are taken from
+     * {@link org.mongodb.morphia.DatastoreImpl#getMappingExecutor()}.
+     *
+     * @param threads the most threads to map with at once, or 1 to map on the calling thread as the results are read
+     * @return this
+     */
+    Query<T> parallelMapping(int threads);
+
+    /**
+     * Reads and maps the entities ahead on a worker thread while the caller works on those already returned, so that waiting on the
+     * server and mapping overlap.  Meant for long reads such as exports; the iterator must be closed if it is not read to the end.
+     *
+     * @param count the number of entities which may wait to be returned, or 0 to read each entity as it is asked for
+     * @return this
+     */
+    Query<T> prefetch(int count);
+
+    /**
+     * Validates and converts the criteria of this query once so that it can be run many times with different values for its {@link
+     * Parameter}s.  Changes made to this query afterwards do not affect the prepared query.
+     *
+     * @return the prepared query
+     * @see Parameter#param(String)
+     */
+    PreparedQuery<T> prepare();
+
     /**
      * Route query to non-primary node
      *
@@ -292,6 +324,16 @@ public interface Query<T> extends QueryResults<T>, Cloneable {
      */
     Query<T> retrieveKnownFields();
 
+    /**
+     * Limits the fields retrieved to those of a field group declared by the query type.  The entities returned are partial: saving or
+     * inserting them is refused, while merging them or saving their changes only writes the fields which were loaded.
+     *
+     * @param group the name of the group
+     * @return this
+     * @see org.mongodb.morphia.annotations.FieldGroups
+     */
+    Query<T> retrieveFieldGroup(String group);
+
     /**
      * Limits the fields retrieved
      *
@@ -0,0 +1,64 @@
+package org.mongodb.morphia.query;
+
+
+import org.mongodb.morphia.annotations.CachedQueries;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * How the results of queries for an entity class are kept in the {@link QueryResultCache} of a Datastore.  Policies are set with
+ * {@link org.mongodb.morphia.mapping.MapperOptions#setQueryCachePolicy(Class, QueryCachePolicy)} or the {@link CachedQueries} annotation.
+ * <pre>
+ * morphia.getMapper().getOptions().setQueryCachePolicy(Country.class, new QueryCachePolicy(10, TimeUnit.MINUTES, false));
+ * </pre>
+ */
+public final class QueryCachePolicy {
+    private final long ttlNanos;
+    private final boolean keysOnly;
+
+    /**
+     * Creates a policy
+     *
+     * @param ttl      how long results may be served from the cache
+     * @param unit     the unit of the ttl
+     * @param keysOnly true if only the {@code _id}s of the results should be cached, with the documents read again by {@code _id} on
+     *                 every hit
+     */
+    public QueryCachePolicy(final long ttl, final TimeUnit unit, final boolean keysOnly) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("The time to live must be positive: " + ttl);
+        }
+        ttlNanos = unit.toNanos(ttl);
+        this.keysOnly = keysOnly;
+    }
+
+    /**
+     * Creates a policy from an annotation
+     *
+     * @param annotation the annotation
+     */
+    public QueryCachePolicy(final CachedQueries annotation) {
+        this(annotation.ttl(), annotation.unit(), annotation.keysOnly());
+    }
+
+    /**
+     * @param unit the unit to return the time in
+     * @return how long results may be served from the cache
+     */
+    public long getTtl(final TimeUnit unit) {
+        return unit.convert(ttlNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return true if only the {@code _id}s of the results are cached
+     */
+    public boolean isKeysOnly() {
+        return keysOnly;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCachePolicy{ttl=" + getTtl(TimeUnit.MILLISECONDS) + "ms, keysOnly=" + keysOnly + '}';
+    }
+}
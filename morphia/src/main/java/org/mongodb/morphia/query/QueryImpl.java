@@ -12,6 +12,8 @@ import org.bson.BSONObject;
 import org.bson.types.CodeWScope;
 import org.mongodb.morphia.Datastore;
 import org.mongodb.morphia.DatastoreImpl;
+import org.mongodb.morphia.OperationEvent;
+import org.mongodb.morphia.OperationType;
 import org.mongodb.morphia.Key;
 import org.mongodb.morphia.annotations.Entity;
 import org.mongodb.morphia.logging.Logger;
@@ -48,6 +50,7 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
     private EntityCache cache;
     private boolean validateName = true;
     private boolean validateType = true;
+    private boolean parameterized; // true once a criteria holds a Parameter
     private String[] fields;
     private Boolean includeFields;
     private BasicDBObject sort;
@@ -56,6 +59,8 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
     private int offset;
     private int limit = -1;
     private int batchSize;
+    private int prefetch;
+    private int mappingThreads = 1;
     private String indexHint;
     private BasicDBObject baseQuery;
     private boolean snapshotted;
@@ -83,7 +88,7 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
         this.clazz = clazz;
         this.ds = ((DatastoreImpl) ds);
         dbColl = coll;
-        cache = this.ds.getMapper().createEntityCache();
+        cache = this.ds.getMapper().createEntityCache(this.ds.getDB().getName());
 
         final MappedClass mc = this.ds.getMapper().getMappedClass(clazz);
         final Entity entAn = mc == null ? null : mc.getEntityAnnotation();
@@ -144,6 +149,9 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
 
     @Override
     public List<T> asList() {
+        if (mappingThreads > 1) {
+            return asListInParallel();
+        }
         final List<T> results = new ArrayList<T>();
         final MorphiaIterator<T, T> iter = fetch();
         try {
@@ -163,23 +171,96 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
         return results;
     }
 
+    private List<T> asListInParallel() {
+        final QueryCachePolicy policy = getCachePolicy();
+        final ParallelEntityMapper<T> parallel = new ParallelEntityMapper<T>(ds, ds.getMapper(), clazz, dbColl.getName(),
+                                                                             getMappingCache(), getFieldsObject(),
+                                                                             ds.getMappingExecutor(), mappingThreads);
+        final List<T> results;
+        if (policy != null) {
+            results = parallel.map(readCached(policy).iterator());
+        } else {
+            final DBCursor cursor = prepareCursor();
+            try {
+                results = parallel.map(cursor);
+            } finally {
+                cursor.close();
+            }
+        }
+
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(format("asList: %s \t %d entities on %d threads, driver %d ms, mapper %d ms %n\t cache: %s %n\t for %s",
+                             dbColl.getName(), results.size(), mappingThreads, parallel.getDriverTime(), parallel.getMapperTime(),
+                             cache.stats(), getQueryObject()));
+        }
+
+        return results;
+    }
+
     @Override
     public long countAll() {
         final DBObject query = getQueryObject();
+        final QueryCachePolicy policy = getCachePolicy();
+        if (policy == null) {
+            return count(query);
+        }
+        final QueryResultCache queryCache = ds.getQueryCache();
+        final String key = new BasicDBObject("count", QueryResultCache.normalize(query)).toString();
+        final Long cached = (Long) queryCache.get(dbColl.getName(), key);
+        if (cached != null) {
+            return cached;
+        }
+        final long generation = queryCache.getGeneration(dbColl.getName());
+        final long count = count(query);
+        queryCache.put(dbColl.getName(), key, count, generation, policy.getTtl(TimeUnit.NANOSECONDS));
+        return count;
+    }
+
+    private long count(final DBObject query) {
         if (LOG.isTraceEnabled()) {
             LOG.trace("Executing count(" + dbColl.getName() + ") for query: " + query);
         }
-        return dbColl.getCount(query);
+        final OperationEvent operation = ds.startOperation(OperationType.COUNT, dbColl, clazz, query, 0);
+        long count = -1;
+        try {
+            count = dbColl.getCount(query);
+            return count;
+        } finally {
+            ds.endOperation(operation, count);
+        }
     }
 
     @Override
     public MorphiaIterator<T, T> fetch() {
+        final QueryCachePolicy policy = getCachePolicy();
+        final EntityCache mappingCache = getMappingCache();
+        if (policy != null) {
+            return new MorphiaIterator<T, T>(ds, readCached(policy).iterator(), ds.getMapper(), clazz, dbColl.getName(), mappingCache,
+                                             getFieldsObject());
+        }
+
         final DBCursor cursor = prepareCursor();
         if (LOG.isTraceEnabled()) {
             LOG.trace("Getting cursor(" + dbColl.getName() + ")  for query:" + cursor.getQuery());
         }
 
-        return new MorphiaIterator<T, T>(ds, cursor, ds.getMapper(), clazz, dbColl.getName(), cache);
+        if (prefetch > 0) {
+            return new PrefetchingMorphiaIterator<T>(ds, cursor, ds.getMapper(), clazz, dbColl.getName(), mappingCache, getFieldsObject(),
+                                                     prefetch);
+        }
+        return new MorphiaIterator<T, T>(ds, cursor, ds.getMapper(), clazz, dbColl.getName(), mappingCache, getFieldsObject());
+    }
+
+    @Override
+    public MorphiaBatchIterator<T> fetchInBatches(final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("A batch must hold at least one entity");
+        }
+        final DBCursor cursor = prepareCursor();
+        if (batchSize == 0) {
+            cursor.batchSize(size);
+        }
+        return new MorphiaBatchIterator<T>(ds, cursor, ds.getMapper(), clazz, getMappingCache(), getFieldsObject(), size);
     }
 
     @Override
@@ -215,9 +296,13 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
     public T get() {
         final int oldLimit = limit;
         limit = 1;
-        final Iterator<T> it = fetch().iterator();
+        final MorphiaIterator<T, T> it = fetch();
         limit = oldLimit;
-        return (it.hasNext()) ? it.next() : null;
+        try {
+            return (it.hasNext()) ? it.next() : null;
+        } finally {
+            it.close();
+        }
     }
 
     @Override
@@ -253,7 +338,9 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
     public QueryImpl<T> cloneQuery() {
         final QueryImpl<T> n = new QueryImpl<T>(clazz, dbColl, ds);
         n.batchSize = batchSize;
-        n.cache = ds.getMapper().createEntityCache(); // fresh cache
+        n.prefetch = prefetch;
+        n.mappingThreads = mappingThreads;
+        n.cache = ds.getMapper().createEntityCache(ds.getDB().getName()); // fresh cache
         n.fields = fields == null ? null : copy();
         n.includeFields = includeFields;
         n.indexHint = indexHint;
@@ -265,6 +352,7 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
         n.snapshotted = snapshotted;
         n.validateName = validateName;
         n.validateType = validateType;
+        n.parameterized = parameterized;
         n.sort = (BasicDBObject) (sort == null ? null : sort.clone());
         n.max = max;
         n.min = min;
@@ -399,6 +487,21 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
 
     @Override
     public DBObject getQueryObject() {
+        final DBObject obj = getQueryObjectWithParameters();
+        if (parameterized) {
+            final ParameterSlot slot = ParameterSlot.find(obj);
+            if (slot != null) {
+                throw new QueryException(format("No value is bound to the parameter '%s'; prepare() the query and bind its parameters"
+                                                + " to run it", slot.getName()));
+            }
+        }
+        return obj;
+    }
+
+    /**
+     * @return the query object, with a {@link ParameterSlot} wherever a criteria holds a {@link Parameter}
+     */
+    DBObject getQueryObjectWithParameters() {
         final DBObject obj = new BasicDBObject();
 
         if (baseQuery != null) {
@@ -410,6 +513,10 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
         return obj;
     }
 
+    void setParameterized(final boolean parameterized) {
+        this.parameterized = parameterized;
+    }
+
     /**
      * Sets query structure directly
      *
@@ -475,6 +582,29 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
         return this;
     }
 
+    @Override
+    public Query<T> parallelMapping(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed to map the results");
+        }
+        mappingThreads = threads;
+        return this;
+    }
+
+    @Override
+    public Query<T> prefetch(final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("The prefetch count must not be negative");
+        }
+        prefetch = count;
+        return this;
+    }
+
+    @Override
+    public PreparedQuery<T> prepare() {
+        return new PreparedQuery<T>(this);
+    }
+
     @Override
     @SuppressWarnings("deprecation")
     public Query<T> queryNonPrimary() {
@@ -500,6 +630,15 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
         return this;
     }
 
+    @Override
+    public Query<T> retrieveFieldGroup(final String group) {
+        final String[] groupFields = ds.getMapper().getMappedClass(clazz).getFieldGroup(group);
+        if (groupFields == null) {
+            throw new ValidationException(format("The field group '%s' could not be found in '%s'", group, clazz.getName()));
+        }
+        return retrievedFields(true, groupFields);
+    }
+
     @Override
     public Query<T> retrievedFields(final boolean include, final String... list) {
         if (includeFields != null && include != includeFields) {
@@ -607,14 +746,21 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
      */
     public DBCursor prepareCursor() {
         final DBObject query = getQueryObject();
-        final DBObject fields = getFieldsObject();
+        DBObject fields = getFieldsObject();
+        if (fields == null) {
+            fields = ds.getMapper().getMappedProjection(clazz);
+        }
 
         if (LOG.isTraceEnabled()) {
             LOG.trace("Running query(" + dbColl.getName() + ") : " + query + ", fields:" + fields + ",off:" + offset + ",limit:" + limit);
         }
 
         final DBCursor cursor = dbColl.find(query, fields);
-        cursor.setDecoderFactory(ds.getDecoderFact());
+        if (ds.getMapper().getQueryMetricsListeners().isEmpty()) {
+            cursor.setDecoderFactory(ds.getDecoderFact());
+        } else {
+            cursor.setDecoderFactory(new CountingDecoderFactory(ds.getDecoderFact()));
+        }
 
         if (offset > 0) {
             cursor.skip(offset);
@@ -689,7 +835,7 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
 
     @Override
     public String toString() {
-        return getQueryObject().toString();
+        return parameterized ? PreparedQuery.render(getQueryObjectWithParameters()).toString() : getQueryObject().toString();
     }
 
     /**
@@ -700,6 +846,118 @@ public class QueryImpl<T> extends CriteriaContainerImpl implements Query<T> {
         return FilterOperator.fromString(operator);
     }
 
+    /**
+     * @return the cache to map the results with: the query's own, or one of their own for entities loaded with only some of their fields
+     */
+    private EntityCache getMappingCache() {
+        return fields == null || fields.length == 0 ? cache : ds.getMapper().createPartialEntityCache();
+    }
+
+    /**
+     * @return the policy for caching the results of this query, or null if they are read from the server every time
+     */
+    private QueryCachePolicy getCachePolicy() {
+        final QueryCachePolicy policy = tail ? null : ds.getMapper().getQueryCachePolicy(clazz);
+        return policy == null || ds.getQueryCache() == null ? null : policy;
+    }
+
+    /**
+     * Reads the documents of the results from the query cache of the Datastore, running the query and caching its results on a miss.
+     */
+    @SuppressWarnings("unchecked")
+    private List<DBObject> readCached(final QueryCachePolicy policy) {
+        final QueryResultCache queryCache = ds.getQueryCache();
+        DBObject fields = getFieldsObject();
+        if (fields == null) {
+            fields = ds.getMapper().getMappedProjection(clazz);
+        }
+        final String key = getCacheKey(fields, policy.isKeysOnly());
+        final Object cached = queryCache.get(dbColl.getName(), key);
+        if (cached != null) {
+            return policy.isKeysOnly() ? readByIds((List<Object>) cached, fields) : QueryResultCache.copy((List<DBObject>) cached);
+        }
+
+        final long generation = queryCache.getGeneration(dbColl.getName());
+        final List<DBObject> dbObjects = readAll(prepareCursor());
+        List<?> value = null;
+        if (!policy.isKeysOnly()) {
+            value = QueryResultCache.copy(dbObjects);
+        } else if (!returnKey) {
+            final List<Object> ids = new ArrayList<Object>(dbObjects.size());
+            for (final DBObject dbObject : dbObjects) {
+                ids.add(dbObject.get(Mapper.ID_KEY));
+            }
+            value = ids.contains(null) ? null : ids;
+        }
+        if (value != null) {
+            queryCache.put(dbColl.getName(), key, value, generation, policy.getTtl(TimeUnit.NANOSECONDS));
+        }
+        return dbObjects;
+    }
+
+    /**
+     * Builds the key of the results of this query from everything which changes them, with the fields of the filter and projection in a
+     * canonical order.
+     */
+    private String getCacheKey(final DBObject fields, final boolean keysOnly) {
+        final BasicDBObject key = new BasicDBObject("find", QueryResultCache.normalize(getQueryObject()));
+        key.put("fields", QueryResultCache.normalize(fields));
+        key.put("sort", sort);
+        key.put("skip", offset);
+        key.put("limit", limit);
+        key.put("min", min);
+        key.put("max", max);
+        key.put("maxScan", maxScan);
+        key.put("returnKey", returnKey);
+        key.put("keysOnly", keysOnly);
+        return key.toString();
+    }
+
+    /**
+     * Reads the documents with the _ids given, in the order of the _ids.  Documents deleted since the _ids were cached are skipped.
+     */
+    private List<DBObject> readByIds(final List<Object> ids, final DBObject fields) {
+        if (ids.isEmpty()) {
+            return new ArrayList<DBObject>();
+        }
+        final DBCursor cursor = dbColl.find(new BasicDBObject(Mapper.ID_KEY, new BasicDBObject("$in", ids)), fields);
+        cursor.setDecoderFactory(ds.getDecoderFact());
+        if (readPref != null) {
+            cursor.setReadPreference(readPref);
+        }
+        final Map<Object, DBObject> byId = new HashMap<Object, DBObject>();
+        for (final DBObject dbObject : readAll(cursor)) {
+            byId.put(dbObject.get(Mapper.ID_KEY), dbObject);
+        }
+        final List<DBObject> dbObjects = new ArrayList<DBObject>(ids.size());
+        for (final Object id : ids) {
+            final DBObject dbObject = byId.get(id);
+            if (dbObject != null) {
+                dbObjects.add(dbObject);
+            }
+        }
+        return dbObjects;
+    }
+
+    /**
+     * Reads every document of a cursor and closes it, reporting the read to the operation listeners of the Datastore as a find.
+     */
+    private List<DBObject> readAll(final DBCursor cursor) {
+        final OperationEvent operation = ds.startOperation(OperationType.FIND, dbColl, clazz, cursor.getQuery(), 0);
+        final List<DBObject> dbObjects = new ArrayList<DBObject>();
+        long read = -1;
+        try {
+            while (cursor.hasNext()) {
+                dbObjects.add(cursor.next());
+            }
+            read = dbObjects.size();
+        } finally {
+            cursor.close();
+            ds.endOperation(operation, read);
+        }
+        return dbObjects;
+    }
+
     private String[] copy() {
         final String[] copy = new String[fields.length];
         System.arraycopy(fields, 0, copy, 0, fields.length);
@@ -0,0 +1,113 @@
+package org.mongodb.morphia.query;
+
+
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+
+/**
+ * What reading the results of one query took: the documents and bytes read, the time spent waiting on the driver and mapping, and how
+ * the query's entity cache fared.  Times are measured with {@link System#nanoTime()}.
+ *
+ * @see QueryMetricsListener
+ */
+public final class QueryMetrics {
+    private final String collection;
+    private final Class<?> entityClass;
+    private final long documents;
+    private final long bytes;
+    private final long driverNanos;
+    private final long mapperNanos;
+    private final long cacheHits;
+    private final long cacheMisses;
+
+    /**
+     * Creates the metrics of a query
+     *
+     * @param collection  the collection queried
+     * @param entityClass the type the results were mapped to
+     * @param documents   the number of documents read
+     * @param bytes       the number of bytes decoded, or 0 if they were not counted
+     * @param driverNanos the time spent waiting on the driver in ns
+     * @param mapperNanos the time spent mapping in ns
+     * @param cacheHits   the number of entity cache hits
+     * @param cacheMisses the number of entity cache misses
+     */
+    public QueryMetrics(final String collection, final Class<?> entityClass, final long documents, final long bytes,
+                        final long driverNanos, final long mapperNanos, final long cacheHits, final long cacheMisses) {
+        this.collection = collection;
+        this.entityClass = entityClass;
+        this.documents = documents;
+        this.bytes = bytes;
+        this.driverNanos = driverNanos;
+        this.mapperNanos = mapperNanos;
+        this.cacheHits = cacheHits;
+        this.cacheMisses = cacheMisses;
+    }
+
+    /**
+     * @return the number of bytes decoded, or 0 if they were not counted
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the number of entity cache hits
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * @return the number of entity cache misses
+     */
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * @return the collection queried, or null if the results did not come from a collection
+     */
+    public String getCollection() {
+        return collection;
+    }
+
+    /**
+     * @return the number of documents read
+     */
+    public long getDocuments() {
+        return documents;
+    }
+
+    /**
+     * @param unit the unit to return the time in
+     * @return the time spent waiting on the driver
+     */
+    public long getDriverTime(final TimeUnit unit) {
+        return unit.convert(driverNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the type the results were mapped to
+     */
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @param unit the unit to return the time in
+     * @return the time spent mapping
+     */
+    public long getMapperTime(final TimeUnit unit) {
+        return unit.convert(mapperNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return format("QueryMetrics{collection=%s, entityClass=%s, documents=%d, bytes=%d, driver=%d us, mapper=%d us, cache hits=%d,"
+                      + " cache misses=%d}", collection, entityClass == null ? null : entityClass.getName(), documents, bytes,
+                      getDriverTime(TimeUnit.MICROSECONDS), getMapperTime(TimeUnit.MICROSECONDS), cacheHits, cacheMisses);
+    }
+}
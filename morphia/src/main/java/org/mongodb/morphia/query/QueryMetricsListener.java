@@ -0,0 +1,17 @@
+package org.mongodb.morphia.query;
+
+
+/**
+ * Receives the metrics of each query once its results have been read, e.g. to export them to a metrics system.  Listeners may be called
+ * from several threads at once and should return quickly; exceptions they throw are logged and otherwise ignored.
+ *
+ * @see org.mongodb.morphia.mapping.Mapper#addQueryMetricsListener(QueryMetricsListener)
+ */
+public interface QueryMetricsListener {
+    /**
+     * Called once the results of a query have all been read or the iterator over them has been closed.
+     *
+     * @param metrics the metrics of the query
+     */
+    void queryCompleted(QueryMetrics metrics);
+}
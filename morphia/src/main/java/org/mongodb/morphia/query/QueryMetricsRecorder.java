@@ -0,0 +1,151 @@
+package org.mongodb.morphia.query;
+
+
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.DatastoreImpl;
+import org.mongodb.morphia.OperationEvent;
+import org.mongodb.morphia.OperationType;
+import org.mongodb.morphia.logging.Logger;
+import org.mongodb.morphia.logging.MorphiaLoggerFactory;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.cache.EntityCache;
+import org.mongodb.morphia.mapping.cache.EntityCacheStatistics;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Accumulates the metrics of one query while its results are read, and publishes them to the Mapper's listeners once.  The times are
+ * always measured since the iterators report them; the cache statistics are only sampled and the metrics only published when listeners
+ * were registered by the time the query ran.  The counters may be updated from several threads.
+ * <p>
+ * Results read from a cursor of a DatastoreImpl are also reported to its operation listeners as a find, lasting the time spent in the
+ * driver.
+ *
+ * @see Mapper#addQueryMetricsListener(QueryMetricsListener)
+ * @see DatastoreImpl#addOperationListener(org.mongodb.morphia.OperationListener)
+ */
+class QueryMetricsRecorder {
+    private static final Logger LOG = MorphiaLoggerFactory.get(QueryMetricsRecorder.class);
+
+    private final DatastoreImpl datastore;
+    private final OperationEvent operation;
+    private final Mapper mapper;
+    private final String collection;
+    private final Class<?> clazz;
+    private final Iterator<DBObject> cursor;
+    private final EntityCache cache;
+    private final boolean enabled;
+    private final long startHits;
+    private final long startMisses;
+    private final AtomicLong documents = new AtomicLong();
+    private final AtomicLong driverNanos = new AtomicLong();
+    private final AtomicLong mapperNanos = new AtomicLong();
+    private final AtomicBoolean published = new AtomicBoolean();
+
+    QueryMetricsRecorder(final Datastore datastore, final Mapper mapper, final String collection, final Class<?> clazz,
+                         final Iterator<DBObject> cursor, final EntityCache cache) {
+        if (datastore instanceof DatastoreImpl && cursor instanceof DBCursor) {
+            this.datastore = (DatastoreImpl) datastore;
+            final DBCursor dbCursor = (DBCursor) cursor;
+            operation = this.datastore.startOperation(OperationType.FIND, dbCursor.getCollection(), clazz, dbCursor.getQuery(), 0);
+        } else {
+            this.datastore = null;
+            operation = null;
+        }
+        this.mapper = mapper;
+        this.collection = collection;
+        this.clazz = clazz;
+        this.cursor = cursor;
+        this.cache = cache;
+        enabled = mapper != null && !mapper.getQueryMetricsListeners().isEmpty();
+        if (enabled && cache != null) {
+            final EntityCacheStatistics stats = cache.stats();
+            startHits = stats.getHits();
+            startMisses = stats.getMisses();
+        } else {
+            startHits = 0;
+            startMisses = 0;
+        }
+    }
+
+    /**
+     * @param count the number of documents read
+     */
+    void addDocuments(final int count) {
+        documents.addAndGet(count);
+    }
+
+    /**
+     * @param start the {@link System#nanoTime()} the call to the driver started at
+     */
+    void addDriverTime(final long start) {
+        driverNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     * @param start the {@link System#nanoTime()} the mapping started at
+     */
+    void addMapperTime(final long start) {
+        mapperNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     * @return the time spent calling the driver in ms
+     */
+    long getDriverTime() {
+        return TimeUnit.NANOSECONDS.toMillis(driverNanos.get());
+    }
+
+    /**
+     * @return the time spent mapping in ms
+     */
+    long getMapperTime() {
+        return TimeUnit.NANOSECONDS.toMillis(mapperNanos.get());
+    }
+
+    /**
+     * Publishes the metrics to the Mapper's listeners, and completes the find, unless they have already been published.
+     */
+    void publish() {
+        if (!published.compareAndSet(false, true)) {
+            return;
+        }
+        if (operation != null) {
+            datastore.endOperation(operation, documents.get(), driverNanos.get());
+        }
+        if (!enabled) {
+            return;
+        }
+        long hits = 0;
+        long misses = 0;
+        if (cache != null) {
+            final EntityCacheStatistics stats = cache.stats();
+            hits = stats.getHits() - startHits;
+            misses = stats.getMisses() - startMisses;
+        }
+        final QueryMetrics metrics = new QueryMetrics(collection, clazz, documents.get(), getBytes(), driverNanos.get(),
+                                                      mapperNanos.get(), hits, misses);
+        final Collection<QueryMetricsListener> listeners = mapper.getQueryMetricsListeners();
+        for (final QueryMetricsListener listener : listeners) {
+            try {
+                listener.queryCompleted(metrics);
+            } catch (RuntimeException e) {
+                LOG.warning("Query metrics listener " + listener + " failed", e);
+            }
+        }
+    }
+
+    private long getBytes() {
+        if (cursor instanceof DBCursor && ((DBCursor) cursor).getDecoderFactory() instanceof CountingDecoderFactory) {
+            return ((CountingDecoderFactory) ((DBCursor) cursor).getDecoderFactory()).getBytes();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,156 @@
+package org.mongodb.morphia.query;
+
+
+import org.mongodb.morphia.mapping.MappedClass;
+import org.mongodb.morphia.mapping.MappedField;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Remembers the outcome of validating a query or update path against the mapped classes: the path translated to the stored field names
+ * and the {@link MappedField}s along it.  Applications tend to build the same handful of query shapes over and over so this saves
+ * splitting the path and walking the mapped classes each time.  Paths which fail validation are never cached.  When the cache is full an
+ * arbitrary entry is dropped to make room.
+ *
+ * @see org.mongodb.morphia.mapping.Mapper#getQueryPathCache()
+ * @see org.mongodb.morphia.mapping.MapperOptions#setQueryPathCacheSize(int)
+ */
+public class QueryPathCache {
+    private final ConcurrentMap<PathKey, ValidatedPath> paths = new ConcurrentHashMap<PathKey, ValidatedPath>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Removes all the cached paths.  This is needed if the mapping of an already mapped class changes.
+     */
+    public void clear() {
+        paths.clear();
+    }
+
+    /**
+     * @return the number of lookups which found a cached path
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of lookups which had to validate the path
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of paths currently cached
+     */
+    public int size() {
+        return paths.size();
+    }
+
+    ValidatedPath get(final Class<?> clazz, final String path, final boolean validateNames) {
+        final ValidatedPath validated = paths.get(new PathKey(clazz, path, validateNames));
+        if (validated != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return validated;
+    }
+
+    void put(final Class<?> clazz, final String path, final boolean validateNames, final ValidatedPath validated, final int maxSize) {
+        if (maxSize <= 0) {
+            return;
+        }
+        final Iterator<PathKey> keys = paths.keySet().iterator();
+        while (paths.size() >= maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+        paths.put(new PathKey(clazz, path, validateNames), validated);
+    }
+
+    /**
+     * The result of validating a path.
+     */
+    static final class ValidatedPath {
+        private final String translatedPath;
+        private final List<MappedField> fields;
+        private final MappedClass mappedClass;
+        private final MappedField mappedField;
+
+        ValidatedPath(final String translatedPath, final MappedField[] fields, final MappedClass mappedClass,
+                      final MappedField mappedField) {
+            this.translatedPath = translatedPath;
+            this.fields = Collections.unmodifiableList(Arrays.asList(fields));
+            this.mappedClass = mappedClass;
+            this.mappedField = mappedField;
+        }
+
+        /**
+         * @return the path using the stored field names or null if no part of it needed translating
+         */
+        String getTranslatedPath() {
+            return translatedPath;
+        }
+
+        /**
+         * @return the fields found along the path, null where a part could not be (or need not be) resolved
+         */
+        List<MappedField> getFields() {
+            return fields;
+        }
+
+        /**
+         * @return the class the last part of the path was resolved against
+         */
+        MappedClass getMappedClass() {
+            return mappedClass;
+        }
+
+        /**
+         * @return the field found for the last part of the path, if any
+         */
+        MappedField getMappedField() {
+            return mappedField;
+        }
+    }
+
+    private static final class PathKey {
+        private final Class<?> clazz;
+        private final String path;
+        private final boolean validateNames;
+        private final int hash;
+
+        private PathKey(final Class<?> clazz, final String path, final boolean validateNames) {
+            this.clazz = clazz;
+            this.path = path;
+            this.validateNames = validateNames;
+            hash = 31 * (31 * clazz.hashCode() + path.hashCode()) + (validateNames ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PathKey)) {
+                return false;
+            }
+            final PathKey that = (PathKey) o;
+            return hash == that.hash && validateNames == that.validateNames && clazz.equals(that.clazz) && path.equals(that.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
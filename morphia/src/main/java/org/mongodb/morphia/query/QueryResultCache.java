@@ -0,0 +1,244 @@
+package org.mongodb.morphia.query;
+
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.mongodb.morphia.mapping.cache.EntityCacheStatistics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+
+/**
+ * Keeps the results of queries for the entity classes given a {@link QueryCachePolicy}, so that running the same query again within the
+ * policy's time to live does not go to the server.  Each {@link org.mongodb.morphia.DatastoreImpl} has its own cache, holding at most
+ * {@link org.mongodb.morphia.mapping.MapperOptions#getQueryCacheSize()} results with the least recently used dropped first.
+ * <p>
+ * Results are keyed by collection and by the filter, projection, sort, skip and limit of the query, with the order of the filter's fields
+ * ignored.  The results of {@link Query#fetch()}, {@link Query#asList()}, {@link Query#get()} and {@link Query#countAll()} are cached;
+ * tailing, batches and keys are always read from the server.
+ * <p>
+ * Every save, update and delete issued through the Datastore drops the cached results of the collection it writes to, including those of
+ * queries still running when the write completes.  Changes made any other way are only seen once the results expire.
+ *
+ * @see org.mongodb.morphia.DatastoreImpl#getQueryCache()
+ */
+public class QueryResultCache {
+    private final Entries entries;
+    // the write count when each collection was last written to, or when the cache was cleared for those not written to since
+    private final Map<String, Long> generations = new HashMap<String, Long>();
+    private long writes;
+    private long cleared;
+    private final EntityCacheStatistics stats = EntityCacheStatistics.newConcurrentStatistics();
+
+    /**
+     * Creates a cache holding at most {@code maxSize} results
+     *
+     * @param maxSize the maximum number of results to keep
+     */
+    public QueryResultCache(final int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The maximum size must be positive: " + maxSize);
+        }
+        entries = new Entries(maxSize, stats);
+    }
+
+    /**
+     * Drops every cached result, and forgets the collections written to
+     */
+    public synchronized void clear() {
+        entries.clear();
+        generations.clear();
+        cleared = ++writes;
+    }
+
+    /**
+     * Returns the statistics of the cache: the results stored, the queries answered from the cache or not, and the results dropped
+     * because they expired or the cache was full.
+     *
+     * @return a snapshot of the statistics
+     */
+    public EntityCacheStatistics getStatistics() {
+        return stats.copy();
+    }
+
+    /**
+     * Drops the cached results of every query of a collection
+     *
+     * @param collection the collection written to
+     */
+    public synchronized void invalidate(final String collection) {
+        generations.put(collection, ++writes);
+        final Iterator<ResultKey> iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().collection.equals(collection)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of results currently cached, including any which have expired but not yet been dropped
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the cached result or null if there is none or it has expired
+     */
+    synchronized Object get(final String collection, final String query) {
+        final ResultKey key = new ResultKey(collection, query);
+        final CachedResult result = entries.get(key);
+        if (result != null && System.nanoTime() - result.expiresAt >= 0) {
+            entries.remove(key);
+            stats.incEvictions();
+        } else if (result != null) {
+            stats.incHits();
+            return result.value;
+        }
+        stats.incMisses();
+        return null;
+    }
+
+    /**
+     * Returns a number which changes whenever a collection is written to, to be read before a query runs and passed to
+     * {@link #put(String, String, Object, long, long)} with its results.
+     */
+    synchronized long getGeneration(final String collection) {
+        final Long generation = generations.get(collection);
+        return generation == null ? cleared : generation;
+    }
+
+    /**
+     * Caches the result of a query unless the collection was written to since the query started.
+     */
+    synchronized void put(final String collection, final String query, final Object value, final long generation, final long ttlNanos) {
+        if (generation == getGeneration(collection)) {
+            entries.put(new ResultKey(collection, query), new CachedResult(value, System.nanoTime() + ttlNanos));
+            stats.incEntities();
+        }
+    }
+
+    /**
+     * Copies documents so neither the cached ones nor those handed to the mapper, and to any {@code @PreLoad} methods, see changes made
+     * to the other.
+     */
+    static List<DBObject> copy(final List<DBObject> dbObjects) {
+        final List<DBObject> copies = new ArrayList<DBObject>(dbObjects.size());
+        for (final DBObject dbObject : dbObjects) {
+            copies.add(dbObject instanceof BasicDBObject ? (DBObject) ((BasicDBObject) dbObject).copy() : dbObject);
+        }
+        return copies;
+    }
+
+    /**
+     * Orders the fields of a filter or projection, and of the operators in it, so that equivalent ones give the same cache key.  Embedded
+     * documents matched for equality are left alone since the order of their fields matters to the server.
+     */
+    static DBObject normalize(final DBObject filter) {
+        if (filter == null) {
+            return null;
+        }
+        final BasicDBObject normalized = new BasicDBObject();
+        for (final String name : new TreeSet<String>(filter.keySet())) {
+            normalized.put(name, normalize(name, filter.get(name)));
+        }
+        return normalized;
+    }
+
+    private static Object normalize(final String name, final Object value) {
+        if (value instanceof List) {
+            if (!"$and".equals(name) && !"$or".equals(name) && !"$nor".equals(name)) {
+                return value;
+            }
+            final List<Object> clauses = new ArrayList<Object>();
+            for (final Object clause : (List<?>) value) {
+                clauses.add(clause instanceof DBObject ? normalize((DBObject) clause) : clause);
+            }
+            return clauses;
+        }
+        if (value instanceof DBObject && isOperators((DBObject) value)) {
+            return normalize((DBObject) value);
+        }
+        return value;
+    }
+
+    private static boolean isOperators(final DBObject value) {
+        if (value.keySet().isEmpty()) {
+            return false;
+        }
+        for (final String name : value.keySet()) {
+            if (!name.startsWith("$")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class ResultKey {
+        private final String collection;
+        private final String query;
+
+        private ResultKey(final String collection, final String query) {
+            this.collection = collection;
+            this.query = query;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ResultKey)) {
+                return false;
+            }
+            final ResultKey that = (ResultKey) o;
+            return collection.equals(that.collection) && query.equals(that.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * collection.hashCode() + query.hashCode();
+        }
+    }
+
+    private static final class CachedResult {
+        private final Object value;
+        private final long expiresAt;
+
+        private CachedResult(final Object value, final long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * The cached results in least recently used order, guarded by the lock of the cache.
+     */
+    @SuppressWarnings("serial")
+    private static final class Entries extends LinkedHashMap<ResultKey, CachedResult> {
+        private final int maxSize;
+        private final transient EntityCacheStatistics stats;
+
+        private Entries(final int maxSize, final EntityCacheStatistics stats) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+            this.stats = stats;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<ResultKey, CachedResult> eldest) {
+            if (size() > maxSize) {
+                stats.incEvictions();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -41,6 +41,16 @@ public interface QueryResults<T> extends Iterable<T> {
      */
     MorphiaIterator<T, T> fetch();
 
+    /**
+     * Execute the query and get the results a batch at a time.  Each batch is read and mapped only when it is asked for, so results of
+     * any size can be processed in constant memory, and several threads can share the iterator to process batches in parallel.
+     *
+     * @param size the number of entities in each batch
+     * @return the batch iterator, which closes the cursor after the last batch
+     * @see MorphiaBatchIterator#nextBatch()
+     */
+    MorphiaBatchIterator<T> fetchInBatches(int size);
+
     /**
      * Execute the query and get only the ids of the results.  This is more efficient than fetching the actual results (transfers less
      * data).
@@ -6,6 +6,7 @@ import org.mongodb.morphia.logging.MorphiaLoggerFactory;
 import org.mongodb.morphia.mapping.MappedClass;
 import org.mongodb.morphia.mapping.MappedField;
 import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.query.QueryPathCache.ValidatedPath;
 import org.mongodb.morphia.query.validation.AllOperationValidator;
 import org.mongodb.morphia.query.validation.DefaultTypeValidator;
 import org.mongodb.morphia.query.validation.DoubleTypeValidator;
@@ -40,100 +41,138 @@ final class QueryValidator {
      */
     static MappedField validateQuery(final Class clazz, final Mapper mapper, final StringBuilder origProp, final FilterOperator op,
                                      final Object val, final boolean validateNames, final boolean validateTypes) {
-        //TODO: cache validations (in static?).
+        final ValidatedPath path = getValidatedPath(clazz, mapper, origProp, validateNames);
+        if (path == null) {
+            return null;
+        }
+        if (validateTypes) {
+            validateType(path.getMappedClass(), path.getMappedField(), op, val);
+        }
+        return path.getMappedField();
+    }
+
+    /**
+     * Validates the path, replacing the java field names in it with the stored names, or returns null for paths which are not checked
+     * against the mapping.
+     */
+    static ValidatedPath getValidatedPath(final Class clazz, final Mapper mapper, final StringBuilder origProp,
+                                          final boolean validateNames) {
+        if (origProp.substring(0, 1).equals("$") || clazz == null) {
+            return null;
+        }
 
-        MappedField mf = null;
         final String prop = origProp.toString();
-        boolean hasTranslations = false;
+        final QueryPathCache cache = mapper.getQueryPathCache();
+        ValidatedPath path = cache.get(clazz, prop, validateNames);
+        if (path == null) {
+            path = validatePath(clazz, mapper, prop, validateNames);
+            cache.put(clazz, prop, validateNames, path, mapper.getOptions().getQueryPathCacheSize());
+        }
+
+        //record new property string if there has been a translation to any part
+        if (path.getTranslatedPath() != null) {
+            origProp.setLength(0); // clear existing content
+            origProp.append(path.getTranslatedPath());
+        }
+        return path;
+    }
 
-        if (!origProp.substring(0, 1).equals("$")) {
-            final String[] parts = prop.split("\\.");
-            if (clazz == null) {
-                return null;
+    /**
+     * Logs a warning if the value does not suit the type of the field, or the operator it is used with.
+     */
+    static void validateType(final MappedClass mc, final MappedField mf, final FilterOperator op, final Object val) {
+        if (mf != null) {
+            List<ValidationFailure> typeValidationFailures = new ArrayList<ValidationFailure>();
+            boolean compatibleForType = isCompatibleForOperator(mc, mf, mf.getType(), op, val, typeValidationFailures);
+            List<ValidationFailure> subclassValidationFailures = new ArrayList<ValidationFailure>();
+            boolean compatibleForSubclass = isCompatibleForOperator(mc, mf, mf.getSubClass(), op, val, subclassValidationFailures);
+
+            if ((mf.isSingleValue() && !compatibleForType)
+                || mf.isMultipleValues() && !(compatibleForSubclass || compatibleForType)) {
+
+                if (LOG.isWarningEnabled()) {
+                    LOG.warning(format("The type(s) for the query/update may be inconsistent; using an instance of type '%s' "
+                                       + "for the field '%s.%s' which is declared as '%s'", val.getClass().getName(),
+                                       mf.getDeclaringClass().getName(), mf.getJavaFieldName(), mf.getType().getName()
+                                      ));
+                    typeValidationFailures.addAll(subclassValidationFailures);
+                    LOG.warning("Validation warnings: \n" + typeValidationFailures);
+                }
             }
+        }
+    }
+
+    /**
+     * Walks the mapped classes along the path translating java field names to stored names.
+     */
+    private static ValidatedPath validatePath(final Class clazz, final Mapper mapper, final String prop, final boolean validateNames) {
+        final String[] parts = prop.split("\\.");
+        final MappedField[] fields = new MappedField[parts.length];
+        MappedField mf;
+        boolean hasTranslations = false;
 
-            MappedClass mc = mapper.getMappedClass(clazz);
-            //CHECKSTYLE:OFF
-            for (int i = 0; ; ) {
-                //CHECKSTYLE:ON
-                final String part = parts[i];
-                boolean fieldIsArrayOperator = part.equals("$");
-
-                mf = mc.getMappedField(part);
-
-                //translate from java field name to stored field name
-                if (mf == null && !fieldIsArrayOperator) {
-                    mf = mc.getMappedFieldByJavaField(part);
-                    if (validateNames && mf == null) {
-                        throw new ValidationException(format("The field '%s' could not be found in '%s' while validating - %s; if "
-                                                             + "you wish to continue please disable validation.", part,
-                                                             mc.getClazz().getName(), prop
-                                                            ));
-                    }
-                    hasTranslations = true;
-                    if (mf != null) {
-                        parts[i] = mf.getNameToStore();
-                    }
+        MappedClass mc = mapper.getMappedClass(clazz);
+        //CHECKSTYLE:OFF
+        for (int i = 0; ; ) {
+            //CHECKSTYLE:ON
+            final String part = parts[i];
+            boolean fieldIsArrayOperator = part.equals("$");
+
+            mf = mc.getMappedField(part);
+
+            //translate from java field name to stored field name
+            if (mf == null && !fieldIsArrayOperator) {
+                mf = mc.getMappedFieldByJavaField(part);
+                if (validateNames && mf == null) {
+                    throw new ValidationException(format("The field '%s' could not be found in '%s' while validating - %s; if "
+                                                         + "you wish to continue please disable validation.", part,
+                                                         mc.getClazz().getName(), prop
+                                                        ));
+                }
+                hasTranslations = true;
+                if (mf != null) {
+                    parts[i] = mf.getNameToStore();
                 }
+            }
+            fields[i] = mf;
 
+            i++;
+            if (mf != null && mf.isMap()) {
+                //skip the map key validation, and move to the next part
                 i++;
-                if (mf != null && mf.isMap()) {
-                    //skip the map key validation, and move to the next part
-                    i++;
-                }
+            }
 
-                if (i >= parts.length) {
-                    break;
-                }
+            if (i >= parts.length) {
+                break;
+            }
 
-                if (!fieldIsArrayOperator) {
-                    //catch people trying to search/update into @Reference/@Serialized fields
-                    if (validateNames && !canQueryPast(mf)) {
-                        throw new ValidationException(format("Cannot use dot-notation past '%s' in '%s'; found while"
-                                                             + " validating - %s", part, mc.getClazz().getName(), prop));
-                    }
-
-                    if (mf == null && mc.isInterface()) {
-                        break;
-                    } else if (mf == null) {
-                        throw new ValidationException(format("The field '%s' could not be found in '%s'", prop, mc.getClazz().getName()));
-                    }
-                    //get the next MappedClass for the next field validation
-                    mc = mapper.getMappedClass((mf.isSingleValue()) ? mf.getType() : mf.getSubClass());
+            if (!fieldIsArrayOperator) {
+                //catch people trying to search/update into @Reference/@Serialized fields
+                if (validateNames && !canQueryPast(mf)) {
+                    throw new ValidationException(format("Cannot use dot-notation past '%s' in '%s'; found while"
+                                                         + " validating - %s", part, mc.getClazz().getName(), prop));
                 }
-            }
 
-            //record new property string if there has been a translation to any part
-            if (hasTranslations) {
-                origProp.setLength(0); // clear existing content
-                origProp.append(parts[0]);
-                for (int i = 1; i < parts.length; i++) {
-                    origProp.append('.');
-                    origProp.append(parts[i]);
+                if (mf == null && mc.isInterface()) {
+                    break;
+                } else if (mf == null) {
+                    throw new ValidationException(format("The field '%s' could not be found in '%s'", prop, mc.getClazz().getName()));
                 }
+                //get the next MappedClass for the next field validation
+                mc = mapper.getMappedClass((mf.isSingleValue()) ? mf.getType() : mf.getSubClass());
             }
+        }
 
-            if (validateTypes && mf != null) {
-                List<ValidationFailure> typeValidationFailures = new ArrayList<ValidationFailure>();
-                boolean compatibleForType = isCompatibleForOperator(mc, mf, mf.getType(), op, val, typeValidationFailures);
-                List<ValidationFailure> subclassValidationFailures = new ArrayList<ValidationFailure>();
-                boolean compatibleForSubclass = isCompatibleForOperator(mc, mf, mf.getSubClass(), op, val, subclassValidationFailures);
-
-                if ((mf.isSingleValue() && !compatibleForType)
-                    || mf.isMultipleValues() && !(compatibleForSubclass || compatibleForType)) {
-
-                    if (LOG.isWarningEnabled()) {
-                        LOG.warning(format("The type(s) for the query/update may be inconsistent; using an instance of type '%s' "
-                                           + "for the field '%s.%s' which is declared as '%s'", val.getClass().getName(),
-                                           mf.getDeclaringClass().getName(), mf.getJavaFieldName(), mf.getType().getName()
-                                          ));
-                        typeValidationFailures.addAll(subclassValidationFailures);
-                        LOG.warning("Validation warnings: \n" + typeValidationFailures);
-                    }
-                }
+        String translatedPath = null;
+        if (hasTranslations) {
+            final StringBuilder sb = new StringBuilder(parts[0]);
+            for (int i = 1; i < parts.length; i++) {
+                sb.append('.');
+                sb.append(parts[i]);
             }
+            translatedPath = sb.toString();
         }
-        return mf;
+        return new ValidatedPath(translatedPath, fields, mc, mf);
     }
 
     private static boolean canQueryPast(final MappedField mf) {
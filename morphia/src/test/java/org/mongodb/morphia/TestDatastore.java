@@ -30,6 +30,9 @@ import org.mongodb.morphia.annotations.Transient;
 import org.mongodb.morphia.generics.model.ChildEmbedded;
 import org.mongodb.morphia.generics.model.ChildEntity;
 import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.MapperOptions;
+import org.mongodb.morphia.mapping.cache.EntityCacheFactory;
+import org.mongodb.morphia.mapping.cache.SecondLevelEntityCacheFactory;
 import org.mongodb.morphia.query.UpdateException;
 import org.mongodb.morphia.testmodel.Address;
 import org.mongodb.morphia.testmodel.Hotel;
@@ -38,7 +41,9 @@ import org.mongodb.morphia.testmodel.Rectangle;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import static com.mongodb.ReadPreference.secondaryPreferred;
@@ -224,6 +229,28 @@ public class TestDatastore extends TestBase {
         new Morphia().createDatastore(getMongoClient(), "test");
     }
 
+    @Test
+    public void testSharedEntitiesKeepDatabasesApart() {
+        getMorphia().map(FacebookUser.class);
+        final MapperOptions options = getMorphia().getMapper().getOptions();
+        final EntityCacheFactory previous = options.getCacheFactory();
+        options.setCacheFactory(new SecondLevelEntityCacheFactory(100, 0, TimeUnit.SECONDS).cache(FacebookUser.class));
+        final Datastore ds1 = getMorphia().createDatastore(getMongoClient(), "db1");
+        final Datastore ds2 = getMorphia().createDatastore(getMongoClient(), "db2");
+        try {
+            ds1.save(new FacebookUser(1, "DB1 FaceBook User"));
+            ds2.save(new FacebookUser(1, "DB2 FaceBook User"));
+
+            assertEquals("DB1 FaceBook User", ds1.get(FacebookUser.class, 1).getUsername());
+            assertEquals("DB2 FaceBook User", ds2.get(FacebookUser.class, 1).getUsername());
+            assertEquals("DB1 FaceBook User", ds1.get(FacebookUser.class, 1).getUsername());
+        } finally {
+            options.setCacheFactory(previous);
+            ds1.getDB().dropDatabase();
+            ds2.getDB().dropDatabase();
+        }
+    }
+
     @Test
     public void testMultipleDatabasesSingleThreaded() throws InterruptedException, TimeoutException, ExecutionException {
         getMorphia().map(FacebookUser.class);
@@ -346,6 +373,99 @@ public class TestDatastore extends TestBase {
         Assert.assertNull(getDs().find(FacebookUser.class, "id", 4).get());
     }
 
+    @Test
+    public void testBulkInsert() {
+        final List<Tracked> entities = new ArrayList<Tracked>();
+        for (int i = 0; i < 25; i++) {
+            final Tracked tracked = new Tracked();
+            tracked.count = i;
+            entities.add(tracked);
+        }
+
+        final long inserted = getAds().bulkInsert(entities, new BulkInsertOptions().chunkSize(10).converterThreads(2).ordered(false));
+
+        assertEquals(25, inserted);
+        assertEquals(25, getDs().getCount(Tracked.class));
+        for (final Tracked tracked : entities) {
+            assertNotNull(tracked.id);
+        }
+    }
+
+    @Test
+    public void testBulkInsertConvertsWhileWriting() {
+        final List<Tracked> entities = new ArrayList<Tracked>();
+        for (int i = 0; i < 20; i++) {
+            final Tracked tracked = new Tracked();
+            tracked.count = i;
+            entities.add(tracked);
+        }
+        final CountDownLatch secondChunk = new CountDownLatch(1);
+        getMorphia().getMapper().addInterceptor(new AbstractEntityInterceptor() {
+            @Override
+            public void prePersist(final Object ent, final DBObject dbObj, final Mapper mapper) {
+                if (ent instanceof Tracked && ((Tracked) ent).count == 10) {
+                    secondChunk.countDown();
+                }
+            }
+        });
+        final List<Boolean> converting = new ArrayList<Boolean>();
+        ((DatastoreImpl) getDs()).addOperationListener(new OperationListener() {
+            @Override
+            public void operationCompleted(final OperationEvent event) {
+            }
+
+            @Override
+            public void operationStarted(final OperationEvent event) {
+                if (event.getType() == OperationType.INSERT) {
+                    try {
+                        converting.add(secondChunk.await(10, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        });
+
+        assertEquals(20, getAds().bulkInsert(entities, new BulkInsertOptions().chunkSize(10).converterThreads(1)));
+        assertEquals(asList(true, true), converting);
+    }
+
+    @Test
+    public void testSaveChanges() {
+        final Tracked tracked = new Tracked();
+        tracked.name = "name";
+        tracked.notes = "notes";
+        getDs().save(tracked);
+
+        getMorphia().getMapper().getOptions().setTrackChanges(true);
+        try {
+            final Tracked loaded = getDs().get(Tracked.class, tracked.id);
+            assertNotNull(getMorphia().getMapper().getSnapshot(loaded));
+
+            getDs().getCollection(Tracked.class).update(new BasicDBObject("_id", tracked.id),
+                                                        new BasicDBObject("$set", new BasicDBObject("count", 42)));
+            loaded.name = "changed";
+            loaded.notes = null;
+            getDs().saveChanges(loaded);
+
+            final DBObject stored = getDs().getCollection(Tracked.class).findOne(tracked.id);
+            assertEquals("changed", stored.get("name"));
+            assertEquals(42, stored.get("count"));
+            Assert.assertFalse(stored.containsField("notes"));
+        } finally {
+            getMorphia().getMapper().getOptions().setTrackChanges(false);
+        }
+    }
+
+    @Entity("tracked")
+    public static class Tracked {
+        @Id
+        private ObjectId id;
+        private String name;
+        private String notes;
+        private Integer count;
+    }
+
     @Entity("facebook_users")
     public static class FacebookUser {
         @Id
@@ -1,13 +1,23 @@
 package org.mongodb.morphia;
 
 
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mongodb.morphia.annotations.Embedded;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.mapping.Mapper;
 import org.mongodb.morphia.testutil.TestEntity;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import static java.util.Arrays.asList;
+
 
 /**
  * @author Uwe Schaefer, (us@thomas-daily.de)
@@ -28,8 +38,100 @@ public class TestGetByKeys extends TestBase {
         Assert.assertFalse(i.hasNext());
     }
 
+    @Test
+    public final void testGetByKeysKeepsKeyOrder() {
+        final A a1 = new A();
+        final A a2 = new A();
+        final A a3 = new A();
+        final List<Key<A>> saved = new ArrayList<Key<A>>();
+        for (final Key<A> key : getDs().save(a1, a2, a3)) {
+            saved.add(key);
+        }
+        final Key<A> missing = new Key<A>(A.class, saved.get(0).getCollection(), new ObjectId());
+
+        final List<A> reloaded = getDs().getByKeys(asList(saved.get(2), missing, saved.get(0), saved.get(2), saved.get(1)));
+
+        Assert.assertEquals(4, reloaded.size());
+        Assert.assertEquals(a3.getId(), reloaded.get(0).getId());
+        Assert.assertEquals(a1.getId(), reloaded.get(1).getId());
+        Assert.assertSame(reloaded.get(0), reloaded.get(2));
+        Assert.assertEquals(a2.getId(), reloaded.get(3).getId());
+    }
+
+    @Test
+    public final void testGetByKeysWithCompoundIds() {
+        final Holder first = new Holder(new HolderId("a", 1), "first");
+        final Holder second = new Holder(new HolderId("b", 2), "second");
+        getDs().save(first, second);
+        final String collection = getDs().getCollection(Holder.class).getName();
+        final DBObject storedId = (DBObject) getDs().getCollection(Holder.class).findOne(new BasicDBObject("value", "second")).get("_id");
+
+        final List<Holder> reloaded = getDs().getByKeys(asList(new Key<Holder>(Holder.class, collection, storedId),
+                                                               new Key<Holder>(Holder.class, collection, first.id)));
+
+        Assert.assertEquals(2, reloaded.size());
+        Assert.assertEquals("second", reloaded.get(0).value);
+        Assert.assertEquals("first", reloaded.get(1).value);
+    }
+
+    @Test
+    public final void testStoredIdForms() {
+        final Mapper mapper = getMorphia().getMapper();
+        Assert.assertEquals(mapper.getStoredIdForm(5L), mapper.getStoredIdForm(5));
+        Assert.assertNotEquals(mapper.getStoredIdForm(5L), mapper.getStoredIdForm(6));
+        final DBObject stored = new BasicDBObject("name", "a").append("number", 1L).append(Mapper.CLASS_NAME_FIELDNAME, "HolderId");
+        Assert.assertEquals(mapper.getStoredIdForm(stored), mapper.getStoredIdForm(new HolderId("a", 1)));
+    }
+
+    @Test
+    public final void testGetByKeysWithOtherNumberTypes() {
+        final Numbered numbered = new Numbered();
+        numbered.id = 5L;
+        getDs().save(numbered);
+        final String collection = getDs().getCollection(Numbered.class).getName();
+
+        final List<Numbered> reloaded = getDs().getByKeys(asList(new Key<Numbered>(Numbered.class, collection, 5)));
+
+        Assert.assertEquals(1, reloaded.size());
+        Assert.assertEquals(5L, reloaded.get(0).id);
+    }
+
     public static class A extends TestEntity {
         private String foo = "bar";
     }
 
+    @Embedded
+    private static class HolderId {
+        private String name;
+        private int number;
+
+        HolderId() {
+        }
+
+        HolderId(final String name, final int number) {
+            this.name = name;
+            this.number = number;
+        }
+    }
+
+    @Entity
+    private static class Holder {
+        @Id
+        private HolderId id;
+        private String value;
+
+        Holder() {
+        }
+
+        Holder(final HolderId id, final String value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+    @Entity
+    private static class Numbered {
+        @Id
+        private long id;
+    }
 }
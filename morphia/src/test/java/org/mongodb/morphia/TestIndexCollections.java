@@ -15,10 +15,14 @@ import org.mongodb.morphia.annotations.Index;
 import org.mongodb.morphia.annotations.Indexed;
 import org.mongodb.morphia.annotations.Indexes;
 import org.mongodb.morphia.annotations.Property;
+import org.mongodb.morphia.mapping.IndexSpec;
+import org.mongodb.morphia.mapping.MappedClass;
+import org.mongodb.morphia.mapping.Mapper;
 
 import java.util.Iterator;
 import java.util.List;
 
+import static java.util.Arrays.asList;
 import static org.mongodb.morphia.utils.IndexType.DESC;
 
 
@@ -42,6 +46,61 @@ public class TestIndexCollections extends TestBase {
         testIndex(ads.getCollection(HasEmbeddedIndex.class).getIndexInfo(), indexes);
     }
 
+    @Test
+    public void testIndexesAlreadyThereAreSkipped() {
+        final List<DBObject> existing = asList((DBObject) new BasicDBObject("key", new BasicDBObject("_id", 1)).append("name", "_id_"),
+                                               new BasicDBObject("key", new BasicDBObject("field", 1.0)).append("name", "field_1")
+                                                   .append("unique", true).append("ns", "test.a"));
+        final DBObject unique = new IndexSpec(new BasicDBObject("field", 1), new BasicDBObject("unique", true)).toDBObject(false);
+        final DBObject descending = new IndexSpec(new BasicDBObject("field", -1).append("f3", 1), new BasicDBObject()).toDBObject(false);
+        final DBObject sparse = new IndexSpec(new BasicDBObject("field", 1), new BasicDBObject("sparse", true)).toDBObject(false);
+
+        final List<DBObject> missing = IndexCreator.findMissing(existing, asList(unique, descending, descending, sparse));
+        Assert.assertEquals(2, missing.size());
+        Assert.assertEquals("field_-1_f3_1", missing.get(0).get("name"));
+        Assert.assertEquals(descending.get("key"), missing.get(0).get("key"));
+        Assert.assertEquals(Boolean.TRUE, missing.get(1).get("sparse"));
+    }
+
+    @Test
+    public void testIndexSpecsAreCached() {
+        final Mapper mapper = new Mapper();
+        final MappedClass mc = mapper.getMappedClass(HasEmbeddedIndex.class);
+        final List<IndexSpec> specs = mc.getIndexSpecs(mapper);
+        Assert.assertSame(specs, mc.getIndexSpecs(mapper));
+        Assert.assertEquals(3, specs.size());
+        Assert.assertEquals("name_1", specs.get(0).getName());
+        Assert.assertEquals(-1, specs.get(1).getKeys().get("embeddedIndex.color"));
+        Assert.assertTrue(specs.get(2).covers(asList("embeddedIndex.name")));
+        Assert.assertFalse(specs.get(2).covers(asList("name")));
+        try {
+            specs.get(0).getKeys().put("other", 1);
+            Assert.fail("Index specs should be immutable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testEnsureIndexesInParallel() {
+        getMorphia().map(SingleFieldIndex.class, HasEmbeddedIndex.class);
+        getMorphia().setIndexThreads(2);
+        try {
+            getAds().ensureIndexes();
+            getAds().ensureIndexes();
+        } finally {
+            getMorphia().setIndexThreads(4);
+        }
+        testIndex(getAds().getCollection(SingleFieldIndex.class).getIndexInfo(),
+                  new BasicDBObject("field", 1),
+                  new BasicDBObject("field2", -1),
+                  new BasicDBObject("f3", 1));
+        testIndex(getAds().getCollection(HasEmbeddedIndex.class).getIndexInfo(),
+                  new BasicDBObject("name", 1),
+                  new BasicDBObject("embeddedIndex.color", -1),
+                  new BasicDBObject("embeddedIndex.name", 1));
+    }
+
     @Test
     public void testOldStyleIndexing() {
         getMorphia().map(OldStyleIndexing.class);
@@ -0,0 +1,66 @@
+package org.mongodb.morphia;
+
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+public class TestKey {
+
+    @Test
+    public void testCompoundIds() {
+        final Key<Object> key = new Key<Object>(Object.class, "things", compoundId("a", 1));
+        final Key<Object> same = new Key<Object>(Object.class, "things", compoundId("a", 1));
+        final Key<Object> other = new Key<Object>(Object.class, "things", compoundId("a", 2));
+        final Key<Object> reordered = new Key<Object>(Object.class, "things", new BasicDBObject("count", 1).append("name", "a"));
+
+        Assert.assertEquals(key, same);
+        Assert.assertEquals(key.hashCode(), same.hashCode());
+        Assert.assertEquals(0, key.compareTo(same));
+        Assert.assertNotEquals(key, other);
+        Assert.assertEquals(-other.compareTo(key), key.compareTo(other));
+        Assert.assertNotEquals(key, reordered);
+        Assert.assertNotEquals(key, new Key<Object>(Object.class, "others", compoundId("a", 1)));
+
+        final Map<Key<Object>, String> cache = new HashMap<Key<Object>, String>();
+        cache.put(key, "found");
+        Assert.assertEquals("found", cache.get(same));
+        Assert.assertNull(cache.get(other));
+    }
+
+    @Test
+    public void testBinaryIds() {
+        final Key<Object> key = new Key<Object>(Object.class, "things", new byte[]{1, 2, 3});
+        final Key<Object> same = new Key<Object>(Object.class, "things", new byte[]{1, 2, 3});
+        final Key<Object> other = new Key<Object>(Object.class, "things", new byte[]{1, 2, 4});
+
+        Assert.assertEquals(key, same);
+        Assert.assertEquals(key.hashCode(), same.hashCode());
+        Assert.assertNotEquals(key, other);
+        Assert.assertEquals(-other.compareTo(key), key.compareTo(other));
+    }
+
+    @Test
+    public void testCompoundIdsWithTheSameHashAndString() {
+        final Key<Object> integer = new Key<Object>(Object.class, "things", new BasicDBObject("count", 1));
+        final Key<Object> number = new Key<Object>(Object.class, "things", new BasicDBObject("count", 1L));
+        Assert.assertEquals(integer.hashCode(), number.hashCode());
+
+        Assert.assertNotEquals(integer, number);
+        Assert.assertNotEquals(0, integer.compareTo(number));
+        Assert.assertEquals(-number.compareTo(integer), integer.compareTo(number));
+        Assert.assertEquals(0, integer.compareTo(new Key<Object>(Object.class, "things", new BasicDBObject("count", 1))));
+    }
+
+    private BasicDBObject compoundId(final String name, final int count) {
+        final BasicDBList tags = new BasicDBList();
+        tags.add("x");
+        tags.add(new BasicDBObject("nested", count));
+        return new BasicDBObject("name", name).append("count", count).append("tags", tags);
+    }
+}
@@ -0,0 +1,121 @@
+package org.mongodb.morphia;
+
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mongodb.morphia.mapping.Mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+
+
+public class TestLatencyHistogram {
+
+    @Test
+    public void testBucketsCoverEveryValue() {
+        int previous = -1;
+        for (long value = 0; value < 100000; value++) {
+            final int index = LatencyHistogram.indexOf(value);
+            Assert.assertTrue(index == previous || index == previous + 1);
+            Assert.assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+            previous = index;
+        }
+        Assert.assertEquals(Long.MAX_VALUE, LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long millis = 1; millis <= 1000; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(1000, histogram.getMax(TimeUnit.MILLISECONDS));
+        assertWithin(500, histogram.getMean(TimeUnit.MILLISECONDS));
+        assertWithin(500, histogram.getValueAtPercentile(50, TimeUnit.MILLISECONDS));
+        assertWithin(990, histogram.getValueAtPercentile(99, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1000, histogram.getValueAtPercentile(100, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(0, new LatencyHistogram().getValueAtPercentile(99, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        histogram.record(j);
+                    }
+                }
+            }));
+        }
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(40000, histogram.getCount());
+        Assert.assertEquals(9999, histogram.getMax(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void testQueryShapes() {
+        final BasicDBList in = new BasicDBList();
+        in.addAll(asList(1, 2, 3));
+        final BasicDBList or = new BasicDBList();
+        or.add(new BasicDBObject("age", new BasicDBObject("$gt", 21)));
+        or.add(new BasicDBObject("tags", new BasicDBObject("$in", in)));
+        Assert.assertEquals(new BasicDBObject("name", "?").append("$or", asList(new BasicDBObject("age", new BasicDBObject("$gt", "?")),
+                                                                                new BasicDBObject("tags", new BasicDBObject("$in", "?"))))
+                                .toString(),
+                            QueryShapes.mask(new BasicDBObject("name", "Bob").append("$or", or)));
+        Assert.assertEquals(QueryShapes.mask(new BasicDBObject("name", "Alice")), QueryShapes.mask(new BasicDBObject("name", "Bob")));
+        Assert.assertNull(QueryShapes.mask(null));
+    }
+
+    @Test
+    public void testOperationsAreRecorded() {
+        final DatastoreImpl datastore = new DatastoreImpl(new Morphia(), new Mapper(), null, (DB) null);
+        final OperationLatencies latencies = new OperationLatencies();
+        final List<OperationEvent> started = new ArrayList<OperationEvent>();
+        datastore.addOperationListener(new OperationListener() {
+            @Override
+            public void operationCompleted(final OperationEvent event) {
+                throw new IllegalStateException("broken listener");
+            }
+
+            @Override
+            public void operationStarted(final OperationEvent event) {
+                started.add(event);
+            }
+        });
+        datastore.addOperationListener(latencies);
+
+        final OperationEvent operation = datastore.startOperation(OperationType.FIND, null, Object.class, new BasicDBObject("name", "Bob"),
+                                                                  0);
+        Assert.assertFalse(operation.isCompleted());
+        datastore.endOperation(operation, 3, TimeUnit.MILLISECONDS.toNanos(5));
+        datastore.endOperation(datastore.startOperation(OperationType.FIND, null, Object.class, null, 0), -1, 0);
+
+        Assert.assertEquals(2, started.size());
+        final LatencyHistogram histogram = latencies.getHistogram(null, OperationType.FIND);
+        Assert.assertEquals(2, histogram.getCount());
+        Assert.assertEquals(5, histogram.getMax(TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1, latencies.getShapeHistograms(null, OperationType.FIND).get("{ \"name\" : \"?\"}").getCount());
+        Assert.assertNull(latencies.getHistogram(null, OperationType.COUNT));
+    }
+
+    private static void assertWithin(final long expected, final long actual) {
+        Assert.assertTrue(actual + " is not close to " + expected, Math.abs(actual - expected) <= expected / 50);
+    }
+}
@@ -0,0 +1,67 @@
+package org.mongodb.morphia;
+
+
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+
+public class TestOperationLatencies extends TestBase {
+
+    @Test
+    public void testOperationsAreObserved() {
+        final DatastoreImpl datastore = (DatastoreImpl) getDs();
+        final OperationLatencies latencies = new OperationLatencies();
+        final List<OperationEvent> events = new ArrayList<OperationEvent>();
+        datastore.addOperationListener(latencies);
+        datastore.addOperationListener(new OperationListener() {
+            @Override
+            public void operationCompleted(final OperationEvent event) {
+                events.add(event);
+            }
+
+            @Override
+            public void operationStarted(final OperationEvent event) {
+            }
+        });
+
+        for (int i = 0; i < 3; i++) {
+            final Sample sample = new Sample();
+            sample.name = "sample " + i;
+            datastore.save(sample);
+        }
+        Assert.assertEquals(2, datastore.createQuery(Sample.class).filter("name >", "sample 0").asList().size());
+        Assert.assertEquals(3, datastore.getCount(Sample.class));
+        datastore.update(datastore.createQuery(Sample.class), datastore.createUpdateOperations(Sample.class).set("name", "renamed"));
+        datastore.delete(datastore.createQuery(Sample.class).filter("name", "renamed"));
+
+        final String collection = datastore.getCollection(Sample.class).getName();
+        Assert.assertEquals(3, latencies.getHistogram(collection, OperationType.SAVE).getCount());
+        Assert.assertEquals(1, latencies.getHistogram(collection, OperationType.FIND).getCount());
+        Assert.assertEquals(1, latencies.getHistogram(collection, OperationType.COUNT).getCount());
+        Assert.assertEquals(1, latencies.getHistogram(collection, OperationType.UPDATE).getCount());
+        Assert.assertEquals(1, latencies.getHistogram(collection, OperationType.DELETE).getCount());
+        final Map<String, LatencyHistogram> shapes = latencies.getShapeHistograms(collection, OperationType.FIND);
+        Assert.assertEquals(1, shapes.size());
+        Assert.assertFalse(shapes.keySet().iterator().next().contains("sample 0"));
+
+        final OperationEvent find = events.get(3);
+        Assert.assertEquals(OperationType.FIND, find.getType());
+        Assert.assertEquals(Sample.class, find.getEntityClass());
+        Assert.assertEquals(2, find.getDocumentsOut());
+        Assert.assertEquals(3, events.get(6).getDocumentsOut());
+    }
+
+    @Entity
+    private static class Sample {
+        @Id
+        private ObjectId id;
+        private String name;
+    }
+}
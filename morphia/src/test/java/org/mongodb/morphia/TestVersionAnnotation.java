@@ -13,6 +13,9 @@
 
 package org.mongodb.morphia;
 
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteException;
+import org.bson.types.ObjectId;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mongodb.morphia.entities.version.Versioned;
@@ -23,7 +26,9 @@ import org.mongodb.morphia.query.UpdateOperations;
 
 import java.util.Collection;
 import java.util.ConcurrentModificationException;
+import java.util.List;
 
+import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -62,6 +67,95 @@ public class TestVersionAnnotation extends TestBase {
         Assert.assertEquals(3, entity.getVersion().longValue());
     }
 
+    @Test
+    public void testBulkSave() {
+        getMorphia().setUseBulkWriteOperations(true);
+        try {
+            final List<Versioned> entities = asList(new Versioned(), new Versioned(), new Versioned());
+            getDs().save(entities);
+            for (final Versioned entity : entities) {
+                assertEquals(new Long(1), entity.getVersion());
+            }
+
+            final Versioned stale = getDs().get(Versioned.class, entities.get(1).getId());
+            getDs().save(entities);
+            for (final Versioned entity : entities) {
+                assertEquals(new Long(2), entity.getVersion());
+                assertEquals(new Long(2), getDs().get(Versioned.class, entity.getId()).getVersion());
+            }
+
+            try {
+                getDs().save(asList(entities.get(0), stale));
+                Assert.fail("Saving a stale entity should fail");
+            } catch (ConcurrentModificationException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains(stale.getId().toString()));
+            }
+            assertEquals("Entities written before the failure should be updated", new Long(3), entities.get(0).getVersion());
+            assertEquals(new Long(3), getDs().get(Versioned.class, entities.get(0).getId()).getVersion());
+        } finally {
+            getMorphia().setUseBulkWriteOperations(false);
+        }
+    }
+
+    @Test
+    public void testBulkSaveWithoutStoredVersion() {
+        final ObjectId id = new ObjectId();
+        getDs().getCollection(Versioned.class).insert(new BasicDBObject("_id", id).append("name", "unversioned"));
+        getMorphia().setUseBulkWriteOperations(true);
+        try {
+            final Versioned loaded = getDs().get(Versioned.class, id);
+            loaded.setName("versioned");
+            getDs().save(asList(loaded));
+            assertEquals(new Long(1), loaded.getVersion());
+            assertEquals("versioned", getDs().get(Versioned.class, id).getName());
+        } finally {
+            getMorphia().setUseBulkWriteOperations(false);
+        }
+    }
+
+    @Test
+    public void testBulkSaveReportsUniqueViolations() {
+        final Versioned first = new Versioned();
+        first.setName("first");
+        final Versioned second = new Versioned();
+        second.setName("second");
+        getDs().save(first, second);
+        getDs().getCollection(Versioned.class).createIndex(new BasicDBObject("name", 1), new BasicDBObject("unique", true));
+
+        getMorphia().setUseBulkWriteOperations(true);
+        try {
+            second.setName("first");
+            getDs().save(asList(second));
+            Assert.fail("Saving a duplicate name should fail");
+        } catch (BulkWriteException e) {
+            assertEquals(11000, e.getWriteErrors().get(0).getCode());
+        } finally {
+            getMorphia().setUseBulkWriteOperations(false);
+        }
+    }
+
+    @Test
+    public void testSaveChangesWithoutStoredVersion() {
+        final ObjectId id = new ObjectId();
+        getDs().getCollection(Versioned.class).insert(new BasicDBObject("_id", id).append("name", "unversioned"));
+
+        getMorphia().getMapper().getOptions().setTrackChanges(true);
+        try {
+            final Versioned loaded = getDs().get(Versioned.class, id);
+            loaded.setName("first");
+            getDs().saveChanges(loaded);
+            assertEquals(new Long(1), loaded.getVersion());
+            assertEquals(1L, getDs().getCollection(Versioned.class).findOne(id).get("version"));
+
+            loaded.setName("second");
+            getDs().saveChanges(loaded);
+            assertEquals(new Long(2), loaded.getVersion());
+            assertEquals("second", getDs().get(Versioned.class, id).getName());
+        } finally {
+            getMorphia().getMapper().getOptions().setTrackChanges(false);
+        }
+    }
+
     @Test
     public void testCanMapAPackageContainingAVersionedAbstractBaseClass() {
         // when
@@ -0,0 +1,126 @@
+package org.mongodb.morphia;
+
+
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.query.UpdateOperations;
+import org.mongodb.morphia.query.UpdateOpsImpl;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class TestWriteBehindBuffer extends TestBase {
+
+    @Test
+    public void testCoalesceIncrementsAndSets() {
+        final Map<String, Map<String, Object>> target = ops(newOps().inc("count", 2).set("name", "first"));
+        Assert.assertTrue(WriteBehindBuffer.coalesce(target, ops(newOps().inc("count", 3).set("name", "second"))));
+        Assert.assertEquals(5, target.get("$inc").get("count"));
+        Assert.assertEquals("second", target.get("$set").get("name"));
+
+        Assert.assertTrue(WriteBehindBuffer.coalesce(target, ops(newOps().unset("name").inc("count", 1L))));
+        Assert.assertNull(target.get("$set"));
+        Assert.assertEquals(1, target.get("$unset").get("name"));
+        Assert.assertEquals(6L, target.get("$inc").get("count"));
+
+        Assert.assertTrue(WriteBehindBuffer.coalesce(target, ops(newOps().set("count", 10))));
+        Assert.assertNull(target.get("$inc"));
+        Assert.assertEquals(10, target.get("$set").get("count"));
+
+        final Map<String, Map<String, Object>> unset = ops(newOps().unset("count"));
+        Assert.assertTrue(WriteBehindBuffer.coalesce(unset, ops(newOps().inc("count", 2))));
+        Assert.assertNull(unset.get("$unset"));
+        Assert.assertEquals(2, unset.get("$set").get("count"));
+    }
+
+    @Test
+    public void testCoalesceRefusesConflictingOperators() {
+        final Map<String, Map<String, Object>> target = ops(newOps().add("tags", "a", true).inc("count", 1));
+        final Map<String, Map<String, Object>> copy = ops(newOps().add("tags", "a", true).inc("count", 1));
+
+        Assert.assertFalse(WriteBehindBuffer.coalesce(target, ops(newOps().inc("count", 1).add("tags", "b", true))));
+        Assert.assertEquals(copy, target);
+        Assert.assertFalse(WriteBehindBuffer.coalesce(target, ops(newOps().disableValidation().set("tags.0", "b"))));
+        Assert.assertEquals(copy, target);
+
+        final Map<String, Map<String, Object>> text = ops(newOps().set("name", "text"));
+        Assert.assertFalse(WriteBehindBuffer.coalesce(text, ops(newOps().disableValidation().inc("name", 1))));
+        Assert.assertEquals("text", text.get("$set").get("name"));
+
+        final Map<String, Map<String, Object>> max = ops(newOps().max("count", 4));
+        Assert.assertTrue(WriteBehindBuffer.coalesce(max, ops(newOps().max("count", 2))));
+        Assert.assertEquals(4, max.get("$max").get("count"));
+        Assert.assertTrue(WriteBehindBuffer.coalesce(max, ops(newOps().max("count", 7))));
+        Assert.assertEquals(7, max.get("$max").get("count"));
+    }
+
+    @Test
+    public void testWriteBehind() {
+        final Counter counter = new Counter();
+        counter.id = new ObjectId();
+        counter.name = "counter";
+        final Key<Counter> key = new Key<Counter>(Counter.class, "counters", counter.id);
+
+        final WriteBehindBuffer buffer = getAds().writeBehind(new WriteBehindOptions().flushInterval(1, TimeUnit.HOURS));
+        try {
+            buffer.save(counter);
+            for (int i = 0; i < 10; i++) {
+                buffer.update(key, getDs().createUpdateOperations(Counter.class).inc("count").add("tags", "tag" + i, true));
+            }
+            Assert.assertEquals(1, buffer.getPendingCount());
+            Assert.assertNull(getDs().get(Counter.class, counter.id));
+
+            buffer.flush();
+            Assert.assertEquals(0, buffer.getPendingCount());
+            final Counter loaded = getDs().get(Counter.class, counter.id);
+            Assert.assertEquals("counter", loaded.name);
+            Assert.assertEquals(10, loaded.count);
+            Assert.assertEquals(10, loaded.tags.size());
+
+            buffer.update(key, getDs().createUpdateOperations(Counter.class).inc("count", 5));
+            buffer.update(key, getDs().createUpdateOperations(Counter.class).set("name", "renamed"));
+        } finally {
+            buffer.close();
+        }
+        final Counter loaded = getDs().get(Counter.class, counter.id);
+        Assert.assertEquals("renamed", loaded.name);
+        Assert.assertEquals(15, loaded.count);
+
+        try {
+            buffer.save(counter);
+            Assert.fail("A closed buffer should refuse writes");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    private UpdateOperations<Counter> newOps() {
+        return new UpdateOpsImpl<Counter>(Counter.class, new Mapper());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<String, Object>> ops(final UpdateOperations<Counter> operations) {
+        final DBObject dbObject = ((UpdateOpsImpl<Counter>) operations).getOps();
+        final Map<String, Map<String, Object>> ops = new LinkedHashMap<String, Map<String, Object>>();
+        for (final String op : dbObject.keySet()) {
+            ops.put(op, new LinkedHashMap<String, Object>((Map<String, Object>) dbObject.get(op)));
+        }
+        return ops;
+    }
+
+    @Entity(value = "counters", noClassnameStored = true)
+    private static class Counter {
+        @Id
+        private ObjectId id;
+        private String name;
+        private int count;
+        private List<String> tags;
+    }
+}
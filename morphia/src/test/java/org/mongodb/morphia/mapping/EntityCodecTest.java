@@ -0,0 +1,182 @@
+package org.mongodb.morphia.mapping;
+
+
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mongodb.morphia.Key;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.AlsoLoad;
+import org.mongodb.morphia.annotations.Embedded;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.NotSaved;
+import org.mongodb.morphia.annotations.Property;
+import org.mongodb.morphia.annotations.Serialized;
+import org.mongodb.morphia.converters.SimpleValueConverter;
+import org.mongodb.morphia.converters.TypeConverter;
+import org.mongodb.morphia.mapping.cache.DefaultEntityCache;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+
+public class EntityCodecTest extends TestBase {
+
+    @Test
+    public void codecsProduceTheSameDocuments() {
+        final Mapper reflective = new Mapper(new MapperOptions());
+        final Mapper codecs = newCodecMapper();
+
+        final Everything entity = Everything.create();
+        Assert.assertEquals(reflective.toDBObject(entity), codecs.toDBObject(entity));
+
+        entity.name = null;
+        entity.boxed = null;
+        entity.names = null;
+        Assert.assertEquals(reflective.toDBObject(entity), codecs.toDBObject(entity));
+
+        reflective.getOptions().setStoreNulls(true);
+        codecs.getOptions().setStoreNulls(true);
+        Assert.assertEquals(reflective.toDBObject(entity), codecs.toDBObject(entity));
+    }
+
+    @Test
+    public void codecsReadTheSameEntities() {
+        final Mapper reflective = new Mapper(new MapperOptions());
+        final Mapper codecs = newCodecMapper();
+
+        final DBObject dbObject = reflective.toDBObject(Everything.create());
+        final Everything expected = reflective.fromDBObject(getDs(), Everything.class, dbObject, new DefaultEntityCache());
+        final Everything actual = codecs.fromDBObject(getDs(), Everything.class, dbObject, new DefaultEntityCache());
+
+        Assert.assertEquals(reflective.toDBObject(expected), reflective.toDBObject(actual));
+        Assert.assertEquals(expected.name, actual.name);
+        Assert.assertEquals(expected.count, actual.count);
+        Assert.assertEquals(expected.names, actual.names);
+        Assert.assertEquals(expected.child.value, actual.child.value);
+        Assert.assertNull(actual.notSaved);
+    }
+
+    @Test
+    public void codecsAreOffByDefault() {
+        Assert.assertFalse(new MapperOptions().isUseEntityCodecs());
+        final Mapper unplanned = new Mapper(new MapperOptions());
+        final Mapper planned = newCodecMapper();
+
+        final Everything entity = Everything.create();
+        final DBObject dbObject = unplanned.toDBObject(entity);
+        Assert.assertEquals(dbObject, planned.toDBObject(entity));
+
+        final Everything expected = unplanned.fromDBObject(getDs(), Everything.class, dbObject, new DefaultEntityCache());
+        final Everything actual = planned.fromDBObject(getDs(), Everything.class, dbObject, new DefaultEntityCache());
+        Assert.assertEquals(unplanned.toDBObject(expected), unplanned.toDBObject(actual));
+    }
+
+    @Test
+    public void alsoLoadNamesAreRead() {
+        final DBObject dbObject = newCodecMapper().toDBObject(Everything.create());
+        dbObject.put("oldNickname", dbObject.removeField("nickname"));
+
+        final Everything actual = newCodecMapper().fromDBObject(getDs(), Everything.class, dbObject, new DefaultEntityCache());
+        Assert.assertEquals("nick", actual.nickname);
+    }
+
+    @Test
+    public void convertersAddedAfterMappingAreUsed() {
+        final Mapper mapper = newCodecMapper();
+        mapper.addMappedClass(Everything.class);
+        Assert.assertEquals("a name", mapper.toDBObject(Everything.create()).get("n"));
+
+        mapper.getConverters().addConverter(new UpperCaseConverter());
+        Assert.assertEquals("A NAME", mapper.toDBObject(Everything.create()).get("n"));
+    }
+
+    private Mapper newCodecMapper() {
+        final MapperOptions options = new MapperOptions();
+        options.setUseEntityCodecs(true);
+        return new Mapper(options);
+    }
+
+    private static class UpperCaseConverter extends TypeConverter implements SimpleValueConverter {
+        UpperCaseConverter() {
+            super(String.class);
+        }
+
+        @Override
+        public Object decode(final Class<?> targetClass, final Object fromDBObject, final MappedField optionalExtraInfo) {
+            return fromDBObject == null ? null : fromDBObject.toString().toLowerCase();
+        }
+
+        @Override
+        public Object encode(final Object value, final MappedField optionalExtraInfo) {
+            return value == null ? null : value.toString().toUpperCase();
+        }
+    }
+
+    private enum Color {
+        RED, GREEN
+    }
+
+    @Embedded
+    private static class Child {
+        private String value;
+    }
+
+    @Entity
+    private static class Everything {
+        @Id
+        private ObjectId id;
+        @Property("n")
+        private String name;
+        @AlsoLoad("oldNickname")
+        private String nickname;
+        private int count;
+        private long total;
+        private boolean flag;
+        private double ratio;
+        private Integer boxed;
+        private Date created;
+        private Color color;
+        private List<String> names;
+        private List<Integer> numbers;
+        private Map<String, Integer> counts;
+        private Child child;
+        private List<Child> children;
+        private Key<Everything> key;
+        @Serialized
+        private ArrayList<String> serialized;
+        @NotSaved
+        private String notSaved;
+
+        static Everything create() {
+            final Everything entity = new Everything();
+            entity.id = new ObjectId();
+            entity.name = "a name";
+            entity.nickname = "nick";
+            entity.count = 42;
+            entity.total = 1L << 40;
+            entity.flag = true;
+            entity.ratio = 0.5;
+            entity.boxed = 7;
+            entity.created = new Date();
+            entity.color = Color.GREEN;
+            entity.names = asList("a", "b");
+            entity.numbers = asList(1, 2, 3);
+            entity.counts = new HashMap<String, Integer>();
+            entity.counts.put("x", 1);
+            entity.child = new Child();
+            entity.child.value = "child";
+            entity.children = asList(entity.child, new Child());
+            entity.key = new Key<Everything>(Everything.class, "Everything", new ObjectId());
+            entity.serialized = new ArrayList<String>(asList("s"));
+            entity.notSaved = "not saved";
+            return entity;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.bson.types.ObjectId;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.AlsoLoad;
 import org.mongodb.morphia.annotations.Embedded;
 import org.mongodb.morphia.annotations.Entity;
 import org.mongodb.morphia.annotations.Id;
@@ -102,6 +103,43 @@ public class MappedFieldTest extends TestBase {
         Assert.assertEquals(expected, entity.listOfListOfString);
     }
 
+    @Test
+    public void lookupsByName() {
+        final MappedClass mappedClass = getMorphia().getMapper().getMappedClass(TestEntity.class);
+
+        final MappedField name = mappedClass.getMappedFieldByJavaField("name");
+        Assert.assertEquals("n", name.getNameToStore());
+        Assert.assertSame(name, mappedClass.getMappedField("n"));
+        Assert.assertSame(name, mappedClass.getMappedField("oldName"));
+        Assert.assertSame(name, mappedClass.getMappedField("olderName"));
+        Assert.assertEquals(asList("n", "oldName", "olderName"), name.getLoadNames());
+        Assert.assertSame(name.getLoadNames(), name.getLoadNames());
+
+        Assert.assertSame(mappedClass.getMappedIdField(), mappedClass.getMappedField("_id"));
+        Assert.assertSame(mappedClass.getMappedIdField(), mappedClass.getMappedFieldByJavaField("id"));
+        Assert.assertNull(mappedClass.getMappedField("name"));
+        Assert.assertNull(mappedClass.getMappedFieldByJavaField("n"));
+        Assert.assertNull(mappedClass.getMappedField("missing"));
+    }
+
+    @Test
+    public void dbObjectValueWithAlsoLoad() {
+        final MappedField name = getMorphia().getMapper().getMappedClass(TestEntity.class).getMappedFieldByJavaField("name");
+        final MappedField plain = getMorphia().getMapper().getMappedClass(TestEntity.class).getMappedFieldByJavaField("listOfString");
+
+        Assert.assertEquals("n", name.getFirstFieldName(new BasicDBObject()));
+        Assert.assertEquals("olderName", name.getFirstFieldName(new BasicDBObject("olderName", "value")));
+        Assert.assertEquals("value", name.getDbObjectValue(new BasicDBObject("oldName", "value")));
+        Assert.assertEquals("listOfString", plain.getFirstFieldName(new BasicDBObject("other", "value")));
+        Assert.assertEquals(asList("a"), plain.getDbObjectValue(new BasicDBObject("listOfString", asList("a"))));
+    }
+
+    @Test(expected = MappingException.class)
+    public void dbObjectValueWithTwoAlsoLoadNames() {
+        final MappedField name = getMorphia().getMapper().getMappedClass(TestEntity.class).getMappedFieldByJavaField("name");
+        name.getDbObjectValue(new BasicDBObject("n", "value").append("oldName", "other value"));
+    }
+
     private BasicDBList dbList(final String... values) {
         final BasicDBList list = new BasicDBList();
         Collections.addAll(list, values);
@@ -121,6 +159,7 @@ public class MappedFieldTest extends TestBase {
         @Id
         private ObjectId id;
         @Property("n")
+        @AlsoLoad({"oldName", "olderName"})
         private String name;
         private List<String> listOfString;
         private List<List<String>> listOfListOfString;
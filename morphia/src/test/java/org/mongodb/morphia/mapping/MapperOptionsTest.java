@@ -6,12 +6,16 @@ import org.bson.types.ObjectId;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.AlsoLoad;
 import org.mongodb.morphia.annotations.Entity;
 import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.Property;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Collection;
@@ -122,6 +126,26 @@ public class MapperOptionsTest extends TestBase {
         Assert.assertEquals("lowercase", "dummyentity", collectionName);
     }
 
+    @Test
+    public void mappedFieldsProjected() {
+        final Mapper mapper = new Mapper();
+        mapper.addMappedClass(HasList.class);
+        mapper.addMappedClass(Projected.class);
+        Assert.assertNull(mapper.getMappedProjection(HasList.class));
+
+        DBObject projection = mapper.getMappedProjection(Projected.class);
+        Assert.assertEquals(Arrays.asList("_id", "className", "n", "oldName"), new ArrayList<String>(projection.keySet()));
+
+        mapper.addMappedClass(ProjectedChild.class);
+        projection = mapper.getMappedProjection(Projected.class);
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("_id", "className", "n", "oldName", "extra")), projection.keySet());
+        Assert.assertEquals(projection.keySet(), mapper.getMappedProjection(ProjectedChild.class).keySet());
+
+        mapper.getOptions().setProjectMappedFields(true);
+        Assert.assertEquals(Arrays.asList("_id", "className", "names"),
+                            new ArrayList<String>(mapper.getMappedProjection(HasList.class).keySet()));
+    }
+
     @Test
     public void nullListStoredWithOptions() throws Exception {
         final HasList hl = new HasList();
@@ -258,6 +282,19 @@ public class MapperOptionsTest extends TestBase {
     private static class DummyEntity {
     }
 
+    @Entity(projectMappedFields = true)
+    private static class Projected {
+        @Id
+        private ObjectId id;
+        @Property("n")
+        @AlsoLoad("oldName")
+        private String name;
+    }
+
+    private static class ProjectedChild extends Projected {
+        private String extra;
+    }
+
     private static class ComplexObject {
         private String stringVal;
         private int intVal;
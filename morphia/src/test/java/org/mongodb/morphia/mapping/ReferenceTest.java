@@ -8,7 +8,11 @@ import org.bson.types.ObjectId;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.DatastoreImpl;
 import org.mongodb.morphia.Key;
+import org.mongodb.morphia.OperationEvent;
+import org.mongodb.morphia.OperationListener;
+import org.mongodb.morphia.OperationType;
 import org.mongodb.morphia.annotations.Entity;
 import org.mongodb.morphia.annotations.Id;
 import org.mongodb.morphia.annotations.Reference;
@@ -17,6 +21,7 @@ import org.mongodb.morphia.query.Query;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +34,45 @@ import static org.mongodb.morphia.mapping.lazy.LazyFeatureDependencies.testDepen
  * @author Gene Trog, (eternal0@github.com)
  */
 public class ReferenceTest extends ProxyTestBase {
+    @Test
+    public void testBatchedReferences() {
+        final Ref[] refs = new Ref[]{new Ref("foo"), new Ref("bar"), new Ref("baz")};
+        getDs().save(refs);
+        for (int i = 0; i < 5; i++) {
+            getDs().save(new Container(refs[i % refs.length], refs[(i + 1) % refs.length]));
+        }
+
+        final List<Container> expected = getDs().find(Container.class).order("_id").asList();
+        final List<String> finds = new ArrayList<String>();
+        ((DatastoreImpl) getDs()).addOperationListener(new OperationListener() {
+            @Override
+            public void operationCompleted(final OperationEvent event) {
+                if (event.getType() == OperationType.FIND) {
+                    finds.add(event.getCollection());
+                }
+            }
+
+            @Override
+            public void operationStarted(final OperationEvent event) {
+            }
+        });
+        getMorphia().getMapper().getOptions().setReferenceBatchSize(2);
+        try {
+            final List<Container> batched = getDs().find(Container.class).order("_id").asList();
+            // the first batch references every Ref so they are all read with one query, and none are left for the later batches
+            assertEquals(2, finds.size());
+            assertEquals(1, Collections.frequency(finds, getDs().getCollection(Ref.class).getName()));
+            assertEquals(expected.size(), batched.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getSingleRef(), batched.get(i).getSingleRef());
+                assertEquals(expected.get(i).getCollectionRef(), batched.get(i).getCollectionRef());
+                assertEquals(expected.get(i).getMapRef(), batched.get(i).getMapRef());
+            }
+        } finally {
+            getMorphia().getMapper().getOptions().setReferenceBatchSize(0);
+        }
+    }
+
     @Test
     public void testFindByEntityReference() {
         final Ref ref = new Ref("refId");
@@ -0,0 +1,120 @@
+package org.mongodb.morphia.mapping.cache;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mongodb.morphia.Key;
+import org.mongodb.morphia.mapping.Mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class EntityCacheStatisticsTest {
+    @Test
+    public void countsLookups() {
+        final EntityCacheStatistics aggregate = new EntityCacheStatistics();
+        aggregate.setTimingLookups(true);
+        final DefaultEntityCache cache = new DefaultEntityCache(aggregate);
+        final Key<String> known = new Key<String>(String.class, "strings", 1);
+        final Key<String> existing = new Key<String>(String.class, "strings", 2);
+        final Key<String> unknown = new Key<String>(String.class, "strings", 3);
+
+        cache.putEntity(known, "known");
+        cache.notifyExists(existing, true);
+        Assert.assertEquals("known", cache.getEntity(known));
+        Assert.assertNull(cache.getEntity(unknown));
+        Assert.assertTrue(cache.exists(existing));
+        Assert.assertNull(cache.exists(unknown));
+        Assert.assertNull(cache.getProxy(known));
+
+        final EntityCacheStatistics stats = cache.stats();
+        Assert.assertEquals(2, stats.getEntities());
+        Assert.assertEquals(2, stats.getHits());
+        Assert.assertEquals(3, stats.getMisses());
+        Assert.assertEquals(1, stats.getExistenceHits());
+        Assert.assertEquals(0, stats.getProxyHits());
+        Assert.assertEquals(1, stats.getProxyMisses());
+        Assert.assertEquals(5, stats.getLookups());
+        Assert.assertTrue(stats.getLookupTime(TimeUnit.NANOSECONDS) >= 0);
+
+        cache.flush();
+        Assert.assertEquals(0, cache.stats().getHits());
+        Assert.assertEquals(0, cache.stats().getLookups());
+    }
+
+    @Test
+    public void mapperAggregatesItsCaches() {
+        final Mapper mapper = new Mapper();
+        mapper.getOptions().setTimeCacheLookups(true);
+        final Key<String> key = new Key<String>(String.class, "strings", 1);
+        for (int i = 0; i < 3; i++) {
+            final EntityCache cache = mapper.createEntityCache();
+            cache.putEntity(key, "value");
+            cache.getEntity(key);
+            cache.getEntity(new Key<String>(String.class, "strings", 2));
+            cache.flush();
+        }
+
+        final EntityCacheStatistics stats = mapper.getCacheStatistics();
+        Assert.assertEquals(3, stats.getEntities());
+        Assert.assertEquals(3, stats.getHits());
+        Assert.assertEquals(3, stats.getMisses());
+        Assert.assertEquals(6, stats.getLookups());
+    }
+
+    @Test
+    public void timesLookupsOnlyWhenAsked() {
+        final Mapper mapper = new Mapper();
+        final Key<String> key = new Key<String>(String.class, "strings", 1);
+        final EntityCache untimed = mapper.createEntityCache();
+        untimed.getEntity(key);
+        Assert.assertEquals(1, untimed.stats().getMisses());
+        Assert.assertEquals(0, untimed.stats().getLookups());
+
+        mapper.getOptions().setTimeCacheLookups(true);
+        final EntityCache timed = mapper.createEntityCache();
+        timed.getEntity(key);
+        untimed.getEntity(key);
+        Assert.assertEquals(1, timed.stats().getLookups());
+        Assert.assertEquals(0, untimed.stats().getLookups());
+        Assert.assertEquals(1, mapper.getCacheStatistics().getLookups());
+
+        final DefaultEntityCache standalone = new DefaultEntityCache();
+        standalone.getEntity(key);
+        Assert.assertEquals(0, standalone.stats().getLookups());
+    }
+
+    @Test
+    public void countsConcurrentUpdates() throws InterruptedException {
+        final EntityCacheStatistics aggregate = EntityCacheStatistics.newConcurrentStatistics();
+        final int threads = 8;
+        final int updates = 10000;
+        final List<Thread> workers = new ArrayList<Thread>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    final EntityCacheStatistics stats = new EntityCacheStatistics(aggregate);
+                    for (int j = 0; j < updates; j++) {
+                        stats.incHits();
+                        aggregate.incMisses();
+                        stats.addLookupTime(2);
+                    }
+                }
+            }));
+        }
+        for (final Thread worker : workers) {
+            worker.start();
+        }
+        for (final Thread worker : workers) {
+            worker.join();
+        }
+
+        Assert.assertEquals(threads * updates, aggregate.getHits());
+        Assert.assertEquals(threads * updates, aggregate.getMisses());
+        Assert.assertEquals(threads * updates, aggregate.getLookups());
+        Assert.assertEquals(threads * updates * 2, aggregate.getLookupTime(TimeUnit.NANOSECONDS));
+        Assert.assertEquals(threads * updates, aggregate.copy().getHits());
+    }
+}
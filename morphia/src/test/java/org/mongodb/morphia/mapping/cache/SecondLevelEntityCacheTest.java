@@ -0,0 +1,172 @@
+package org.mongodb.morphia.mapping.cache;
+
+
+import com.mongodb.BasicDBObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mongodb.morphia.Key;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.MapperOptions;
+
+import java.util.concurrent.TimeUnit;
+
+public class SecondLevelEntityCacheTest {
+    @Test
+    public void sharesLoadedEntitiesBetweenQueries() {
+        final SecondLevelEntityCacheFactory factory = new SecondLevelEntityCacheFactory(100, 0, TimeUnit.SECONDS).cache(City.class);
+        final Mapper mapper = newMapper(factory);
+
+        final City loaded = mapper.fromDBObject(null, City.class, new BasicDBObject("_id", 1).append("name", "Paris"),
+                                                mapper.createEntityCache());
+        Assert.assertEquals(1, factory.size());
+
+        final EntityCache cache = mapper.createEntityCache();
+        final Key<City> key = new Key<City>(City.class, "City", 1);
+        Assert.assertSame(loaded, cache.getEntity(key));
+        Assert.assertTrue(cache.exists(key));
+        Assert.assertSame(loaded, mapper.fromDBObject(null, City.class, new BasicDBObject("_id", 1).append("name", "Paris"), cache));
+        Assert.assertEquals(1, factory.getStatistics().getHits());
+
+        mapper.fromDBObject(null, Street.class, new BasicDBObject("_id", 1).append("name", "Main"), mapper.createEntityCache());
+        Assert.assertEquals(1, factory.size());
+    }
+
+    @Test
+    public void onlySharesFullyLoadedEntities() {
+        final SecondLevelEntityCacheFactory factory = new SecondLevelEntityCacheFactory(100, 0, TimeUnit.SECONDS).cache(City.class);
+        final EntityCache cache = factory.createCache();
+        final Key<City> key = new Key<City>(City.class, "City", 1);
+        final City city = new City();
+
+        cache.putEntity(key, city);
+        Assert.assertEquals(0, factory.size());
+        Assert.assertSame(city, cache.getEntity(key));
+
+        cache.putEntity(key, city);
+        Assert.assertEquals(1, factory.size());
+    }
+
+    @Test
+    public void neverSharesPartiallyLoadedEntities() {
+        final SecondLevelEntityCacheFactory factory = new SecondLevelEntityCacheFactory(100, 0, TimeUnit.SECONDS).cache(City.class);
+        final Mapper mapper = newMapper(factory);
+        final City shared = mapper.fromDBObject(null, City.class, new BasicDBObject("_id", 1).append("name", "Paris"),
+                                                mapper.createEntityCache());
+
+        final City partial = mapper.fromDBObject(null, City.class, new BasicDBObject("_id", 1), mapper.createPartialEntityCache());
+        Assert.assertNotSame(shared, partial);
+        Assert.assertNull(partial.name);
+        Assert.assertEquals("Paris", shared.name);
+        Assert.assertSame(shared, mapper.createEntityCache().getEntity(new Key<City>(City.class, "City", 1)));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final SecondLevelEntityCacheFactory factory = new SecondLevelEntityCacheFactory(1, 0, TimeUnit.SECONDS).cache(City.class);
+        final Key<City> first = new Key<City>(City.class, "City", 1);
+        final Key<City> second = new Key<City>(City.class, "City", 2);
+
+        put(factory, first, new City());
+        put(factory, second, new City());
+
+        Assert.assertEquals(1, factory.size());
+        Assert.assertNull(factory.createCache().getEntity(first));
+        Assert.assertNotNull(factory.createCache().getEntity(second));
+        Assert.assertEquals(1, factory.getStatistics().getEvictions());
+    }
+
+    @Test
+    public void expiresEntities() throws InterruptedException {
+        final SecondLevelEntityCacheFactory factory = new SecondLevelEntityCacheFactory(10, 1, TimeUnit.MILLISECONDS).cache(City.class);
+        final Key<City> key = new Key<City>(City.class, "City", 1);
+
+        put(factory, key, new City());
+        Thread.sleep(10);
+
+        Assert.assertNull(factory.createCache().getEntity(key));
+        Assert.assertEquals(0, factory.size());
+        Assert.assertEquals(1, factory.getStatistics().getEvictions());
+    }
+
+    @Test
+    public void invalidates() {
+        final SecondLevelEntityCacheFactory factory = new SecondLevelEntityCacheFactory(10, 0, TimeUnit.SECONDS).cache(City.class);
+        put(factory.createCache("db", new EntityCacheStatistics()), new Key<City>(City.class, "City", 1), new City());
+        put(factory.createCache("db", new EntityCacheStatistics()), new Key<City>(City.class, "City", 2), new City());
+        put(factory.createCache("db", new EntityCacheStatistics()), new Key<City>(City.class, "OtherCity", 1), new City());
+        put(factory.createCache("other", new EntityCacheStatistics()), new Key<City>(City.class, "City", 1), new City());
+
+        factory.invalidate("db", "City", 1);
+        Assert.assertNull(factory.createCache("db", new EntityCacheStatistics()).getEntity(new Key<City>(City.class, "City", 1)));
+        Assert.assertEquals(3, factory.size());
+
+        factory.invalidate("db", "City");
+        Assert.assertEquals(2, factory.size());
+        Assert.assertNotNull(factory.createCache("other", new EntityCacheStatistics()).getEntity(new Key<City>(City.class, "City", 1)));
+
+        factory.clear();
+        Assert.assertEquals(0, factory.size());
+    }
+
+    @Test
+    public void keepsDatabasesApart() {
+        final SecondLevelEntityCacheFactory factory = new SecondLevelEntityCacheFactory(10, 0, TimeUnit.SECONDS).cache(City.class);
+        final Mapper mapper = newMapper(factory);
+        final City first = mapper.fromDBObject(null, City.class, new BasicDBObject("_id", 1).append("name", "Paris"),
+                                               mapper.createEntityCache("first"));
+        final City second = mapper.fromDBObject(null, City.class, new BasicDBObject("_id", 1).append("name", "Lyon"),
+                                                mapper.createEntityCache("second"));
+
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals("Lyon", second.name);
+        final Key<City> key = new Key<City>(City.class, "City", 1);
+        Assert.assertSame(first, mapper.createEntityCache("first").getEntity(key));
+        Assert.assertSame(second, mapper.createEntityCache("second").getEntity(key));
+        Assert.assertNull(mapper.createEntityCache().getEntity(key));
+    }
+
+    @Test
+    public void onlyCachesChosenClasses() {
+        final SecondLevelEntityCacheFactory factory = new SecondLevelEntityCacheFactory(10, 0, TimeUnit.SECONDS).cache(City.class);
+        Assert.assertTrue(factory.isCached(City.class));
+        Assert.assertTrue(factory.isCached(Capital.class));
+        Assert.assertFalse(factory.isCached(Street.class));
+
+        put(factory, new Key<Street>(Street.class, "Street", 1), new Street());
+        Assert.assertEquals(0, factory.size());
+    }
+
+    private static <T> void put(final SecondLevelEntityCacheFactory factory, final Key<T> key, final T entity) {
+        put(factory.createCache(), key, entity);
+    }
+
+    private static <T> void put(final EntityCache cache, final Key<T> key, final T entity) {
+        cache.putEntity(key, entity);
+        cache.putEntity(key, entity);
+    }
+
+    private static Mapper newMapper(final EntityCacheFactory factory) {
+        final MapperOptions options = new MapperOptions();
+        options.setCacheFactory(factory);
+        return new Mapper(options);
+    }
+
+    @Entity
+    private static class City {
+        @Id
+        private Integer id;
+        private String name;
+    }
+
+    private static class Capital extends City {
+    }
+
+    @Entity
+    private static class Street {
+        @Id
+        private Integer id;
+        private String name;
+    }
+}
@@ -0,0 +1,114 @@
+package org.mongodb.morphia.query;
+
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.FieldGroup;
+import org.mongodb.morphia.annotations.FieldGroups;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.Version;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.MappingException;
+
+
+public class FieldGroupsTest extends TestBase {
+
+    @Test
+    public void testLoadedFields() {
+        final Mapper mapper = new Mapper();
+        final Article article = new Article();
+        Assert.assertFalse(mapper.isPartial(article));
+        Assert.assertTrue(mapper.isLoaded(article, "body"));
+
+        mapper.setLoadedFields(article, new BasicDBObject("title", 1).append("className", 1).append("comments.author", 1));
+        Assert.assertTrue(mapper.isPartial(article));
+        Assert.assertTrue(mapper.isLoaded(article, "_id"));
+        Assert.assertTrue(mapper.isLoaded(article, "title"));
+        Assert.assertFalse(mapper.isLoaded(article, "body"));
+        Assert.assertFalse(mapper.isLoaded(article, "comments"));
+
+        mapper.setLoadedFields(article, new BasicDBObject("body", 0).append("comments.text", 0));
+        Assert.assertTrue(mapper.isLoaded(article, "_id"));
+        Assert.assertTrue(mapper.isLoaded(article, "title"));
+        Assert.assertFalse(mapper.isLoaded(article, "body"));
+        Assert.assertFalse(mapper.isLoaded(article, "comments"));
+
+        mapper.setLoadedFields(article, null);
+        Assert.assertFalse(mapper.isPartial(article));
+
+        mapper.setLoadedFields(article, new BasicDBObject("_id", 1).append("version", 1).append("title", 1).append("author", 1)
+                                                                    .append("body", 1));
+        Assert.assertFalse("Every persisted field was loaded", mapper.isPartial(article));
+    }
+
+    @Test
+    public void testFieldGroup() {
+        final DBObject fields = getDs().createQuery(Article.class).retrieveFieldGroup("summary").getFieldsObject();
+        Assert.assertEquals(new BasicDBObject("title", 1).append("author", 1).append("className", 1), fields);
+
+        try {
+            getDs().createQuery(Article.class).retrieveFieldGroup("full");
+            Assert.fail("An undeclared group should be refused");
+        } catch (ValidationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPartialEntitiesAreNotSavedWhole() {
+        final Article article = new Article();
+        article.title = "Field groups";
+        article.author = "someone";
+        article.body = "A long body";
+        getDs().save(article);
+
+        final Article summary = getDs().createQuery(Article.class).retrieveFieldGroup("summary").get();
+        Assert.assertNull(summary.body);
+        summary.title = "Partial entities";
+        try {
+            getDs().save(summary);
+            Assert.fail("A partial entity should not be saved whole");
+        } catch (MappingException e) {
+            // expected
+        }
+
+        getDs().merge(summary);
+        final Article loaded = getDs().get(Article.class, article.id);
+        Assert.assertEquals("Partial entities", loaded.title);
+        Assert.assertEquals("A long body", loaded.body);
+        Assert.assertEquals(2L, loaded.version.longValue());
+    }
+
+    @Test
+    public void testKnownFieldsAreSavedWhole() {
+        final Article article = new Article();
+        article.title = "Known fields";
+        article.body = "A long body";
+        getDs().save(article);
+
+        final Article known = getDs().createQuery(Article.class).retrieveKnownFields().get();
+        Assert.assertFalse(getMorphia().getMapper().isPartial(known));
+        known.title = "Saved whole";
+        getDs().save(known);
+        final Article loaded = getDs().get(Article.class, article.id);
+        Assert.assertEquals("Saved whole", loaded.title);
+        Assert.assertEquals("A long body", loaded.body);
+    }
+
+    @Entity
+    @FieldGroups(@FieldGroup(name = "summary", fields = {"title", "author"}))
+    private static class Article {
+        @Id
+        private ObjectId id;
+        @Version
+        private Long version;
+        private String title;
+        private String author;
+        private String body;
+    }
+}
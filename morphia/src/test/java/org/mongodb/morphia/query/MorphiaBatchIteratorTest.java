@@ -0,0 +1,90 @@
+package org.mongodb.morphia.query;
+
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.mapping.Mapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+public class MorphiaBatchIteratorTest extends TestBase {
+
+    @Test
+    public void testBatches() {
+        final Mapper mapper = new Mapper();
+        final MorphiaBatchIterator<Item> batches = new MorphiaBatchIterator<Item>(null, documents(100).iterator(), mapper, Item.class,
+                                                                                  mapper.createEntityCache(), null, 30);
+        final List<Integer> sizes = new ArrayList<Integer>();
+        int value = 0;
+        for (final List<Item> batch : batches) {
+            sizes.add(batch.size());
+            for (final Item item : batch) {
+                Assert.assertEquals(value++, item.value);
+            }
+        }
+        Assert.assertEquals(Arrays.asList(30, 30, 30, 10), sizes);
+        Assert.assertTrue(batches.nextBatch().isEmpty());
+    }
+
+    @Test
+    public void testSharedBetweenThreads() throws InterruptedException {
+        final Mapper mapper = new Mapper();
+        final MorphiaBatchIterator<Item> batches = new MorphiaBatchIterator<Item>(null, documents(1000).iterator(), mapper, Item.class,
+                                                                                  mapper.createEntityCache(), null, 25);
+        final Set<Integer> values = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    List<Item> batch = batches.nextBatch();
+                    while (!batch.isEmpty()) {
+                        for (final Item item : batch) {
+                            values.add(item.value);
+                        }
+                        batch = batches.nextBatch();
+                    }
+                }
+            }));
+        }
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(1000, values.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchSizeMustBePositive() {
+        getDs().createQuery(Item.class).fetchInBatches(0);
+    }
+
+    private List<DBObject> documents(final int count) {
+        final List<DBObject> documents = new ArrayList<DBObject>();
+        for (int i = 0; i < count; i++) {
+            documents.add(new BasicDBObject("_id", new ObjectId()).append("value", i));
+        }
+        return documents;
+    }
+
+    @Entity(noClassnameStored = true)
+    private static class Item {
+        @Id
+        private ObjectId id;
+        private int value;
+    }
+}
@@ -0,0 +1,92 @@
+package org.mongodb.morphia.query;
+
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mongodb.morphia.DatastoreImpl;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.Reference;
+import org.mongodb.morphia.mapping.Mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class ParallelEntityMapperTest extends TestBase {
+
+    @Test
+    public void testKeepsOrder() {
+        final Mapper mapper = new Mapper();
+        final List<DBObject> documents = new ArrayList<DBObject>();
+        for (int i = 0; i < 5000; i++) {
+            documents.add(new BasicDBObject("_id", new ObjectId()).append("value", i));
+        }
+
+        final ParallelEntityMapper<Item> parallel = new ParallelEntityMapper<Item>(null, mapper, Item.class, null,
+                                                                                   mapper.createEntityCache(), null,
+                                                                                   ((DatastoreImpl) getDs()).getMappingExecutor(), 4);
+        final List<Item> items = parallel.map(documents.iterator());
+        Assert.assertEquals(documents.size(), items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Assert.assertEquals(documents.get(i).get("_id"), items.get(i).id);
+            Assert.assertEquals(i, items.get(i).value);
+        }
+    }
+
+    @Test
+    public void testPartialEntities() {
+        final Mapper mapper = new Mapper();
+        final List<DBObject> documents = new ArrayList<DBObject>();
+        for (int i = 0; i < 10; i++) {
+            documents.add(new BasicDBObject("_id", new ObjectId()));
+        }
+        final List<Item> items = new ParallelEntityMapper<Item>(null, mapper, Item.class, null, mapper.createEntityCache(),
+                                                                new BasicDBObject("_id", 1), ((DatastoreImpl) getDs()).getMappingExecutor(),
+                                                                4).map(documents.iterator());
+        Assert.assertTrue(mapper.isPartial(items.get(9)));
+    }
+
+    @Test
+    public void testSharedReferences() {
+        final Item shared = new Item();
+        getDs().save(shared);
+        final List<Holder> holders = new ArrayList<Holder>();
+        for (int i = 0; i < 1000; i++) {
+            final Holder holder = new Holder();
+            holder.item = shared;
+            holders.add(holder);
+        }
+        getDs().save(holders);
+
+        final List<Holder> loaded = getDs().createQuery(Holder.class).parallelMapping(4).asList();
+        Assert.assertEquals(1000, loaded.size());
+        for (final Holder holder : loaded) {
+            Assert.assertSame(loaded.get(0).item, holder.item);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThreadsMustBePositive() {
+        getDs().createQuery(Item.class).parallelMapping(0);
+    }
+
+    @Entity(noClassnameStored = true)
+    private static class Item {
+        @Id
+        private ObjectId id;
+        private int value;
+    }
+
+    @Entity(noClassnameStored = true)
+    private static class Holder {
+        @Id
+        private ObjectId id;
+        @Reference
+        private Item item;
+    }
+}
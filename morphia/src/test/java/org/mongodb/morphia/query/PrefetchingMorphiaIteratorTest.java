@@ -0,0 +1,120 @@
+package org.mongodb.morphia.query;
+
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.MappingException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+
+public class PrefetchingMorphiaIteratorTest extends TestBase {
+
+    @Test
+    public void testReadsAhead() {
+        final Mapper mapper = new Mapper();
+        final List<DBObject> documents = documents(100);
+        final PrefetchingMorphiaIterator<Item> iterator = new PrefetchingMorphiaIterator<Item>(null, documents.iterator(), mapper,
+                                                                                               Item.class, "items",
+                                                                                               mapper.createEntityCache(), null, 4);
+        int count = 0;
+        for (final Item item : iterator) {
+            Assert.assertEquals(count++, item.value);
+        }
+        Assert.assertEquals(100, count);
+        Assert.assertFalse(iterator.hasNext());
+        iterator.close();
+    }
+
+    @Test
+    public void testFailuresReachTheCaller() {
+        final Mapper mapper = new Mapper();
+        final Iterator<DBObject> documents = documents(10).iterator();
+        final Iterator<DBObject> failing = new Iterator<DBObject>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public DBObject next() {
+                if (read++ == 5) {
+                    throw new IllegalStateException("cursor failed");
+                }
+                return documents.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        final PrefetchingMorphiaIterator<Item> iterator = new PrefetchingMorphiaIterator<Item>(null, failing, mapper, Item.class, "items",
+                                                                                               mapper.createEntityCache(), null, 2);
+        int count = 0;
+        try {
+            while (iterator.hasNext()) {
+                iterator.next();
+                count++;
+            }
+            Assert.fail("The failure should have been thrown");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("cursor failed", e.getMessage());
+        }
+        Assert.assertEquals(5, count);
+    }
+
+    @Test
+    public void testClose() throws InterruptedException {
+        final Mapper mapper = new Mapper();
+        final PrefetchingMorphiaIterator<Item> iterator = new PrefetchingMorphiaIterator<Item>(null, documents(1000).iterator(), mapper,
+                                                                                               Item.class, "items",
+                                                                                               mapper.createEntityCache(), null, 1);
+        Assert.assertEquals(0, iterator.next().value);
+        iterator.close();
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testStopsWhenIdle() throws InterruptedException {
+        final Mapper mapper = new Mapper();
+        final PrefetchingMorphiaIterator<Item> iterator = new PrefetchingMorphiaIterator<Item>(null, documents(1000).iterator(), mapper,
+                                                                                               Item.class, "items",
+                                                                                               mapper.createEntityCache(), null, 1, 50);
+        Thread.sleep(500);
+        Assert.assertEquals("Entities read ahead should still be returned", 0, iterator.next().value);
+        try {
+            iterator.hasNext();
+            Assert.fail("The worker should have stopped");
+        } catch (MappingException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("50ms"));
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    private List<DBObject> documents(final int count) {
+        final List<DBObject> documents = new ArrayList<DBObject>();
+        for (int i = 0; i < count; i++) {
+            documents.add(new BasicDBObject("_id", new ObjectId()).append("value", i));
+        }
+        return documents;
+    }
+
+    @Entity(noClassnameStored = true)
+    private static class Item {
+        @Id
+        private ObjectId id;
+        private int value;
+    }
+}
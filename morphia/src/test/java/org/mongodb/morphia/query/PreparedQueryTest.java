@@ -0,0 +1,116 @@
+package org.mongodb.morphia.query;
+
+
+import com.mongodb.BasicDBObject;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.Property;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.mongodb.morphia.query.Parameter.param;
+
+
+public class PreparedQueryTest extends TestBase {
+
+    @Test
+    public void testBinding() {
+        final PreparedQuery<Person> prepared = getDs().createQuery(Person.class)
+                                                      .filter("name", param("name"))
+                                                      .filter("age >=", param("age"))
+                                                      .filter("active", true)
+                                                      .prepare();
+        Assert.assertEquals(asList("name", "age"), asList(prepared.getParameterNames().toArray()));
+
+        final Map<String, Object> values = new HashMap<String, Object>();
+        values.put("name", "Bob");
+        values.put("age", 21);
+        Assert.assertEquals(new BasicDBObject("n", "Bob").append("age", new BasicDBObject("$gte", 21)).append("active", true),
+                            prepared.bind(values).getQueryObject());
+
+        values.put("age", 30);
+        Assert.assertEquals(new BasicDBObject("$gte", 30), prepared.bind(values).getQueryObject().get("age"));
+    }
+
+    @Test
+    public void testListParameters() {
+        final PreparedQuery<Person> prepared = getDs().createQuery(Person.class).filter("name in", param("names")).prepare();
+        Assert.assertEquals(new BasicDBObject("n", new BasicDBObject("$in", asList("Alice", "Bob"))),
+                            prepared.bind("names", asList("Alice", "Bob")).getQueryObject());
+        Assert.assertEquals(new BasicDBObject("n", new BasicDBObject("$in", asList("Carol"))),
+                            prepared.bind("names", "Carol").getQueryObject());
+    }
+
+    @Test
+    public void testFingerprint() {
+        final PreparedQuery<Person> first = getDs().createQuery(Person.class).filter("age >", param("age")).order("name").prepare();
+        final PreparedQuery<Person> second = getDs().createQuery(Person.class).filter("age >", param("age")).order("name").prepare();
+        final PreparedQuery<Person> other = getDs().createQuery(Person.class).filter("age <", param("age")).order("name").prepare();
+        Assert.assertEquals(first.getFingerprint(), second.getFingerprint());
+        Assert.assertNotEquals(first.getFingerprint(), other.getFingerprint());
+        Assert.assertEquals(32, first.getFingerprint().length());
+    }
+
+    @Test
+    public void testMissingAndUnknownParameters() {
+        final PreparedQuery<Person> prepared = getDs().createQuery(Person.class).filter("name", param("name"))
+                                                      .filter("age", param("age")).prepare();
+        try {
+            prepared.bind("name", "Bob");
+            Assert.fail("A missing parameter should be refused");
+        } catch (QueryException e) {
+            // expected
+        }
+        try {
+            prepared.bind("nmae", "Bob");
+            Assert.fail("An unknown parameter should be refused");
+        } catch (QueryException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testUnpreparedParameters() {
+        final Query<Person> query = getDs().createQuery(Person.class).filter("age >", param("age"));
+        Assert.assertTrue(query.toString(), query.toString().contains("\"$param\" : \"age\""));
+        try {
+            query.getQueryObject();
+            Assert.fail("A query with unbound parameters should be refused");
+        } catch (QueryException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("'age'"));
+        }
+        Assert.assertEquals(new BasicDBObject("age", new BasicDBObject("$gt", 5)), query.prepare().bind("age", 5).getQueryObject());
+    }
+
+    @Test
+    public void testPreparedQueriesRun() {
+        for (int age = 10; age < 50; age += 10) {
+            final Person person = new Person();
+            person.name = "person " + age;
+            person.age = age;
+            getDs().save(person);
+        }
+        final PreparedQuery<Person> olderThan = getDs().createQuery(Person.class).filter("age >", param("age")).order("age").prepare();
+        final List<Person> people = olderThan.bind("age", 25).asList();
+        Assert.assertEquals(2, people.size());
+        Assert.assertEquals(30, people.get(0).age);
+        Assert.assertEquals(1, olderThan.bind("age", 35).countAll());
+    }
+
+    @Entity
+    private static class Person {
+        @Id
+        private ObjectId id;
+        @Property("n")
+        private String name;
+        private int age;
+        private boolean active;
+    }
+}
@@ -0,0 +1,109 @@
+package org.mongodb.morphia.query;
+
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.DefaultDBDecoder;
+import org.bson.BasicBSONEncoder;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.mapping.Mapper;
+import org.mongodb.morphia.mapping.cache.EntityCache;
+import org.mongodb.morphia.mapping.cache.EntityCacheStatistics;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+public class QueryMetricsTest {
+
+    @Test
+    public void testMetricsArePublishedOnce() {
+        final Mapper mapper = new Mapper();
+        final List<QueryMetrics> published = new ArrayList<QueryMetrics>();
+        mapper.addQueryMetricsListener(new QueryMetricsListener() {
+            @Override
+            public void queryCompleted(final QueryMetrics metrics) {
+                published.add(metrics);
+            }
+        });
+        final EntityCache cache = mapper.createEntityCache();
+        final EntityCacheStatistics before = cache.stats();
+
+        final MorphiaIterator<Item, Item> it = new MorphiaIterator<Item, Item>(null, documents(25).iterator(), mapper, Item.class,
+                                                                               "items", cache);
+        int count = 0;
+        for (final Item ignored : it) {
+            count++;
+        }
+        it.close();
+
+        Assert.assertEquals(25, count);
+        Assert.assertEquals(1, published.size());
+        final QueryMetrics metrics = published.get(0);
+        final EntityCacheStatistics after = cache.stats();
+        Assert.assertEquals("items", metrics.getCollection());
+        Assert.assertEquals(Item.class, metrics.getEntityClass());
+        Assert.assertEquals(25, metrics.getDocuments());
+        Assert.assertEquals(after.getHits() - before.getHits(), metrics.getCacheHits());
+        Assert.assertEquals(after.getMisses() - before.getMisses(), metrics.getCacheMisses());
+        Assert.assertEquals(it.getMapperTime(), metrics.getMapperTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testFailingListenersAreIgnored() {
+        final Mapper mapper = new Mapper();
+        mapper.addQueryMetricsListener(new QueryMetricsListener() {
+            @Override
+            public void queryCompleted(final QueryMetrics metrics) {
+                throw new IllegalStateException("broken listener");
+            }
+        });
+        final List<Long> documents = new ArrayList<Long>();
+        mapper.addQueryMetricsListener(new QueryMetricsListener() {
+            @Override
+            public void queryCompleted(final QueryMetrics metrics) {
+                documents.add(metrics.getDocuments());
+            }
+        });
+
+        final MorphiaBatchIterator<Item> batches = new MorphiaBatchIterator<Item>(null, documents(30).iterator(), mapper, Item.class,
+                                                                                  mapper.createEntityCache(), null, 20);
+        Assert.assertEquals(20, batches.nextBatch().size());
+        Assert.assertEquals(10, batches.nextBatch().size());
+        Assert.assertEquals(1, documents.size());
+        Assert.assertEquals(30L, documents.get(0).longValue());
+    }
+
+    @Test
+    public void testDecodedBytesAreCounted() throws Exception {
+        final CountingDecoderFactory factory = new CountingDecoderFactory(DefaultDBDecoder.FACTORY);
+        final byte[] bytes = new BasicBSONEncoder().encode(new BasicDBObject("_id", new ObjectId()).append("value", 1));
+
+        final DBObject decoded = factory.create().decode(bytes, (DBCollection) null);
+        Assert.assertEquals(1, decoded.get("value"));
+        factory.create().decode(new ByteArrayInputStream(bytes), (DBCollection) null);
+        Assert.assertEquals(2L * bytes.length, factory.getBytes());
+    }
+
+    private List<DBObject> documents(final int count) {
+        final List<DBObject> documents = new ArrayList<DBObject>();
+        for (int i = 0; i < count; i++) {
+            documents.add(new BasicDBObject("_id", new ObjectId()).append("value", i));
+        }
+        return documents;
+    }
+
+    @Entity(noClassnameStored = true)
+    private static class Item {
+        @Id
+        private ObjectId id;
+        private int value;
+    }
+}
@@ -0,0 +1,166 @@
+package org.mongodb.morphia.query;
+
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mongodb.morphia.DatastoreImpl;
+import org.mongodb.morphia.TestBase;
+import org.mongodb.morphia.annotations.CachedQueries;
+import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.mapping.Mapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+
+
+public class QueryResultCacheTest extends TestBase {
+
+    @Test
+    public void testNormalize() {
+        final DBObject first = new BasicDBObject("b", new BasicDBObject("$lt", 5).append("$gt", 1)).append("a", "x");
+        final DBObject second = new BasicDBObject("a", "x").append("b", new BasicDBObject("$gt", 1).append("$lt", 5));
+        Assert.assertEquals(QueryResultCache.normalize(first).toString(), QueryResultCache.normalize(second).toString());
+
+        final DBObject cityFirst = new BasicDBObject("address", new BasicDBObject("city", "Oslo").append("zip", "0150"));
+        final DBObject zipFirst = new BasicDBObject("address", new BasicDBObject("zip", "0150").append("city", "Oslo"));
+        Assert.assertNotEquals(QueryResultCache.normalize(cityFirst).toString(), QueryResultCache.normalize(zipFirst).toString());
+    }
+
+    @Test
+    public void testInvalidation() {
+        final QueryResultCache cache = new QueryResultCache(10);
+        final long ttl = TimeUnit.MINUTES.toNanos(1);
+        cache.put("countries", "all", asList("NO", "SE"), cache.getGeneration("countries"), ttl);
+        cache.put("currencies", "all", asList("NOK"), cache.getGeneration("currencies"), ttl);
+        Assert.assertEquals(asList("NO", "SE"), cache.get("countries", "all"));
+
+        final long generation = cache.getGeneration("countries");
+        cache.invalidate("countries");
+        Assert.assertNull(cache.get("countries", "all"));
+        Assert.assertEquals(asList("NOK"), cache.get("currencies", "all"));
+
+        cache.put("countries", "all", asList("NO"), generation, ttl);
+        Assert.assertNull("Results read before a write should not be cached", cache.get("countries", "all"));
+        Assert.assertEquals(2, cache.getStatistics().getHits());
+        Assert.assertEquals(2, cache.getStatistics().getMisses());
+    }
+
+    @Test
+    public void testClear() {
+        final QueryResultCache cache = new QueryResultCache(10);
+        final long ttl = TimeUnit.MINUTES.toNanos(1);
+        final long generation = cache.getGeneration("countries");
+        cache.invalidate("countries");
+        cache.put("currencies", "all", asList("NOK"), cache.getGeneration("currencies"), ttl);
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        cache.put("countries", "all", asList("NO"), generation, ttl);
+        Assert.assertNull("Results read before a write should not be cached after a clear", cache.get("countries", "all"));
+        cache.put("countries", "all", asList("NO"), cache.getGeneration("countries"), ttl);
+        Assert.assertEquals(asList("NO"), cache.get("countries", "all"));
+    }
+
+    @Test
+    public void testExpiryAndEviction() {
+        final QueryResultCache cache = new QueryResultCache(2);
+        cache.put("countries", "expired", 1L, 0, 0);
+        Assert.assertNull(cache.get("countries", "expired"));
+
+        final long ttl = TimeUnit.MINUTES.toNanos(1);
+        cache.put("countries", "first", 1L, 0, ttl);
+        cache.put("countries", "second", 2L, 0, ttl);
+        Assert.assertEquals(1L, cache.get("countries", "first"));
+        cache.put("countries", "third", 3L, 0, ttl);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.get("countries", "second"));
+        Assert.assertEquals(2, cache.getStatistics().getEvictions());
+    }
+
+    @Test
+    public void testPolicies() {
+        final Mapper mapper = new Mapper();
+        Assert.assertNull(mapper.getQueryCachePolicy(Currency.class));
+        Assert.assertEquals(30, mapper.getQueryCachePolicy(Country.class).getTtl(TimeUnit.SECONDS));
+        Assert.assertTrue(mapper.getQueryCachePolicy(Country.class).isKeysOnly());
+
+        mapper.getOptions().setQueryCachePolicy(Object.class, new QueryCachePolicy(5, TimeUnit.MINUTES, false));
+        Assert.assertEquals(5, mapper.getQueryCachePolicy(Currency.class).getTtl(TimeUnit.MINUTES));
+        Assert.assertFalse(mapper.getQueryCachePolicy(Country.class).isKeysOnly());
+        mapper.getOptions().setQueryCachePolicy(Object.class, null);
+        Assert.assertNull(mapper.getQueryCachePolicy(Currency.class));
+    }
+
+    @Test
+    public void testCachedResults() {
+        getDs().save(new Currency("NOK"), new Currency("SEK"));
+        getMorphia().getMapper().getOptions().setQueryCachePolicy(Currency.class, new QueryCachePolicy(1, TimeUnit.MINUTES, false));
+        try {
+            final QueryResultCache cache = ((DatastoreImpl) getDs()).getQueryCache();
+            Assert.assertEquals(2, getDs().createQuery(Currency.class).order("code").asList().size());
+            Assert.assertEquals(2, getDs().createQuery(Currency.class).countAll());
+            Assert.assertEquals(2, cache.size());
+
+            getDs().getCollection(Currency.class).insert(new BasicDBObject("code", "DKK"));
+            final List<Currency> cached = getDs().createQuery(Currency.class).order("code").asList();
+            Assert.assertEquals(asList("NOK", "SEK"), asList(cached.get(0).code, cached.get(1).code));
+            Assert.assertEquals(2, getDs().createQuery(Currency.class).countAll());
+            Assert.assertEquals(2, cache.getStatistics().getHits());
+
+            getDs().save(new Currency("EUR"));
+            Assert.assertEquals(0, cache.size());
+            Assert.assertEquals("DKK", getDs().createQuery(Currency.class).order("code").get().code);
+            Assert.assertEquals(4, getDs().createQuery(Currency.class).countAll());
+        } finally {
+            getMorphia().getMapper().getOptions().setQueryCachePolicy(Currency.class, null);
+        }
+    }
+
+    @Test
+    public void testCachedKeys() {
+        final Country norway = new Country("Norway");
+        getDs().save(norway, new Country("Sweden"));
+        final QueryResultCache cache = ((DatastoreImpl) getDs()).getQueryCache();
+        Assert.assertEquals("Norway", getDs().createQuery(Country.class).order("name").get().name);
+
+        getDs().getCollection(Country.class).update(new BasicDBObject("_id", norway.id),
+                                                    new BasicDBObject("$set", new BasicDBObject("name", "Norge")));
+        Assert.assertEquals("Keys are cached, not documents", "Norge", getDs().createQuery(Country.class).order("name").get().name);
+        Assert.assertEquals(1, cache.getStatistics().getHits());
+    }
+
+    @Entity
+    @CachedQueries(ttl = 30, keysOnly = true)
+    private static class Country {
+        @Id
+        private ObjectId id;
+        private String name;
+
+        Country() {
+        }
+
+        Country(final String name) {
+            this.name = name;
+        }
+    }
+
+    @Entity
+    private static class Currency {
+        @Id
+        private ObjectId id;
+        private String code;
+
+        Currency() {
+        }
+
+        Currency(final String code) {
+            this.code = code;
+        }
+    }
+}
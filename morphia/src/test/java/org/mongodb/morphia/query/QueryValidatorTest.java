@@ -6,6 +6,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.mongodb.morphia.Key;
+import org.mongodb.morphia.annotations.Property;
 import org.mongodb.morphia.annotations.Reference;
 import org.mongodb.morphia.annotations.Serialized;
 import org.mongodb.morphia.entities.EntityWithListsAndArrays;
@@ -489,6 +490,62 @@ public class QueryValidatorTest {
         validateQuery(WithSerializedField.class, new Mapper(), new StringBuilder("serialized.name"), FilterOperator.EQUAL, "", true, true);
     }
 
+    @Test
+    public void shouldCacheValidatedPaths() {
+        // given
+        Mapper mapper = new Mapper();
+        QueryPathCache cache = mapper.getQueryPathCache();
+
+        // when
+        StringBuilder first = new StringBuilder("nested.name");
+        MappedField firstField = validateQuery(WithNested.class, mapper, first, EQUAL, "value", true, true);
+        StringBuilder second = new StringBuilder("nested.name");
+        MappedField secondField = validateQuery(WithNested.class, mapper, second, EQUAL, "value", true, true);
+
+        // then
+        assertThat(first.toString(), is("n.nm"));
+        assertThat(second.toString(), is("n.nm"));
+        assertThat(secondField == firstField, is(true));
+        assertThat(cache.size(), is(1));
+        assertThat(cache.getMisses(), is(1L));
+        assertThat(cache.getHits(), is(1L));
+
+        // when
+        validateQuery(WithNested.class, mapper, new StringBuilder("nested.name"), EQUAL, "value", false, true);
+
+        // then
+        assertThat(cache.size(), is(2));
+        assertThat(cache.getMisses(), is(2L));
+    }
+
+    @Test
+    public void shouldNotCacheInvalidPaths() {
+        Mapper mapper = new Mapper();
+        for (int i = 0; i < 2; i++) {
+            try {
+                validateQuery(WithNested.class, mapper, new StringBuilder("nested.notAField"), EQUAL, "value", true, true);
+            } catch (ValidationException e) {
+                // expected
+            }
+        }
+        assertThat(mapper.getQueryPathCache().size(), is(0));
+        assertThat(mapper.getQueryPathCache().getMisses(), is(2L));
+    }
+
+    @Test
+    public void shouldBoundThePathCache() {
+        Mapper mapper = new Mapper();
+        mapper.getOptions().setQueryPathCacheSize(1);
+        validateQuery(WithNested.class, mapper, new StringBuilder("nested"), EQUAL, null, true, true);
+        validateQuery(WithNested.class, mapper, new StringBuilder("nested.name"), EQUAL, "value", true, true);
+        assertThat(mapper.getQueryPathCache().size(), is(1));
+
+        mapper.getOptions().setQueryPathCacheSize(0);
+        mapper.getQueryPathCache().clear();
+        validateQuery(WithNested.class, mapper, new StringBuilder("nested"), EQUAL, null, true, true);
+        assertThat(mapper.getQueryPathCache().size(), is(0));
+    }
+
     private static class GeoEntity {
         private final int[] array = {1};
     }
@@ -505,6 +562,16 @@ public class QueryValidatorTest {
         private String name;
     }
 
+    private static class WithNested {
+        @Property("n")
+        private Nested nested;
+    }
+
+    private static class Nested {
+        @Property("nm")
+        private String name;
+    }
+
     private static class WithSerializedField {
         @Serialized
         private SerializableClass serialized;